@@ -0,0 +1,76 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.model.entidades.ApuestaGanador;
+import mx.uv.feaa.model.entidades.Resultado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluación de apuestas a ganador contra un {@link Resultado} de 20 participantes:
+ * {@link ApuestaGanador#esGanadora} y {@link ApuestaGanador#calcularDividendo}, que además de la
+ * comparación copia el mapa de selección en cada llamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApuestaBenchmark {
+
+    private static final int PARTICIPANTES = 20;
+
+    @Param({"10000"})
+    public int apuestas;
+
+    private Resultado resultado;
+    private ApuestaGanador[] lote;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42L);
+        resultado = DatosSinteticos.resultado(PARTICIPANTES);
+        lote = new ApuestaGanador[apuestas];
+        for (int i = 0; i < apuestas; i++) {
+            ApuestaGanador apuesta = new ApuestaGanador("APU-" + i, "USR-" + aleatorio.nextInt(1000), "CAR-0",
+                    TipoApuesta.GANADOR, 10 + aleatorio.nextInt(500));
+            apuesta.setSeleccion(Map.of("participante", "P" + (1000 + aleatorio.nextInt(PARTICIPANTES))));
+            apuesta.setCuotaAplicada(1.5 + aleatorio.nextInt(20));
+            lote[i] = apuesta;
+        }
+    }
+
+    @Benchmark
+    public int esGanadora() {
+        int ganadoras = 0;
+        for (ApuestaGanador apuesta : lote) {
+            if (apuesta.esGanadora(resultado)) {
+                ganadoras++;
+            }
+        }
+        return ganadoras;
+    }
+
+    @Benchmark
+    public double calcularDividendo() {
+        double total = 0;
+        for (ApuestaGanador apuesta : lote) {
+            total += apuesta.calcularDividendo(resultado);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,52 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.model.entidades.Caballo;
+import mx.uv.feaa.model.entidades.Criador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Criador#buscarCaballosPorNombre} sobre un criador con 10 000 caballos, con un término
+ * frecuente y con uno que no aparece en ningún nombre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CriadorBenchmark {
+
+    @Param({"10000"})
+    public int caballos;
+
+    private Criador criador;
+
+    @Setup
+    public void preparar() {
+        criador = new Criador();
+        criador.setCaballos(DatosSinteticos.caballos(caballos, 42L));
+    }
+
+    @Benchmark
+    public List<Caballo> buscarFrecuente() {
+        return criador.buscarCaballosPorNombre("ma");
+    }
+
+    @Benchmark
+    public List<Caballo> buscarSinCoincidencias() {
+        return criador.buscarCaballosPorNombre("xq");
+    }
+}
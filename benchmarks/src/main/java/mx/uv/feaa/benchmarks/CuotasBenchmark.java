@@ -0,0 +1,57 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.Participante;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link Carrera#obtenerCuotasActuales()} para una carrera de 20 participantes: la versión por
+ * porcentaje de victorias, que combina las estadísticas de caballo y jinete, y la versión por rating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CuotasBenchmark {
+
+    @Param({"20"})
+    public int participantes;
+
+    @Param({"200"})
+    public int carrerasPrevias;
+
+    private Carrera carrera;
+    private ToDoubleFunction<Participante> rating;
+
+    @Setup
+    public void preparar() {
+        carrera = DatosSinteticos.carrera(participantes, carrerasPrevias, 42L);
+        rating = participante -> 1400 + 10 * participante.getNumeroCompetidor();
+    }
+
+    @Benchmark
+    public Map<String, Double> cuotasPorRendimiento() {
+        return carrera.obtenerCuotasActuales();
+    }
+
+    @Benchmark
+    public Map<String, Double> cuotasPorRating() {
+        return carrera.obtenerCuotasActuales(rating);
+    }
+}
@@ -0,0 +1,110 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.carga.DestinoJdbc;
+import mx.uv.feaa.carga.GeneradorDatos;
+import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.metricas.TrazadorSQL;
+import mx.uv.feaa.model.dao.ApuestaDAO;
+import mx.uv.feaa.model.dao.HistorialCarreraDAO;
+import mx.uv.feaa.model.dao.UsuarioDAO;
+import mx.uv.feaa.model.entidades.ApuestaGanador;
+import mx.uv.feaa.model.entidades.ApuestaSeleccion;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.PoolConexiones;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Operaciones de DAO contra una {@link BaseDatosMemoria} llenada con {@link GeneradorDatos}, sin
+ * servidor MySQL. Mide el costo del lado Java (pool, mapeo de filas, trazas) y permite detectar
+ * regresiones en el número de sentencias; no reemplaza una medición contra MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoMemoriaBenchmark {
+
+    @Param({"0.01"})
+    public double escala;
+
+    private UsuarioDAO usuarioDAO;
+    private ApuestaDAO apuestaDAO;
+    private HistorialCarreraDAO historialDAO;
+    private final AtomicLong secuencia = new AtomicLong();
+    private final SplittableRandom aleatorio = new SplittableRandom(42L);
+    private BaseDatosMemoria base;
+    private PoolConexiones pool;
+    private GeneradorDatos generador;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        // Mismo ajuste que database-memoria.properties: sin trazas, que medirían el registro y no el DAO
+        Properties sinTraza = new Properties();
+        sinTraza.setProperty("jdbc.traza.activa", "false");
+        TrazadorSQL.configurar(sinTraza);
+        base = BaseDatosMemoria.crear();
+        pool = new PoolConexiones(base, 10, 5000);
+        usuarioDAO = new UsuarioDAO(pool);
+        apuestaDAO = new ApuestaDAO(pool);
+        historialDAO = new HistorialCarreraDAO(pool);
+        generador = new GeneradorDatos(42L, escala, 4, LocalDate.of(2026, 1, 1));
+        try (DestinoJdbc destino = new DestinoJdbc(pool)) {
+            generador.generar(destino);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        pool.cerrar();
+        base.close();
+    }
+
+    @Benchmark
+    public boolean validarCredenciales() throws SQLException {
+        return usuarioDAO.validarCredenciales("carga" + (1 + aleatorio.nextInt(generador.getApostadores())),
+                GeneradorDatos.PASSWORD_CARGA);
+    }
+
+    @Benchmark
+    public int historialApostador() throws SQLException {
+        return apuestaDAO.getByApostadorId("USR-A" + (int) (generador.getApostadores()
+                * Math.pow(aleatorio.nextDouble(), 2.5))).size();
+    }
+
+    @Benchmark
+    public int historialCaballo() throws SQLException {
+        return historialDAO.getByCaballoId("CAB-" + aleatorio.nextInt(100) + "-0").size();
+    }
+
+    @Benchmark
+    public boolean apostar() throws SQLException {
+        // Las carreras con apuestas abiertas son las de los últimos días generados
+        int carrera = generador.getTotalCarreras() - 1 - aleatorio.nextInt(3);
+        String id = "BEN-" + secuencia.incrementAndGet();
+        ApuestaGanador apuesta = new ApuestaGanador(id, "USR-A0", "CAR-" + carrera, TipoApuesta.GANADOR, 10);
+        return apuestaDAO.saveWithSelections(apuesta,
+                List.of(new ApuestaSeleccion(id + "-1", id, "PAR-" + carrera + "-0", 1)));
+    }
+}
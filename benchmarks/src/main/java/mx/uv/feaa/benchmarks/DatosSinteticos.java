@@ -0,0 +1,132 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.enumeracion.SexoCaballo;
+import mx.uv.feaa.model.entidades.Caballo;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Jinete;
+import mx.uv.feaa.model.entidades.Participante;
+import mx.uv.feaa.model.entidades.Resultado;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos deterministas para los benchmarks: la misma semilla produce siempre las mismas filas.
+ */
+final class DatosSinteticos {
+    static final LocalDate INICIO = LocalDate.of(2015, 1, 1);
+    static final String[] HIPODROMOS = {"Hipódromo de las Américas", "Hipódromo de Agua Caliente",
+            "Hipódromo de Monterrey", "Hipódromo Principal"};
+    private static final String[] SILABAS = {"al", "ba", "cie", "do", "el", "fa", "go", "ja", "lu", "ma",
+            "no", "ra", "sol", "ta", "ve", "zor"};
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Historial de {@code filas} registros repartidos en carreras de 10 participantes a lo largo de diez años.
+     */
+    static List<HistorialCarrera> historial(int filas, int caballos, int jinetes, long semilla) {
+        Random random = new Random(semilla);
+        List<HistorialCarrera> historial = new ArrayList<>(filas);
+        int carrera = 0;
+        while (historial.size() < filas) {
+            LocalDate fecha = INICIO.plusDays(random.nextInt(3650));
+            String hipodromo = HIPODROMOS[random.nextInt(HIPODROMOS.length)];
+            LocalTime base = LocalTime.of(0, 1, 30).plusNanos(random.nextInt(20_000) * 1_000_000L);
+            for (int posicion = 1; posicion <= 10 && historial.size() < filas; posicion++) {
+                HistorialCarrera fila = new HistorialCarrera(
+                        "CAR-" + carrera,
+                        "CAB-" + random.nextInt(caballos),
+                        "JIN-" + random.nextInt(jinetes),
+                        posicion,
+                        base.plusNanos(posicion * 150_000_000L),
+                        fecha,
+                        hipodromo);
+                fila.setIdHistorial("HIS-" + historial.size());
+                historial.add(fila);
+            }
+            carrera++;
+        }
+        return historial;
+    }
+
+    /**
+     * Nombre de dos a cuatro sílabas, por ejemplo "Ramaluzor".
+     */
+    static String nombre(Random random) {
+        StringBuilder nombre = new StringBuilder();
+        int silabas = 2 + random.nextInt(3);
+        for (int i = 0; i < silabas; i++) {
+            nombre.append(SILABAS[random.nextInt(SILABAS.length)]);
+        }
+        nombre.setCharAt(0, Character.toUpperCase(nombre.charAt(0)));
+        return nombre.toString();
+    }
+
+    static List<Caballo> caballos(int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        List<Caballo> caballos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            caballos.add(new Caballo("CAB-" + i, nombre(random), INICIO.minusDays(365 + random.nextInt(3000)),
+                    SexoCaballo.values()[random.nextInt(SexoCaballo.values().length)],
+                    420 + random.nextInt(120), null, null));
+        }
+        return caballos;
+    }
+
+    static Jinete jinete(String id, Random random) {
+        return new Jinete(id, nombre(random), INICIO.minusYears(18 + random.nextInt(20)),
+                50 + random.nextInt(7), "LIC-" + id, LocalDate.now().plusYears(1));
+    }
+
+    /**
+     * Carrera abierta con {@code participantes} caballos y jinetes, cada uno con
+     * {@code carrerasPrevias} registros de historial.
+     */
+    static Carrera carrera(int participantes, int carrerasPrevias, long semilla) {
+        Random random = new Random(semilla);
+        Carrera carrera = new Carrera("CAR-0", "Clásico", INICIO, LocalTime.NOON, "1600m");
+        List<Caballo> caballos = caballos(participantes, semilla);
+        List<Participante> inscritos = new ArrayList<>(participantes);
+        for (int i = 0; i < participantes; i++) {
+            Jinete jinete = jinete("JIN-" + i, random);
+            Caballo caballo = caballos.get(i);
+            List<HistorialCarrera> previas = historial(carrerasPrevias, random);
+            jinete.setHistorialCarreras(previas);
+            caballo.setHistorialCarreras(previas);
+            inscritos.add(new Participante("PAR-" + i, i + 1, 55, caballo, jinete));
+        }
+        // Sin pasar por agregarParticipante, cuyas validaciones dependen de la fecha actual
+        carrera.setParticipantes(inscritos);
+        return carrera;
+    }
+
+    /**
+     * Historial de una sola entidad: {@code carreras} registros con posiciones aleatorias.
+     */
+    static List<HistorialCarrera> historial(int carreras, Random random) {
+        List<HistorialCarrera> historial = new ArrayList<>(carreras);
+        for (int c = 0; c < carreras; c++) {
+            historial.add(new HistorialCarrera("CAR-" + c, "CAB-0", "JIN-0", 1 + random.nextInt(10),
+                    LocalTime.of(0, 1, 30).plusNanos(random.nextInt(20_000) * 1_000_000L),
+                    INICIO.plusDays(c % 3650), HIPODROMOS[c % HIPODROMOS.length]));
+        }
+        return historial;
+    }
+
+    /**
+     * Resultado con los participantes {@code P1000..} en el orden de llegada.
+     */
+    static Resultado resultado(int participantes) {
+        Resultado resultado = new Resultado("RES-0", "CAR-0");
+        for (int i = 0; i < participantes; i++) {
+            resultado.registrarPosicion(i + 1, "P" + (1000 + i), LocalTime.of(0, 1, 30).plusNanos(i * 250_000_000L));
+        }
+        return resultado;
+    }
+}
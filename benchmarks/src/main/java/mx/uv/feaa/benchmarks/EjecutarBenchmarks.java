@@ -0,0 +1,35 @@
+package mx.uv.feaa.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Punto de entrada del JAR de benchmarks: el mismo que {@code org.openjdk.jmh.Main}, pero si no se
+ * indica {@code -rf} los resultados se guardan en JSON en
+ * {@code resultados/jmh-<fecha>.json}, para comparar una compilación con la anterior.
+ * <p>
+ * Uso: {@code java -jar target/benchmarks.jar [opciones de JMH] [patrón de benchmarks]}
+ * </p>
+ */
+public final class EjecutarBenchmarks {
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private EjecutarBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        if (!argumentos.contains("-rf") && !argumentos.contains("-h") && !argumentos.contains("-l")
+                && !argumentos.contains("-lp")) {
+            Path archivo = Path.of("resultados", "jmh-" + LocalDateTime.now().format(FORMATO_FECHA) + ".json");
+            Files.createDirectories(archivo.getParent());
+            argumentos.addAll(0, List.of("-rf", "json", "-rff", archivo.toString()));
+        }
+        org.openjdk.jmh.Main.main(argumentos.toArray(new String[0]));
+    }
+}
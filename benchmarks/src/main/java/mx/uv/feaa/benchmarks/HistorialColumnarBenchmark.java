@@ -0,0 +1,90 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.analitica.HistorialColumnar;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara recorridos de analítica sobre la lista de {@link HistorialCarrera} frente al
+ * {@link HistorialColumnar}: victorias por caballo y filtro por hipódromo y temporada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class HistorialColumnarBenchmark {
+
+    @Param({"1000000"})
+    public int filas;
+
+    private List<HistorialCarrera> objetos;
+    private HistorialColumnar columnar;
+    private LocalDate inicioTemporada;
+    private LocalDate finTemporada;
+    private String hipodromo;
+
+    @Setup
+    public void preparar() {
+        objetos = DatosSinteticos.historial(filas, 20_000, 2_000, 42L);
+        HistorialColumnar.Constructor constructor = new HistorialColumnar.Constructor();
+        objetos.forEach(constructor::agregar);
+        columnar = constructor.construir();
+        inicioTemporada = LocalDate.of(2020, 1, 1);
+        finTemporada = LocalDate.of(2020, 12, 31);
+        hipodromo = DatosSinteticos.HIPODROMOS[0];
+    }
+
+    @Benchmark
+    public Map<String, int[]> victoriasPorCaballoObjetos() {
+        Map<String, int[]> totales = new HashMap<>();
+        for (HistorialCarrera historial : objetos) {
+            int[] total = totales.computeIfAbsent(historial.getIdCaballo(), k -> new int[2]);
+            total[0]++;
+            if (historial.esVictoria()) total[1]++;
+        }
+        return totales;
+    }
+
+    @Benchmark
+    public HistorialColumnar.Agregado victoriasPorCaballoColumnar() {
+        return columnar.agregar(HistorialColumnar.Dimension.CABALLO, null, null, null);
+    }
+
+    @Benchmark
+    public Map<String, int[]> temporadaEnHipodromoObjetos() {
+        Map<String, int[]> totales = new HashMap<>();
+        for (HistorialCarrera historial : objetos) {
+            LocalDate fecha = historial.getFecha();
+            if (!fecha.isBefore(inicioTemporada) && !fecha.isAfter(finTemporada)
+                    && hipodromo.equals(historial.getHipodromo())) {
+                int[] total = totales.computeIfAbsent(historial.getIdJinete(), k -> new int[2]);
+                total[0]++;
+                if (historial.esVictoria()) total[1]++;
+            }
+        }
+        return totales;
+    }
+
+    @Benchmark
+    public HistorialColumnar.Agregado temporadaEnHipodromoColumnar() {
+        return columnar.agregar(HistorialColumnar.Dimension.JINETE, inicioTemporada, finTemporada, hipodromo);
+    }
+}
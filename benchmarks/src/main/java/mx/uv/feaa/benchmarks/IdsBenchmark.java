@@ -0,0 +1,111 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.metricas.TrazadorSQL;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.GeneradorIds;
+import mx.uv.feaa.util.UuidOrdenado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserciones por clave primaria con identificadores aleatorios ({@code UUID.randomUUID()}),
+ * ordenados en el tiempo (UUIDv7 de 36 caracteres), compactos (26 caracteres) y en
+ * {@code BINARY(16)}, en una tabla de {@link BaseDatosMemoria} que ya tiene {@code filasPrevias}
+ * filas. Cada operación inserta un lote de {@value #LOTE} filas en una transacción.
+ * <p>
+ * H2 en memoria no tiene buffer pool, así que la diferencia aquí es menor que en InnoDB, donde las
+ * claves aleatorias además sacan páginas del índice de memoria; lo que sí se ve es el costo de
+ * generar la clave y de dividir páginas del árbol.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdsBenchmark {
+    private static final int LOTE = 100;
+
+    @Param({"aleatorio", "ordenado", "compacto", "binario"})
+    public String modo;
+
+    @Param({"200000"})
+    public int filasPrevias;
+
+    private BaseDatosMemoria base;
+    private Connection conexion;
+    private PreparedStatement insert;
+    private GeneradorIds generador;
+    private boolean binario;
+    private long secuencia;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        Properties sinTraza = new Properties();
+        sinTraza.setProperty("jdbc.traza.activa", "false");
+        TrazadorSQL.configurar(sinTraza);
+        binario = modo.equals("binario");
+        generador = GeneradorIds.de(binario ? "ordenado" : modo);
+
+        base = BaseDatosMemoria.crear();
+        conexion = base.abrir();
+        try (Statement stmt = conexion.createStatement()) {
+            stmt.execute("CREATE TABLE PruebaIds (id " + (binario ? "BINARY(16)" : "VARCHAR(50)")
+                    + " PRIMARY KEY, carrera_id VARCHAR(50) NOT NULL, monto DECIMAL(10,2) NOT NULL)");
+        }
+        insert = conexion.prepareStatement("INSERT INTO PruebaIds (id, carrera_id, monto) VALUES (?, ?, ?)");
+        conexion.setAutoCommit(false);
+        for (int i = 0; i < filasPrevias; i += LOTE) {
+            insertarLote();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        insert.close();
+        conexion.close();
+        base.close();
+    }
+
+    @Benchmark
+    public int insertarLote() throws SQLException {
+        for (int i = 0; i < LOTE; i++) {
+            if (binario) {
+                insert.setBytes(1, UuidOrdenado.aBinario(UuidOrdenado.siguiente()));
+            } else {
+                insert.setString(1, generador.siguiente());
+            }
+            insert.setString(2, "CAR-" + (secuencia++ % 500));
+            insert.setBigDecimal(3, BigDecimal.TEN);
+            insert.addBatch();
+        }
+        int filas = insert.executeBatch().length;
+        conexion.commit();
+        return filas;
+    }
+
+    @Benchmark
+    public String generar() {
+        return generador.siguiente();
+    }
+}
@@ -0,0 +1,53 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.model.entidades.EstadisticasRendimiento;
+import mx.uv.feaa.model.entidades.Jinete;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estadísticas de un {@link Jinete} con historiales largos: la consulta, que devuelve las
+ * estadísticas mantenidas de forma incremental, frente a la reconstrucción completa desde el historial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JineteBenchmark {
+
+    @Param({"1000", "100000"})
+    public int carreras;
+
+    private Jinete jinete;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42L);
+        jinete = DatosSinteticos.jinete("JIN-0", aleatorio);
+        jinete.setHistorialCarreras(DatosSinteticos.historial(carreras, aleatorio));
+    }
+
+    @Benchmark
+    public EstadisticasRendimiento obtenerEstadisticas() {
+        return jinete.obtenerEstadisticas();
+    }
+
+    @Benchmark
+    public EstadisticasRendimiento recalcularEstadisticas() {
+        return jinete.recalcularEstadisticas();
+    }
+}
@@ -0,0 +1,48 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.analitica.HistorialColumnar;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+
+import java.util.List;
+
+/**
+ * Mide la memoria retenida por el historial como lista de objetos y como almacén columnar.
+ * <p>
+ * Uso: {@code java -cp target/benchmarks.jar mx.uv.feaa.benchmarks.MemoriaHistorial [filas]}
+ * </p>
+ */
+public final class MemoriaHistorial {
+
+    private MemoriaHistorial() {
+    }
+
+    public static void main(String[] args) {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long base = memoriaUsada();
+        List<HistorialCarrera> objetos = DatosSinteticos.historial(filas, 20_000, 2_000, 42L);
+        long conObjetos = memoriaUsada() - base;
+
+        HistorialColumnar.Constructor constructor = new HistorialColumnar.Constructor();
+        objetos.forEach(constructor::agregar);
+        objetos = null;
+        HistorialColumnar columnar = constructor.construir();
+        constructor = null;
+        long conColumnar = memoriaUsada() - base;
+
+        System.out.printf("Filas: %,d%n", filas);
+        System.out.printf("Modelo de objetos: %,d bytes (%.1f bytes/fila)%n", conObjetos, (double) conObjetos / filas);
+        System.out.printf("Columnar (con diccionarios): %,d bytes (%.1f bytes/fila)%n",
+                conColumnar, (double) conColumnar / filas);
+        System.out.printf("Columnas primitivas: %,d bytes; %d filas retenidas%n",
+                columnar.bytesColumnas(), columnar.tamano());
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
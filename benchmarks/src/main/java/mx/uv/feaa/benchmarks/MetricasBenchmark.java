@@ -0,0 +1,48 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.metricas.MetricasDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo que agrega {@link MetricasDAO} a cada llamada de un DAO: búsqueda del medidor por nombre,
+ * dos lecturas del reloj y el registro (contadores e histograma). Se mide con un hilo y con varios
+ * hilos registrando en la misma operación, que es el caso de mayor contención. El costo dentro de
+ * una llamada real de DAO, con y sin trazas, se mide en {@link MetricasDaoBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private final MetricasDAO metricas = MetricasDAO.getInstancia();
+
+    @Benchmark
+    public void registrarUnHilo() {
+        registrar();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void registrarOchoHilos() {
+        registrar();
+    }
+
+    private void registrar() {
+        long inicio = System.nanoTime();
+        metricas.medidor("CaballoDAO.getById").registrar(System.nanoTime() - inicio, false);
+    }
+}
@@ -0,0 +1,145 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.carga.DestinoJdbc;
+import mx.uv.feaa.carga.GeneradorDatos;
+import mx.uv.feaa.metricas.Traza;
+import mx.uv.feaa.metricas.TrazadorSQL;
+import mx.uv.feaa.model.dao.CaballoDAO;
+import mx.uv.feaa.model.entidades.Caballo;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.PoolConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la instrumentación en una llamada real de DAO: {@code CaballoDAO.getById} contra una
+ * {@link BaseDatosMemoria}, en tres modos.
+ * <ul>
+ *   <li>{@code directo}: cada hilo reutiliza una conexión física propia, sin pool, sin
+ *       {@link mx.uv.feaa.metricas.MetricasDAO} ni trazas; es la línea base.</li>
+ *   <li>{@code metricas}: a través de {@link PoolConexiones}, que registra cada préstamo en su
+ *       medidor, con {@link TrazadorSQL} inactivo (como en {@code database-memoria.properties}).</li>
+ *   <li>{@code traza}: igual, con el trazado SQL activo y cada llamada dentro de una {@link Traza},
+ *       como una petición de la API. El umbral de sentencias lentas es alto para no medir la
+ *       escritura del registro.</li>
+ * </ul>
+ * La diferencia entre {@code metricas} y {@code directo} es lo que cuestan el pool y las métricas
+ * juntos; {@link MetricasBenchmark} aísla la parte del medidor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricasDaoBenchmark {
+
+    @Param({"directo", "metricas", "traza"})
+    public String modo;
+
+    private final SplittableRandom aleatorio = new SplittableRandom(42L);
+    private BaseDatosMemoria base;
+    private ProveedorConexiones conexiones;
+    private CaballoDAO caballoDAO;
+    private Path registro;
+    private boolean conTraza;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        conTraza = modo.equals("traza");
+        registro = Files.createTempDirectory("metricas-dao");
+        Properties traza = new Properties();
+        traza.setProperty("jdbc.traza.activa", Boolean.toString(conTraza));
+        traza.setProperty("jdbc.traza.umbralMs", "60000");
+        traza.setProperty("jdbc.traza.umbralAccionMs", "60000");
+        traza.setProperty("jdbc.traza.archivo", registro.resolve("sql-lentas.%g.log").toString());
+        TrazadorSQL.configurar(traza);
+
+        base = BaseDatosMemoria.crear();
+        PoolConexiones pool = new PoolConexiones(base, 10, 5000);
+        try (DestinoJdbc destino = new DestinoJdbc(pool)) {
+            new GeneradorDatos(42L, 0.01, 4, LocalDate.of(2026, 1, 1)).generar(destino);
+        }
+        if (modo.equals("directo")) {
+            pool.cerrar();
+            conexiones = directas(base);
+        } else {
+            conexiones = pool;
+        }
+        caballoDAO = new CaballoDAO(conexiones);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws Exception {
+        conexiones.cerrar();
+        base.close();
+        try (var archivos = Files.list(registro)) {
+            for (Path archivo : archivos.toList()) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+        Files.deleteIfExists(registro);
+    }
+
+    @Benchmark
+    public Optional<Caballo> getById() throws SQLException {
+        String id = "CAB-" + aleatorio.nextInt(100) + "-0";
+        if (!conTraza) {
+            return caballoDAO.getById(id);
+        }
+        try (Traza traza = Traza.iniciar("benchmark getById")) {
+            return caballoDAO.getById(id);
+        }
+    }
+
+    /**
+     * Proveedor sin pool ni métricas: cada hilo abre una conexión la primera vez y la conserva;
+     * el {@code close()} de los DAOs no la cierra.
+     */
+    private static ProveedorConexiones directas(BaseDatosMemoria base) {
+        ThreadLocal<Connection> propias = new ThreadLocal<>();
+        return operacion -> {
+            Connection fisica = propias.get();
+            if (fisica == null) {
+                fisica = base.abrir();
+                propias.set(fisica);
+            }
+            Connection conexion = fisica;
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, metodo, argumentos) -> {
+                        if (metodo.getName().equals("close")) {
+                            return null;
+                        }
+                        try {
+                            return metodo.invoke(conexion, argumentos);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.util.PasswordUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash y verificación de contraseñas con {@link PasswordUtil}, que están en la ruta de cada login y
+ * de cada alta de usuario.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+
+    private static final String PASSWORD = "contraseña-de-prueba-123";
+
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        hash = PasswordUtil.hashPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return PasswordUtil.hashPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verificarPassword() {
+        return PasswordUtil.verificarPassword(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,135 @@
+package mx.uv.feaa.benchmarks;
+
+import mx.uv.feaa.model.entidades.Resultado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ciclo de liquidación típico sobre un {@link Resultado}: para cada apuesta se consulta la posición
+ * y el tiempo del participante seleccionado. Compara la implementación con arreglos e índice inverso
+ * contra la anterior basada en mapas, que se reproduce aquí como {@link ResultadoMapas}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultadoBenchmark {
+
+    @Param({"8", "20"})
+    public int participantes;
+
+    @Param({"10000"})
+    public int apuestas;
+
+    private Resultado resultado;
+    private ResultadoMapas resultadoMapas;
+    private String[] seleccion;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42L);
+        resultado = new Resultado("R1", "C1");
+        resultadoMapas = new ResultadoMapas();
+        String[] ids = new String[participantes];
+        for (int i = 0; i < participantes; i++) {
+            ids[i] = "P" + (1000 + i);
+            LocalTime tiempo = LocalTime.of(0, 1, 30).plusNanos((long) i * 250_000_000L);
+            resultado.registrarPosicion(i + 1, ids[i], tiempo);
+            resultadoMapas.registrarPosicion(i + 1, ids[i], tiempo);
+        }
+        seleccion = new String[apuestas];
+        for (int i = 0; i < apuestas; i++) {
+            // Copia del texto para que la búsqueda no se resuelva por identidad de referencia
+            seleccion[i] = new String(ids[aleatorio.nextInt(participantes)]);
+        }
+    }
+
+    @Benchmark
+    public long liquidarArreglos() {
+        long suma = 0;
+        for (String id : seleccion) {
+            Integer posicion = resultado.obtenerPosicion(id);
+            if (posicion != null && posicion <= 3) {
+                suma += posicion + resultado.obtenerTiempoMs(id);
+            }
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long liquidarMapas() {
+        long suma = 0;
+        for (String id : seleccion) {
+            Integer posicion = resultadoMapas.obtenerPosicion(id);
+            if (posicion != null && posicion <= 3) {
+                suma += posicion + resultadoMapas.getTiempos().get(id).toNanoOfDay() / 1_000_000;
+            }
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public int recorrerPosicionesArreglos() {
+        int suma = 0;
+        for (int i = 0; i < apuestas / participantes; i++) {
+            for (Map.Entry<Integer, String> entrada : resultado.getPosiciones().entrySet()) {
+                suma += entrada.getKey();
+            }
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public int recorrerPosicionesMapas() {
+        int suma = 0;
+        for (int i = 0; i < apuestas / participantes; i++) {
+            for (Map.Entry<Integer, String> entrada : resultadoMapas.getPosiciones().entrySet()) {
+                suma += entrada.getKey();
+            }
+        }
+        return suma;
+    }
+
+    /**
+     * Implementación anterior de {@link Resultado}: búsqueda lineal de la posición y copia de
+     * los mapas en cada getter.
+     */
+    static final class ResultadoMapas {
+        private final Map<Integer, String> posiciones = new HashMap<>();
+        private final Map<String, LocalTime> tiempos = new HashMap<>();
+
+        void registrarPosicion(int posicion, String idParticipante, LocalTime tiempo) {
+            posiciones.put(posicion, idParticipante);
+            tiempos.put(idParticipante, tiempo);
+        }
+
+        Integer obtenerPosicion(String idParticipante) {
+            for (Map.Entry<Integer, String> entry : posiciones.entrySet()) {
+                if (entry.getValue().equals(idParticipante)) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        Map<Integer, String> getPosiciones() { return new HashMap<>(posiciones); }
+        Map<String, LocalTime> getTiempos() { return new HashMap<>(tiempos); }
+    }
+}
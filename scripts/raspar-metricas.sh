@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Raspa el endpoint /metrics y valida el formato de exposición de Prometheus.
+#
+# Uso: scripts/raspar-metricas.sh [url] [raspados]
+#   url       por defecto http://localhost:9090/metrics
+#   raspados  número de raspados consecutivos, para medir su duración (por defecto 1)
+#
+# Si promtool está instalado se usa "promtool check metrics"; si no, se hace una validación
+# básica: cada muestra debe pertenecer a una familia declarada con # TYPE, ninguna familia puede
+# declararse dos veces y los valores deben ser numéricos.
+set -euo pipefail
+
+URL="${1:-http://localhost:9090/metrics}"
+RASPADOS="${2:-1}"
+SALIDA="$(mktemp)"
+trap 'rm -f "$SALIDA"' EXIT
+
+inicio=$(date +%s%N)
+for ((i = 0; i < RASPADOS; i++)); do
+    codigo=$(curl -s -o "$SALIDA" -w '%{http_code}' "$URL")
+    if [[ "$codigo" != "200" ]]; then
+        echo "Error: $URL respondió $codigo" >&2
+        exit 1
+    fi
+done
+fin=$(date +%s%N)
+
+if command -v promtool >/dev/null 2>&1; then
+    promtool check metrics < "$SALIDA"
+else
+    awk '
+        /^# TYPE / {
+            if ($3 in tipos) { printf "línea %d: familia %s declarada dos veces\n", NR, $3; errores++ }
+            tipos[$3] = $4; next
+        }
+        /^#/ || /^$/ { next }
+        {
+            nombre = $1; sub(/\{.*/, "", nombre)
+            familia = nombre
+            if (!(familia in tipos)) { sub(/_(bucket|sum|count)$/, "", familia) }
+            if (!(familia in tipos)) { printf "línea %d: %s sin # TYPE\n", NR, nombre; errores++ }
+            valor = $NF
+            if (valor !~ /^-?[0-9]+(\.[0-9]+)?([eE][-+]?[0-9]+)?$/ && valor !~ /^([-+]Inf|NaN)$/) {
+                printf "línea %d: valor no numérico \"%s\"\n", NR, valor; errores++
+            }
+            muestras++
+        }
+        END {
+            if (errores > 0) { printf "%d errores\n", errores; exit 1 }
+            printf "OK: %d familias, %d muestras\n", length(tipos), muestras
+        }
+    ' "$SALIDA"
+fi
+
+echo "$(wc -c < "$SALIDA") bytes; $RASPADOS raspado(s) en $(( (fin - inicio) / 1000000 )) ms"
@@ -1,21 +1,346 @@
 package mx.uv.feaa;
 
 
+import mx.uv.feaa.api.ClienteCarga;
+import mx.uv.feaa.api.ServidorApi;
+import mx.uv.feaa.api.TransmisionCuotas;
+import mx.uv.feaa.carga.DestinoCsv;
+import mx.uv.feaa.carga.DestinoFilas;
+import mx.uv.feaa.carga.DestinoJdbc;
+import mx.uv.feaa.carga.GeneradorDatos;
+import mx.uv.feaa.carga.MigracionUsuarios;
+import mx.uv.feaa.carga.SimuladorApostadores;
+import mx.uv.feaa.metricas.FuentesMetricas;
+import mx.uv.feaa.metricas.ServidorMetricas;
+import mx.uv.feaa.metricas.TrazadorSQL;
+import mx.uv.feaa.servicios.CatalogoCarreras;
+import mx.uv.feaa.servicios.ClasificacionService;
+import mx.uv.feaa.servicios.PlanificadorCarreras;
+import mx.uv.feaa.servicios.RatingService;
+import mx.uv.feaa.servicios.ReconstruccionEstadisticasService;
+import mx.uv.feaa.servicios.ReparticionApuestasService;
+import mx.uv.feaa.servicios.ResultadoService;
+import mx.uv.feaa.model.dao.ApostadorDAO;
+import mx.uv.feaa.model.dao.CriadorDAO;
+import mx.uv.feaa.model.dao.UsuarioArchivoDAO;
+import mx.uv.feaa.util.AlmacenDiario;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.RepositorioRespaldos;
 import mx.uv.feaa.view.LoginView;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 public class Main {
+    private static final Path DIRECTORIO_DATOS = Path.of("data");
+    private static final Path DIRECTORIO_RESPALDOS = DIRECTORIO_DATOS.resolve("respaldos");
+    private static final List<String> ARCHIVOS_DATOS = List.of("usuarios.json", "apostadores.json", "criadores.json");
+    private static final Set<String> COMANDOS_SIN_BASE_DATOS =
+            Set.of("respaldar", "restaurar", "respaldos", "podar-respaldos", "importar-copias");
+
     public static void main(String[] args) {
         // Verificar conexión a la base de datos
-        if (!ConexionBD.verificarConexion()) {
+        if (requiereBaseDatos(args) && !ConexionBD.verificarConexion()) {
             System.err.println("Error al conectar con la base de datos");
             return;
         }
 
+        // Comandos de mantenimiento: java -jar sistema-gestion-hipica.jar <comando>
+        if (args.length > 0) {
+            ejecutarComando(args);
+            return;
+        }
+
         // Mostrar vista de login
         LoginView loginView = new LoginView();
         loginView.mostrar();
     }
-}
\ No newline at end of file
+
+    private static void ejecutarComando(String[] args) {
+        String comando = args[0];
+        try {
+            switch (comando) {
+                case "reconstruir-estadisticas":
+                    long inicio = System.nanoTime();
+                    int registros = new ReconstruccionEstadisticasService().reconstruir();
+                    System.out.printf("Estadísticas reconstruidas: %d registros en %.1f s%n",
+                            registros, (System.nanoTime() - inicio) / 1e9);
+                    break;
+                case "reproducir-ratings":
+                    long inicioRatings = System.nanoTime();
+                    int ratings = new RatingService().reproducirHistorial();
+                    System.out.printf("Ratings recalculados: %d registros en %.1f s%n",
+                            ratings, (System.nanoTime() - inicioRatings) / 1e9);
+                    break;
+                case "reparticionar-apuestas":
+                    // reparticionar-apuestas [--simular]
+                    reparticionarApuestas(args.length > 1 && args[1].equals("--simular"));
+                    break;
+                case "planificador":
+                    PlanificadorCarreras planificador = new PlanificadorCarreras();
+                    planificador.agregarOyente(transicion -> System.out.println(transicion));
+                    planificador.iniciar();
+                    System.out.println("Planificador de carreras iniciado");
+                    Thread.currentThread().join();
+                    break;
+                case "api":
+                    // api [puerto] [puertoMetricas]
+                    ServidorApi servidor = new ServidorApi(argumento(args, 1, 8080));
+                    ServidorMetricas metricas = new ServidorMetricas(argumento(args, 2, 9090));
+                    CatalogoCarreras catalogo = CatalogoCarreras.getInstancia();
+                    RatingService ratingService = new RatingService();
+                    TransmisionCuotas transmision = new TransmisionCuotas(catalogo,
+                            participante -> ratingService.getMotor().rating(participante), Duration.ofSeconds(1));
+                    PlanificadorCarreras planificadorApi = new PlanificadorCarreras();
+                    transmision.escuchar(planificadorApi);
+                    servidor.publicarCuotas(transmision);
+                    servidor.publicarClasificaciones(new ClasificacionService(new ResultadoService(ratingService)));
+
+                    metricas.registrar(FuentesMetricas.cache("catalogo_carreras", catalogo::getAciertos, catalogo::getFallos));
+                    metricas.registrar(FuentesMetricas.valor("hipica_catalogo_recargas_total", "counter",
+                            "Recargas del catálogo de carreras en segundo plano", catalogo::getRecargas));
+                    metricas.registrar(FuentesMetricas.valor("hipica_planificador_transiciones_pendientes", "gauge",
+                            "Transiciones de estado programadas y aún no aplicadas", planificadorApi::getPendientes));
+                    metricas.registrar(FuentesMetricas.valor("hipica_api_sesiones", "gauge",
+                            "Sesiones de la API sin caducar", servidor::getSesionesActivas));
+                    metricas.registrar(FuentesMetricas.valor("hipica_cuotas_suscriptores", "gauge",
+                            "Suscriptores conectados a la transmisión de cuotas", transmision::getSuscriptores));
+                    metricas.registrar(FuentesMetricas.valor("hipica_cuotas_eventos_pendientes", "gauge",
+                            "Eventos encolados sin escribir en las conexiones de cuotas", transmision::getEventosPendientes));
+                    metricas.registrar(FuentesMetricas.valor("hipica_sql_sentencias_lentas_total", "counter",
+                            "Sentencias SQL que superaron el umbral del registro de lentas", TrazadorSQL::getSentenciasLentas));
+                    metricas.registrar(FuentesMetricas.valor("hipica_sql_trazas_registradas_total", "counter",
+                            "Acciones registradas por lentas o por repetir sentencias (N+1)", TrazadorSQL::getTrazasRegistradas));
+
+                    planificadorApi.iniciar();
+                    metricas.iniciar();
+                    servidor.iniciar();
+                    Thread.currentThread().join();
+                    break;
+                case "cliente-carga":
+                    // cliente-carga <url> [usuarios] [segundos] [prefijoUsuario] [password] [probabilidadApuesta]
+                    if (args.length < 2) {
+                        System.err.println("Uso: cliente-carga <url> [usuarios] [segundos] [prefijoUsuario] [password] [probabilidadApuesta]");
+                        break;
+                    }
+                    new ClienteCarga(args[1], args.length > 4 ? args[4] : "carga",
+                            args.length > 5 ? args[5] : "carga123",
+                            args.length > 6 ? Double.parseDouble(args[6]) : 0.1)
+                            .ejecutar(argumento(args, 2, 100), Duration.ofSeconds(argumento(args, 3, 60)));
+                    break;
+                case "simular-apostadores":
+                    // simular-apostadores cerrado [sesiones] [segundos] [rampaSegundos] [usuarios] [probabilidadApuesta] [pensarMs]
+                    // simular-apostadores abierto [visitasPorSegundo] [segundos] [rampaSegundos] [usuarios] [probabilidadApuesta] [maximoEnCurso]
+                    simularApostadores(args);
+                    break;
+                case "generar-datos":
+                    // generar-datos [escala] [hilos] [semilla] [directorioCsv]
+                    generarDatos(args);
+                    break;
+                case "respaldar":
+                    respaldar();
+                    break;
+                case "restaurar":
+                    // restaurar <instante ISO-8601|ultimo> <directorioDestino>
+                    if (args.length < 3) {
+                        System.err.println("Uso: restaurar <instante|ultimo> <directorioDestino>");
+                        return;
+                    }
+                    restaurar(args[1], Path.of(args[2]));
+                    break;
+                case "respaldos":
+                    listarRespaldos();
+                    break;
+                case "podar-respaldos":
+                    // podar-respaldos [conservar]
+                    try (RepositorioRespaldos repositorio = new RepositorioRespaldos(DIRECTORIO_RESPALDOS)) {
+                        System.out.printf("%d fragmentos sin uso borrados%n", repositorio.podar(argumento(args, 1, 30)));
+                    }
+                    break;
+                case "importar-copias":
+                    // Convierte las copias completas de data/backup en respaldos incrementales
+                    try (RepositorioRespaldos repositorio = new RepositorioRespaldos(DIRECTORIO_RESPALDOS)) {
+                        System.out.printf("%d respaldos importados%n",
+                                repositorio.importarCopiasAntiguas(DIRECTORIO_DATOS.resolve("backup")).size());
+                    }
+                    break;
+                case "importar-usuarios":
+                    // importar-usuarios <archivo.json> [diario] [hilos]
+                    if (args.length < 2) {
+                        System.err.println("Uso: importar-usuarios <archivo.json> [diario] [hilos]");
+                        return;
+                    }
+                    importarUsuarios(args);
+                    break;
+                case "exportar-usuarios":
+                    // exportar-usuarios <archivo.json>
+                    if (args.length < 2) {
+                        System.err.println("Uso: exportar-usuarios <archivo.json>");
+                        return;
+                    }
+                    exportarUsuarios(Path.of(args[1]));
+                    break;
+                default:
+                    System.err.println("Comando no reconocido: " + comando);
+                    break;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al ejecutar " + comando + ": " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error al ejecutar " + comando + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void simularApostadores(String[] args) throws InterruptedException {
+        boolean abierto = args.length > 1 && args[1].equals("abierto");
+        if (args.length > 1 && !abierto && !args[1].equals("cerrado")) {
+            System.err.println("Uso: simular-apostadores <cerrado|abierto> [sesiones|visitasPorSegundo] [segundos] "
+                    + "[rampaSegundos] [usuarios] [probabilidadApuesta] [pensarMs|maximoEnCurso]");
+            return;
+        }
+        Duration duracion = Duration.ofSeconds(argumento(args, 3, 60));
+        Duration rampa = Duration.ofSeconds(argumento(args, 4, 10));
+        SimuladorApostadores simulador = new SimuladorApostadores("carga", GeneradorDatos.PASSWORD_CARGA,
+                argumento(args, 5, 1000), args.length > 6 ? Double.parseDouble(args[6]) : 0.3);
+        if (abierto) {
+            simulador.ejecutarAbierto(args.length > 2 ? Double.parseDouble(args[2]) : 50, argumento(args, 7, 2000),
+                    rampa, duracion);
+        } else {
+            simulador.ejecutarCerrado(argumento(args, 2, 100), Duration.ofMillis(argumento(args, 7, 1000)),
+                    rampa, duracion);
+        }
+    }
+
+    private static void generarDatos(String[] args) throws IOException, SQLException, InterruptedException {
+        double escala = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+        int hilos = argumento(args, 2, Runtime.getRuntime().availableProcessors());
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        GeneradorDatos generador = new GeneradorDatos(semilla, escala, hilos, LocalDate.now());
+        long inicio = System.nanoTime();
+        long filas = 0;
+        try (DestinoFilas destino = args.length > 4 ? new DestinoCsv(Path.of(args[4])) : new DestinoJdbc()) {
+            for (GeneradorDatos.Fase fase : generador.generar(destino)) {
+                filas += fase.filas();
+                System.out.printf("%-34s %,12d filas %8.1f s %,12.0f filas/s%n", fase.nombre(), fase.filas(),
+                        fase.nanos() / 1e9, fase.filasPorSegundo());
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Total: %,d filas en %.1f s (%,.0f filas/s)%n", filas, segundos, filas / segundos);
+        if (args.length > 4) {
+            System.out.println("Para cargar: mysql --local-infile=1 sistema_hipica < " + Path.of(args[4], "cargar.sql"));
+        }
+        System.out.println("Después ejecute reconstruir-estadisticas y reproducir-ratings");
+    }
+
+    private static void importarUsuarios(String[] args) throws IOException, SQLException, InterruptedException {
+        MigracionUsuarios migracion = new MigracionUsuarios(argumento(args, 3, Runtime.getRuntime().availableProcessors()));
+        MigracionUsuarios.Resumen resumen;
+        try (InputStream json = Files.newInputStream(Path.of(args[1]))) {
+            if (enDiario(args)) {
+                try (UsuarioArchivoDAO usuarios = UsuarioArchivoDAO.abrir(UsuarioArchivoDAO.DIRECTORIO_PREDETERMINADO)) {
+                    resumen = migracion.importar(json, MigracionUsuarios.destinoArchivo(usuarios));
+                }
+            } else {
+                resumen = migracion.importar(json, MigracionUsuarios.destinoJdbc(new ApostadorDAO(), new CriadorDAO()));
+            }
+        }
+        System.out.printf("%,d apostadores y %,d criadores importados en %.1f s (%,.0f usuarios/s); %d omitidos%n",
+                resumen.apostadores(), resumen.criadores(), resumen.nanos() / 1e9, resumen.usuariosPorSegundo(),
+                resumen.omitidos());
+    }
+
+    private static void exportarUsuarios(Path archivo) throws IOException, SQLException, InterruptedException {
+        MigracionUsuarios.Resumen resumen;
+        try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(archivo))) {
+            resumen = new MigracionUsuarios(1).exportar(new ApostadorDAO(), new CriadorDAO(), salida);
+        }
+        System.out.printf("%,d apostadores y %,d criadores exportados a %s en %.1f s%n", resumen.apostadores(),
+                resumen.criadores(), archivo, resumen.nanos() / 1e9);
+    }
+
+    private static boolean enDiario(String[] args) {
+        return args.length > 2 && args[2].equals("diario");
+    }
+
+    private static void reparticionarApuestas(boolean simular) throws SQLException {
+        ReparticionApuestasService reparticion = new ReparticionApuestasService();
+        List<ReparticionApuestasService.Movimiento> movimientos = simular ? reparticion.planificar()
+                : reparticion.reparticionar();
+        for (ReparticionApuestasService.Movimiento movimiento : movimientos) {
+            System.out.printf("%s: %d apuestas de %s a %s%n", movimiento.carreraId(), movimiento.apuestas(),
+                    movimiento.origen(), movimiento.destino());
+        }
+        System.out.printf("%d carreras %s%n", movimientos.size(), simular ? "fuera de lugar" : "movidas");
+    }
+
+    private static void respaldar() throws IOException {
+        Map<String, Path> archivos = new LinkedHashMap<>();
+        for (String nombre : ARCHIVOS_DATOS) {
+            archivos.put(nombre, DIRECTORIO_DATOS.resolve(nombre));
+        }
+        try (RepositorioRespaldos repositorio = new RepositorioRespaldos(DIRECTORIO_RESPALDOS)) {
+            RepositorioRespaldos.Resultado resultado;
+            if (Files.isDirectory(UsuarioArchivoDAO.DIRECTORIO_PREDETERMINADO)) {
+                // Solo lectura: falla si otro proceso escribe en el almacén y no lo compacta al cerrar
+                try (AlmacenDiario usuarios = AlmacenDiario.abrirSoloLectura(UsuarioArchivoDAO.DIRECTORIO_PREDETERMINADO)) {
+                    // Misma ruta relativa que en data/, para restaurar con destino data
+                    resultado = repositorio.respaldar(archivos, Map.of("diario/usuarios", usuarios));
+                }
+            } else {
+                resultado = repositorio.respaldar(archivos, Map.of());
+            }
+            System.out.printf("Respaldo %s: %d archivos, %,d bytes; %,d leídos, %d fragmentos nuevos (%,d bytes)%n",
+                    resultado.manifiesto().momento(), resultado.manifiesto().entradas().size(),
+                    resultado.manifiesto().getTamano(), resultado.leidos(), resultado.nuevos(), resultado.escritos());
+        }
+    }
+
+    private static void restaurar(String momento, Path destino) throws IOException {
+        try (RepositorioRespaldos repositorio = new RepositorioRespaldos(DIRECTORIO_RESPALDOS)) {
+            RepositorioRespaldos.Manifiesto manifiesto = repositorio.restaurar(
+                    momento.equals("ultimo") ? Instant.now() : Instant.parse(momento), destino);
+            System.out.printf("Restaurado el respaldo %s (%d archivos) en %s%n", manifiesto.momento(),
+                    manifiesto.entradas().size(), destino);
+        }
+    }
+
+    private static void listarRespaldos() throws IOException {
+        try (RepositorioRespaldos repositorio = new RepositorioRespaldos(DIRECTORIO_RESPALDOS)) {
+            for (RepositorioRespaldos.Manifiesto manifiesto : repositorio.listar()) {
+                System.out.printf("%s  %3d archivos  %,14d bytes%n", manifiesto.momento(),
+                        manifiesto.entradas().size(), manifiesto.getTamano());
+            }
+        }
+    }
+
+    // Generar datos en CSV, los respaldos y la importación al diario no necesitan la base de datos
+    private static boolean requiereBaseDatos(String[] args) {
+        if (args.length > 0 && COMANDOS_SIN_BASE_DATOS.contains(args[0])) {
+            return false;
+        }
+        if (args.length > 0 && args[0].equals("importar-usuarios") && enDiario(args)) {
+            return false;
+        }
+        return args.length == 0 || !args[0].equals("generar-datos") || args.length <= 4;
+    }
+
+    private static int argumento(String[] args, int indice, int porDefecto) {
+        return args.length > indice ? Integer.parseInt(args[indice]) : porDefecto;
+    }
+}
@@ -0,0 +1,44 @@
+package mx.uv.feaa.analitica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificación por diccionario de identificadores de texto: cada valor distinto recibe un
+ * entero consecutivo a partir de 0, de modo que las columnas puedan guardarse como {@code int[]}.
+ */
+public final class DiccionarioIds {
+    private final Map<String, Integer> codigos = new HashMap<>();
+    private final List<String> valores = new ArrayList<>();
+
+    /**
+     * Devuelve el código del valor, asignándole uno nuevo si no existía.
+     */
+    public int codificar(String valor) {
+        Integer codigo = codigos.get(valor);
+        if (codigo == null) {
+            codigo = valores.size();
+            codigos.put(valor, codigo);
+            valores.add(valor);
+        }
+        return codigo;
+    }
+
+    /**
+     * Devuelve el código del valor, o -1 si el valor nunca se codificó.
+     */
+    public int buscar(String valor) {
+        Integer codigo = codigos.get(valor);
+        return codigo != null ? codigo : -1;
+    }
+
+    public String valor(int codigo) {
+        return valores.get(codigo);
+    }
+
+    public int tamano() {
+        return valores.size();
+    }
+}
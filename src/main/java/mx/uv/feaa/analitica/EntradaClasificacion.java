@@ -0,0 +1,33 @@
+package mx.uv.feaa.analitica;
+
+/**
+ * Posición inmutable de un caballo o jinete en una tabla de clasificación.
+ */
+public final class EntradaClasificacion {
+    private final String idEntidad;
+    private final int carreras;
+    private final int victorias;
+    private final double porcentajeVictorias;
+
+    EntradaClasificacion(String idEntidad, int carreras, int victorias) {
+        this.idEntidad = idEntidad;
+        this.carreras = carreras;
+        this.victorias = victorias;
+        this.porcentajeVictorias = carreras > 0 ? victorias * 100.0 / carreras : 0;
+    }
+
+    EntradaClasificacion sumar(int carreras, int victorias) {
+        return new EntradaClasificacion(idEntidad, this.carreras + carreras, this.victorias + victorias);
+    }
+
+    public String getIdEntidad() { return idEntidad; }
+    public int getCarreras() { return carreras; }
+    public int getVictorias() { return victorias; }
+    public double getPorcentajeVictorias() { return porcentajeVictorias; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d victorias en %d carreras (%.1f%%)",
+                idEntidad, victorias, carreras, porcentajeVictorias);
+    }
+}
@@ -0,0 +1,164 @@
+package mx.uv.feaa.analitica;
+
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de clasificaciones de caballos y jinetes mantenido en línea.
+ * <p>
+ * Por cada dimensión ({@link HistorialColumnar.Dimension}) se mantiene una {@link TablaClasificacion}
+ * global, una por temporada (año de la carrera), una por hipódromo y una por temporada e hipódromo.
+ * Cada registro de historial suma su carrera en las cuatro tablas aplicables, de modo que consultar
+ * "más victorias" o "mejor porcentaje esta temporada" cuesta O(k) y nunca requiere cargar y ordenar
+ * todas las {@link mx.uv.feaa.model.entidades.EstadisticasRendimiento}.
+ * </p>
+ * La carga inicial se hace desde un {@link HistorialColumnar}; después basta con pasar cada
+ * resultado nuevo a {@link #registrarTodos(List)}.
+ */
+public class IndiceClasificaciones {
+    private final int minimoCarreras;
+    private final Map<String, TablaClasificacion> tablas = new ConcurrentHashMap<>();
+
+    /**
+     * @param minimoCarreras número mínimo de carreras para aparecer en la clasificación por porcentaje
+     */
+    public IndiceClasificaciones(int minimoCarreras) {
+        this.minimoCarreras = minimoCarreras;
+    }
+
+    /**
+     * Construye el índice a partir del historial completo. Los totales se agregan primero por tabla
+     * y cada entidad se inserta una sola vez, en lugar de reposicionarla fila por fila.
+     *
+     * @param historial el historial en formato columnar
+     * @param minimoCarreras número mínimo de carreras para la clasificación por porcentaje
+     * @return el índice cargado
+     */
+    public static IndiceClasificaciones desde(HistorialColumnar historial, int minimoCarreras) {
+        IndiceClasificaciones indice = new IndiceClasificaciones(minimoCarreras);
+        Map<String, Map<String, int[]>> totales = new HashMap<>();
+
+        for (int fila = 0; fila < historial.tamano(); fila++) {
+            Integer temporada = historial.fecha(fila) == HistorialColumnar.SIN_FECHA
+                    ? null : LocalDate.ofEpochDay(historial.fecha(fila)).getYear();
+            String hipodromo = historial.getHipodromos().valor(historial.hipodromo(fila));
+            int victoria = historial.posicion(fila) == 1 ? 1 : 0;
+
+            String caballo = historial.getCaballos().valor(historial.caballo(fila));
+            String jinete = historial.getJinetes().valor(historial.jinete(fila));
+            for (String clave : claves(HistorialColumnar.Dimension.CABALLO, temporada, hipodromo)) {
+                acumular(totales, clave, caballo, victoria);
+            }
+            for (String clave : claves(HistorialColumnar.Dimension.JINETE, temporada, hipodromo)) {
+                acumular(totales, clave, jinete, victoria);
+            }
+        }
+
+        totales.forEach((clave, entidades) -> {
+            TablaClasificacion tabla = indice.tabla(clave);
+            entidades.forEach((id, conteo) -> tabla.sumar(id, conteo[0], conteo[1]));
+        });
+        return indice;
+    }
+
+    /**
+     * Suma al índice los registros de historial de una carrera recién finalizada.
+     *
+     * @param historiales los registros generados al registrar el resultado
+     */
+    public void registrarTodos(List<HistorialCarrera> historiales) {
+        for (HistorialCarrera historial : historiales) {
+            registrar(historial);
+        }
+    }
+
+    /**
+     * Suma un registro de historial al caballo y al jinete en todas las tablas que le aplican.
+     *
+     * @param historial el registro a sumar
+     */
+    public void registrar(HistorialCarrera historial) {
+        Integer temporada = historial.getFecha() != null ? historial.getFecha().getYear() : null;
+        int victoria = historial.esVictoria() ? 1 : 0;
+
+        for (String clave : claves(HistorialColumnar.Dimension.CABALLO, temporada, historial.getHipodromo())) {
+            tabla(clave).sumar(historial.getIdCaballo(), 1, victoria);
+        }
+        for (String clave : claves(HistorialColumnar.Dimension.JINETE, temporada, historial.getHipodromo())) {
+            tabla(clave).sumar(historial.getIdJinete(), 1, victoria);
+        }
+    }
+
+    /**
+     * Obtiene las entidades con más victorias.
+     *
+     * @param dimension caballos o jinetes
+     * @param temporada año de la temporada, o {@code null} para todas
+     * @param idHipodromo hipódromo, o {@code null} para todos
+     * @param k número máximo de entradas
+     * @return las primeras {@code k} entradas, de mayor a menor número de victorias
+     */
+    public List<EntradaClasificacion> masVictorias(HistorialColumnar.Dimension dimension, Integer temporada,
+                                                   String idHipodromo, int k) {
+        TablaClasificacion tabla = tablas.get(clave(dimension, temporada, idHipodromo));
+        return tabla != null ? tabla.masVictorias(k) : Collections.emptyList();
+    }
+
+    /**
+     * Obtiene las entidades con mejor porcentaje de victorias entre las que alcanzan el mínimo de carreras.
+     *
+     * @param dimension caballos o jinetes
+     * @param temporada año de la temporada, o {@code null} para todas
+     * @param idHipodromo hipódromo, o {@code null} para todos
+     * @param k número máximo de entradas
+     * @return las primeras {@code k} entradas, de mayor a menor porcentaje de victorias
+     */
+    public List<EntradaClasificacion> mejorPorcentaje(HistorialColumnar.Dimension dimension, Integer temporada,
+                                                      String idHipodromo, int k) {
+        TablaClasificacion tabla = tablas.get(clave(dimension, temporada, idHipodromo));
+        return tabla != null ? tabla.mejorPorcentaje(k) : Collections.emptyList();
+    }
+
+    public int getMinimoCarreras() { return minimoCarreras; }
+
+    private TablaClasificacion tabla(String clave) {
+        return tablas.computeIfAbsent(clave, c -> new TablaClasificacion(minimoCarreras));
+    }
+
+    private static void acumular(Map<String, Map<String, int[]>> totales, String clave, String id, int victoria) {
+        int[] conteo = totales.computeIfAbsent(clave, c -> new HashMap<>()).computeIfAbsent(id, i -> new int[2]);
+        conteo[0]++;
+        conteo[1] += victoria;
+    }
+
+    /**
+     * Claves de las tablas a las que contribuye una carrera: global, temporada, hipódromo y ambos.
+     */
+    private static String[] claves(HistorialColumnar.Dimension dimension, Integer temporada, String hipodromo) {
+        if (temporada == null && hipodromo == null) {
+            return new String[]{clave(dimension, null, null)};
+        }
+        if (temporada == null) {
+            return new String[]{clave(dimension, null, null), clave(dimension, null, hipodromo)};
+        }
+        if (hipodromo == null) {
+            return new String[]{clave(dimension, null, null), clave(dimension, temporada, null)};
+        }
+        return new String[]{
+                clave(dimension, null, null),
+                clave(dimension, temporada, null),
+                clave(dimension, null, hipodromo),
+                clave(dimension, temporada, hipodromo)
+        };
+    }
+
+    private static String clave(HistorialColumnar.Dimension dimension, Integer temporada, String hipodromo) {
+        return dimension + "|" + (temporada != null ? temporada : "*") + "|" + (hipodromo != null ? hipodromo : "*");
+    }
+}
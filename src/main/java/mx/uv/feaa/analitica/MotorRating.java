@@ -0,0 +1,291 @@
+package mx.uv.feaa.analitica;
+
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Participante;
+import mx.uv.feaa.model.entidades.Rating;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Motor de ratings tipo Elo para carreras con muchos competidores.
+ * <p>
+ * Una carrera de n participantes se trata como n(n-1)/2 duelos: cada par se compara por posición
+ * de llegada contra la probabilidad esperada {@code 1 / (1 + 10^((Rb - Ra) / 400))}. La suma de
+ * (real - esperado) de cada participante se normaliza entre n-1 y se multiplica por un factor K
+ * que es mayor mientras la entidad tiene pocas carreras.
+ * </p>
+ * <p>
+ * El rating de un participante es el promedio del rating del caballo y del jinete, y ambos reciben
+ * el ajuste completo del participante. Así las cuotas dejan de depender de pesos fijos 0.6/0.4 sobre
+ * victorias redondeadas (ver {@link Participante#obtenerRendimientoHistorico()}).
+ * </p>
+ */
+public class MotorRating {
+    public static final String CABALLO = "CABALLO";
+    public static final String JINETE = "JINETE";
+
+    private static final double ESCALA = 400.0;
+    private static final double K_PROVISIONAL = 40.0;
+    private static final double K_ESTABLE = 20.0;
+    private static final int CARRERAS_PROVISIONALES = 10;
+    private static final int CARRERAS_MINIMAS_PARALELO = 8;
+
+    private final Map<String, Rating> caballos = new ConcurrentHashMap<>();
+    private final Map<String, Rating> jinetes = new ConcurrentHashMap<>();
+
+    public MotorRating() {
+    }
+
+    /**
+     * @param ratings ratings previamente persistidos de caballos y jinetes
+     */
+    public MotorRating(Collection<Rating> ratings) {
+        for (Rating rating : ratings) {
+            (CABALLO.equals(rating.getTipoEntidad()) ? caballos : jinetes).put(rating.getIdEntidad(), rating);
+        }
+    }
+
+    /**
+     * Actualiza los ratings con los registros de historial de una o varias carreras.
+     *
+     * @param historiales los registros generados al registrar resultados
+     * @return copias de los ratings modificados, listas para persistirse
+     */
+    public synchronized List<Rating> registrar(List<HistorialCarrera> historiales) {
+        Map<String, List<HistorialCarrera>> porCarrera = new LinkedHashMap<>();
+        for (HistorialCarrera historial : historiales) {
+            porCarrera.computeIfAbsent(historial.getIdCarrera(), id -> new ArrayList<>()).add(historial);
+        }
+
+        Map<String, Rating> modificados = new LinkedHashMap<>();
+        for (List<HistorialCarrera> carrera : porCarrera.values()) {
+            int n = carrera.size();
+            Rating[] caballo = new Rating[n];
+            Rating[] jinete = new Rating[n];
+            double[] equipo = new double[n];
+            int[] posiciones = new int[n];
+            for (int i = 0; i < n; i++) {
+                HistorialCarrera historial = carrera.get(i);
+                caballo[i] = caballos.computeIfAbsent(historial.getIdCaballo(), id -> new Rating(id, CABALLO));
+                jinete[i] = jinetes.computeIfAbsent(historial.getIdJinete(), id -> new Rating(id, JINETE));
+                equipo[i] = (caballo[i].getValor() + jinete[i].getValor()) / 2;
+                posiciones[i] = historial.getPosicion();
+            }
+
+            double[] puntuacion = puntuaciones(equipo, posiciones);
+            for (int i = 0; i < n; i++) {
+                LocalDate fecha = carrera.get(i).getFecha();
+                caballo[i].aplicarAjuste(factorK(caballo[i].getCarreras()) * puntuacion[i], fecha);
+                jinete[i].aplicarAjuste(factorK(jinete[i].getCarreras()) * puntuacion[i], fecha);
+                modificados.put(CABALLO + ":" + caballo[i].getIdEntidad(), caballo[i].copia());
+                modificados.put(JINETE + ":" + jinete[i].getIdEntidad(), jinete[i].copia());
+            }
+        }
+        return new ArrayList<>(modificados.values());
+    }
+
+    public double ratingCaballo(String idCaballo) {
+        Rating rating = caballos.get(idCaballo);
+        return rating != null ? rating.getValor() : Rating.VALOR_INICIAL;
+    }
+
+    public double ratingJinete(String idJinete) {
+        Rating rating = jinetes.get(idJinete);
+        return rating != null ? rating.getValor() : Rating.VALOR_INICIAL;
+    }
+
+    /**
+     * Rating combinado de un participante, apto para
+     * {@link mx.uv.feaa.model.entidades.Carrera#obtenerCuotasActuales(java.util.function.ToDoubleFunction)}.
+     *
+     * @param participante el participante con caballo y jinete asignados
+     * @return el promedio de los ratings de caballo y jinete
+     */
+    public double rating(Participante participante) {
+        double caballo = participante.getCaballo() != null
+                ? ratingCaballo(participante.getCaballo().getIdCaballo()) : Rating.VALOR_INICIAL;
+        double jinete = participante.getJinete() != null
+                ? ratingJinete(participante.getJinete().getIdJinete()) : Rating.VALOR_INICIAL;
+        return (caballo + jinete) / 2;
+    }
+
+    /**
+     * @return copias de todos los ratings conocidos
+     */
+    public List<Rating> todos() {
+        List<Rating> todos = new ArrayList<>(caballos.size() + jinetes.size());
+        caballos.values().forEach(rating -> todos.add(rating.copia()));
+        jinetes.values().forEach(rating -> todos.add(rating.copia()));
+        return todos;
+    }
+
+    /**
+     * @return un motor independiente con copias de todos los ratings, que puede actualizarse sin
+     *         que lo vean quienes consultan este
+     */
+    public MotorRating copia() {
+        return new MotorRating(todos());
+    }
+
+    /**
+     * Reproduce el historial completo desde ratings iniciales.
+     * <p>
+     * El historial se parte por fecha y los días se procesan en orden, porque cada día parte de los
+     * ratings que dejó el anterior. Dentro de un día las carreras se evalúan en paralelo contra los
+     * ratings al inicio del día (las carreras de una misma jornada se consideran simultáneas) y sus
+     * ajustes se suman al cerrar la jornada. Todo el cálculo trabaja sobre los códigos enteros del
+     * {@link HistorialColumnar}, sin crear objetos por fila.
+     * </p>
+     *
+     * @param historial el historial en formato columnar, ordenado por fecha
+     * @return un motor con los ratings resultantes
+     */
+    public static MotorRating reproducir(HistorialColumnar historial) {
+        int filas = historial.tamano();
+        double[] ratingCaballo = new double[historial.getCaballos().tamano()];
+        double[] ratingJinete = new double[historial.getJinetes().tamano()];
+        int[] carrerasCaballo = new int[ratingCaballo.length];
+        int[] carrerasJinete = new int[ratingJinete.length];
+        int[] fechaCaballo = new int[ratingCaballo.length];
+        int[] fechaJinete = new int[ratingJinete.length];
+        Arrays.fill(ratingCaballo, Rating.VALOR_INICIAL);
+        Arrays.fill(ratingJinete, Rating.VALOR_INICIAL);
+        Arrays.fill(fechaCaballo, HistorialColumnar.SIN_FECHA);
+        Arrays.fill(fechaJinete, HistorialColumnar.SIN_FECHA);
+        double[] puntuacion = new double[filas];
+
+        int inicio = 0;
+        while (inicio < filas) {
+            int fin = inicio;
+            while (fin < filas && historial.fecha(fin) == historial.fecha(inicio)) {
+                fin++;
+            }
+
+            int[] orden = ordenarPorCarrera(historial, inicio, fin);
+            int[] limites = limitesDeCarreras(historial, orden);
+            IntStream carreras = IntStream.range(0, limites.length - 1);
+            if (limites.length - 1 >= CARRERAS_MINIMAS_PARALELO) {
+                carreras = carreras.parallel();
+            }
+            // Cada fila pertenece a una sola carrera: las tareas escriben posiciones disjuntas
+            carreras.forEach(c -> {
+                int desde = limites[c];
+                int n = limites[c + 1] - desde;
+                double[] equipo = new double[n];
+                int[] posiciones = new int[n];
+                for (int i = 0; i < n; i++) {
+                    int fila = orden[desde + i];
+                    equipo[i] = (ratingCaballo[historial.caballo(fila)] + ratingJinete[historial.jinete(fila)]) / 2;
+                    posiciones[i] = historial.posicion(fila);
+                }
+                double[] resultado = puntuaciones(equipo, posiciones);
+                for (int i = 0; i < n; i++) {
+                    puntuacion[orden[desde + i]] = resultado[i];
+                }
+            });
+
+            for (int fila = inicio; fila < fin; fila++) {
+                int caballo = historial.caballo(fila);
+                int jinete = historial.jinete(fila);
+                ratingCaballo[caballo] += factorK(carrerasCaballo[caballo]++) * puntuacion[fila];
+                ratingJinete[jinete] += factorK(carrerasJinete[jinete]++) * puntuacion[fila];
+                fechaCaballo[caballo] = historial.fecha(fila);
+                fechaJinete[jinete] = historial.fecha(fila);
+            }
+            inicio = fin;
+        }
+
+        List<Rating> ratings = new ArrayList<>(ratingCaballo.length + ratingJinete.length);
+        for (int i = 0; i < ratingCaballo.length; i++) {
+            ratings.add(new Rating(historial.getCaballos().valor(i), CABALLO, ratingCaballo[i],
+                    carrerasCaballo[i], aFecha(fechaCaballo[i])));
+        }
+        for (int i = 0; i < ratingJinete.length; i++) {
+            ratings.add(new Rating(historial.getJinetes().valor(i), JINETE, ratingJinete[i],
+                    carrerasJinete[i], aFecha(fechaJinete[i])));
+        }
+        return new MotorRating(ratings);
+    }
+
+    /**
+     * Calcula la puntuación normalizada de cada competidor de una carrera.
+     * <p>
+     * Para cada par (i, j) la puntuación real es 1 si i llegó antes, 0.5 en empate y 0 si llegó
+     * después; posiciones no positivas (no terminó) cuentan como la última. El resultado suma cero
+     * entre todos los competidores.
+     * </p>
+     *
+     * @param ratings rating de cada competidor
+     * @param posiciones posición de llegada de cada competidor
+     * @return la suma de (real - esperado) de cada competidor dividida entre n-1
+     */
+    static double[] puntuaciones(double[] ratings, int[] posiciones) {
+        int n = ratings.length;
+        double[] puntuacion = new double[n];
+        if (n < 2) {
+            return puntuacion;
+        }
+        for (int i = 0; i < n; i++) {
+            int posicionI = posiciones[i] > 0 ? posiciones[i] : Integer.MAX_VALUE;
+            for (int j = i + 1; j < n; j++) {
+                int posicionJ = posiciones[j] > 0 ? posiciones[j] : Integer.MAX_VALUE;
+                double real = posicionI < posicionJ ? 1.0 : posicionI == posicionJ ? 0.5 : 0.0;
+                double diferencia = real - esperado(ratings[i], ratings[j]);
+                puntuacion[i] += diferencia;
+                puntuacion[j] -= diferencia;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            puntuacion[i] /= (n - 1);
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Probabilidad esperada de que el competidor con rating {@code a} supere al de rating {@code b}.
+     */
+    public static double esperado(double a, double b) {
+        return 1.0 / (1.0 + Math.pow(10, (b - a) / ESCALA));
+    }
+
+    private static double factorK(int carreras) {
+        return carreras < CARRERAS_PROVISIONALES ? K_PROVISIONAL : K_ESTABLE;
+    }
+
+    private static int[] ordenarPorCarrera(HistorialColumnar historial, int inicio, int fin) {
+        long[] claves = new long[fin - inicio];
+        for (int fila = inicio; fila < fin; fila++) {
+            claves[fila - inicio] = ((long) historial.carrera(fila) << 32) | fila;
+        }
+        Arrays.sort(claves);
+        int[] orden = new int[claves.length];
+        for (int i = 0; i < claves.length; i++) {
+            orden[i] = (int) claves[i];
+        }
+        return orden;
+    }
+
+    private static int[] limitesDeCarreras(HistorialColumnar historial, int[] orden) {
+        int[] limites = new int[orden.length + 1];
+        int carreras = 0;
+        for (int i = 0; i < orden.length; i++) {
+            if (i == 0 || historial.carrera(orden[i]) != historial.carrera(orden[i - 1])) {
+                limites[carreras++] = i;
+            }
+        }
+        limites[carreras++] = orden.length;
+        return Arrays.copyOf(limites, carreras);
+    }
+
+    private static LocalDate aFecha(int epochDay) {
+        return epochDay != HistorialColumnar.SIN_FECHA ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+}
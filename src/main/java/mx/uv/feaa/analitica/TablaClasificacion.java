@@ -0,0 +1,76 @@
+package mx.uv.feaa.analitica;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Clasificación de un conjunto de entidades ordenada por dos métricas a la vez.
+ * <p>
+ * Cada entidad tiene una {@link EntradaClasificacion} inmutable que vive en dos skip lists
+ * ordenadas: una por victorias y otra por porcentaje de victorias. Al cambiar las estadísticas
+ * de una entidad se retira su entrada anterior y se inserta la nueva (O(log n)); leer los
+ * primeros k consiste en recorrer el inicio de la lista (O(k)), sin ordenar nada.
+ * Las entidades por debajo del mínimo de carreras no entran en la clasificación por porcentaje.
+ * </p>
+ */
+final class TablaClasificacion {
+    private static final Comparator<EntradaClasificacion> POR_VICTORIAS =
+            Comparator.comparingInt(EntradaClasificacion::getVictorias).reversed()
+                    .thenComparingInt(EntradaClasificacion::getCarreras)
+                    .thenComparing(EntradaClasificacion::getIdEntidad);
+
+    private static final Comparator<EntradaClasificacion> POR_PORCENTAJE =
+            Comparator.comparingDouble(EntradaClasificacion::getPorcentajeVictorias).reversed()
+                    .thenComparing(POR_VICTORIAS);
+
+    private final int minimoCarreras;
+    private final ConcurrentHashMap<String, EntradaClasificacion> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<EntradaClasificacion> porVictorias = new ConcurrentSkipListSet<>(POR_VICTORIAS);
+    private final ConcurrentSkipListSet<EntradaClasificacion> porPorcentaje = new ConcurrentSkipListSet<>(POR_PORCENTAJE);
+
+    TablaClasificacion(int minimoCarreras) {
+        this.minimoCarreras = minimoCarreras;
+    }
+
+    /**
+     * Suma carreras y victorias a una entidad y reposiciona su entrada en ambas listas.
+     * Las actualizaciones de una misma entidad se serializan en el {@code compute} del mapa.
+     */
+    void sumar(String idEntidad, int carreras, int victorias) {
+        entradas.compute(idEntidad, (id, anterior) -> {
+            EntradaClasificacion nueva = anterior != null
+                    ? anterior.sumar(carreras, victorias)
+                    : new EntradaClasificacion(id, carreras, victorias);
+            if (anterior != null) {
+                porVictorias.remove(anterior);
+                porPorcentaje.remove(anterior);
+            }
+            porVictorias.add(nueva);
+            if (nueva.getCarreras() >= minimoCarreras) {
+                porPorcentaje.add(nueva);
+            }
+            return nueva;
+        });
+    }
+
+    List<EntradaClasificacion> masVictorias(int k) {
+        return primeros(porVictorias, k);
+    }
+
+    List<EntradaClasificacion> mejorPorcentaje(int k) {
+        return primeros(porPorcentaje, k);
+    }
+
+    private static List<EntradaClasificacion> primeros(ConcurrentSkipListSet<EntradaClasificacion> lista, int k) {
+        List<EntradaClasificacion> resultado = new ArrayList<>(k);
+        Iterator<EntradaClasificacion> it = lista.iterator();
+        while (it.hasNext() && resultado.size() < k) {
+            resultado.add(it.next());
+        }
+        return resultado;
+    }
+}
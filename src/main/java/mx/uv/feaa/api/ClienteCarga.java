@@ -0,0 +1,236 @@
+package mx.uv.feaa.api;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cliente de carga para {@link ServidorApi}.
+ * <p>
+ * Simula usuarios apostadores concurrentes, cada uno en un hilo virtual: inicia sesión y repite
+ * durante el tiempo indicado consultas a la cartera, a las carreras abiertas y al historial, y con
+ * la probabilidad indicada realiza una apuesta. Al terminar informa el rendimiento total y los
+ * percentiles de latencia de cada endpoint.
+ * </p>
+ * Los usuarios deben existir previamente con nombres {@code <prefijo>1 .. <prefijo>N} y la misma
+ * contraseña.
+ */
+public class ClienteCarga {
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final Pattern CARRERA = Pattern.compile("\"idCarrera\":\"([^\"]+)\"");
+    private static final Pattern NUMERO = Pattern.compile("\"numero\":(\\d+)");
+
+    private final HttpClient cliente;
+    private final String url;
+    private final String prefijoUsuario;
+    private final String password;
+    private final double probabilidadApuesta;
+
+    private final Medicion[] mediciones = {
+            new Medicion("GET /api/cartera"), new Medicion("GET /api/carreras"),
+            new Medicion("GET /api/apuestas"), new Medicion("POST /api/apuestas")
+    };
+    private final AtomicLong errores = new AtomicLong();
+
+    /**
+     * @param url URL base del servidor, por ejemplo {@code http://localhost:8080}
+     * @param prefijoUsuario prefijo de los nombres de usuario simulados
+     * @param password contraseña común de los usuarios simulados
+     * @param probabilidadApuesta probabilidad de apostar en cada iteración, entre 0 y 1
+     */
+    public ClienteCarga(String url, String prefijoUsuario, String password, double probabilidadApuesta) {
+        this.cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.url = url;
+        this.prefijoUsuario = prefijoUsuario;
+        this.password = password;
+        this.probabilidadApuesta = probabilidadApuesta;
+    }
+
+    /**
+     * Ejecuta la prueba y escribe el informe en la salida estándar.
+     *
+     * @param usuarios número de usuarios concurrentes
+     * @param duracion duración de la prueba
+     */
+    public void ejecutar(int usuarios, Duration duracion) throws InterruptedException {
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 1; i <= usuarios; i++) {
+                String nombreUsuario = prefijoUsuario + i;
+                hilos.submit(() -> simularUsuario(nombreUsuario, fin));
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long total = 0;
+        System.out.printf("%-20s %10s %9s %9s %9s %9s %9s%n", "endpoint", "peticiones", "p50 ms", "p90 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        for (Medicion medicion : mediciones) {
+            total += medicion.imprimir();
+        }
+        System.out.printf("%d peticiones en %.1f s: %.0f peticiones/s, %d errores%n",
+                total, segundos, total / segundos, errores.get());
+    }
+
+    private void simularUsuario(String nombreUsuario, long fin) {
+        String token;
+        try {
+            HttpResponse<String> login = enviar(post("/api/login", null,
+                    "nombreUsuario=" + codificar(nombreUsuario) + "&password=" + codificar(password)));
+            Matcher matcher = TOKEN.matcher(login.body());
+            if (login.statusCode() != 200 || !matcher.find()) {
+                errores.incrementAndGet();
+                return;
+            }
+            token = matcher.group(1);
+        } catch (IOException | InterruptedException e) {
+            errores.incrementAndGet();
+            return;
+        }
+
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        while (System.nanoTime() < fin) {
+            try {
+                medir(0, get("/api/cartera", token));
+                String carreras = medir(1, get("/api/carreras", token));
+                medir(2, get("/api/apuestas", token));
+
+                if (carreras != null && aleatorio.nextDouble() < probabilidadApuesta) {
+                    String apuesta = cuerpoApuesta(carreras, aleatorio);
+                    if (apuesta != null) {
+                        medir(3, post("/api/apuestas", token, apuesta));
+                    }
+                }
+            } catch (IOException e) {
+                errores.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Elige una carrera y un participante al azar de la respuesta de /api/carreras.
+     */
+    private static String cuerpoApuesta(String carreras, ThreadLocalRandom aleatorio) {
+        List<int[]> tramos = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        Matcher carrera = CARRERA.matcher(carreras);
+        while (carrera.find()) {
+            ids.add(carrera.group(1));
+            tramos.add(new int[]{carrera.end(), carreras.length()});
+            if (tramos.size() > 1) {
+                tramos.get(tramos.size() - 2)[1] = carrera.start();
+            }
+        }
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int elegida = aleatorio.nextInt(ids.size());
+        Matcher numero = NUMERO.matcher(carreras).region(tramos.get(elegida)[0], tramos.get(elegida)[1]);
+        List<String> numeros = new ArrayList<>();
+        while (numero.find()) {
+            numeros.add(numero.group(1));
+        }
+        if (numeros.isEmpty()) {
+            return null;
+        }
+        return "idCarrera=" + codificar(ids.get(elegida))
+                + "&numeroCompetidor=" + numeros.get(aleatorio.nextInt(numeros.size()))
+                + "&tipo=GANADOR&monto=10";
+    }
+
+    private String medir(int indice, HttpRequest peticion) throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        HttpResponse<String> respuesta = enviar(peticion);
+        mediciones[indice].registrar(System.nanoTime() - inicio);
+        if (respuesta.statusCode() >= 400) {
+            errores.incrementAndGet();
+            return null;
+        }
+        return respuesta.body();
+    }
+
+    private HttpResponse<String> enviar(HttpRequest peticion) throws IOException, InterruptedException {
+        return cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String ruta, String token) {
+        return HttpRequest.newBuilder(URI.create(url + ruta))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String ruta, String token, String cuerpo) {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(url + ruta))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo));
+        if (token != null) {
+            peticion.header("Authorization", "Bearer " + token);
+        }
+        return peticion.build();
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Latencias de un endpoint. Se guardan todas las muestras para calcular percentiles exactos.
+     */
+    private static final class Medicion {
+        private final String nombre;
+        private long[] muestras = new long[1024];
+        private int cantidad;
+
+        private Medicion(String nombre) {
+            this.nombre = nombre;
+        }
+
+        private synchronized void registrar(long nanos) {
+            if (cantidad == muestras.length) {
+                muestras = Arrays.copyOf(muestras, cantidad * 2);
+            }
+            muestras[cantidad++] = nanos;
+        }
+
+        private synchronized int imprimir() {
+            long[] ordenadas = Arrays.copyOf(muestras, cantidad);
+            Arrays.sort(ordenadas);
+            System.out.printf("%-20s %10d %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre, cantidad,
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.90), percentil(ordenadas, 0.99),
+                    percentil(ordenadas, 0.999), percentil(ordenadas, 1.0));
+            return cantidad;
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(0, indice)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package mx.uv.feaa.api;
+
+/**
+ * Error de una petición a la API, con el código de estado HTTP que debe devolverse.
+ */
+public class ErrorApi extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int estado;
+
+    public ErrorApi(int estado, String mensaje) {
+        super(mensaje);
+        this.estado = estado;
+    }
+
+    public int getEstado() {
+        return estado;
+    }
+}
@@ -0,0 +1,222 @@
+package mx.uv.feaa.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor JSON en streaming, sin reflexión.
+ * <p>
+ * Cada endpoint escribe explícitamente los campos que expone; el escritor solo lleva la cuenta
+ * de si hace falta una coma y escapa el texto. Los bytes se acumulan en un búfer propio que se
+ * vacía al flujo de salida cuando se llena, de modo que una respuesta grande no se materializa
+ * completa en memoria.
+ * </p>
+ * <pre>
+ * json.objeto().campo("saldo", 150.0).nombre("apuestas").arreglo() ... .finArreglo().finObjeto();
+ * </pre>
+ */
+public final class EscritorJson {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final OutputStream salida;
+    private final byte[] bufer;
+    private int posicion;
+    // Un bit por nivel de anidamiento: 1 si el contenedor ya tiene algún elemento
+    private long conElementos;
+    private int nivel;
+    private boolean despuesDeNombre;
+
+    public EscritorJson(OutputStream salida) {
+        this(salida, 8192);
+    }
+
+    public EscritorJson(OutputStream salida, int tamanoBufer) {
+        this.salida = salida;
+        this.bufer = new byte[tamanoBufer];
+    }
+
+    public EscritorJson objeto() throws IOException {
+        separar();
+        escribir('{');
+        abrir();
+        return this;
+    }
+
+    public EscritorJson arreglo() throws IOException {
+        separar();
+        escribir('[');
+        abrir();
+        return this;
+    }
+
+    private EscritorJson fin(boolean esObjeto) throws IOException {
+        nivel--;
+        conElementos &= ~(1L << nivel);
+        escribir(esObjeto ? '}' : ']');
+        return this;
+    }
+
+    public EscritorJson finObjeto() throws IOException {
+        return fin(true);
+    }
+
+    public EscritorJson finArreglo() throws IOException {
+        return fin(false);
+    }
+
+    public EscritorJson nombre(String nombre) throws IOException {
+        separar();
+        texto(nombre);
+        escribir(':');
+        despuesDeNombre = true;
+        return this;
+    }
+
+    public EscritorJson valor(String valor) throws IOException {
+        separar();
+        if (valor == null) {
+            ascii("null");
+        } else {
+            texto(valor);
+        }
+        return this;
+    }
+
+    public EscritorJson valor(long valor) throws IOException {
+        separar();
+        ascii(Long.toString(valor));
+        return this;
+    }
+
+    public EscritorJson valor(double valor) throws IOException {
+        separar();
+        if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+            ascii("null");
+        } else if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            ascii(Long.toString((long) valor));
+        } else {
+            ascii(Double.toString(valor));
+        }
+        return this;
+    }
+
+    public EscritorJson valor(boolean valor) throws IOException {
+        separar();
+        ascii(valor ? "true" : "false");
+        return this;
+    }
+
+    public EscritorJson valor(Object valor) throws IOException {
+        return valor == null ? valor((String) null) : valor(valor.toString());
+    }
+
+    public EscritorJson campo(String nombre, String valor) throws IOException {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson campo(String nombre, long valor) throws IOException {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson campo(String nombre, double valor) throws IOException {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson campo(String nombre, boolean valor) throws IOException {
+        return nombre(nombre).valor(valor);
+    }
+
+    public EscritorJson campo(String nombre, Object valor) throws IOException {
+        return nombre(nombre).valor(valor);
+    }
+
+    /**
+     * Vacía el búfer al flujo de salida.
+     */
+    public void vaciar() throws IOException {
+        if (posicion > 0) {
+            salida.write(bufer, 0, posicion);
+            posicion = 0;
+        }
+        salida.flush();
+    }
+
+    private void abrir() {
+        nivel++;
+        if (nivel >= Long.SIZE) {
+            throw new IllegalStateException("Anidamiento JSON demasiado profundo");
+        }
+    }
+
+    private void separar() throws IOException {
+        if (despuesDeNombre) {
+            despuesDeNombre = false;
+            return;
+        }
+        if (nivel > 0) {
+            long bit = 1L << (nivel - 1);
+            if ((conElementos & bit) != 0) {
+                escribir(',');
+            } else {
+                conElementos |= bit;
+            }
+        }
+    }
+
+    private void texto(String valor) throws IOException {
+        escribir('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                escribir('\\');
+                escribir(c);
+            } else if (c < 0x20) {
+                switch (c) {
+                    case '\n': ascii("\\n"); break;
+                    case '\r': ascii("\\r"); break;
+                    case '\t': ascii("\\t"); break;
+                    default:
+                        ascii("\\u00");
+                        escribir(HEX[c >> 4]);
+                        escribir(HEX[c & 0xF]);
+                }
+            } else if (c < 0x80) {
+                escribir(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < valor.length()) {
+                utf8(valor.substring(i, i + 2));
+                i++;
+            } else {
+                utf8(String.valueOf(c));
+            }
+        }
+        escribir('"');
+    }
+
+    private void utf8(String caracter) throws IOException {
+        for (byte b : caracter.getBytes(StandardCharsets.UTF_8)) {
+            if (posicion == bufer.length) {
+                vaciarBufer();
+            }
+            bufer[posicion++] = b;
+        }
+    }
+
+    private void ascii(String valor) throws IOException {
+        for (int i = 0; i < valor.length(); i++) {
+            escribir(valor.charAt(i));
+        }
+    }
+
+    private void escribir(char c) throws IOException {
+        if (posicion == bufer.length) {
+            vaciarBufer();
+        }
+        bufer[posicion++] = (byte) c;
+    }
+
+    private void vaciarBufer() throws IOException {
+        salida.write(bufer, 0, posicion);
+        posicion = 0;
+    }
+}
@@ -0,0 +1,369 @@
+package mx.uv.feaa.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Lector JSON de tipo «pull», sin reflexión: el llamador pide el siguiente {@link Evento} y lee
+ * el texto o el número del token actual. Es la contraparte de {@link EscritorJson}.
+ * <p>
+ * Lee del flujo en bloques de un búfer propio y solo guarda el token actual, así que la memoria no
+ * depende del tamaño del documento; un arreglo con millones de objetos se recorre uno a uno. La
+ * entrada debe estar en UTF-8. Los errores de sintaxis se informan con el byte en el que ocurren.
+ * </p>
+ * <pre>
+ * while (json.siguiente() == Evento.NOMBRE) {
+ *     switch (json.getTexto()) {
+ *         case "saldo" -&gt; { json.siguiente(); saldo = json.getNumero(); }
+ *         default -&gt; json.saltarValor();
+ *     }
+ * }
+ * </pre>
+ */
+public final class LectorJson {
+
+    public enum Evento {
+        INICIO_OBJETO, FIN_OBJETO, INICIO_ARREGLO, FIN_ARREGLO,
+        // Nombre de un campo; el siguiente evento es su valor
+        NOMBRE,
+        TEXTO, NUMERO, BOOLEANO, NULO,
+        // Fin del documento
+        FIN
+    }
+
+    private static final int NIVEL_MAXIMO = 64;
+
+    private final InputStream entrada;
+    private final byte[] bufer;
+    private int posicion;
+    private int limite;
+    private long consumidos;
+
+    // Un bit por nivel de anidamiento: 1 si el contenedor es un objeto
+    private long objetos;
+    private int nivel;
+    // Se leyó un valor completo en el nivel actual: sigue una coma o el cierre
+    private boolean despuesDeValor;
+    // Se leyó un nombre y sus dos puntos: sigue su valor
+    private boolean esperaValor;
+    private boolean despuesDeComa;
+
+    private Evento evento;
+    private final StringBuilder texto = new StringBuilder();
+    private boolean booleano;
+
+    public LectorJson(InputStream entrada) {
+        this(entrada, 8192);
+    }
+
+    public LectorJson(InputStream entrada, int tamanoBufer) {
+        this.entrada = entrada;
+        this.bufer = new byte[tamanoBufer];
+    }
+
+    /**
+     * @return el siguiente evento; {@link Evento#FIN} al terminar el valor de nivel superior
+     * @throws IOException si el flujo falla o el JSON está mal formado
+     */
+    public Evento siguiente() throws IOException {
+        int c = noBlanco();
+        if (nivel == 0 && despuesDeValor) {
+            if (c != -1) {
+                throw error("contenido después del final del documento");
+            }
+            return evento = Evento.FIN;
+        }
+        if (c == -1) {
+            throw error("fin inesperado del documento");
+        }
+        if (esperaValor) {
+            return valor(c);
+        }
+        if (despuesDeValor) {
+            if (c == ',') {
+                despuesDeValor = false;
+                despuesDeComa = true;
+                c = noBlanco();
+            } else if (c == '}' || c == ']') {
+                return cerrar(c);
+            } else {
+                throw error("se esperaba ',' o el cierre y hay '" + (char) c + "'");
+            }
+        } else if ((c == '}' || c == ']') && nivel > 0 && !despuesDeComa) {
+            // Contenedor vacío
+            return cerrar(c);
+        }
+        despuesDeComa = false;
+        if (enObjeto()) {
+            if (c != '"') {
+                throw error("se esperaba el nombre de un campo");
+            }
+            leerTexto();
+            if (noBlanco() != ':') {
+                throw error("se esperaba ':' después de \"" + texto + "\"");
+            }
+            esperaValor = true;
+            return evento = Evento.NOMBRE;
+        }
+        return valor(c);
+    }
+
+    private Evento valor(int c) throws IOException {
+        esperaValor = false;
+        switch (c) {
+            case '{', '[' -> {
+                if (nivel == NIVEL_MAXIMO) {
+                    throw error("más de " + NIVEL_MAXIMO + " niveles de anidamiento");
+                }
+                if (c == '{') {
+                    objetos |= 1L << nivel;
+                } else {
+                    objetos &= ~(1L << nivel);
+                }
+                nivel++;
+                despuesDeValor = false;
+                return evento = c == '{' ? Evento.INICIO_OBJETO : Evento.INICIO_ARREGLO;
+            }
+            case '"' -> {
+                leerTexto();
+                evento = Evento.TEXTO;
+            }
+            case 't' -> {
+                literal("rue");
+                booleano = true;
+                evento = Evento.BOOLEANO;
+            }
+            case 'f' -> {
+                literal("alse");
+                booleano = false;
+                evento = Evento.BOOLEANO;
+            }
+            case 'n' -> {
+                literal("ull");
+                evento = Evento.NULO;
+            }
+            default -> {
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw error("valor inesperado '" + (char) c + "'");
+                }
+                leerNumero(c);
+                evento = Evento.NUMERO;
+            }
+        }
+        despuesDeValor = true;
+        return evento;
+    }
+
+    private Evento cerrar(int c) throws IOException {
+        if (nivel == 0 || (c == '}') != enObjeto()) {
+            throw error("cierre '" + (char) c + "' sin su apertura");
+        }
+        nivel--;
+        despuesDeValor = true;
+        return evento = c == '}' ? Evento.FIN_OBJETO : Evento.FIN_ARREGLO;
+    }
+
+    private boolean enObjeto() {
+        return nivel > 0 && (objetos & 1L << (nivel - 1)) != 0;
+    }
+
+    /**
+     * Salta el valor que sigue (después de un {@link Evento#NOMBRE}) o, si el evento actual abre
+     * un objeto o arreglo, el resto de ese contenedor.
+     */
+    public void saltarValor() throws IOException {
+        int profundidad = 0;
+        if (evento == Evento.INICIO_OBJETO || evento == Evento.INICIO_ARREGLO) {
+            profundidad = 1;
+        } else {
+            Evento valor = siguiente();
+            if (valor == Evento.INICIO_OBJETO || valor == Evento.INICIO_ARREGLO) {
+                profundidad = 1;
+            }
+        }
+        while (profundidad > 0) {
+            switch (siguiente()) {
+                case INICIO_OBJETO, INICIO_ARREGLO -> profundidad++;
+                case FIN_OBJETO, FIN_ARREGLO -> profundidad--;
+                default -> {
+                }
+            }
+        }
+    }
+
+    public Evento getEvento() {
+        return evento;
+    }
+
+    /**
+     * @return el nombre, el texto o el número, tal como aparece, del token actual
+     */
+    public String getTexto() {
+        return texto.toString();
+    }
+
+    public double getNumero() throws IOException {
+        if (evento != Evento.NUMERO) {
+            throw error("se esperaba un número y hay " + evento);
+        }
+        try {
+            return Double.parseDouble(texto.toString());
+        } catch (NumberFormatException e) {
+            throw error("número inválido " + texto);
+        }
+    }
+
+    public long getEntero() throws IOException {
+        if (evento != Evento.NUMERO) {
+            throw error("se esperaba un número y hay " + evento);
+        }
+        try {
+            return Long.parseLong(texto, 0, texto.length(), 10);
+        } catch (NumberFormatException e) {
+            throw error("se esperaba un entero y hay " + texto);
+        }
+    }
+
+    public boolean getBooleano() throws IOException {
+        if (evento != Evento.BOOLEANO) {
+            throw error("se esperaba true o false y hay " + evento);
+        }
+        return booleano;
+    }
+
+    // Bytes leídos hasta el token actual
+    public long getPosicion() {
+        return consumidos + posicion;
+    }
+
+    private void leerTexto() throws IOException {
+        texto.setLength(0);
+        while (true) {
+            int c = leer();
+            if (c == '"') {
+                return;
+            }
+            if (c == -1) {
+                throw error("texto sin cerrar");
+            }
+            if (c == '\\') {
+                escape();
+            } else if (c < 0x80) {
+                if (c < 0x20) {
+                    throw error("carácter de control en un texto");
+                }
+                texto.append((char) c);
+            } else {
+                utf8(c);
+            }
+        }
+    }
+
+    private void escape() throws IOException {
+        int c = leer();
+        switch (c) {
+            case '"', '\\', '/' -> texto.append((char) c);
+            case 'b' -> texto.append('\b');
+            case 'f' -> texto.append('\f');
+            case 'n' -> texto.append('\n');
+            case 'r' -> texto.append('\r');
+            case 't' -> texto.append('\t');
+            case 'u' -> {
+                int unidad = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digito = Character.digit(leer(), 16);
+                    if (digito < 0) {
+                        throw error("escape \\u inválido");
+                    }
+                    unidad = unidad << 4 | digito;
+                }
+                // Los pares sustitutos llegan como dos escapes seguidos y se anexan tal cual
+                texto.append((char) unidad);
+            }
+            default -> throw error("escape inválido \\" + (char) c);
+        }
+    }
+
+    private void utf8(int inicial) throws IOException {
+        int extra;
+        int punto;
+        if ((inicial & 0xE0) == 0xC0) {
+            extra = 1;
+            punto = inicial & 0x1F;
+        } else if ((inicial & 0xF0) == 0xE0) {
+            extra = 2;
+            punto = inicial & 0x0F;
+        } else if ((inicial & 0xF8) == 0xF0) {
+            extra = 3;
+            punto = inicial & 0x07;
+        } else {
+            throw error("UTF-8 inválido");
+        }
+        for (int i = 0; i < extra; i++) {
+            int c = leer();
+            if ((c & 0xC0) != 0x80) {
+                throw error("UTF-8 inválido");
+            }
+            punto = punto << 6 | c & 0x3F;
+        }
+        texto.appendCodePoint(punto);
+    }
+
+    private void leerNumero(int primero) throws IOException {
+        texto.setLength(0);
+        texto.append((char) primero);
+        while (true) {
+            int c = mirar();
+            if (c >= '0' && c <= '9' || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                texto.append((char) c);
+                posicion++;
+            } else {
+                break;
+            }
+        }
+        if (texto.length() == 1 && primero == '-') {
+            throw error("número inválido");
+        }
+    }
+
+    private void literal(String resto) throws IOException {
+        for (int i = 0; i < resto.length(); i++) {
+            if (leer() != resto.charAt(i)) {
+                throw error("literal inválido");
+            }
+        }
+    }
+
+    private int noBlanco() throws IOException {
+        while (true) {
+            int c = leer();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int leer() throws IOException {
+        int c = mirar();
+        if (c != -1) {
+            posicion++;
+        }
+        return c;
+    }
+
+    private int mirar() throws IOException {
+        if (posicion == limite) {
+            consumidos += limite;
+            posicion = 0;
+            limite = Math.max(0, entrada.read(bufer));
+            if (limite == 0) {
+                return -1;
+            }
+        }
+        return bufer[posicion] & 0xFF;
+    }
+
+    private IOException error(String mensaje) {
+        return new IOException("JSON inválido en el byte " + getPosicion() + ": " + mensaje);
+    }
+}
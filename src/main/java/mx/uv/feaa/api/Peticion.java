@@ -0,0 +1,161 @@
+package mx.uv.feaa.api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Petición HTTP ya interpretada: parámetros de la URL y del cuerpo, y sesión del usuario.
+ * <p>
+ * Los parámetros se aceptan en la query string y en cuerpos
+ * {@code application/x-www-form-urlencoded}; las respuestas siempre son JSON.
+ * </p>
+ */
+public final class Peticion {
+    private static final int TAMANO_MAXIMO_CUERPO = 64 * 1024;
+
+    private final HttpExchange intercambio;
+    private final Map<String, String> parametros;
+    private final Sesion sesion;
+    private boolean respondida;
+
+    private Peticion(HttpExchange intercambio, Sesion sesion, Map<String, String> parametros) {
+        this.intercambio = intercambio;
+        this.sesion = sesion;
+        this.parametros = parametros;
+    }
+
+    /**
+     * Interpreta los parámetros de la URL y, salvo en GET, los del cuerpo.
+     *
+     * @throws ErrorApi 413 si el cuerpo excede el tamaño máximo
+     */
+    static Peticion leer(HttpExchange intercambio, Sesion sesion) throws IOException {
+        Map<String, String> parametros = new HashMap<>();
+        decodificar(intercambio.getRequestURI().getRawQuery(), parametros);
+        if (!"GET".equals(intercambio.getRequestMethod())) {
+            decodificar(leerCuerpo(intercambio.getRequestBody()), parametros);
+        }
+        return new Peticion(intercambio, sesion, parametros);
+    }
+
+    /**
+     * Petición sin parámetros ni sesión, para responder un error antes de haber podido leerla.
+     */
+    static Peticion sinLeer(HttpExchange intercambio) {
+        return new Peticion(intercambio, null, Map.of());
+    }
+
+    /**
+     * Contenido JSON de una respuesta.
+     */
+    @FunctionalInterface
+    public interface Contenido {
+        void escribir(EscritorJson json) throws IOException;
+    }
+
+    public String parametro(String nombre) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isBlank()) {
+            throw new ErrorApi(400, "Falta el parámetro '" + nombre + "'");
+        }
+        return valor;
+    }
+
+    public String parametroOpcional(String nombre) {
+        return parametros.get(nombre);
+    }
+
+    public double decimal(String nombre) {
+        try {
+            return Double.parseDouble(parametro(nombre));
+        } catch (NumberFormatException e) {
+            throw new ErrorApi(400, "El parámetro '" + nombre + "' debe ser numérico");
+        }
+    }
+
+    public int entero(String nombre) {
+        try {
+            return Integer.parseInt(parametro(nombre));
+        } catch (NumberFormatException e) {
+            throw new ErrorApi(400, "El parámetro '" + nombre + "' debe ser entero");
+        }
+    }
+
+    /**
+     * @return la sesión del usuario
+     * @throws ErrorApi 401 si la petición no trae un token válido
+     */
+    public Sesion sesion() {
+        if (sesion == null) {
+            throw new ErrorApi(401, "Se requiere iniciar sesión");
+        }
+        return sesion;
+    }
+
+    /**
+     * @param tipoUsuario el tipo de usuario exigido (APOSTADOR, CRIADOR)
+     * @return la sesión del usuario
+     * @throws ErrorApi 401 sin sesión, 403 si el usuario es de otro tipo
+     */
+    public Sesion sesion(String tipoUsuario) {
+        Sesion actual = sesion();
+        if (!tipoUsuario.equalsIgnoreCase(actual.getTipoUsuario())) {
+            throw new ErrorApi(403, "Operación disponible solo para usuarios " + tipoUsuario);
+        }
+        return actual;
+    }
+
+    /**
+     * Envía la respuesta escribiendo el JSON directamente al cuerpo, sin armarlo antes en memoria.
+     * Debe llamarse una sola vez, después de haber validado todo lo que pueda fallar.
+     *
+     * @param estado el código de estado HTTP
+     * @param contenido el contenido a escribir
+     * @throws IOException si el cliente cerró la conexión
+     */
+    public void responder(int estado, Contenido contenido) throws IOException {
+        respondida = true;
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, 0);
+        try (OutputStream cuerpo = intercambio.getResponseBody()) {
+            EscritorJson json = new EscritorJson(cuerpo);
+            contenido.escribir(json);
+            json.vaciar();
+        }
+    }
+
+    public void responder(Contenido contenido) throws IOException {
+        responder(200, contenido);
+    }
+
+    boolean isRespondida() {
+        return respondida;
+    }
+
+    private static String leerCuerpo(InputStream cuerpo) throws IOException {
+        byte[] bytes = cuerpo.readNBytes(TAMANO_MAXIMO_CUERPO + 1);
+        if (bytes.length > TAMANO_MAXIMO_CUERPO) {
+            throw new ErrorApi(413, "El cuerpo de la petición es demasiado grande");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void decodificar(String texto, Map<String, String> destino) {
+        if (texto == null || texto.isEmpty()) {
+            return;
+        }
+        for (String par : texto.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual >= 0 ? par.substring(0, igual) : par;
+            String valor = igual >= 0 ? par.substring(igual + 1) : "";
+            destino.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+    }
+}
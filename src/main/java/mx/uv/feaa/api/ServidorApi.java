@@ -0,0 +1,543 @@
+package mx.uv.feaa.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import mx.uv.feaa.enumeracion.SexoCaballo;
+import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.analitica.EntradaClasificacion;
+import mx.uv.feaa.excepciones.CarreraNoAbiertaException;
+import mx.uv.feaa.metricas.Traza;
+import mx.uv.feaa.model.dao.ApostadorDAO;
+import mx.uv.feaa.model.dao.ApuestaDAO;
+import mx.uv.feaa.model.dao.CaballoDAO;
+import mx.uv.feaa.model.dao.UsuarioDAO;
+import mx.uv.feaa.model.entidades.Apostador;
+import mx.uv.feaa.model.entidades.Apuesta;
+import mx.uv.feaa.model.entidades.ApuestaGanador;
+import mx.uv.feaa.model.entidades.ApuestaSeleccion;
+import mx.uv.feaa.model.entidades.Caballo;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.Participante;
+import mx.uv.feaa.model.entidades.Usuario;
+import mx.uv.feaa.servicios.CatalogoCarreras;
+import mx.uv.feaa.servicios.ClasificacionService;
+import mx.uv.feaa.util.EnrutadorConexiones;
+import mx.uv.feaa.util.GeneradorIds;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servidor HTTP/JSON embebido sobre los mismos DAOs que usan las vistas de consola.
+ * <p>
+ * Usa el {@link HttpServer} del JDK con un ejecutor de hilos virtuales: cada petición corre en su
+ * propio hilo virtual y puede bloquearse en JDBC sin ocupar un hilo de plataforma, de modo que la
+ * concurrencia queda limitada por el pool de conexiones y no por el número de hilos.
+ * </p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code POST /api/login} (nombreUsuario, password) → token de sesión</li>
+ *   <li>{@code POST /api/logout} → invalida el token de la petición</li>
+ *   <li>{@code GET /api/cartera}, {@code POST /api/cartera/deposito} y {@code /api/cartera/retiro} (monto)</li>
+ *   <li>{@code GET /api/carreras} → carreras con apuestas abiertas y sus participantes</li>
+ *   <li>{@code POST /api/apuestas} (idCarrera, numeroCompetidor, tipo, monto) y {@code GET /api/apuestas}</li>
+ *   <li>{@code GET /api/caballos}, {@code POST /api/caballos} y {@code DELETE /api/caballos?id=}</li>
+ *   <li>{@code GET /api/cuotas/stream} → eventos SSE, ver {@link TransmisionCuotas}</li>
+ *   <li>{@code GET /api/clasificaciones} (entidad = caballos|jinetes, orden = victorias|porcentaje,
+ *       y opcionales temporada, hipodromo, k) → las primeras posiciones, ver {@link ClasificacionService}</li>
+ * </ul>
+ * Salvo el login, todas las peticiones requieren la cabecera {@code Authorization: Bearer <token>}.
+ * <p>
+ * Las sesiones caducan tras {@link #INACTIVIDAD} sin uso y un hilo de fondo las retira del mapa.
+ * Cada {@link #REVALIDACION} se vuelve a comprobar en la base de datos que la cuenta siga activa:
+ * desactivar un usuario invalida sus tokens como mucho ese tiempo después.
+ * </p>
+ */
+public class ServidorApi {
+    private static final Logger LOGGER = Logger.getLogger(ServidorApi.class.getName());
+    private static final double APUESTA_MINIMA = 10.0;
+    private static final Duration INACTIVIDAD = Duration.ofMinutes(30);
+    private static final Duration REVALIDACION = Duration.ofSeconds(30);
+    private static final Duration INTERVALO_LIMPIEZA = Duration.ofMinutes(1);
+    private static final int POSICIONES_PREDETERMINADAS = 10;
+    private static final int POSICIONES_MAXIMAS = 100;
+
+    /**
+     * Lógica de un endpoint.
+     */
+    @FunctionalInterface
+    interface Manejador {
+        void atender(Peticion peticion) throws Exception;
+    }
+
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    private final ScheduledExecutorService limpieza;
+    private final Map<String, Manejador> rutas = new HashMap<>();
+    private final Map<String, Sesion> sesiones = new ConcurrentHashMap<>();
+
+    private final UsuarioDAO usuarioDAO = new UsuarioDAO();
+    private final ApostadorDAO apostadorDAO = new ApostadorDAO();
+    private final ApuestaDAO apuestaDAO = new ApuestaDAO();
+    private final CaballoDAO caballoDAO = new CaballoDAO();
+    private final CatalogoCarreras catalogo = CatalogoCarreras.getInstancia();
+
+    /**
+     * @param puerto puerto TCP en el que escuchar
+     * @throws IOException si no puede abrirse el puerto
+     */
+    public ServidorApi(int puerto) throws IOException {
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 1024);
+        this.ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.servidor.setExecutor(ejecutor);
+        this.limpieza = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "sesiones-api");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Registra un endpoint adicional; debe llamarse antes de {@link #iniciar()}.
+     */
+    void ruta(String metodo, String ruta, Manejador manejador) {
+        rutas.put(metodo + " " + ruta, manejador);
+    }
+
+    /**
+     * Registra un contexto propio del {@link HttpServer}, para respuestas que no son JSON.
+     */
+    void contexto(String ruta, HttpHandler manejador) {
+        servidor.createContext(ruta, manejador);
+    }
+
+    /**
+     * Publica la transmisión de cuotas en {@code GET /api/cuotas/stream}; debe llamarse antes de
+     * {@link #iniciar()}.
+     */
+    public void publicarCuotas(TransmisionCuotas transmision) {
+        contexto("/api/cuotas/stream", transmision);
+    }
+
+    /**
+     * Publica las clasificaciones en {@code GET /api/clasificaciones}; debe llamarse antes de
+     * {@link #iniciar()}.
+     */
+    public void publicarClasificaciones(ClasificacionService clasificaciones) {
+        ruta("GET", "/api/clasificaciones", p -> consultarClasificacion(p, clasificaciones));
+    }
+
+    public void iniciar() {
+        ruta("POST", "/api/login", this::login);
+        ruta("POST", "/api/logout", this::logout);
+        ruta("GET", "/api/cartera", this::consultarCartera);
+        ruta("POST", "/api/cartera/deposito", p -> moverSaldo(p, 1));
+        ruta("POST", "/api/cartera/retiro", p -> moverSaldo(p, -1));
+        ruta("GET", "/api/carreras", this::carrerasAbiertas);
+        ruta("GET", "/api/apuestas", this::historialApuestas);
+        ruta("POST", "/api/apuestas", this::realizarApuesta);
+        ruta("GET", "/api/caballos", this::listarCaballos);
+        ruta("POST", "/api/caballos", this::registrarCaballo);
+        ruta("DELETE", "/api/caballos", this::eliminarCaballo);
+        servidor.createContext("/api/", this::despachar);
+
+        limpieza.scheduleWithFixedDelay(this::retirarExpiradas, INTERVALO_LIMPIEZA.toMillis(),
+                INTERVALO_LIMPIEZA.toMillis(), TimeUnit.MILLISECONDS);
+        servidor.start();
+        LOGGER.info("API escuchando en el puerto " + servidor.getAddress().getPort());
+    }
+
+    public void detener() {
+        servidor.stop(1);
+        ejecutor.shutdown();
+        limpieza.shutdownNow();
+    }
+
+    /**
+     * Invalida de inmediato todas las sesiones de un usuario, por ejemplo al desactivar su cuenta
+     * desde este mismo proceso.
+     *
+     * @param idUsuario el ID del usuario
+     */
+    public void cerrarSesiones(String idUsuario) {
+        sesiones.values().removeIf(sesion -> sesion.getIdUsuario().equals(idUsuario));
+    }
+
+    public int getSesionesActivas() {
+        return sesiones.size();
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void despachar(HttpExchange intercambio) throws IOException {
+        Peticion peticion = null;
+        // Cada petición es una acción: sus sentencias SQL se agrupan bajo un mismo identificador
+        Traza traza = Traza.iniciar(intercambio.getRequestMethod() + " " + intercambio.getRequestURI().getPath());
+        try {
+            intercambio.getResponseHeaders().set("X-Traza-Id", traza.getId());
+            Manejador manejador = rutas.get(intercambio.getRequestMethod() + " " + intercambio.getRequestURI().getPath());
+            if (manejador == null) {
+                throw new ErrorApi(404, "Ruta no encontrada");
+            }
+            Sesion sesion = sesionDe(intercambio);
+            peticion = Peticion.leer(intercambio, sesion);
+            // Con réplicas, las lecturas de la sesión ven sus propias escrituras aunque lleguen en otra petición
+            EnrutadorConexiones.Ambito ambito = EnrutadorConexiones.sesion(sesion != null ? sesion.getToken() : null);
+            try {
+                manejador.atender(peticion);
+            } finally {
+                ambito.close();
+            }
+        } catch (ErrorApi e) {
+            responderError(intercambio, peticion, e.getEstado(), e.getMessage());
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error de base de datos en " + intercambio.getRequestURI(), e);
+            responderError(intercambio, peticion, 503, "Error al acceder a la base de datos");
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error inesperado en " + intercambio.getRequestURI(), e);
+            responderError(intercambio, peticion, 500, "Error interno");
+        } finally {
+            intercambio.close();
+            traza.close();
+        }
+    }
+
+    private void responderError(HttpExchange intercambio, Peticion peticion, int estado, String mensaje)
+            throws IOException {
+        if (peticion != null && peticion.isRespondida()) {
+            return; // Las cabeceras ya se enviaron; solo queda cerrar la conexión
+        }
+        Peticion respuesta = peticion != null ? peticion : Peticion.sinLeer(intercambio);
+        respuesta.responder(estado, json -> json.objeto().campo("error", mensaje).finObjeto());
+    }
+
+    /**
+     * Busca la sesión del token de la petición. Las sesiones caducadas se retiran en el acto y las
+     * de cuentas desactivadas se descartan al revalidarlas.
+     */
+    private Sesion sesionDe(HttpExchange intercambio) throws SQLException {
+        String autorizacion = intercambio.getRequestHeaders().getFirst("Authorization");
+        if (autorizacion == null || !autorizacion.startsWith("Bearer ")) {
+            return null;
+        }
+        String token = autorizacion.substring(7).trim();
+        Sesion sesion = sesiones.get(token);
+        if (sesion == null) {
+            return null;
+        }
+        long ahora = System.currentTimeMillis();
+        if (sesion.expirada(ahora, INACTIVIDAD.toMillis())) {
+            sesiones.remove(token, sesion);
+            return null;
+        }
+        if (sesion.requiereVerificacion(ahora, REVALIDACION.toMillis())) {
+            if (!usuarioDAO.estaActivo(sesion.getIdUsuario())) {
+                sesiones.remove(token, sesion);
+                return null;
+            }
+            sesion.verificada(ahora);
+        }
+        sesion.usar(ahora);
+        return sesion;
+    }
+
+    private void retirarExpiradas() {
+        long ahora = System.currentTimeMillis();
+        int antes = sesiones.size();
+        sesiones.values().removeIf(sesion -> sesion.expirada(ahora, INACTIVIDAD.toMillis()));
+        int retiradas = antes - sesiones.size();
+        if (retiradas > 0) {
+            LOGGER.fine(() -> "Sesiones caducadas retiradas: " + retiradas);
+        }
+    }
+
+    // ---------------------------------------------------------------- Endpoints
+
+    private void login(Peticion p) throws Exception {
+        String nombreUsuario = p.parametro("nombreUsuario");
+        String password = p.parametro("password");
+        if (!usuarioDAO.validarCredenciales(nombreUsuario, password)) {
+            throw new ErrorApi(401, "Credenciales incorrectas");
+        }
+        Usuario usuario = usuarioDAO.buscarPorNombreUsuario(nombreUsuario)
+                .orElseThrow(() -> new ErrorApi(401, "Credenciales incorrectas"));
+        if (!usuario.isActivo()) {
+            throw new ErrorApi(403, "La cuenta está desactivada");
+        }
+        usuarioDAO.actualizarUltimoAcceso(usuario.getIdUsuario());
+
+        Sesion sesion = new Sesion(UUID.randomUUID().toString(), usuario.getIdUsuario(),
+                usuario.getNombreUsuario(), usuario.getTipoUsuario().toUpperCase());
+        sesiones.put(sesion.getToken(), sesion);
+        p.responder(json -> json.objeto()
+                .campo("token", sesion.getToken())
+                .campo("idUsuario", sesion.getIdUsuario())
+                .campo("tipoUsuario", sesion.getTipoUsuario())
+                .finObjeto());
+    }
+
+    private void logout(Peticion p) throws IOException {
+        Sesion sesion = p.sesion();
+        boolean cerrada = sesiones.remove(sesion.getToken(), sesion);
+        p.responder(json -> json.objeto().campo("cerrada", cerrada).finObjeto());
+    }
+
+    private void consultarCartera(Peticion p) throws Exception {
+        Apostador apostador = apostador(p.sesion("APOSTADOR"));
+        p.responder(json -> json.objeto()
+                .campo("saldo", apostador.getSaldo())
+                .campo("limiteApuesta", apostador.getLimiteApuesta())
+                .finObjeto());
+    }
+
+    private void moverSaldo(Peticion p, int signo) throws Exception {
+        Sesion sesion = p.sesion("APOSTADOR");
+        double monto = p.decimal("monto");
+        if (monto <= 0) {
+            throw new ErrorApi(400, "El monto debe ser positivo");
+        }
+        if (!apostadorDAO.ajustarSaldo(sesion.getIdUsuario(), signo * monto)) {
+            throw new ErrorApi(409, "Saldo insuficiente");
+        }
+        consultarCartera(p);
+    }
+
+    private void carrerasAbiertas(Peticion p) throws Exception {
+        p.sesion();
+        CatalogoCarreras.Instantanea instantanea = catalogo.getInstantanea();
+        p.responder(json -> {
+            json.objeto().campo("generado", instantanea.getGenerada()).nombre("carreras").arreglo();
+            for (Carrera carrera : instantanea.getCarreras()) {
+                json.objeto()
+                        .campo("idCarrera", carrera.getIdCarrera())
+                        .campo("nombre", carrera.getNombre())
+                        .campo("fecha", carrera.getFecha())
+                        .campo("hora", carrera.getHora())
+                        .campo("distancia", carrera.getDistancia())
+                        .nombre("participantes").arreglo();
+                List<Participante> participantes = instantanea.getParticipantes(carrera.getIdCarrera());
+                if (participantes != null) {
+                    for (Participante participante : participantes) {
+                        json.objeto()
+                                .campo("numero", participante.getNumeroCompetidor())
+                                .campo("caballo", participante.getCaballo() != null ? participante.getCaballo().getNombre() : null)
+                                .campo("jinete", participante.getJinete() != null ? participante.getJinete().getNombre() : null)
+                                .campo("peso", participante.getPesoAsignado())
+                                .finObjeto();
+                    }
+                }
+                json.finArreglo().finObjeto();
+            }
+            json.finArreglo().finObjeto();
+        });
+    }
+
+    private void historialApuestas(Peticion p) throws Exception {
+        Sesion sesion = p.sesion("APOSTADOR");
+        List<Apuesta> apuestas = apuestaDAO.getByApostadorId(sesion.getIdUsuario());
+        p.responder(json -> {
+            json.arreglo();
+            for (Apuesta apuesta : apuestas) {
+                escribirApuesta(json, apuesta);
+            }
+            json.finArreglo();
+        });
+    }
+
+    private void realizarApuesta(Peticion p) throws Exception {
+        Sesion sesion = p.sesion("APOSTADOR");
+        String idCarrera = p.parametro("idCarrera");
+        int numeroCompetidor = p.entero("numeroCompetidor");
+        double monto = p.decimal("monto");
+        TipoApuesta tipo;
+        try {
+            tipo = TipoApuesta.valueOf(p.parametro("tipo").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ErrorApi(400, "Tipo de apuesta no válido");
+        }
+
+        List<Participante> participantes = catalogo.getInstantanea().getParticipantes(idCarrera);
+        if (participantes == null) {
+            throw new ErrorApi(409, "La carrera no acepta apuestas");
+        }
+        Participante participante = participantes.stream()
+                .filter(x -> x.getNumeroCompetidor() == numeroCompetidor)
+                .findFirst()
+                .orElseThrow(() -> new ErrorApi(400, "Participante no válido"));
+
+        Apostador apostador = apostador(sesion);
+        if (monto < APUESTA_MINIMA || monto > apostador.getLimiteApuesta()) {
+            throw new ErrorApi(400, "Monto fuera de los límites permitidos");
+        }
+
+        Apuesta apuesta = new ApuestaGanador(GeneradorIds.predeterminado().siguiente(), sesion.getIdUsuario(), idCarrera, tipo, monto);
+        List<ApuestaSeleccion> selecciones = List.of(new ApuestaSeleccion(
+                GeneradorIds.predeterminado().siguiente(), apuesta.getId(), participante.getIdParticipante(), 1));
+
+        // El cargo se hace primero y de forma atómica; si la apuesta no se guarda se reembolsa
+        if (!apostadorDAO.ajustarSaldo(sesion.getIdUsuario(), -monto)) {
+            throw new ErrorApi(409, "Saldo insuficiente");
+        }
+        boolean guardada;
+        try {
+            guardada = apuestaDAO.saveWithSelections(apuesta, selecciones);
+        } catch (CarreraNoAbiertaException e) {
+            // El catálogo puede ir atrasado; el DAO comprueba el estado al escribir
+            ErrorApi error = new ErrorApi(409, "La carrera no acepta apuestas");
+            reembolsar(sesion.getIdUsuario(), monto, error);
+            throw error;
+        } catch (SQLException | RuntimeException | Error e) {
+            reembolsar(sesion.getIdUsuario(), monto, e);
+            throw e;
+        }
+        if (!guardada) {
+            ErrorApi error = new ErrorApi(500, "No se pudo registrar la apuesta");
+            reembolsar(sesion.getIdUsuario(), monto, error);
+            throw error;
+        }
+        p.responder(201, json -> escribirApuesta(json, apuesta));
+    }
+
+    /**
+     * Devuelve el cargo de una apuesta que no se guardó. Si el reembolso también falla, se registra
+     * con el apostador y el monto para corregirlo a mano, y la causa queda como suprimida en
+     * {@code falla}, que es la que sigue propagándose.
+     */
+    private void reembolsar(String idUsuario, double monto, Throwable falla) {
+        try {
+            if (!apostadorDAO.ajustarSaldo(idUsuario, monto)) {
+                LOGGER.severe("No se pudo reembolsar " + monto + " al apostador " + idUsuario + ": ya no existe");
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "No se pudo reembolsar " + monto + " al apostador " + idUsuario, e);
+            falla.addSuppressed(e);
+        }
+    }
+
+    private void listarCaballos(Peticion p) throws Exception {
+        Sesion sesion = p.sesion("CRIADOR");
+        List<Caballo> caballos = caballoDAO.getByCriador(sesion.getIdUsuario());
+        p.responder(json -> {
+            json.arreglo();
+            for (Caballo caballo : caballos) {
+                escribirCaballo(json, caballo);
+            }
+            json.finArreglo();
+        });
+    }
+
+    private void registrarCaballo(Peticion p) throws Exception {
+        Sesion sesion = p.sesion("CRIADOR");
+        Caballo caballo = new Caballo();
+        caballo.setIdCaballo(GeneradorIds.predeterminado().siguiente());
+        caballo.setNombre(p.parametro("nombre"));
+        try {
+            caballo.setFechaNacimiento(LocalDate.parse(p.parametro("fechaNacimiento")));
+            caballo.setSexo(SexoCaballo.valueOf(p.parametro("sexo").toUpperCase()));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ErrorApi(400, "Fecha de nacimiento o sexo no válidos");
+        }
+        caballo.setPeso(p.decimal("peso"));
+        caballo.setPedigri(p.parametroOpcional("pedigri"));
+        caballo.setCriadorId(sesion.getIdUsuario());
+
+        if (!caballoDAO.save(caballo)) {
+            throw new ErrorApi(500, "No se pudo registrar el caballo");
+        }
+        p.responder(201, json -> escribirCaballo(json, caballo));
+    }
+
+    private void eliminarCaballo(Peticion p) throws Exception {
+        Sesion sesion = p.sesion("CRIADOR");
+        String idCaballo = p.parametro("id");
+        Optional<Caballo> caballo = caballoDAO.getById(idCaballo);
+        if (caballo.isEmpty() || !sesion.getIdUsuario().equals(caballo.get().getCriadorId())) {
+            throw new ErrorApi(404, "Caballo no encontrado");
+        }
+        boolean eliminado = caballoDAO.delete(idCaballo);
+        p.responder(json -> json.objeto().campo("eliminado", eliminado).finObjeto());
+    }
+
+    private void consultarClasificacion(Peticion p, ClasificacionService clasificaciones) throws IOException {
+        p.sesion();
+        String entidad = p.parametro("entidad");
+        String orden = p.parametro("orden");
+        Integer temporada = p.parametroOpcional("temporada") != null ? p.entero("temporada") : null;
+        String idHipodromo = p.parametroOpcional("hipodromo");
+        int k = p.parametroOpcional("k") != null ? p.entero("k") : POSICIONES_PREDETERMINADAS;
+        if (k < 1 || k > POSICIONES_MAXIMAS) {
+            throw new ErrorApi(400, "El parámetro 'k' debe estar entre 1 y " + POSICIONES_MAXIMAS);
+        }
+
+        List<EntradaClasificacion> posiciones = switch (entidad + " " + orden) {
+            case "caballos victorias" -> clasificaciones.caballosConMasVictorias(temporada, idHipodromo, k);
+            case "caballos porcentaje" -> clasificaciones.caballosConMejorPorcentaje(temporada, idHipodromo, k);
+            case "jinetes victorias" -> clasificaciones.jinetesConMasVictorias(temporada, idHipodromo, k);
+            case "jinetes porcentaje" -> clasificaciones.jinetesConMejorPorcentaje(temporada, idHipodromo, k);
+            default -> throw new ErrorApi(400, "Clasificación no válida: entidad = caballos|jinetes, orden = victorias|porcentaje");
+        };
+        p.responder(json -> {
+            json.arreglo();
+            for (EntradaClasificacion posicion : posiciones) {
+                json.objeto()
+                        .campo("id", posicion.getIdEntidad())
+                        .campo("carreras", posicion.getCarreras())
+                        .campo("victorias", posicion.getVictorias())
+                        .campo("porcentajeVictorias", posicion.getPorcentajeVictorias())
+                        .finObjeto();
+            }
+            json.finArreglo();
+        });
+    }
+
+    // ---------------------------------------------------------------- Escritura
+
+    private Apostador apostador(Sesion sesion) throws SQLException {
+        return apostadorDAO.getById(sesion.getIdUsuario())
+                .orElseThrow(() -> new ErrorApi(404, "Apostador no encontrado"));
+    }
+
+    private static void escribirApuesta(EscritorJson json, Apuesta apuesta) throws IOException {
+        json.objeto()
+                .campo("idApuesta", apuesta.getId())
+                .campo("idCarrera", apuesta.getIdCarrera())
+                .campo("tipo", apuesta.getTipoApuesta() != null ? apuesta.getTipoApuesta().name() : null)
+                .campo("monto", apuesta.getMontoApostado())
+                .campo("cuota", apuesta.getCuotaAplicada())
+                .campo("estado", apuesta.getEstado() != null ? apuesta.getEstado().name() : null)
+                .campo("ganancia", apuesta.getMontoGanado())
+                .campo("fecha", apuesta.getFechaApuesta())
+                .finObjeto();
+    }
+
+    private static void escribirCaballo(EscritorJson json, Caballo caballo) throws IOException {
+        json.objeto()
+                .campo("idCaballo", caballo.getIdCaballo())
+                .campo("nombre", caballo.getNombre())
+                .campo("fechaNacimiento", caballo.getFechaNacimiento())
+                .campo("sexo", caballo.getSexo() != null ? caballo.getSexo().name() : null)
+                .campo("peso", caballo.getPeso())
+                .campo("pedigri", caballo.getPedigri())
+                .campo("ultimaCarrera", caballo.getUltimaCarrera())
+                .finObjeto();
+    }
+}
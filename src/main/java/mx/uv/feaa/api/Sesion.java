@@ -0,0 +1,58 @@
+package mx.uv.feaa.api;
+
+import java.time.Instant;
+
+/**
+ * Sesión iniciada mediante {@code POST /api/login}, identificada por un token opaco.
+ * <p>
+ * Guarda cuándo se usó por última vez, para caducarla por inactividad, y cuándo se comprobó por
+ * última vez que la cuenta sigue activa. Ambos instantes se leen desde varios hilos de peticiones.
+ * </p>
+ */
+public final class Sesion {
+    private final String token;
+    private final String idUsuario;
+    private final String nombreUsuario;
+    private final String tipoUsuario;
+    private final Instant inicio;
+    private volatile long ultimoUsoMs;
+    private volatile long verificadaMs;
+
+    Sesion(String token, String idUsuario, String nombreUsuario, String tipoUsuario) {
+        this.token = token;
+        this.idUsuario = idUsuario;
+        this.nombreUsuario = nombreUsuario;
+        this.tipoUsuario = tipoUsuario;
+        this.inicio = Instant.now();
+        this.ultimoUsoMs = inicio.toEpochMilli();
+        this.verificadaMs = ultimoUsoMs;
+    }
+
+    /**
+     * @return true si lleva sin usarse más de {@code inactividadMs} milisegundos
+     */
+    boolean expirada(long ahoraMs, long inactividadMs) {
+        return ahoraMs - ultimoUsoMs > inactividadMs;
+    }
+
+    void usar(long ahoraMs) {
+        ultimoUsoMs = ahoraMs;
+    }
+
+    /**
+     * @return true si pasaron más de {@code intervaloMs} milisegundos desde la última verificación
+     */
+    boolean requiereVerificacion(long ahoraMs, long intervaloMs) {
+        return ahoraMs - verificadaMs > intervaloMs;
+    }
+
+    void verificada(long ahoraMs) {
+        verificadaMs = ahoraMs;
+    }
+
+    public String getToken() { return token; }
+    public String getIdUsuario() { return idUsuario; }
+    public String getNombreUsuario() { return nombreUsuario; }
+    public String getTipoUsuario() { return tipoUsuario; }
+    public Instant getInicio() { return inicio; }
+}
@@ -0,0 +1,324 @@
+package mx.uv.feaa.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.Participante;
+import mx.uv.feaa.servicios.CatalogoCarreras;
+import mx.uv.feaa.servicios.PlanificadorCarreras;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Transmisión por Server-Sent Events de las cuotas y los cambios de estado de las carreras abiertas.
+ * <p>
+ * {@code GET /api/cuotas/stream} recibe todas las carreras y {@code ?carrera=<id>} solo una. Cada
+ * conexión ocupa un hilo virtual del servidor que espera en su propia cola y escribe lo que le llega.
+ * </p>
+ * <p>
+ * En cada ciclo se calculan las cuotas de las carreras del {@link CatalogoCarreras} y cada carrera se
+ * serializa una sola vez a bytes; el evento con todas las carreras se arma concatenando esos bytes.
+ * A los suscriptores se les entrega el mismo arreglo, sin serializar nada por suscriptor, y solo si
+ * cambió respecto al ciclo anterior. Los cambios de estado llegan desde el {@link PlanificadorCarreras}.
+ * </p>
+ * <p>
+ * Un suscriptor lento nunca acumula memoria sin límite: las cuotas se agrupan (solo se conserva la
+ * más reciente que aún no se ha escrito) y los eventos de estado van a una cola acotada; si esa cola
+ * se llena, el suscriptor se descarta y el cliente debe reconectarse.
+ * </p>
+ */
+public class TransmisionCuotas implements HttpHandler {
+    private static final Logger LOGGER = Logger.getLogger(TransmisionCuotas.class.getName());
+    private static final Duration INTERVALO_LATIDO = Duration.ofSeconds(15);
+    private static final int CAPACIDAD_COLA = 64;
+    private static final int MAXIMO_SUSCRIPTORES = 20_000;
+
+    private static final byte[] LATIDO = ": latido\n\n".getBytes(StandardCharsets.UTF_8);
+    // Marca en la cola que indica que hay cuotas agrupadas pendientes; se compara por identidad
+    private static final byte[] AVISO_CUOTAS = new byte[0];
+
+    private final CatalogoCarreras catalogo;
+    private final ToDoubleFunction<Participante> rating;
+    private final ScheduledExecutorService ciclo;
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+
+    // Último evento publicado, para entregarlo al conectarse
+    private volatile byte[] eventoGeneral;
+    private volatile Map<String, byte[]> eventosPorCarrera = Map.of();
+    // JSON de cada carrera en el ciclo anterior; solo lo usa el hilo del ciclo
+    private Map<String, byte[]> datosAnteriores = Map.of();
+
+    /**
+     * @param catalogo catálogo del que se toman las carreras abiertas y sus participantes
+     * @param rating rating de cada participante con el que se calculan las cuotas
+     * @param intervalo cada cuánto se recalculan las cuotas
+     */
+    public TransmisionCuotas(CatalogoCarreras catalogo, ToDoubleFunction<Participante> rating, Duration intervalo) {
+        this.catalogo = catalogo;
+        this.rating = rating;
+        this.ciclo = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "transmision-cuotas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.ciclo.scheduleWithFixedDelay(this::publicarCuotas, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Transmite las transiciones del planificador como eventos {@code estado}.
+     *
+     * @param planificador el planificador cuyas transiciones se transmiten
+     */
+    public void escuchar(PlanificadorCarreras planificador) {
+        planificador.agregarOyente(transicion -> {
+            byte[] evento = evento("estado", json -> json.objeto()
+                    .campo("idCarrera", transicion.getIdCarrera())
+                    .campo("desde", transicion.getDesde().name())
+                    .campo("hacia", transicion.getHacia().name())
+                    .campo("instante", transicion.getInstante())
+                    .finObjeto());
+            for (Suscriptor suscriptor : suscriptores) {
+                if (suscriptor.recibe(transicion.getIdCarrera())) {
+                    suscriptor.encolar(evento);
+                }
+            }
+        });
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    /**
+     * @return los eventos encolados y aún no escritos, sumando todos los suscriptores
+     */
+    public long getEventosPendientes() {
+        long total = 0;
+        for (Suscriptor suscriptor : suscriptores) {
+            total += suscriptor.pendientes.size();
+        }
+        return total;
+    }
+
+    public void detener() {
+        ciclo.shutdownNow();
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.descartar();
+        }
+    }
+
+    @Override
+    public void handle(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            if (!"GET".equals(intercambio.getRequestMethod())) {
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (suscriptores.size() >= MAXIMO_SUSCRIPTORES) {
+                intercambio.sendResponseHeaders(503, -1);
+                return;
+            }
+            String idCarrera = Peticion.leer(intercambio, null).parametroOpcional("carrera");
+            intercambio.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            intercambio.getResponseHeaders().set("Cache-Control", "no-cache");
+            intercambio.sendResponseHeaders(200, 0);
+
+            Suscriptor suscriptor = new Suscriptor(idCarrera);
+            suscriptores.add(suscriptor);
+            try {
+                byte[] actual = idCarrera == null ? eventoGeneral : eventosPorCarrera.get(idCarrera);
+                if (actual != null) {
+                    suscriptor.cuotasIniciales(actual);
+                }
+                suscriptor.transmitir(intercambio.getResponseBody());
+            } catch (IOException e) {
+                // El cliente cerró la conexión
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                suscriptores.remove(suscriptor);
+            }
+        }
+    }
+
+    /**
+     * Recalcula las cuotas y entrega a cada suscriptor el evento que le corresponde, si cambió.
+     */
+    private void publicarCuotas() {
+        try {
+            CatalogoCarreras.Instantanea instantanea = catalogo.getInstantanea();
+            Map<String, byte[]> anteriores = eventosPorCarrera;
+            Map<String, byte[]> actuales = new HashMap<>();
+            Map<String, byte[]> datosActuales = new HashMap<>();
+            Map<String, byte[]> cambiados = new HashMap<>();
+            ByteArrayOutputStream general = new ByteArrayOutputStream();
+            general.writeBytes("event: cuotas\ndata: {\"carreras\":[".getBytes(StandardCharsets.UTF_8));
+
+            for (Carrera carrera : instantanea.getCarreras()) {
+                List<Participante> participantes = instantanea.getParticipantes(carrera.getIdCarrera());
+                byte[] datos = json(json -> escribirCarrera(json, carrera, participantes));
+                byte[] anterior = anteriores.get(carrera.getIdCarrera());
+                byte[] evento = anterior != null && Arrays.equals(datosAnteriores.get(carrera.getIdCarrera()), datos)
+                        ? anterior : enmarcar("cuotas", datos);
+                actuales.put(carrera.getIdCarrera(), evento);
+                datosActuales.put(carrera.getIdCarrera(), datos);
+                if (evento != anterior) {
+                    cambiados.put(carrera.getIdCarrera(), evento);
+                }
+                if (actuales.size() > 1) {
+                    general.write(',');
+                }
+                general.writeBytes(datos);
+            }
+            general.writeBytes("]}\n\n".getBytes(StandardCharsets.UTF_8));
+
+            boolean cambioGeneral = !cambiados.isEmpty() || !actuales.keySet().equals(anteriores.keySet())
+                    || eventoGeneral == null;
+            eventosPorCarrera = actuales;
+            datosAnteriores = datosActuales;
+            if (cambioGeneral) {
+                eventoGeneral = general.toByteArray();
+            }
+
+            for (Suscriptor suscriptor : suscriptores) {
+                byte[] evento = suscriptor.idCarrera == null
+                        ? (cambioGeneral ? eventoGeneral : null)
+                        : cambiados.get(suscriptor.idCarrera);
+                if (evento != null) {
+                    suscriptor.agruparCuotas(evento);
+                }
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error al publicar las cuotas", e);
+        }
+    }
+
+    private void escribirCarrera(EscritorJson json, Carrera carrera, List<Participante> participantes)
+            throws IOException {
+        json.objeto()
+                .campo("idCarrera", carrera.getIdCarrera())
+                .campo("nombre", carrera.getNombre())
+                .nombre("cuotas").arreglo();
+        if (participantes != null && !participantes.isEmpty()) {
+            double[] cuotas = Carrera.calcularCuotas(participantes, rating);
+            for (int i = 0; i < cuotas.length; i++) {
+                json.objeto()
+                        .campo("numero", participantes.get(i).getNumeroCompetidor())
+                        .campo("cuota", cuotas[i])
+                        .finObjeto();
+            }
+        }
+        json.finArreglo().finObjeto();
+    }
+
+    private static byte[] json(Peticion.Contenido contenido) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        EscritorJson json = new EscritorJson(bytes, 256);
+        contenido.escribir(json);
+        json.vaciar();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] evento(String tipo, Peticion.Contenido contenido) {
+        try {
+            return enmarcar(tipo, json(contenido));
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // No ocurre al escribir en memoria
+        }
+    }
+
+    private static byte[] enmarcar(String tipo, byte[] datos) {
+        byte[] inicio = ("event: " + tipo + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+        byte[] evento = Arrays.copyOf(inicio, inicio.length + datos.length + 2);
+        System.arraycopy(datos, 0, evento, inicio.length, datos.length);
+        evento[evento.length - 2] = '\n';
+        evento[evento.length - 1] = '\n';
+        return evento;
+    }
+
+    /**
+     * Conexión de un cliente y los eventos que tiene pendientes.
+     */
+    private final class Suscriptor {
+        private final String idCarrera;
+        private final BlockingQueue<byte[]> pendientes = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        private final AtomicReference<byte[]> cuotas = new AtomicReference<>();
+        private volatile boolean activo = true;
+
+        private Suscriptor(String idCarrera) {
+            this.idCarrera = idCarrera;
+        }
+
+        private boolean recibe(String carrera) {
+            return idCarrera == null || idCarrera.equals(carrera);
+        }
+
+        /**
+         * Reemplaza las cuotas pendientes; solo se encola un aviso si no había otras sin escribir.
+         */
+        private void agruparCuotas(byte[] evento) {
+            if (cuotas.getAndSet(evento) == null) {
+                encolar(AVISO_CUOTAS);
+            }
+        }
+
+        /**
+         * Cuotas vigentes al conectarse; no reemplaza unas más recientes que ya hayan llegado.
+         */
+        private void cuotasIniciales(byte[] evento) {
+            if (cuotas.compareAndSet(null, evento)) {
+                encolar(AVISO_CUOTAS);
+            }
+        }
+
+        private void encolar(byte[] evento) {
+            if (!pendientes.offer(evento)) {
+                LOGGER.fine("Se descarta un suscriptor que no consume sus eventos");
+                descartar();
+            }
+        }
+
+        private void descartar() {
+            activo = false;
+            suscriptores.remove(this);
+            pendientes.clear();
+            pendientes.offer(LATIDO); // Despierta al hilo para que termine
+        }
+
+        private void transmitir(OutputStream salida) throws IOException, InterruptedException {
+            while (activo) {
+                byte[] evento = pendientes.poll(INTERVALO_LATIDO.toMillis(), TimeUnit.MILLISECONDS);
+                if (evento == null) {
+                    evento = LATIDO;
+                } else if (evento == AVISO_CUOTAS) {
+                    evento = cuotas.getAndSet(null);
+                    if (evento == null) {
+                        continue;
+                    }
+                }
+                salida.write(evento);
+                salida.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package mx.uv.feaa.carga;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe un archivo CSV por tabla y un script {@code cargar.sql} con un {@code LOAD DATA LOCAL
+ * INFILE} por archivo, en orden de claves foráneas.
+ * <p>
+ * Los lotes se escriben en orden de secuencia aunque lleguen desordenados, así que la misma semilla
+ * produce archivos idénticos con cualquier número de hilos. NULL se escribe como {@code \N}.
+ * </p>
+ * <p>
+ * Para cargar: {@code mysql --local-infile=1 -u root -p sistema_hipica < cargar.sql}
+ * </p>
+ */
+public class DestinoCsv implements DestinoFilas {
+    private static final String SCRIPT = "cargar.sql";
+
+    // toString() omite los segundos en cero
+    private static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private final Path directorio;
+    private final EnumMap<TablaCarga, Writer> archivos = new EnumMap<>(TablaCarga.class);
+    private final Map<Long, Lote> pendientes = new HashMap<>();
+    private final StringBuilder linea = new StringBuilder(256);
+    private long siguiente;
+
+    /**
+     * @param directorio carpeta de salida; se crea si no existe y se sobrescriben sus archivos
+     * @throws IOException si no pueden crearse los archivos
+     */
+    public DestinoCsv(Path directorio) throws IOException {
+        this.directorio = directorio.toAbsolutePath();
+        Files.createDirectories(this.directorio);
+        try {
+            for (TablaCarga tabla : TablaCarga.values()) {
+                archivos.put(tabla, Files.newBufferedWriter(archivo(tabla), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            cerrarArchivos();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void escribir(long secuencia, Lote lote) throws IOException {
+        pendientes.put(secuencia, lote);
+        Lote listo;
+        while ((listo = pendientes.remove(siguiente)) != null) {
+            volcar(listo);
+            siguiente++;
+        }
+    }
+
+    private void volcar(Lote lote) throws IOException {
+        for (Map.Entry<TablaCarga, List<Object[]>> tabla : lote.getFilas().entrySet()) {
+            Writer salida = archivos.get(tabla.getKey());
+            for (Object[] fila : tabla.getValue()) {
+                linea.setLength(0);
+                for (int i = 0; i < fila.length; i++) {
+                    if (i > 0) {
+                        linea.append(',');
+                    }
+                    formatear(fila[i]);
+                }
+                linea.append('\n');
+                salida.append(linea);
+            }
+        }
+    }
+
+    private void formatear(Object valor) {
+        if (valor == null) {
+            linea.append("\\N");
+        } else if (valor instanceof Boolean logico) {
+            linea.append(logico ? '1' : '0');
+        } else if (valor instanceof Double real) {
+            linea.append(BigDecimal.valueOf(real).toPlainString());
+        } else if (valor instanceof Number) {
+            linea.append(valor);
+        } else if (valor instanceof LocalDateTime instante) {
+            FECHA_HORA.formatTo(instante, linea);
+        } else if (valor instanceof LocalTime hora) {
+            HORA.formatTo(hora, linea);
+        } else if (valor instanceof String texto) {
+            linea.append('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '"', '\\' -> linea.append('\\').append(c);
+                    case '\n' -> linea.append("\\n");
+                    default -> linea.append(c);
+                }
+            }
+            linea.append('"');
+        } else {
+            linea.append(valor);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!pendientes.isEmpty()) {
+            cerrarArchivos();
+            throw new IOException("Faltan lotes anteriores a " + pendientes.keySet() + "; los CSV están incompletos");
+        }
+        cerrarArchivos();
+        try (BufferedWriter script = Files.newBufferedWriter(directorio.resolve(SCRIPT), StandardCharsets.UTF_8)) {
+            script.write("-- Generado por GeneradorDatos\n");
+            script.write("SET FOREIGN_KEY_CHECKS = 0;\n");
+            script.write("SET UNIQUE_CHECKS = 0;\n");
+            for (TablaCarga tabla : TablaCarga.values()) {
+                script.write("LOAD DATA LOCAL INFILE '" + archivo(tabla).toString().replace("\\", "/")
+                        + "' INTO TABLE " + tabla.getNombre() + " CHARACTER SET utf8mb4"
+                        + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'"
+                        + " LINES TERMINATED BY '\\n' (" + tabla.listaColumnas() + ");\n");
+            }
+            script.write("SET UNIQUE_CHECKS = 1;\n");
+            script.write("SET FOREIGN_KEY_CHECKS = 1;\n");
+        }
+    }
+
+    private void cerrarArchivos() throws IOException {
+        IOException primera = null;
+        for (Writer salida : archivos.values()) {
+            try {
+                salida.close();
+            } catch (IOException e) {
+                if (primera == null) {
+                    primera = e;
+                }
+            }
+        }
+        archivos.clear();
+        if (primera != null) {
+            throw primera;
+        }
+    }
+
+    private Path archivo(TablaCarga tabla) {
+        return directorio.resolve(tabla.getNombre() + ".csv");
+    }
+}
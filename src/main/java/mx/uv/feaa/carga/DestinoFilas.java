@@ -0,0 +1,20 @@
+package mx.uv.feaa.carga;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Destino de las filas de {@link GeneradorDatos}.
+ * <p>
+ * {@link #escribir} se llama desde varios hilos a la vez. Cada lote lleva un número de secuencia
+ * consecutivo, empezando en 0, que refleja el orden en que se generó; un destino que necesite una
+ * salida reproducible puede usarlo para escribir en ese orden.
+ * </p>
+ */
+public interface DestinoFilas extends AutoCloseable {
+
+    void escribir(long secuencia, Lote lote) throws IOException, SQLException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,155 @@
+package mx.uv.feaa.carga;
+
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.FragmentosConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserta cada lote en la base de datos con {@code INSERT}s en lotes JDBC, en una transacción por
+ * lote. Cada hilo usa su propia conexión del pool.
+ * <p>
+ * Con MySQL conviene agregar {@code rewriteBatchedStatements=true} a {@code jdbc.url} para que el
+ * conector envíe cada lote como un solo {@code INSERT} de varias filas.
+ * </p>
+ * <p>
+ * Con las apuestas fragmentadas, las filas de {@code Apuesta} y {@code ApuestaSeleccion} de cada
+ * lote se reparten por carrera y se insertan en una transacción por fragmento, después de las
+ * demás tablas. El generador pone cada selección en el mismo lote que su apuesta.
+ * </p>
+ */
+public class DestinoJdbc implements DestinoFilas {
+    private static final int TAMANO_LOTE = 1000;
+
+    private final ProveedorConexiones conexiones;
+    private final FragmentosConexiones apuestas;
+
+    public DestinoJdbc() {
+        this(ConexionBD.proveedor(), ConexionBD.fragmentosApuestas());
+    }
+
+    public DestinoJdbc(ProveedorConexiones conexiones) {
+        this(conexiones, FragmentosConexiones.unico(conexiones));
+    }
+
+    public DestinoJdbc(ProveedorConexiones conexiones, FragmentosConexiones apuestas) {
+        this.conexiones = conexiones;
+        this.apuestas = apuestas;
+    }
+
+    @Override
+    public void escribir(long secuencia, Lote lote) throws SQLException {
+        if (apuestas.size() == 1) {
+            conexiones.ejecutarTransaccion("GeneradorDatos.cargar", conn -> {
+                for (Map.Entry<TablaCarga, List<Object[]>> tabla : lote.getFilas().entrySet()) {
+                    insertar(conn, tabla.getKey(), tabla.getValue());
+                }
+            });
+            return;
+        }
+
+        conexiones.ejecutarTransaccion("GeneradorDatos.cargar", conn -> {
+            for (Map.Entry<TablaCarga, List<Object[]>> tabla : lote.getFilas().entrySet()) {
+                if (tabla.getKey() != TablaCarga.APUESTA && tabla.getKey() != TablaCarga.APUESTA_SELECCION) {
+                    insertar(conn, tabla.getKey(), tabla.getValue());
+                }
+            }
+        });
+        Map<String, Map<TablaCarga, List<Object[]>>> porFragmento = repartirApuestas(lote);
+        for (Map.Entry<String, Map<TablaCarga, List<Object[]>>> fragmento : porFragmento.entrySet()) {
+            apuestas.getFragmentos().get(fragmento.getKey()).ejecutarTransaccion("GeneradorDatos.cargarApuestas", conn -> {
+                for (Map.Entry<TablaCarga, List<Object[]>> tabla : fragmento.getValue().entrySet()) {
+                    insertar(conn, tabla.getKey(), tabla.getValue());
+                }
+            });
+        }
+    }
+
+    private Map<String, Map<TablaCarga, List<Object[]>>> repartirApuestas(Lote lote) {
+        Map<String, Map<TablaCarga, List<Object[]>>> porFragmento = new LinkedHashMap<>();
+        Map<Object, String> fragmentoDeApuesta = new HashMap<>();
+        // Columnas: idApuesta, apostador_id, carrera_id, ...
+        for (Object[] fila : lote.getFilas().getOrDefault(TablaCarga.APUESTA, List.of())) {
+            String fragmento = apuestas.fragmentoDe((String) fila[2]);
+            fragmentoDeApuesta.put(fila[0], fragmento);
+            agregar(porFragmento, fragmento, TablaCarga.APUESTA, fila);
+        }
+        // Columnas: idSeleccion, apuesta_id, ...
+        for (Object[] fila : lote.getFilas().getOrDefault(TablaCarga.APUESTA_SELECCION, List.of())) {
+            String fragmento = fragmentoDeApuesta.get(fila[1]);
+            if (fragmento == null) {
+                throw new IllegalStateException("La selección " + fila[0] + " no está en el lote de su apuesta");
+            }
+            agregar(porFragmento, fragmento, TablaCarga.APUESTA_SELECCION, fila);
+        }
+        return porFragmento;
+    }
+
+    private static void agregar(Map<String, Map<TablaCarga, List<Object[]>>> porFragmento, String fragmento,
+                                TablaCarga tabla, Object[] fila) {
+        porFragmento.computeIfAbsent(fragmento, f -> new LinkedHashMap<>())
+                .computeIfAbsent(tabla, t -> new ArrayList<>())
+                .add(fila);
+    }
+
+    private static void insertar(Connection conn, TablaCarga tabla, List<Object[]> filas) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(tabla.insert())) {
+            int pendientes = 0;
+            for (Object[] fila : filas) {
+                for (int i = 0; i < fila.length; i++) {
+                    enlazar(stmt, i + 1, fila[i]);
+                }
+                stmt.addBatch();
+                if (++pendientes == TAMANO_LOTE) {
+                    stmt.executeBatch();
+                    pendientes = 0;
+                }
+            }
+            if (pendientes > 0) {
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    private static void enlazar(PreparedStatement stmt, int indice, Object valor) throws SQLException {
+        if (valor == null) {
+            stmt.setNull(indice, Types.NULL);
+        } else if (valor instanceof String texto) {
+            stmt.setString(indice, texto);
+        } else if (valor instanceof Integer entero) {
+            stmt.setInt(indice, entero);
+        } else if (valor instanceof Double real) {
+            stmt.setDouble(indice, real);
+        } else if (valor instanceof Boolean logico) {
+            stmt.setBoolean(indice, logico);
+        } else if (valor instanceof LocalDate fecha) {
+            stmt.setDate(indice, Date.valueOf(fecha));
+        } else if (valor instanceof LocalTime hora) {
+            stmt.setTime(indice, Time.valueOf(hora));
+        } else if (valor instanceof LocalDateTime instante) {
+            stmt.setTimestamp(indice, Timestamp.valueOf(instante));
+        } else {
+            stmt.setObject(indice, valor);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Las conexiones se devuelven al pool al terminar cada lote
+    }
+}
@@ -0,0 +1,603 @@
+package mx.uv.feaa.carga;
+
+import mx.uv.feaa.enumeracion.EstadoApuesta;
+import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.enumeracion.EstadoParticipante;
+import mx.uv.feaa.enumeracion.SexoCaballo;
+import mx.uv.feaa.enumeracion.TipoApuesta;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+
+/**
+ * Generador determinista de datos de volumen para pruebas de carga.
+ * <p>
+ * Produce, a escala 1: 10 000 criadores con unos 40 000 caballos, 4 000 jinetes, cinco años de
+ * carreras (12 por día) con participantes, resultados e historial, tres días de carreras con
+ * apuestas abiertas, 200 000 apostadores y 2 millones de apuestas con sus selecciones. Las
+ * distribuciones buscan parecerse a las reales:
+ * </p>
+ * <ul>
+ *   <li>caballos por criador geométrica (muchos criadores pequeños, pocos haras grandes);</li>
+ *   <li>el orden de llegada sale de la habilidad del caballo y del jinete más ruido, así que los
+ *       mejores ganan más a menudo sin ganar siempre;</li>
+ *   <li>pocos apostadores concentran la mayoría de las apuestas, que se cargan sobre todo en las
+ *       carreras recientes y en los favoritos;</li>
+ *   <li>montos log-normales y cuotas derivadas de la probabilidad de cada participante; las
+ *       apuestas de carreras terminadas quedan liquidadas según el resultado.</li>
+ * </ul>
+ * <p>
+ * Cada tarea usa un generador aleatorio derivado de la semilla, de la fase y de su índice, de modo
+ * que la misma semilla y la misma fecha de referencia producen los mismos datos con cualquier
+ * número de hilos. Los apostadores se llaman {@code carga1 .. cargaN} con contraseña
+ * {@value #PASSWORD_CARGA}, como espera {@link mx.uv.feaa.api.ClienteCarga}.
+ * </p>
+ */
+public class GeneradorDatos {
+    public static final String PASSWORD_CARGA = "carga123";
+
+    private static final int CRIADORES = 10_000;
+    private static final int JINETES = 4_000;
+    private static final int CARRERAS_POR_DIA = 12;
+    private static final int ANIOS = 5;
+    private static final int DIAS_ABIERTOS = 3;
+    private static final int APOSTADORES = 200_000;
+    private static final int APUESTAS = 2_000_000;
+
+    private static final int CRIADORES_POR_TAREA = 500;
+    private static final int JINETES_POR_TAREA = 1_000;
+    private static final int CARRERAS_POR_TAREA = 200;
+    private static final int APOSTADORES_POR_TAREA = 5_000;
+    private static final int APUESTAS_POR_TAREA = 10_000;
+
+    private static final int FASE_CRIADORES = 1;
+    private static final int FASE_JINETES = 2;
+    private static final int FASE_CARRERAS = 3;
+    private static final int FASE_APOSTADORES = 4;
+    private static final int FASE_APUESTAS = 5;
+
+    private static final String[] HIPODROMOS = {"Hipódromo de las Américas", "Hipódromo de Agua Caliente",
+            "Hipódromo de Monterrey", "Hipódromo de Culiacán"};
+    private static final String[] SEDES = {"Las Américas", "Agua Caliente", "Monterrey", "Culiacán"};
+    private static final int[] DISTANCIAS = {1000, 1200, 1400, 1600, 1800, 2000, 2400};
+    private static final String[] SILABAS = {"al", "ba", "cie", "do", "el", "fa", "go", "ja", "lu", "ma",
+            "no", "ra", "sol", "ta", "ve", "zor", "mi", "pe", "que", "ri"};
+    private static final String[] NOMBRES = {"José", "María", "Juan", "Guadalupe", "Luis", "Ana", "Carlos",
+            "Rosa", "Jorge", "Laura", "Miguel", "Elena", "Pedro", "Sofía", "Alejandro", "Carmen"};
+    private static final String[] APELLIDOS = {"Hernández", "García", "Martínez", "López", "González",
+            "Pérez", "Rodríguez", "Sánchez", "Ramírez", "Cruz", "Flores", "Gómez", "Morales", "Vázquez"};
+    private static final TipoApuesta[] TIPOS = TipoApuesta.values();
+    // Probabilidad acumulada de cada tipo, en el orden de TipoApuesta
+    private static final double[] FRECUENCIA_TIPOS = {0.45, 0.70, 0.82, 0.92, 1.0};
+
+    private final long semilla;
+    private final int hilos;
+    private final LocalDate hoy;
+    private final int criadores;
+    private final int jinetes;
+    private final int carrerasPorDia;
+    private final int apostadores;
+    private final int apuestas;
+    private final LocalDate inicio;
+    private final int diasTerminados;
+    private final int totalCarreras;
+    private final String passwordCarga;
+
+    // Resultado de la fase de criadores, que usan las carreras
+    private String[] idsCaballo;
+    private float[] habilidadCaballo;
+    private float[] habilidadJinete;
+
+    /**
+     * @param semilla semilla de todos los generadores aleatorios
+     * @param escala factor sobre los volúmenes por defecto; los años de historia no cambian
+     * @param hilos tareas de generación y escritura simultáneas
+     * @param hoy fecha de referencia: las carreras anteriores están terminadas y las de los tres
+     *            días siguientes, incluido este, tienen apuestas abiertas
+     */
+    public GeneradorDatos(long semilla, double escala, int hilos, LocalDate hoy) {
+        if (escala <= 0 || hilos <= 0) {
+            throw new IllegalArgumentException("La escala y los hilos deben ser positivos");
+        }
+        this.semilla = semilla;
+        this.hilos = hilos;
+        this.hoy = hoy;
+        this.criadores = escalar(CRIADORES, escala);
+        this.jinetes = Math.max(14, escalar(JINETES, escala));
+        this.carrerasPorDia = escalar(CARRERAS_POR_DIA, escala);
+        this.apostadores = escalar(APOSTADORES, escala);
+        this.apuestas = escalar(APUESTAS, escala);
+        this.inicio = hoy.minusYears(ANIOS);
+        this.diasTerminados = (int) ChronoUnit.DAYS.between(inicio, hoy);
+        this.totalCarreras = (diasTerminados + DIAS_ABIERTOS) * carrerasPorDia;
+        this.passwordCarga = sha256(PASSWORD_CARGA);
+    }
+
+    /**
+     * Filas y tiempo de una fase.
+     */
+    public record Fase(String nombre, long filas, long nanos) {
+        public double filasPorSegundo() {
+            return nanos > 0 ? filas * 1e9 / nanos : 0;
+        }
+    }
+
+    /**
+     * Genera todos los datos y los entrega al destino. No cierra el destino.
+     *
+     * @return las fases ejecutadas, en orden
+     * @throws IOException si falla la escritura de un archivo
+     * @throws SQLException si falla la inserción en la base de datos
+     */
+    public List<Fase> generar(DestinoFilas destino) throws IOException, SQLException, InterruptedException {
+        List<Fase> fases = new ArrayList<>();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            long[] secuencia = {0};
+            int tareasCriadores = tareas(criadores, CRIADORES_POR_TAREA);
+            List<float[]> habilidades = new ArrayList<>();
+            List<String[]> ids = new ArrayList<>();
+            for (int i = 0; i < tareasCriadores; i++) {
+                habilidades.add(null);
+                ids.add(null);
+            }
+            fases.add(ejecutarFase("criadores y caballos", tareasCriadores, ejecutor, destino, secuencia,
+                    tarea -> criadores(tarea, ids, habilidades)));
+            unirCaballos(ids, habilidades);
+
+            habilidadJinete = new float[jinetes];
+            fases.add(ejecutarFase("jinetes", tareas(jinetes, JINETES_POR_TAREA), ejecutor, destino, secuencia,
+                    this::jinetes));
+            fases.add(ejecutarFase("carreras, resultados e historial", tareas(totalCarreras, CARRERAS_POR_TAREA),
+                    ejecutor, destino, secuencia, this::carreras));
+            fases.add(ejecutarFase("apostadores", tareas(apostadores, APOSTADORES_POR_TAREA), ejecutor, destino,
+                    secuencia, this::apostadores));
+            fases.add(ejecutarFase("apuestas y selecciones", tareas(apuestas, APUESTAS_POR_TAREA), ejecutor, destino,
+                    secuencia, this::apuestas));
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        return fases;
+    }
+
+    public int getTotalCarreras() { return totalCarreras; }
+    public int getApostadores() { return apostadores; }
+
+    /**
+     * Ejecuta las tareas de una fase con a lo sumo {@code 2 × hilos} lotes en memoria a la vez.
+     */
+    private Fase ejecutarFase(String nombre, int tareas, ExecutorService ejecutor, DestinoFilas destino,
+                              long[] secuencia, IntFunction<Lote> generar)
+            throws IOException, SQLException, InterruptedException {
+        long inicioFase = System.nanoTime();
+        Semaphore enVuelo = new Semaphore(2 * hilos);
+        List<Future<Long>> resultados = new ArrayList<>(tareas);
+        for (int tarea = 0; tarea < tareas; tarea++) {
+            enVuelo.acquire();
+            int indice = tarea;
+            long numero = secuencia[0]++;
+            resultados.add(ejecutor.submit(() -> {
+                try {
+                    Lote lote = generar.apply(indice);
+                    destino.escribir(numero, lote);
+                    return lote.getTotal();
+                } finally {
+                    enVuelo.release();
+                }
+            }));
+        }
+        long filas = 0;
+        for (Future<Long> resultado : resultados) {
+            try {
+                filas += resultado.get();
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                if (causa instanceof IOException io) throw io;
+                if (causa instanceof SQLException sql) throw sql;
+                if (causa instanceof RuntimeException runtime) throw runtime;
+                throw new IllegalStateException(causa);
+            }
+        }
+        return new Fase(nombre, filas, System.nanoTime() - inicioFase);
+    }
+
+    // ------------------------------------------------------------------ Criadores y caballos
+
+    private Lote criadores(int tarea, List<String[]> ids, List<float[]> habilidades) {
+        SplittableRandom random = aleatorio(FASE_CRIADORES, tarea);
+        Lote lote = new Lote();
+        List<String> caballos = new ArrayList<>();
+        List<Float> habilidad = new ArrayList<>();
+        int hasta = Math.min(criadores, (tarea + 1) * CRIADORES_POR_TAREA);
+        for (int i = tarea * CRIADORES_POR_TAREA; i < hasta; i++) {
+            String idUsuario = "USR-C" + i;
+            String nombreHaras = "Haras " + nombrePropio(random);
+            lote.agregar(TablaCarga.USUARIO, idUsuario, "criador" + (i + 1), "criador" + (i + 1) + "@hipica.test",
+                    passwordCarga, true, "CRIADOR");
+            lote.agregar(TablaCarga.CRIADOR, idUsuario, "LCR-" + i, hoy.plusDays(30 + random.nextInt(700)),
+                    "Camino " + nombrePropio(random) + " km " + (1 + random.nextInt(60)) + ", " + SEDES[i % SEDES.length],
+                    telefono(random), nombreHaras);
+
+            // Geométrica de media 4: la mayoría tiene pocos caballos, algunos haras decenas
+            int cantidad = Math.min(60, 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(0.75)));
+            for (int k = 0; k < cantidad; k++) {
+                String idCaballo = "CAB-" + i + "-" + k;
+                lote.agregar(TablaCarga.CABALLO, idCaballo, nombrePropio(random),
+                        hoy.minusDays(365L * 2 + random.nextInt(365 * 8)),
+                        SexoCaballo.values()[random.nextInt(3)].name(), 420.0 + random.nextInt(130),
+                        random.nextInt(4) == 0 ? null : nombrePropio(random) + " x " + nombrePropio(random),
+                        null, idUsuario);
+                caballos.add(idCaballo);
+                habilidad.add((float) random.nextGaussian());
+            }
+        }
+        float[] valores = new float[habilidad.size()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = habilidad.get(i);
+        }
+        ids.set(tarea, caballos.toArray(new String[0]));
+        habilidades.set(tarea, valores);
+        return lote;
+    }
+
+    private void unirCaballos(List<String[]> ids, List<float[]> habilidades) {
+        int total = 0;
+        for (String[] deTarea : ids) {
+            total += deTarea.length;
+        }
+        idsCaballo = new String[total];
+        habilidadCaballo = new float[total];
+        int posicion = 0;
+        for (int t = 0; t < ids.size(); t++) {
+            System.arraycopy(ids.get(t), 0, idsCaballo, posicion, ids.get(t).length);
+            System.arraycopy(habilidades.get(t), 0, habilidadCaballo, posicion, ids.get(t).length);
+            posicion += ids.get(t).length;
+        }
+    }
+
+    private Lote jinetes(int tarea) {
+        SplittableRandom random = aleatorio(FASE_JINETES, tarea);
+        Lote lote = new Lote();
+        int hasta = Math.min(jinetes, (tarea + 1) * JINETES_POR_TAREA);
+        for (int i = tarea * JINETES_POR_TAREA; i < hasta; i++) {
+            lote.agregar(TablaCarga.JINETE, "JIN-" + i, nombrePersona(random),
+                    hoy.minusYears(17 + random.nextInt(25)).minusDays(random.nextInt(365)),
+                    50.0 + random.nextInt(70) / 10.0, "LJ-" + i, hoy.plusDays(random.nextInt(730)));
+            habilidadJinete[i] = (float) (0.5 * random.nextGaussian());
+        }
+        return lote;
+    }
+
+    // ------------------------------------------------------------------ Carreras
+
+    /**
+     * Carrera reconstruible a partir de su índice: la fase de apuestas la vuelve a generar para
+     * conocer sus participantes y su resultado sin guardarla en memoria.
+     */
+    private final class CarreraGenerada {
+        final int indice;
+        final LocalDate fecha;
+        final LocalTime hora;
+        final int distancia;
+        final int sede;
+        final String hipodromo;
+        final int[] caballos;
+        final int[] jinetesCarrera;
+        final double[] pesos;
+        final double[] probabilidades;
+        final int[] orden;        // participante que llegó en cada posición
+        final LocalTime[] tiempos; // por participante
+
+        CarreraGenerada(int indice) {
+            this.indice = indice;
+            SplittableRandom random = aleatorio(FASE_CARRERAS, indice);
+            int dia = indice / carrerasPorDia;
+            int turno = indice % carrerasPorDia;
+            fecha = inicio.plusDays(dia);
+            hora = LocalTime.of(12, 0).plusMinutes(30L * (turno % 20));
+            distancia = DISTANCIAS[random.nextInt(DISTANCIAS.length)];
+            sede = dia % HIPODROMOS.length;
+            hipodromo = HIPODROMOS[sede];
+
+            // Triangular entre 6 y 14, con moda en 10
+            int n = Math.min(Math.min(6 + random.nextInt(5) + random.nextInt(5), idsCaballo.length), habilidadJinete.length);
+            caballos = distintos(random, n, idsCaballo.length);
+            jinetesCarrera = distintos(random, n, habilidadJinete.length);
+            pesos = new double[n];
+            double[] fuerzas = new double[n];
+            double[] puntajes = new double[n];
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                pesos[i] = 52 + random.nextInt(60) / 10.0;
+                double nivel = habilidadCaballo[caballos[i]] + habilidadJinete[jinetesCarrera[i]];
+                fuerzas[i] = Math.exp(1.2 * nivel);
+                total += fuerzas[i];
+                puntajes[i] = nivel + random.nextGaussian();
+            }
+            probabilidades = new double[n];
+            for (int i = 0; i < n; i++) {
+                probabilidades[i] = fuerzas[i] / total;
+            }
+
+            orden = new int[n];
+            for (int i = 0; i < n; i++) {
+                orden[i] = i;
+            }
+            // Inserción: n es pequeño
+            for (int i = 1; i < n; i++) {
+                int actual = orden[i];
+                int j = i - 1;
+                while (j >= 0 && puntajes[orden[j]] < puntajes[actual]) {
+                    orden[j + 1] = orden[j];
+                    j--;
+                }
+                orden[j + 1] = actual;
+            }
+
+            tiempos = new LocalTime[n];
+            double segundos = distancia / 16.7 * (1 + 0.01 * random.nextGaussian());
+            for (int posicion = 0; posicion < n; posicion++) {
+                if (posicion > 0) {
+                    segundos += 0.05 - 0.25 * Math.log(1 - random.nextDouble());
+                }
+                tiempos[orden[posicion]] = LocalTime.ofNanoOfDay((long) (segundos * 1000) * 1_000_000L);
+            }
+        }
+
+        boolean terminada() {
+            return indice / carrerasPorDia < diasTerminados;
+        }
+
+        String id() { return "CAR-" + indice; }
+        String participante(int i) { return "PAR-" + indice + "-" + i; }
+        int participantes() { return caballos.length; }
+    }
+
+    private Lote carreras(int tarea) {
+        Lote lote = new Lote();
+        int hasta = Math.min(totalCarreras, (tarea + 1) * CARRERAS_POR_TAREA);
+        for (int r = tarea * CARRERAS_POR_TAREA; r < hasta; r++) {
+            CarreraGenerada carrera = new CarreraGenerada(r);
+            boolean terminada = carrera.terminada();
+            lote.agregar(TablaCarga.CARRERA, carrera.id(),
+                    SEDES[carrera.sede] + " " + (r % carrerasPorDia + 1) + "ª carrera",
+                    carrera.fecha, carrera.hora, carrera.distancia + "m",
+                    (terminada ? EstadoCarrera.FINALIZADA : EstadoCarrera.APUESTAS_ABIERTAS).name(), 6, 14);
+            for (int i = 0; i < carrera.participantes(); i++) {
+                lote.agregar(TablaCarga.PARTICIPANTE, carrera.participante(i), carrera.id(), i + 1, carrera.pesos[i],
+                        idsCaballo[carrera.caballos[i]], "JIN-" + carrera.jinetesCarrera[i],
+                        (terminada ? EstadoParticipante.FINALIZADO : EstadoParticipante.INSCRITO).name());
+            }
+            if (!terminada) {
+                continue;
+            }
+            String idResultado = "RES-" + r;
+            lote.agregar(TablaCarga.RESULTADO, idResultado, carrera.id(), carrera.fecha);
+            for (int posicion = 0; posicion < carrera.participantes(); posicion++) {
+                int i = carrera.orden[posicion];
+                lote.agregar(TablaCarga.RESULTADO_DETALLE, "RDE-" + r + "-" + posicion, idResultado,
+                        carrera.participante(i), posicion + 1, carrera.tiempos[i]);
+                lote.agregar(TablaCarga.HISTORIAL_CARRERA, "HIS-" + r + "-" + posicion, carrera.id(),
+                        idsCaballo[carrera.caballos[i]], "JIN-" + carrera.jinetesCarrera[i], posicion + 1, carrera.tiempos[i],
+                        carrera.fecha, carrera.hipodromo);
+            }
+        }
+        return lote;
+    }
+
+    // ------------------------------------------------------------------ Apostadores y apuestas
+
+    private Lote apostadores(int tarea) {
+        SplittableRandom random = aleatorio(FASE_APOSTADORES, tarea);
+        Lote lote = new Lote();
+        int hasta = Math.min(apostadores, (tarea + 1) * APOSTADORES_POR_TAREA);
+        for (int i = tarea * APOSTADORES_POR_TAREA; i < hasta; i++) {
+            String idUsuario = "USR-A" + i;
+            lote.agregar(TablaCarga.USUARIO, idUsuario, "carga" + (i + 1), "carga" + (i + 1) + "@hipica.test",
+                    passwordCarga, random.nextInt(50) != 0, "APOSTADOR");
+            double saldo = Math.round(Math.exp(Math.log(1000) + 1.1 * random.nextGaussian()) * 100) / 100.0;
+            double limite = random.nextInt(10) == 0 ? 10_000.0 : random.nextInt(3) == 0 ? 5_000.0 : 1_000.0;
+            lote.agregar(TablaCarga.APOSTADOR, idUsuario, saldo, limite, nombrePersona(random), telefono(random));
+        }
+        return lote;
+    }
+
+    private Lote apuestas(int tarea) {
+        SplittableRandom random = aleatorio(FASE_APUESTAS, tarea);
+        Lote lote = new Lote();
+        int hasta = Math.min(apuestas, (tarea + 1) * APUESTAS_POR_TAREA);
+        int[] seleccion = new int[3];
+        for (int a = tarea * APUESTAS_POR_TAREA; a < hasta; a++) {
+            // Pocos apostadores muy activos y más apuestas en las carreras recientes o abiertas
+            int apostador = (int) (apostadores * Math.pow(random.nextDouble(), 2.5));
+            int r = totalCarreras - 1 - (int) (totalCarreras * Math.pow(random.nextDouble(), 2));
+            CarreraGenerada carrera = new CarreraGenerada(r);
+            TipoApuesta tipo = tipoApuesta(random);
+            int elegidos = Math.min(selecciones(tipo), carrera.participantes());
+            elegir(random, carrera, elegidos, seleccion);
+
+            double monto = Math.min(5000, Math.max(10, Math.round(Math.exp(Math.log(50) + 0.9 * random.nextGaussian()) / 10) * 10.0));
+            double cuota = cuota(tipo, carrera, seleccion, elegidos);
+            LocalDateTime fechaApuesta = LocalDateTime.of(carrera.fecha, carrera.hora).minusMinutes(1 + random.nextInt(72 * 60));
+
+            EstadoApuesta estado;
+            double ganado = 0;
+            if (!carrera.terminada()) {
+                estado = random.nextBoolean() ? EstadoApuesta.PENDIENTE : EstadoApuesta.CONFIRMADA;
+            } else if (random.nextInt(100) == 0) {
+                estado = EstadoApuesta.CANCELADA;
+            } else if (gana(tipo, carrera, seleccion, elegidos)) {
+                ganado = Math.round(monto * cuota * 100) / 100.0;
+                estado = random.nextInt(10) < 7 ? EstadoApuesta.PAGADA : EstadoApuesta.GANADORA;
+            } else {
+                estado = EstadoApuesta.PERDEDORA;
+            }
+
+            String idApuesta = "APU-" + a;
+            lote.agregar(TablaCarga.APUESTA, idApuesta, "USR-A" + apostador, carrera.id(), tipo.name(), monto,
+                    fechaApuesta, estado.name(), cuota, ganado);
+            for (int s = 0; s < elegidos; s++) {
+                lote.agregar(TablaCarga.APUESTA_SELECCION, "SEL-" + a + "-" + s, idApuesta,
+                        carrera.participante(seleccion[s]), s + 1);
+            }
+        }
+        return lote;
+    }
+
+    private static TipoApuesta tipoApuesta(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < FRECUENCIA_TIPOS.length; i++) {
+            if (u < FRECUENCIA_TIPOS[i]) {
+                return TIPOS[i];
+            }
+        }
+        return TIPOS[TIPOS.length - 1];
+    }
+
+    private static int selecciones(TipoApuesta tipo) {
+        return switch (tipo) {
+            case GANADOR, COLOCADO -> 1;
+            case EXACTA, QUINELA -> 2;
+            case TRIFECTA -> 3;
+        };
+    }
+
+    // Cada selección es la más probable de dos participantes al azar: el público favorece a los favoritos
+    private static void elegir(SplittableRandom random, CarreraGenerada carrera, int elegidos, int[] seleccion) {
+        int n = carrera.participantes();
+        for (int s = 0; s < elegidos; s++) {
+            int candidato;
+            do {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                candidato = carrera.probabilidades[a] >= carrera.probabilidades[b] ? a : b;
+            } while (contiene(seleccion, s, candidato));
+            seleccion[s] = candidato;
+        }
+    }
+
+    private static double cuota(TipoApuesta tipo, CarreraGenerada carrera, int[] seleccion, int elegidos) {
+        double[] p = carrera.probabilidades;
+        double probabilidad = switch (tipo) {
+            case GANADOR -> p[seleccion[0]];
+            case COLOCADO -> Math.min(0.95, 3 * p[seleccion[0]]);
+            case EXACTA -> elegidos < 2 ? p[seleccion[0]] : p[seleccion[0]] * p[seleccion[1]] / (1 - p[seleccion[0]]);
+            case QUINELA -> elegidos < 2 ? p[seleccion[0]]
+                    : p[seleccion[0]] * p[seleccion[1]] / (1 - p[seleccion[0]])
+                    + p[seleccion[1]] * p[seleccion[0]] / (1 - p[seleccion[1]]);
+            case TRIFECTA -> elegidos < 3 ? p[seleccion[0]]
+                    : p[seleccion[0]] * p[seleccion[1]] / (1 - p[seleccion[0]])
+                    * p[seleccion[2]] / (1 - p[seleccion[0]] - p[seleccion[1]]);
+        };
+        double cuota = Math.max(1.05, Math.min(999, 0.85 / probabilidad));
+        return Math.round(cuota * 100) / 100.0;
+    }
+
+    private static boolean gana(TipoApuesta tipo, CarreraGenerada carrera, int[] seleccion, int elegidos) {
+        int[] orden = carrera.orden;
+        return switch (tipo) {
+            case GANADOR -> orden[0] == seleccion[0];
+            case COLOCADO -> contiene(orden, Math.min(3, orden.length), seleccion[0]);
+            case EXACTA, TRIFECTA -> {
+                for (int s = 0; s < elegidos; s++) {
+                    if (orden[s] != seleccion[s]) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            case QUINELA -> {
+                for (int s = 0; s < elegidos; s++) {
+                    if (!contiene(orden, elegidos, seleccion[s])) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+        };
+    }
+
+    // ------------------------------------------------------------------ Utilidades
+
+    private SplittableRandom aleatorio(int fase, long indice) {
+        long mezcla = semilla;
+        mezcla = mezcla * 0x9E3779B97F4A7C15L + fase;
+        mezcla = mezcla * 0x9E3779B97F4A7C15L + indice;
+        return new SplittableRandom(mezcla);
+    }
+
+    private static int[] distintos(SplittableRandom random, int cantidad, int limite) {
+        int[] valores = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            int candidato;
+            do {
+                candidato = random.nextInt(limite);
+            } while (contiene(valores, i, candidato));
+            valores[i] = candidato;
+        }
+        return valores;
+    }
+
+    private static boolean contiene(int[] valores, int hasta, int valor) {
+        for (int i = 0; i < hasta; i++) {
+            if (valores[i] == valor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String nombrePropio(SplittableRandom random) {
+        StringBuilder nombre = new StringBuilder();
+        int silabas = 2 + random.nextInt(3);
+        for (int i = 0; i < silabas; i++) {
+            nombre.append(SILABAS[random.nextInt(SILABAS.length)]);
+        }
+        nombre.setCharAt(0, Character.toUpperCase(nombre.charAt(0)));
+        return nombre.toString();
+    }
+
+    private static String nombrePersona(SplittableRandom random) {
+        return NOMBRES[random.nextInt(NOMBRES.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)]
+                + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+    }
+
+    private static String telefono(SplittableRandom random) {
+        return "55" + (10_000_000 + random.nextInt(90_000_000));
+    }
+
+    private static int tareas(int elementos, int porTarea) {
+        return (elementos + porTarea - 1) / porTarea;
+    }
+
+    private static int escalar(int base, double escala) {
+        return (int) Math.max(1, Math.round(base * escala));
+    }
+
+    // El login compara con SHA2(?, 256) en la base de datos
+    private static String sha256(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package mx.uv.feaa.carga;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filas generadas por una tarea de {@link GeneradorDatos}, agrupadas por tabla. Al recorrerlas,
+ * las tablas salen en el orden de {@link TablaCarga}, de modo que un lote puede insertarse sin
+ * violar claves foráneas.
+ */
+public final class Lote {
+    private final EnumMap<TablaCarga, List<Object[]>> filas = new EnumMap<>(TablaCarga.class);
+    private long total;
+
+    /**
+     * Agrega una fila.
+     *
+     * @param tabla la tabla destino
+     * @param valores un valor por columna de la tabla, en su orden; {@code null} para NULL
+     */
+    public void agregar(TablaCarga tabla, Object... valores) {
+        if (valores.length != tabla.getNumeroColumnas()) {
+            throw new IllegalArgumentException("La tabla " + tabla.getNombre() + " tiene "
+                    + tabla.getNumeroColumnas() + " columnas, se recibieron " + valores.length);
+        }
+        filas.computeIfAbsent(tabla, t -> new ArrayList<>()).add(valores);
+        total++;
+    }
+
+    /**
+     * @return las filas por tabla, en el orden de {@link TablaCarga}
+     */
+    public Map<TablaCarga, List<Object[]>> getFilas() {
+        return Collections.unmodifiableMap(filas);
+    }
+
+    public int contar(TablaCarga tabla) {
+        List<Object[]> deTabla = filas.get(tabla);
+        return deTabla != null ? deTabla.size() : 0;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,425 @@
+package mx.uv.feaa.carga;
+
+import mx.uv.feaa.api.EscritorJson;
+import mx.uv.feaa.api.LectorJson;
+import mx.uv.feaa.model.dao.ApostadorDAO;
+import mx.uv.feaa.model.dao.CriadorDAO;
+import mx.uv.feaa.model.dao.UsuarioArchivoDAO;
+import mx.uv.feaa.model.entidades.Apostador;
+import mx.uv.feaa.model.entidades.Criador;
+import mx.uv.feaa.model.entidades.Usuario;
+import mx.uv.feaa.util.GeneradorIds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Importa y exporta apostadores y criadores en el formato de {@code data/usuarios.json}: un arreglo
+ * de objetos con los campos de {@link Usuario} más los de cada tipo, distinguidos por
+ * {@code tipoUsuario}.
+ * <p>
+ * La importación es una tubería de tres etapas unidas por colas acotadas: un hilo lee el archivo
+ * con {@link LectorJson} y separa los campos de cada objeto, varios hilos los convierten en
+ * entidades (incluido el hash de la contraseña) y un hilo las guarda en lotes de
+ * {@value #TAMANO_LOTE} con los {@code saveAll} de los DAOs. La exportación recorre apostadores y
+ * criadores con los cursores en streaming de sus DAOs, en dos hilos, y un tercero escribe el JSON
+ * con {@link EscritorJson}. En ambos sentidos la memoria depende del tamaño de las colas y no del
+ * número de usuarios. El primer error detiene todas las etapas.
+ * </p>
+ * <p>
+ * La base de datos guarda el SHA-256 de la contraseña, que es lo que compara el login. Al importar,
+ * {@code password} se toma como texto plano y se le aplica el hash; {@code passwordSha256} se
+ * guarda tal cual. Al exportar solo se escribe {@code passwordSha256}, así que un archivo exportado
+ * se puede volver a importar. Los totales del apostador y los conteos de caballos del criador no
+ * tienen columna en la base de datos: se conservan en el almacén de archivos pero no en MySQL.
+ * </p>
+ */
+public class MigracionUsuarios {
+    private static final Logger LOGGER = Logger.getLogger(MigracionUsuarios.class.getName());
+
+    public static final int TAMANO_LOTE = 500;
+    private static final int CAPACIDAD_COLA = 2 * TAMANO_LOTE;
+
+    // Marcas de fin de cada etapa; se comparan por identidad
+    private static final Map<String, Object> FIN_CAMPOS = Map.of();
+    private static final Usuario FIN_USUARIOS = new Apostador();
+
+    private final int mapeadores;
+
+    /**
+     * Dónde se guardan los usuarios importados. {@link #guardar} se llama siempre desde el mismo hilo.
+     */
+    public interface Destino {
+        /**
+         * @return {@code false} si alguno de los usuarios no se guardó porque ya existía
+         */
+        boolean guardar(List<Usuario> lote) throws SQLException;
+    }
+
+    /**
+     * Usuarios procesados y tiempo total.
+     *
+     * @param omitidos objetos con un {@code tipoUsuario} que no es apostador ni criador
+     */
+    public record Resumen(long apostadores, long criadores, long omitidos, long nanos) {
+        public double usuariosPorSegundo() {
+            return nanos > 0 ? (apostadores + criadores) * 1e9 / nanos : 0;
+        }
+    }
+
+    /**
+     * @param mapeadores hilos que convierten los objetos leídos en entidades
+     */
+    public MigracionUsuarios(int mapeadores) {
+        if (mapeadores <= 0) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo de conversión");
+        }
+        this.mapeadores = mapeadores;
+    }
+
+    /**
+     * Inserta cada lote en MySQL: los apostadores en una transacción y los criadores en otra.
+     * Un usuario que ya existe hace fallar la importación.
+     */
+    public static Destino destinoJdbc(ApostadorDAO apostadores, CriadorDAO criadores) {
+        return lote -> {
+            List<Apostador> loteApostadores = new ArrayList<>();
+            List<Criador> loteCriadores = new ArrayList<>();
+            for (Usuario usuario : lote) {
+                if (usuario instanceof Apostador apostador) {
+                    loteApostadores.add(apostador);
+                } else {
+                    loteCriadores.add((Criador) usuario);
+                }
+            }
+            return apostadores.saveAll(loteApostadores) & criadores.saveAll(loteCriadores);
+        };
+    }
+
+    /**
+     * Agrega cada lote al almacén de archivos con una sola sincronización; los usuarios que ya
+     * existen se saltan.
+     */
+    public static Destino destinoArchivo(UsuarioArchivoDAO usuarios) {
+        return usuarios::saveAll;
+    }
+
+    // ------------------------------------------------------------------ Importación
+
+    /**
+     * Lee un arreglo JSON de usuarios y los guarda en el destino. No cierra el flujo ni el destino.
+     *
+     * @throws IOException si el flujo falla, el JSON está mal formado o un campo tiene un valor inválido
+     * @throws SQLException si falla el guardado; los lotes anteriores quedan guardados
+     */
+    public Resumen importar(InputStream json, Destino destino) throws IOException, SQLException, InterruptedException {
+        long inicio = System.nanoTime();
+        BlockingQueue<Map<String, Object>> campos = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        BlockingQueue<Usuario> usuarios = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        LongAdder apostadores = new LongAdder();
+        LongAdder criadores = new LongAdder();
+        LongAdder omitidos = new LongAdder();
+
+        List<Callable<Void>> etapas = new ArrayList<>();
+        etapas.add(() -> {
+            leer(new LectorJson(json), campos);
+            for (int i = 0; i < mapeadores; i++) {
+                campos.put(FIN_CAMPOS);
+            }
+            return null;
+        });
+        for (int i = 0; i < mapeadores; i++) {
+            etapas.add(() -> {
+                for (Map<String, Object> objeto = campos.take(); objeto != FIN_CAMPOS; objeto = campos.take()) {
+                    Usuario usuario = mapear(objeto);
+                    if (usuario == null) {
+                        omitidos.increment();
+                    } else {
+                        usuarios.put(usuario);
+                    }
+                }
+                usuarios.put(FIN_USUARIOS);
+                return null;
+            });
+        }
+        etapas.add(() -> {
+            List<Usuario> lote = new ArrayList<>(TAMANO_LOTE);
+            boolean completos = true;
+            int terminados = 0;
+            while (terminados < mapeadores) {
+                Usuario usuario = usuarios.take();
+                if (usuario == FIN_USUARIOS) {
+                    terminados++;
+                    continue;
+                }
+                lote.add(usuario);
+                if (usuario instanceof Apostador) {
+                    apostadores.increment();
+                } else {
+                    criadores.increment();
+                }
+                if (lote.size() == TAMANO_LOTE) {
+                    completos &= destino.guardar(lote);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                completos &= destino.guardar(lote);
+            }
+            if (!completos) {
+                LOGGER.warning("Algunos usuarios ya existían en el destino y no se guardaron");
+            }
+            return null;
+        });
+
+        ejecutar(etapas);
+        return new Resumen(apostadores.sum(), criadores.sum(), omitidos.sum(), System.nanoTime() - inicio);
+    }
+
+    /**
+     * Separa los campos de cada objeto del arreglo. Los valores anidados (por ejemplo, un
+     * historial de apuestas) se saltan sin cargarlos.
+     */
+    private static void leer(LectorJson json, BlockingQueue<Map<String, Object>> campos)
+            throws IOException, InterruptedException {
+        if (json.siguiente() != LectorJson.Evento.INICIO_ARREGLO) {
+            throw new IOException("Se esperaba un arreglo de usuarios y hay " + json.getEvento());
+        }
+        while (json.siguiente() != LectorJson.Evento.FIN_ARREGLO) {
+            if (json.getEvento() != LectorJson.Evento.INICIO_OBJETO) {
+                throw new IOException("Se esperaba un usuario en el byte " + json.getPosicion()
+                        + " y hay " + json.getEvento());
+            }
+            Map<String, Object> objeto = new HashMap<>();
+            objeto.put("", json.getPosicion());
+            while (json.siguiente() == LectorJson.Evento.NOMBRE) {
+                String nombre = json.getTexto();
+                switch (json.siguiente()) {
+                    case TEXTO, NUMERO -> objeto.put(nombre, json.getTexto());
+                    case BOOLEANO -> objeto.put(nombre, json.getBooleano());
+                    case NULO -> objeto.put(nombre, null);
+                    default -> json.saltarValor();
+                }
+            }
+            campos.put(objeto);
+        }
+        json.siguiente();
+    }
+
+    /**
+     * @return la entidad, o {@code null} si el tipo de usuario no es apostador ni criador
+     */
+    private static Usuario mapear(Map<String, Object> campos) throws IOException {
+        String tipo = texto(campos, "tipoUsuario");
+        Usuario usuario;
+        if ("APOSTADOR".equalsIgnoreCase(tipo)) {
+            usuario = new Apostador();
+        } else if ("CRIADOR".equalsIgnoreCase(tipo)) {
+            usuario = new Criador();
+        } else {
+            LOGGER.warning("Usuario del byte " + campos.get("") + " omitido: tipo " + tipo);
+            return null;
+        }
+        try {
+            String id = texto(campos, "id");
+            usuario.setIdUsuario(id != null ? id : GeneradorIds.predeterminado().siguiente());
+            usuario.setNombreUsuario(texto(campos, "nombreUsuario"));
+            usuario.setEmail(texto(campos, "email"));
+            String hash = texto(campos, "passwordSha256");
+            String password = texto(campos, "password");
+            usuario.setPassword(hash != null ? hash : password != null ? sha256(password) : null);
+            usuario.setActivo(!Boolean.FALSE.equals(campos.get("activo")));
+            String fechaRegistro = texto(campos, "fechaRegistro");
+            usuario.setFechaRegistro(fechaRegistro != null ? LocalDateTime.parse(fechaRegistro) : LocalDateTime.now());
+            String ultimoAcceso = texto(campos, "ultimoAcceso");
+            usuario.setUltimoAcceso(ultimoAcceso != null ? LocalDateTime.parse(ultimoAcceso) : null);
+            usuario.setTipoUsuario(usuario.getTipoUsuarioEspecifico());
+
+            if (usuario instanceof Apostador apostador) {
+                apostador.setSaldo(numero(campos, "saldo", 0));
+                apostador.setLimiteApuesta(numero(campos, "limiteApuesta", apostador.getLimiteApuesta()));
+                apostador.setTotalApostado(numero(campos, "totalApostado", 0));
+                apostador.setTotalGanado(numero(campos, "totalGanado", 0));
+                apostador.setApuestasRealizadas((int) numero(campos, "apuestasRealizadas", 0));
+                apostador.setNombre(texto(campos, "nombre"));
+                apostador.setTelefono(texto(campos, "telefono"));
+                apostador.setHistorialApuestas(new ArrayList<>());
+            } else if (usuario instanceof Criador criador) {
+                criador.setLicenciaCriador(texto(campos, "licenciaCriador"));
+                String vigencia = texto(campos, "fechaVigenciaLicencia");
+                criador.setFechaVigenciaLicencia(vigencia != null ? LocalDate.parse(vigencia) : null);
+                criador.setDireccion(texto(campos, "direccion"));
+                criador.setTelefono(texto(campos, "telefono"));
+                criador.setNombreHaras(texto(campos, "nombreHaras"));
+                criador.setCaballosRegistrados((int) numero(campos, "caballosRegistrados", 0));
+                criador.setCaballosActivos((int) numero(campos, "caballosActivos", 0));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IOException("Usuario inválido en el byte " + campos.get("") + ": " + e.getMessage(), e);
+        }
+        return usuario;
+    }
+
+    private static String texto(Map<String, Object> campos, String nombre) {
+        Object valor = campos.get(nombre);
+        return valor == null ? null : valor.toString();
+    }
+
+    private static double numero(Map<String, Object> campos, String nombre, double porDefecto) {
+        String valor = texto(campos, nombre);
+        return valor == null ? porDefecto : Double.parseDouble(valor);
+    }
+
+    private static String sha256(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // ------------------------------------------------------------------ Exportación
+
+    /**
+     * Escribe todos los apostadores y criadores como un arreglo JSON. No cierra el flujo.
+     *
+     * @throws IOException si falla la escritura
+     * @throws SQLException si falla la lectura de la base de datos
+     */
+    public Resumen exportar(ApostadorDAO apostadores, CriadorDAO criadores, OutputStream salida)
+            throws IOException, SQLException, InterruptedException {
+        long inicio = System.nanoTime();
+        BlockingQueue<Usuario> usuarios = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        long[] totales = new long[2];
+
+        List<Callable<Void>> etapas = new ArrayList<>();
+        etapas.add(() -> {
+            totales[0] = apostadores.recorrerTodos(apostador -> encolar(usuarios, apostador));
+            usuarios.put(FIN_USUARIOS);
+            return null;
+        });
+        etapas.add(() -> {
+            totales[1] = criadores.recorrerTodos(criador -> encolar(usuarios, criador));
+            usuarios.put(FIN_USUARIOS);
+            return null;
+        });
+        etapas.add(() -> {
+            EscritorJson json = new EscritorJson(salida);
+            json.arreglo();
+            int terminados = 0;
+            while (terminados < 2) {
+                Usuario usuario = usuarios.take();
+                if (usuario == FIN_USUARIOS) {
+                    terminados++;
+                } else {
+                    escribir(json, usuario);
+                }
+            }
+            json.finArreglo();
+            json.vaciar();
+            return null;
+        });
+
+        ejecutar(etapas);
+        return new Resumen(totales[0], totales[1], 0, System.nanoTime() - inicio);
+    }
+
+    private static void encolar(BlockingQueue<Usuario> usuarios, Usuario usuario) {
+        try {
+            usuarios.put(usuario);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Exportación cancelada", e);
+        }
+    }
+
+    private static void escribir(EscritorJson json, Usuario usuario) throws IOException {
+        json.objeto()
+                .campo("id", usuario.getIdUsuario())
+                .campo("nombreUsuario", usuario.getNombreUsuario())
+                .campo("email", usuario.getEmail())
+                .campo("passwordSha256", usuario.getPassword())
+                .campo("activo", usuario.isActivo())
+                .campo("fechaRegistro", usuario.getFechaRegistro())
+                .campo("ultimoAcceso", usuario.getUltimoAcceso());
+        if (usuario instanceof Apostador apostador) {
+            json.campo("tipoUsuario", "Apostador")
+                    .campo("saldo", apostador.getSaldo())
+                    .campo("limiteApuesta", apostador.getLimiteApuesta())
+                    .campo("totalApostado", apostador.getTotalApostado())
+                    .campo("totalGanado", apostador.getTotalGanado())
+                    .campo("apuestasRealizadas", apostador.getApuestasRealizadas())
+                    .campo("nombre", apostador.getNombre())
+                    .campo("telefono", apostador.getTelefono());
+        } else if (usuario instanceof Criador criador) {
+            json.campo("tipoUsuario", "Criador")
+                    .campo("licenciaCriador", criador.getLicenciaCriador())
+                    .campo("fechaVigenciaLicencia", criador.getFechaVigenciaLicencia())
+                    .campo("direccion", criador.getDireccion())
+                    .campo("telefono", criador.getTelefono())
+                    .campo("nombreHaras", criador.getNombreHaras())
+                    .campo("caballosRegistrados", criador.getCaballosRegistrados())
+                    .campo("caballosActivos", criador.getCaballosActivos());
+        }
+        json.finObjeto();
+    }
+
+    // ------------------------------------------------------------------ Etapas
+
+    /**
+     * Ejecuta las etapas, cada una en su hilo, y espera a que terminen. Si una falla, interrumpe
+     * las demás, que están bloqueadas en las colas o leyendo, y relanza su excepción.
+     */
+    private static void ejecutar(List<Callable<Void>> etapas) throws IOException, SQLException, InterruptedException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(etapas.size(), tarea -> {
+            Thread hilo = new Thread(tarea, "migracion-usuarios");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        CompletionService<Void> terminadas = new ExecutorCompletionService<>(ejecutor);
+        try {
+            for (Callable<Void> etapa : etapas) {
+                terminadas.submit(etapa);
+            }
+            for (int i = 0; i < etapas.size(); i++) {
+                try {
+                    terminadas.take().get();
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause();
+                    if (causa instanceof IOException io) throw io;
+                    if (causa instanceof UncheckedIOException io) throw io.getCause();
+                    if (causa instanceof SQLException sql) throw sql;
+                    if (causa instanceof RuntimeException runtime) throw runtime;
+                    throw new IllegalStateException(causa);
+                }
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}
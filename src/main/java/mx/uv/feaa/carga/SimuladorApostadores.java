@@ -0,0 +1,395 @@
+package mx.uv.feaa.carga;
+
+import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.metricas.HistogramaLatencia;
+import mx.uv.feaa.model.dao.ApostadorDAO;
+import mx.uv.feaa.model.dao.ApuestaDAO;
+import mx.uv.feaa.model.dao.UsuarioDAO;
+import mx.uv.feaa.model.entidades.Apostador;
+import mx.uv.feaa.model.entidades.Apuesta;
+import mx.uv.feaa.model.entidades.ApuestaGanador;
+import mx.uv.feaa.model.entidades.ApuestaSeleccion;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.Participante;
+import mx.uv.feaa.model.entidades.Usuario;
+import mx.uv.feaa.servicios.CatalogoCarreras;
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.EnrutadorConexiones;
+import mx.uv.feaa.util.GeneradorIds;
+import mx.uv.feaa.util.PoolConexiones;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de extremo a extremo contra la base de datos, sin pasar por la API.
+ * <p>
+ * Cada sesión simulada hace lo mismo que un apostador en {@link mx.uv.feaa.view.LoginView} y
+ * {@link mx.uv.feaa.view.MenuApostadorView}, con las mismas llamadas a los DAOs y al catálogo:
+ * inicia sesión, consulta su saldo, lista las carreras abiertas, con la probabilidad indicada
+ * apuesta 10 a ganador por un participante al azar, y consulta su historial. Cada sesión corre
+ * en un hilo virtual, así que el límite real lo pone el pool de conexiones.
+ * </p>
+ * <ul>
+ *   <li><b>Ciclo cerrado</b>: un número fijo de sesiones que repiten la visita con un tiempo de
+ *       reflexión exponencial entre una y otra. Mide cuánto rinde el sistema con esa concurrencia.</li>
+ *   <li><b>Ciclo abierto</b>: las visitas llegan a la tasa indicada, tarden lo que tarden las
+ *       anteriores. La latencia de la visita se mide desde el instante en que debía empezar, de
+ *       modo que el retraso acumulado cuando el sistema no da abasto aparece en los percentiles.</li>
+ * </ul>
+ * <p>
+ * En ambos modos la carga sube linealmente durante la rampa: las sesiones arrancan escalonadas o
+ * la tasa de llegada crece de cero al objetivo. El informe da el rendimiento, los percentiles de
+ * latencia por operación y el tiempo de espera por una conexión del pool durante la prueba.
+ * </p>
+ * Los usuarios deben existir con nombres {@code <prefijo>1 .. <prefijo>N} y la misma contraseña,
+ * como los que crea {@link GeneradorDatos}.
+ */
+public class SimuladorApostadores {
+    private static final double MONTO = 10.0;
+    private static final Duration INTERVALO_PROGRESO = Duration.ofSeconds(10);
+
+    private enum Operacion {
+        LOGIN("login"), SALDO("saldo"), CARRERAS("carreras"), APUESTA("apuesta"), HISTORIAL("historial"),
+        VISITA("visita completa");
+
+        private final String nombre;
+
+        Operacion(String nombre) {
+            this.nombre = nombre;
+        }
+    }
+
+    private final UsuarioDAO usuarioDAO = new UsuarioDAO();
+    private final ApostadorDAO apostadorDAO = new ApostadorDAO();
+    private final ApuestaDAO apuestaDAO = new ApuestaDAO();
+    private final String prefijoUsuario;
+    private final String password;
+    private final int usuarios;
+    private final double probabilidadApuesta;
+
+    private final HistogramaLatencia[] latencias = new HistogramaLatencia[Operacion.values().length];
+    private final LongAdder[] errores = new LongAdder[Operacion.values().length];
+    private final LongAdder operaciones = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+
+    /**
+     * @param prefijoUsuario prefijo de los nombres de usuario simulados
+     * @param password contraseña común de los usuarios simulados
+     * @param usuarios cuántos usuarios existen con ese prefijo; cada sesión elige uno al azar
+     * @param probabilidadApuesta probabilidad de apostar en cada visita, entre 0 y 1
+     */
+    public SimuladorApostadores(String prefijoUsuario, String password, int usuarios, double probabilidadApuesta) {
+        this.prefijoUsuario = prefijoUsuario;
+        this.password = password;
+        this.usuarios = usuarios;
+        this.probabilidadApuesta = probabilidadApuesta;
+        for (int i = 0; i < latencias.length; i++) {
+            latencias[i] = new HistogramaLatencia();
+            errores[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Ciclo cerrado: {@code sesiones} sesiones concurrentes que arrancan repartidas a lo largo de
+     * la rampa. Escribe el informe en la salida estándar.
+     *
+     * @param sesiones sesiones concurrentes al terminar la rampa
+     * @param pensar tiempo medio de reflexión entre visitas
+     * @param rampa tiempo en que arrancan todas las sesiones
+     * @param duracion duración total de la prueba, incluida la rampa
+     */
+    public void ejecutarCerrado(int sesiones, Duration pensar, Duration rampa, Duration duracion)
+            throws InterruptedException {
+        Medicion medicion = new Medicion();
+        long inicio = medicion.inicio;
+        long fin = inicio + duracion.toNanos();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sesiones; i++) {
+                long arranque = inicio + rampa.toNanos() * i / sesiones;
+                hilos.submit(() -> sesionCerrada(arranque, fin, pensar.toNanos()));
+            }
+            progreso(medicion, fin);
+        }
+        medicion.informar(String.format("ciclo cerrado, %d sesiones, reflexión media %d ms", sesiones,
+                pensar.toMillis()));
+    }
+
+    /**
+     * Ciclo abierto: visitas que llegan a una tasa que crece linealmente durante la rampa hasta
+     * {@code visitasPorSegundo} y se mantiene hasta el final. Si hay {@code maximoEnCurso} visitas
+     * sin terminar, las nuevas se descartan y se cuentan aparte. Escribe el informe en la salida
+     * estándar.
+     *
+     * @param visitasPorSegundo tasa de llegada objetivo
+     * @param maximoEnCurso visitas simultáneas a partir de las cuales se descartan las nuevas
+     * @param rampa tiempo en que la tasa sube de cero al objetivo
+     * @param duracion duración total de la prueba, incluida la rampa
+     */
+    public void ejecutarAbierto(double visitasPorSegundo, int maximoEnCurso, Duration rampa, Duration duracion)
+            throws InterruptedException {
+        Medicion medicion = new Medicion();
+        long inicio = medicion.inicio;
+        long fin = inicio + duracion.toNanos();
+        double rampaSegundos = rampa.toNanos() / 1e9;
+        // Llegadas durante la rampa: la k-ésima llega cuando la tasa acumulada r·t²/(2T) vale k
+        double llegadasRampa = visitasPorSegundo * rampaSegundos / 2;
+        Semaphore enCurso = new Semaphore(maximoEnCurso);
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            Thread progreso = Thread.ofVirtual().start(() -> progreso(medicion, fin));
+            for (long k = 0; ; k++) {
+                double segundos = k < llegadasRampa
+                        ? Math.sqrt(2 * rampaSegundos * k / visitasPorSegundo)
+                        : rampaSegundos + (k - llegadasRampa) / visitasPorSegundo;
+                long programada = inicio + (long) (segundos * 1e9);
+                if (programada >= fin) {
+                    break;
+                }
+                esperarHasta(programada);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (!enCurso.tryAcquire()) {
+                    descartadas.increment();
+                    continue;
+                }
+                hilos.submit(() -> {
+                    try {
+                        visitar(programada, ThreadLocalRandom.current());
+                    } finally {
+                        enCurso.release();
+                    }
+                });
+            }
+            progreso.join();
+        }
+        medicion.informar(String.format("ciclo abierto, %.1f visitas/s, máximo %d en curso", visitasPorSegundo,
+                maximoEnCurso));
+    }
+
+    private void sesionCerrada(long arranque, long fin, long pensarNanos) {
+        esperarHasta(arranque);
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Apostador apostador = iniciarSesion(aleatorio);
+        if (apostador == null) {
+            return;
+        }
+        while (System.nanoTime() < fin && !Thread.currentThread().isInterrupted()) {
+            long inicio = System.nanoTime();
+            if (navegar(apostador, aleatorio)) {
+                registrar(Operacion.VISITA, inicio);
+            }
+            if (pensarNanos > 0) {
+                esperarHasta(Math.min(fin, System.nanoTime() + (long) (-Math.log(1 - aleatorio.nextDouble()) * pensarNanos)));
+            }
+        }
+    }
+
+    private void visitar(long programada, ThreadLocalRandom aleatorio) {
+        Apostador apostador = iniciarSesion(aleatorio);
+        if (apostador != null && navegar(apostador, aleatorio)) {
+            registrar(Operacion.VISITA, programada);
+        }
+    }
+
+    /**
+     * Lo que hace {@code LoginView}: valida las credenciales, busca el usuario, actualiza su
+     * último acceso y carga el apostador.
+     *
+     * @return el apostador, o {@code null} si el inicio de sesión falló
+     */
+    private Apostador iniciarSesion(ThreadLocalRandom aleatorio) {
+        String nombreUsuario = prefijoUsuario + (1 + aleatorio.nextInt(usuarios));
+        long inicio = System.nanoTime();
+        try {
+            if (!usuarioDAO.validarCredenciales(nombreUsuario, password)) {
+                return fallo(Operacion.LOGIN, inicio);
+            }
+            Optional<Usuario> usuario = usuarioDAO.buscarPorNombreUsuario(nombreUsuario);
+            if (usuario.isEmpty() || !usuario.get().isActivo()) {
+                return fallo(Operacion.LOGIN, inicio);
+            }
+            usuarioDAO.actualizarUltimoAcceso(usuario.get().getIdUsuario());
+            Optional<Apostador> apostador = apostadorDAO.getById(usuario.get().getIdUsuario());
+            if (apostador.isEmpty()) {
+                return fallo(Operacion.LOGIN, inicio);
+            }
+            registrar(Operacion.LOGIN, inicio);
+            return apostador.get();
+        } catch (SQLException | RuntimeException e) {
+            return fallo(Operacion.LOGIN, inicio);
+        }
+    }
+
+    /**
+     * Una visita al menú del apostador.
+     *
+     * @return si todas las operaciones terminaron sin error
+     */
+    private boolean navegar(Apostador apostador, ThreadLocalRandom aleatorio) {
+        Operacion actual = Operacion.SALDO;
+        long inicio = System.nanoTime();
+        try {
+            Optional<Apostador> datos = apostadorDAO.getById(apostador.getIdUsuario());
+            if (datos.isEmpty()) {
+                fallo(actual, inicio);
+                return false;
+            }
+            apostador.setSaldo(datos.get().getSaldo());
+            inicio = registrar(actual, inicio);
+
+            actual = Operacion.CARRERAS;
+            CatalogoCarreras.Instantanea catalogo = CatalogoCarreras.getInstancia().getInstantanea();
+            List<Carrera> carreras = catalogo.getCarreras();
+            Carrera carrera = carreras.isEmpty() ? null : carreras.get(aleatorio.nextInt(carreras.size()));
+            List<Participante> participantes = carrera != null ? catalogo.getParticipantes(carrera.getIdCarrera()) : null;
+            inicio = registrar(actual, inicio);
+
+            if (participantes != null && !participantes.isEmpty() && apostador.getSaldo() >= MONTO
+                    && aleatorio.nextDouble() < probabilidadApuesta) {
+                actual = Operacion.APUESTA;
+                apostar(apostador, carrera, participantes.get(aleatorio.nextInt(participantes.size())));
+                inicio = registrar(actual, inicio);
+            }
+
+            actual = Operacion.HISTORIAL;
+            apuestaDAO.getByApostadorId(apostador.getIdUsuario());
+            registrar(actual, inicio);
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            fallo(actual, inicio);
+            return false;
+        }
+    }
+
+    private void apostar(Apostador apostador, Carrera carrera, Participante participante) throws SQLException {
+        Apuesta apuesta = new ApuestaGanador(GeneradorIds.predeterminado().siguiente(), apostador.getIdUsuario(),
+                carrera.getIdCarrera(), TipoApuesta.GANADOR, MONTO);
+        List<ApuestaSeleccion> selecciones = List.of(new ApuestaSeleccion(GeneradorIds.predeterminado().siguiente(),
+                apuesta.getId(), participante.getIdParticipante(), 1));
+        if (!apuestaDAO.saveWithSelections(apuesta, selecciones)) {
+            throw new SQLException("No se guardó la apuesta");
+        }
+        double nuevoSaldo = apostador.getSaldo() - MONTO;
+        apostadorDAO.actualizarSaldo(apostador.getIdUsuario(), nuevoSaldo);
+        apostador.setSaldo(nuevoSaldo);
+    }
+
+    private long registrar(Operacion operacion, long inicio) {
+        long ahora = System.nanoTime();
+        latencias[operacion.ordinal()].registrar(ahora - inicio);
+        if (operacion != Operacion.VISITA) {
+            operaciones.increment();
+        }
+        return ahora;
+    }
+
+    private <T> T fallo(Operacion operacion, long inicio) {
+        registrar(operacion, inicio);
+        errores[operacion.ordinal()].increment();
+        return null;
+    }
+
+    private static void esperarHasta(long instante) {
+        long restante;
+        while ((restante = instante - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+    /**
+     * Imprime cada {@link #INTERVALO_PROGRESO} las operaciones por segundo del intervalo, para
+     * seguir la rampa.
+     */
+    private void progreso(Medicion medicion, long fin) {
+        long anterior = 0;
+        long instante = medicion.inicio;
+        while (System.nanoTime() < fin) {
+            esperarHasta(Math.min(fin, instante + INTERVALO_PROGRESO.toNanos()));
+            long ahora = System.nanoTime();
+            long total = operaciones.sum();
+            PoolConexiones pool = ConexionBD.getPool();
+            System.out.printf("%6.0f s %10.0f op/s   conexiones en uso %d/%d, %d hilos en espera%n",
+                    (ahora - medicion.inicio) / 1e9, (total - anterior) * 1e9 / (ahora - instante),
+                    pool.getEnUso(), pool.getTamanoMaximo(), pool.getEnEspera());
+            anterior = total;
+            instante = ahora;
+        }
+    }
+
+    /**
+     * Estado del pool al empezar, para informar solo lo ocurrido durante la prueba.
+     */
+    private final class Medicion {
+        private final long inicio = System.nanoTime();
+        private final long[] esperasIniciales = ConexionBD.getPool().getEsperas().conteos();
+        private final long agotadasIniciales = ConexionBD.getPool().getEsperasAgotadas();
+        private final long[] lecturasIniciales = lecturas();
+
+        private void informar(String titulo) {
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.println();
+            System.out.println("Resultados (" + titulo + ")");
+            System.out.printf("%-16s %10s %8s %9s %9s %9s %9s %9s%n", "operación", "cantidad", "errores",
+                    "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Operacion operacion : Operacion.values()) {
+                imprimir(operacion.nombre, latencias[operacion.ordinal()].conteos(),
+                        errores[operacion.ordinal()].sum());
+            }
+
+            PoolConexiones pool = ConexionBD.getPool();
+            long[] esperas = pool.getEsperas().conteos();
+            for (int i = 0; i < esperas.length; i++) {
+                esperas[i] -= esperasIniciales[i];
+            }
+            imprimir("espera conexión", esperas, pool.getEsperasAgotadas() - agotadasIniciales);
+            if (ConexionBD.getPredeterminado() instanceof EnrutadorConexiones) {
+                long[] lecturas = lecturas();
+                System.out.printf("lecturas: %d en réplicas, %d en el primario por escrituras recientes, %d fallos de réplica%n",
+                        lecturas[0] - lecturasIniciales[0], lecturas[1] - lecturasIniciales[1],
+                        lecturas[2] - lecturasIniciales[2]);
+            }
+
+            long total = operaciones.sum();
+            long visitas = total(latencias[Operacion.VISITA.ordinal()].conteos());
+            System.out.printf("%d operaciones en %.1f s: %.0f op/s, %.1f visitas/s completas%n",
+                    total, segundos, total / segundos, visitas / segundos);
+            if (descartadas.sum() > 0) {
+                System.out.printf("%d visitas descartadas por superar el máximo en curso%n", descartadas.sum());
+            }
+        }
+
+        private static long[] lecturas() {
+            if (ConexionBD.getPredeterminado() instanceof EnrutadorConexiones enrutador) {
+                return new long[]{enrutador.getLecturasReplica(), enrutador.getLecturasPegajosas(),
+                        enrutador.getFallosReplica()};
+            }
+            return new long[3];
+        }
+
+        private static void imprimir(String nombre, long[] conteos, long errores) {
+            System.out.printf("%-16s %10d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre, total(conteos), errores,
+                    ms(conteos, 0.50), ms(conteos, 0.90), ms(conteos, 0.99), ms(conteos, 0.999), ms(conteos, 1.0));
+        }
+
+        private static long total(long[] conteos) {
+            long total = 0;
+            for (long conteo : conteos) {
+                total += conteo;
+            }
+            return total;
+        }
+
+        private static double ms(long[] conteos, double fraccion) {
+            return HistogramaLatencia.percentil(conteos, fraccion) / 1e6;
+        }
+    }
+}
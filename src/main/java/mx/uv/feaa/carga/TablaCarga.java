@@ -0,0 +1,62 @@
+package mx.uv.feaa.carga;
+
+/**
+ * Tablas que llena {@link GeneradorDatos}, con las mismas columnas que insertan los DAOs.
+ * El orden de declaración respeta las claves foráneas: cada tabla solo referencia a las anteriores.
+ */
+public enum TablaCarga {
+    USUARIO("Usuario", "idUsuario", "nombreUsuario", "email", "password", "activo", "tipoUsuario"),
+    CRIADOR("Criador", "idUsuario", "licenciaCriador", "fechaVigenciaLicencia", "direccion", "telefono",
+            "nombreHaras"),
+    APOSTADOR("Apostador", "idUsuario", "saldo", "limiteApuesta", "nombre", "telefono"),
+    CABALLO("Caballo", "idCaballo", "nombre", "fechaNacimiento", "sexo", "peso", "pedigri", "ultimaCarrera",
+            "criador_id"),
+    JINETE("Jinete", "idJinete", "nombre", "fechaNacimiento", "peso", "licencia", "fechaVigenciaLicencia"),
+    CARRERA("Carrera", "idCarrera", "nombre", "fecha", "hora", "distancia", "estado", "minimoParticipantes",
+            "maximoParticipantes"),
+    PARTICIPANTE("Participante", "idParticipante", "carrera_id", "numeroCompetidor", "pesoAsignado", "caballo_id",
+            "jinete_id", "estado"),
+    RESULTADO("Resultado", "idResultado", "carrera_id", "fechaRegistro"),
+    RESULTADO_DETALLE("ResultadoDetalle", "idDetalle", "resultado_id", "participante_id", "posicion",
+            "tiempoOficial"),
+    HISTORIAL_CARRERA("HistorialCarrera", "idHistorial", "carrera_id", "caballo_id", "jinete_id", "posicion",
+            "tiempo", "fecha", "hipodromo"),
+    APUESTA("Apuesta", "idApuesta", "apostador_id", "carrera_id", "tipoApuesta", "montoApostado", "fechaApuesta",
+            "estado", "cuotaAplicada", "montoGanado"),
+    APUESTA_SELECCION("ApuestaSeleccion", "idSeleccion", "apuesta_id", "participante_id", "ordenSeleccion");
+
+    private final String nombre;
+    private final String[] columnas;
+
+    TablaCarga(String nombre, String... columnas) {
+        this.nombre = nombre;
+        this.columnas = columnas;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String[] getColumnas() {
+        return columnas.clone();
+    }
+
+    public int getNumeroColumnas() {
+        return columnas.length;
+    }
+
+    /**
+     * @return la lista de columnas separada por comas
+     */
+    public String listaColumnas() {
+        return String.join(", ", columnas);
+    }
+
+    /**
+     * @return el {@code INSERT} parametrizado de una fila
+     */
+    public String insert() {
+        return "INSERT INTO " + nombre + " (" + listaColumnas() + ") VALUES ("
+                + "?, ".repeat(columnas.length - 1) + "?)";
+    }
+}
@@ -0,0 +1,33 @@
+package mx.uv.feaa.excepciones;
+
+import java.sql.SQLException;
+
+/**
+ * La carrera de una apuesta ya no acepta apuestas (o no existe) al momento de guardarla.
+ * <p>
+ * Extiende {@link SQLException} porque la comprobación la hace el DAO dentro de la transacción
+ * que escribe la apuesta; los llamadores que ya manejan {@code SQLException} muestran su mensaje.
+ * </p>
+ */
+public class CarreraNoAbiertaException extends SQLException {
+    private final String idCarrera;
+    private final String estado;
+
+    public CarreraNoAbiertaException(String idCarrera, String estado) {
+        super(estado == null ? "La carrera " + idCarrera + " no existe"
+                : "La carrera " + idCarrera + " no acepta apuestas (estado " + estado + ")");
+        this.idCarrera = idCarrera;
+        this.estado = estado;
+    }
+
+    public String getIdCarrera() {
+        return idCarrera;
+    }
+
+    /**
+     * @return el estado de la carrera al intentar apostar, o {@code null} si no existe
+     */
+    public String getEstado() {
+        return estado;
+    }
+}
@@ -0,0 +1,204 @@
+package mx.uv.feaa.metricas;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Escritor del formato de texto de exposición de Prometheus sobre un búfer reutilizable.
+ * <p>
+ * Los nombres, la ayuda y las etiquetas de cada serie se codifican a bytes una sola vez, al crear
+ * su {@link Familia} y sus {@link Serie}s; en cada raspado solo se copian esos bytes y se escriben
+ * los números dígito por dígito, sin crear cadenas por métrica.
+ * </p>
+ */
+public final class EscritorPrometheus {
+    private byte[] bufer = new byte[64 * 1024];
+    private int posicion;
+
+    /**
+     * Familia de métricas: nombre, tipo y ayuda, con sus líneas {@code # HELP} y {@code # TYPE} ya codificadas.
+     */
+    public static final class Familia {
+        private final String nombre;
+        private final byte[] encabezado;
+
+        /**
+         * @param nombre el nombre de la métrica, por ejemplo {@code hipica_pool_conexiones_en_uso}
+         * @param tipo {@code gauge}, {@code counter} o {@code histogram}
+         * @param ayuda descripción de una línea
+         */
+        public Familia(String nombre, String tipo, String ayuda) {
+            this.nombre = nombre;
+            this.encabezado = ("# HELP " + nombre + " " + ayuda.replace("\\", "\\\\").replace("\n", "\\n")
+                    + "\n# TYPE " + nombre + " " + tipo + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @param etiquetas pares nombre, valor
+         */
+        public Serie serie(String... etiquetas) {
+            return sufijo("", etiquetas);
+        }
+
+        /**
+         * Serie con sufijo en el nombre, como {@code _bucket}, {@code _sum} o {@code _count} de un histograma.
+         *
+         * @param sufijo el sufijo del nombre
+         * @param etiquetas pares nombre, valor
+         */
+        public Serie sufijo(String sufijo, String... etiquetas) {
+            StringBuilder texto = new StringBuilder(nombre).append(sufijo);
+            if (etiquetas.length > 0) {
+                texto.append('{');
+                for (int i = 0; i + 1 < etiquetas.length; i += 2) {
+                    if (i > 0) {
+                        texto.append(',');
+                    }
+                    texto.append(etiquetas[i]).append("=\"").append(escapar(etiquetas[i + 1])).append('"');
+                }
+                texto.append('}');
+            }
+            return new Serie(texto.append(' ').toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String escapar(String valor) {
+            return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+
+    /**
+     * Nombre y etiquetas de una serie, ya codificados y seguidos de un espacio.
+     */
+    public static final class Serie {
+        private final byte[] prefijo;
+
+        private Serie(byte[] prefijo) {
+            this.prefijo = prefijo;
+        }
+    }
+
+    public void encabezado(Familia familia) {
+        escribir(familia.encabezado);
+    }
+
+    public void valor(Serie serie, long valor) {
+        escribir(serie.prefijo);
+        entero(valor);
+        caracter('\n');
+    }
+
+    public void valor(Serie serie, double valor) {
+        escribir(serie.prefijo);
+        decimal(valor);
+        caracter('\n');
+    }
+
+    /**
+     * Escribe una duración en segundos, con precisión de nanosegundos.
+     */
+    public void segundos(Serie serie, long nanos) {
+        escribir(serie.prefijo);
+        if (nanos < 0) {
+            caracter('-');
+            nanos = -nanos;
+        }
+        entero(nanos / 1_000_000_000L);
+        fraccion(nanos % 1_000_000_000L, 9);
+        caracter('\n');
+    }
+
+    void reiniciar() {
+        posicion = 0;
+    }
+
+    int getTamano() {
+        return posicion;
+    }
+
+    void copiarA(OutputStream salida) throws IOException {
+        salida.write(bufer, 0, posicion);
+    }
+
+    private void decimal(double valor) {
+        if (Double.isNaN(valor)) {
+            ascii("NaN");
+        } else if (Double.isInfinite(valor)) {
+            ascii(valor > 0 ? "+Inf" : "-Inf");
+        } else if (Math.abs(valor) >= 9e12) {
+            ascii(Double.toString(valor)); // Fuera del rango de seis decimales exactos
+        } else {
+            long escalado = Math.round(valor * 1_000_000);
+            if (escalado < 0) {
+                caracter('-');
+                escalado = -escalado;
+            }
+            entero(escalado / 1_000_000);
+            fraccion(escalado % 1_000_000, 6);
+        }
+    }
+
+    private void fraccion(long valor, int digitos) {
+        if (valor == 0) {
+            return;
+        }
+        // Se omiten los ceros a la derecha
+        while (valor % 10 == 0) {
+            valor /= 10;
+            digitos--;
+        }
+        caracter('.');
+        asegurar(digitos);
+        for (int i = digitos - 1; i >= 0; i--) {
+            bufer[posicion + i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        posicion += digitos;
+    }
+
+    private void entero(long valor) {
+        if (valor == Long.MIN_VALUE) {
+            ascii(Long.toString(valor));
+            return;
+        }
+        if (valor < 0) {
+            caracter('-');
+            valor = -valor;
+        }
+        int digitos = 1;
+        for (long resto = valor / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        asegurar(digitos);
+        for (int i = digitos - 1; i >= 0; i--) {
+            bufer[posicion + i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        posicion += digitos;
+    }
+
+    private void ascii(String texto) {
+        asegurar(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            bufer[posicion++] = (byte) texto.charAt(i);
+        }
+    }
+
+    private void escribir(byte[] bytes) {
+        asegurar(bytes.length);
+        System.arraycopy(bytes, 0, bufer, posicion, bytes.length);
+        posicion += bytes.length;
+    }
+
+    private void caracter(char c) {
+        asegurar(1);
+        bufer[posicion++] = (byte) c;
+    }
+
+    private void asegurar(int adicionales) {
+        if (posicion + adicionales > bufer.length) {
+            bufer = Arrays.copyOf(bufer, Math.max(bufer.length * 2, posicion + adicionales));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package mx.uv.feaa.metricas;
+
+/**
+ * Instantánea inmutable de los contadores de una operación, o de la suma de varias.
+ * <p>
+ * Los contadores se leen uno por uno mientras otros hilos siguen registrando, así que una
+ * instantánea tomada bajo carga puede no cuadrar exactamente (por ejemplo, el histograma puede
+ * tener una muestra más que {@link #getLlamadas()}).
+ * </p>
+ */
+public final class EstadisticaOperacion {
+    private final String dao;
+    private final String metodo;
+    private final long llamadas;
+    private final long errores;
+    private final long nanosTotales;
+    private final long maximoNanos;
+    private final long[] histograma;
+
+    EstadisticaOperacion(String dao, String metodo, long llamadas, long errores, long nanosTotales,
+                         long maximoNanos, long[] histograma) {
+        this.dao = dao;
+        this.metodo = metodo;
+        this.llamadas = llamadas;
+        this.errores = errores;
+        this.nanosTotales = nanosTotales;
+        this.maximoNanos = maximoNanos;
+        this.histograma = histograma;
+    }
+
+    /**
+     * Suma esta estadística con otra, por ejemplo para agregar todos los métodos de un DAO.
+     *
+     * @param otra la estadística a sumar
+     * @param metodo el nombre del método del resultado
+     * @return la suma
+     */
+    public EstadisticaOperacion combinar(EstadisticaOperacion otra, String metodo) {
+        long[] suma = histograma.clone();
+        for (int i = 0; i < suma.length; i++) {
+            suma[i] += otra.histograma[i];
+        }
+        return new EstadisticaOperacion(dao, metodo, llamadas + otra.llamadas, errores + otra.errores,
+                nanosTotales + otra.nanosTotales, Math.max(maximoNanos, otra.maximoNanos), suma);
+    }
+
+    /**
+     * @param fraccion el percentil como fracción, por ejemplo 0.99
+     * @return la latencia estimada en nanosegundos
+     */
+    public long percentil(double fraccion) {
+        return Math.min(HistogramaLatencia.percentil(histograma, fraccion), maximoNanos);
+    }
+
+    public double getMediaNanos() {
+        return llamadas == 0 ? 0 : (double) nanosTotales / llamadas;
+    }
+
+    public String getDao() { return dao; }
+    public String getMetodo() { return metodo; }
+    public long getLlamadas() { return llamadas; }
+    public long getErrores() { return errores; }
+    public long getNanosTotales() { return nanosTotales; }
+    public long getMaximoNanos() { return maximoNanos; }
+
+    /**
+     * @return una copia de los conteos por cubeta; los límites de cada cubeta se obtienen con
+     * {@link HistogramaLatencia#limiteSuperior(int)}
+     */
+    public long[] getHistograma() { return histograma.clone(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s llamadas=%d errores=%d media=%.1fµs p50=%.1fµs p99=%.1fµs max=%.1fµs",
+                dao, metodo, llamadas, errores, getMediaNanos() / 1e3, percentil(0.5) / 1e3,
+                percentil(0.99) / 1e3, maximoNanos / 1e3);
+    }
+}
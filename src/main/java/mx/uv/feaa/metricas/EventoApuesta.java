@@ -0,0 +1,31 @@
+package mx.uv.feaa.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR del registro de una apuesta con sus selecciones.
+ */
+@Name("mx.uv.feaa.Apuesta")
+@Label("Registro de apuesta")
+@Category({"Hípica", "Negocio"})
+@StackTrace(false)
+public class EventoApuesta extends Event {
+    @Label("Carrera")
+    public String idCarrera;
+
+    @Label("Tipo")
+    public String tipo;
+
+    @Label("Monto")
+    public double monto;
+
+    @Label("Selecciones")
+    public int selecciones;
+
+    @Label("Guardada")
+    public boolean guardada;
+}
@@ -0,0 +1,19 @@
+package mx.uv.feaa.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de un fallo de caché, con la duración de la carga que lo resolvió.
+ */
+@Name("mx.uv.feaa.FalloCache")
+@Label("Fallo de caché")
+@Category({"Hípica", "Caché"})
+@StackTrace(false)
+public class EventoFalloCache extends Event {
+    @Label("Caché")
+    public String cache;
+}
@@ -0,0 +1,40 @@
+package mx.uv.feaa.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una operación de un DAO, desde que se prestó la conexión hasta que se devolvió.
+ * Lo emite {@link mx.uv.feaa.util.PoolConexiones}.
+ * <p>
+ * Los eventos de la aplicación se graban con la configuración por defecto sin pila; para
+ * incluirla, por ejemplo:
+ * {@code -XX:StartFlightRecording:filename=hipica.jfr,+mx.uv.feaa.OperacionDAO#stackTrace=true}.
+ * </p>
+ */
+@Name("mx.uv.feaa.OperacionDAO")
+@Label("Operación DAO")
+@Description("Préstamo de una conexión por un método de un DAO")
+@Category({"Hípica", "Datos"})
+@StackTrace(false)
+public class EventoOperacionDAO extends Event {
+    @Label("DAO")
+    public String dao;
+
+    @Label("Método")
+    public String metodo;
+
+    @Label("Sentencias")
+    public int sentencias;
+
+    @Label("Filas")
+    @Description("Filas devueltas o afectadas; solo se cuentan con el trazado SQL activo")
+    public long filas;
+
+    @Label("Error")
+    public boolean error;
+}
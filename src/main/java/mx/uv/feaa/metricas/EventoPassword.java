@@ -0,0 +1,24 @@
+package mx.uv.feaa.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una comprobación o un cálculo de hash de contraseña: la validación de
+ * credenciales de {@link mx.uv.feaa.model.dao.UsuarioDAO#validarCredenciales} en cada inicio de
+ * sesión, y los hash de {@link mx.uv.feaa.util.PasswordUtil}.
+ */
+@Name("mx.uv.feaa.Password")
+@Label("Hash de contraseña")
+@Category({"Hípica", "Seguridad"})
+@StackTrace(false)
+public class EventoPassword extends Event {
+    @Label("Operación")
+    public String operacion;
+
+    @Label("Válida")
+    public boolean valida;
+}
@@ -0,0 +1,25 @@
+package mx.uv.feaa.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR del registro del resultado de una carrera: resultado, historiales, estadísticas y
+ * ratings, como un solo lote.
+ */
+@Name("mx.uv.feaa.RegistroResultado")
+@Label("Registro de resultado")
+@Description("Lote que persiste el resultado de una carrera y actualiza historiales, estadísticas y ratings")
+@Category({"Hípica", "Negocio"})
+@StackTrace(false)
+public class EventoRegistroResultado extends Event {
+    @Label("Carrera")
+    public String idCarrera;
+
+    @Label("Participantes")
+    public int participantes;
+}
@@ -0,0 +1,247 @@
+package mx.uv.feaa.metricas;
+
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.PoolConexiones;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Fuentes de métricas predefinidas para {@link ServidorMetricas}.
+ * <p>
+ * Cada fuente crea sus {@link EscritorPrometheus.Familia}s y {@link EscritorPrometheus.Serie}s una
+ * vez; las series de los DAOs se crean la primera vez que aparece cada operación y se conservan.
+ * </p>
+ */
+public final class FuentesMetricas {
+
+    private FuentesMetricas() {
+    }
+
+    /**
+     * Una métrica que se escribe en cada raspado.
+     */
+    @FunctionalInterface
+    public interface Fuente {
+        void escribir(EscritorPrometheus salida);
+    }
+
+    /**
+     * Un valor numérico, por ejemplo la profundidad de una cola.
+     *
+     * @param nombre el nombre de la métrica
+     * @param tipo {@code gauge} o {@code counter}
+     * @param ayuda descripción de una línea
+     * @param valor proveedor del valor, invocado en cada raspado
+     */
+    public static Fuente valor(String nombre, String tipo, String ayuda, LongSupplier valor) {
+        EscritorPrometheus.Familia familia = new EscritorPrometheus.Familia(nombre, tipo, ayuda);
+        EscritorPrometheus.Serie serie = familia.serie();
+        return salida -> {
+            salida.encabezado(familia);
+            salida.valor(serie, valor.getAsLong());
+        };
+    }
+
+    /**
+     * Aciertos y fallos de una caché, como {@code hipica_cache_<cache>_consultas_total{resultado}}.
+     * La tasa de aciertos se calcula en Prometheus a partir de ambos contadores.
+     */
+    public static Fuente cache(String cache, LongSupplier aciertos, LongSupplier fallos) {
+        EscritorPrometheus.Familia familia = new EscritorPrometheus.Familia("hipica_cache_" + cache + "_consultas_total",
+                "counter", "Consultas a la caché " + cache + ", por resultado");
+        EscritorPrometheus.Serie serieAciertos = familia.serie("resultado", "acierto");
+        EscritorPrometheus.Serie serieFallos = familia.serie("resultado", "fallo");
+        return salida -> {
+            salida.encabezado(familia);
+            salida.valor(serieAciertos, aciertos.getAsLong());
+            salida.valor(serieFallos, fallos.getAsLong());
+        };
+    }
+
+    /**
+     * Estado del pool de {@link ConexionBD}.
+     */
+    public static Fuente pool() {
+        EscritorPrometheus.Familia enUso = new EscritorPrometheus.Familia("hipica_pool_conexiones_en_uso",
+                "gauge", "Conexiones prestadas en este momento");
+        EscritorPrometheus.Familia libres = new EscritorPrometheus.Familia("hipica_pool_conexiones_libres",
+                "gauge", "Conexiones abiertas esperando un préstamo");
+        EscritorPrometheus.Familia maximo = new EscritorPrometheus.Familia("hipica_pool_conexiones_maximo",
+                "gauge", "Tamaño máximo del pool");
+        EscritorPrometheus.Familia enEspera = new EscritorPrometheus.Familia("hipica_pool_hilos_en_espera",
+                "gauge", "Hilos esperando una conexión libre");
+        EscritorPrometheus.Familia creadas = new EscritorPrometheus.Familia("hipica_pool_conexiones_creadas_total",
+                "counter", "Conexiones físicas abiertas desde el arranque");
+        EscritorPrometheus.Familia agotadas = new EscritorPrometheus.Familia("hipica_pool_esperas_agotadas_total",
+                "counter", "Préstamos fallidos por agotarse la espera");
+        EscritorPrometheus.Serie[] series = {enUso.serie(), libres.serie(), maximo.serie(), enEspera.serie(),
+                creadas.serie(), agotadas.serie()};
+        return salida -> {
+            PoolConexiones pool = ConexionBD.getPool();
+            salida.encabezado(enUso);
+            salida.valor(series[0], pool.getEnUso());
+            salida.encabezado(libres);
+            salida.valor(series[1], pool.getLibres());
+            salida.encabezado(maximo);
+            salida.valor(series[2], pool.getTamanoMaximo());
+            salida.encabezado(enEspera);
+            salida.valor(series[3], pool.getEnEspera());
+            salida.encabezado(creadas);
+            salida.valor(series[4], pool.getCreadas());
+            salida.encabezado(agotadas);
+            salida.valor(series[5], pool.getEsperasAgotadas());
+        };
+    }
+
+    /**
+     * Histograma de latencia y errores de cada operación registrada en {@link MetricasDAO}.
+     */
+    public static Fuente dao() {
+        return new FuenteDao(MetricasDAO.getInstancia());
+    }
+
+    /**
+     * Memoria del heap, recolecciones de basura por recolector e hilos vivos.
+     */
+    public static Fuente jvm() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        List<GarbageCollectorMXBean> recolectores = ManagementFactory.getGarbageCollectorMXBeans();
+
+        EscritorPrometheus.Familia heap = new EscritorPrometheus.Familia("jvm_memoria_heap_bytes", "gauge",
+                "Memoria del heap por área");
+        EscritorPrometheus.Serie usado = heap.serie("area", "usada");
+        EscritorPrometheus.Serie comprometido = heap.serie("area", "comprometida");
+        EscritorPrometheus.Serie maximo = heap.serie("area", "maxima");
+        EscritorPrometheus.Familia recolecciones = new EscritorPrometheus.Familia("jvm_gc_recolecciones_total",
+                "counter", "Recolecciones de basura por recolector");
+        EscritorPrometheus.Familia tiempoGc = new EscritorPrometheus.Familia("jvm_gc_segundos_total",
+                "counter", "Tiempo acumulado en recolección de basura por recolector");
+        EscritorPrometheus.Serie[] seriesRecolecciones = new EscritorPrometheus.Serie[recolectores.size()];
+        EscritorPrometheus.Serie[] seriesTiempo = new EscritorPrometheus.Serie[recolectores.size()];
+        for (int i = 0; i < recolectores.size(); i++) {
+            seriesRecolecciones[i] = recolecciones.serie("gc", recolectores.get(i).getName());
+            seriesTiempo[i] = tiempoGc.serie("gc", recolectores.get(i).getName());
+        }
+        EscritorPrometheus.Familia vivos = new EscritorPrometheus.Familia("jvm_hilos_vivos", "gauge",
+                "Hilos de plataforma vivos");
+        EscritorPrometheus.Serie serieVivos = vivos.serie();
+
+        return salida -> {
+            MemoryUsage uso = memoria.getHeapMemoryUsage();
+            salida.encabezado(heap);
+            salida.valor(usado, uso.getUsed());
+            salida.valor(comprometido, uso.getCommitted());
+            salida.valor(maximo, uso.getMax());
+            salida.encabezado(recolecciones);
+            for (int i = 0; i < seriesRecolecciones.length; i++) {
+                salida.valor(seriesRecolecciones[i], recolectores.get(i).getCollectionCount());
+            }
+            salida.encabezado(tiempoGc);
+            for (int i = 0; i < seriesTiempo.length; i++) {
+                salida.segundos(seriesTiempo[i], recolectores.get(i).getCollectionTime() * 1_000_000L);
+            }
+            salida.encabezado(vivos);
+            salida.valor(serieVivos, hilos.getThreadCount());
+        };
+    }
+
+    /**
+     * Métricas de los DAOs. Las cubetas log-lineales del {@link HistogramaLatencia} se agrupan en
+     * los límites {@code le} habituales de Prometheus, sumando las cubetas cuyo límite superior no
+     * excede cada uno.
+     */
+    private static final class FuenteDao implements Fuente {
+        private static final long[] LIMITES_NANOS = {
+                100_000L, 250_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L,
+                50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L,
+                5_000_000_000L, 10_000_000_000L};
+        private static final String[] LIMITES_TEXTO = {
+                "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025",
+                "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+        // Última cubeta del histograma incluida en cada límite
+        private static final int[] CORTES = new int[LIMITES_NANOS.length];
+
+        static {
+            for (int i = 0; i < LIMITES_NANOS.length; i++) {
+                int corte = -1;
+                while (corte + 1 < HistogramaLatencia.CUBETAS
+                        && HistogramaLatencia.limiteSuperior(corte + 1) <= LIMITES_NANOS[i]) {
+                    corte++;
+                }
+                CORTES[i] = corte;
+            }
+        }
+
+        private final MetricasDAO metricas;
+        private final EscritorPrometheus.Familia duracion = new EscritorPrometheus.Familia(
+                "hipica_dao_duracion_segundos", "histogram", "Duración de las operaciones de los DAOs, con la espera de conexión");
+        private final EscritorPrometheus.Familia errores = new EscritorPrometheus.Familia(
+                "hipica_dao_errores_total", "counter", "Operaciones de los DAOs que terminaron con error");
+        private final Map<MedidorOperacion, SeriesOperacion> series = new IdentityHashMap<>();
+        private final long[] conteos = new long[HistogramaLatencia.CUBETAS];
+
+        private FuenteDao(MetricasDAO metricas) {
+            this.metricas = metricas;
+        }
+
+        // El servidor escribe las fuentes de a un raspado a la vez
+        @Override
+        public void escribir(EscritorPrometheus salida) {
+            salida.encabezado(duracion);
+            for (MedidorOperacion medidor : metricas.getMedidores()) {
+                SeriesOperacion serie = series.computeIfAbsent(medidor, this::crearSeries);
+                medidor.conteos(conteos);
+                long acumulado = 0;
+                int cubeta = 0;
+                for (int i = 0; i < CORTES.length; i++) {
+                    for (; cubeta <= CORTES[i]; cubeta++) {
+                        acumulado += conteos[cubeta];
+                    }
+                    salida.valor(serie.cubetas[i], acumulado);
+                }
+                for (; cubeta < conteos.length; cubeta++) {
+                    acumulado += conteos[cubeta];
+                }
+                salida.valor(serie.cubetas[CORTES.length], acumulado);
+                salida.segundos(serie.suma, medidor.getNanosTotales());
+                salida.valor(serie.cuenta, acumulado);
+            }
+            salida.encabezado(errores);
+            for (MedidorOperacion medidor : metricas.getMedidores()) {
+                SeriesOperacion serie = series.computeIfAbsent(medidor, this::crearSeries);
+                salida.valor(serie.errores, medidor.getErrores());
+            }
+        }
+
+        private SeriesOperacion crearSeries(MedidorOperacion medidor) {
+            SeriesOperacion serie = new SeriesOperacion();
+            String dao = medidor.getDao();
+            String metodo = medidor.getMetodo();
+            serie.cubetas = new EscritorPrometheus.Serie[LIMITES_TEXTO.length + 1];
+            for (int i = 0; i < LIMITES_TEXTO.length; i++) {
+                serie.cubetas[i] = duracion.sufijo("_bucket", "dao", dao, "metodo", metodo, "le", LIMITES_TEXTO[i]);
+            }
+            serie.cubetas[LIMITES_TEXTO.length] = duracion.sufijo("_bucket", "dao", dao, "metodo", metodo, "le", "+Inf");
+            serie.suma = duracion.sufijo("_sum", "dao", dao, "metodo", metodo);
+            serie.cuenta = duracion.sufijo("_count", "dao", dao, "metodo", metodo);
+            serie.errores = errores.serie("dao", dao, "metodo", metodo);
+            return serie;
+        }
+
+        private static final class SeriesOperacion {
+            private EscritorPrometheus.Serie[] cubetas;
+            private EscritorPrometheus.Serie suma;
+            private EscritorPrometheus.Serie cuenta;
+            private EscritorPrometheus.Serie errores;
+        }
+    }
+}
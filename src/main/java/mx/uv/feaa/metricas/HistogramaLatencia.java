@@ -0,0 +1,120 @@
+package mx.uv.feaa.metricas;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-lineal de latencias en nanosegundos, sin bloqueos.
+ * <p>
+ * Cada potencia de dos se divide en {@value #SUBDIVISIONES} cubetas iguales, de modo que el error
+ * relativo de cualquier percentil es menor al 12.5 % en todo el rango (de nanosegundos a ~68 s).
+ * Las escrituras se reparten en varias franjas según el hilo, cada una con su propio arreglo de
+ * contadores, para que los hilos que registran a la vez no compitan por la misma línea de caché;
+ * las franjas solo se suman al tomar una instantánea.
+ * </p>
+ */
+public final class HistogramaLatencia {
+    private static final int BITS_SUBDIVISION = 3;
+    static final int SUBDIVISIONES = 1 << BITS_SUBDIVISION;
+    // Exponente máximo representable: 2^36 ns ≈ 68.7 s; lo que exceda cae en la última cubeta
+    private static final int EXPONENTE_MAXIMO = 36;
+    public static final int CUBETAS = (EXPONENTE_MAXIMO - BITS_SUBDIVISION + 1) * SUBDIVISIONES + SUBDIVISIONES;
+
+    private static final int FRANJAS = Math.min(16, Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+    private final AtomicLongArray[] franjas = new AtomicLongArray[FRANJAS];
+
+    public HistogramaLatencia() {
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new AtomicLongArray(CUBETAS);
+        }
+    }
+
+    public void registrar(long nanos) {
+        franjas[franja()].getAndIncrement(indice(nanos));
+    }
+
+    /**
+     * @return los conteos por cubeta, sumando todas las franjas
+     */
+    public long[] conteos() {
+        long[] conteos = new long[CUBETAS];
+        conteos(conteos);
+        return conteos;
+    }
+
+    /**
+     * Escribe los conteos por cubeta en un arreglo existente, sin reservar memoria.
+     */
+    public void conteos(long[] destino) {
+        Arrays.fill(destino, 0, CUBETAS, 0);
+        for (AtomicLongArray franja : franjas) {
+            for (int i = 0; i < CUBETAS; i++) {
+                destino[i] += franja.get(i);
+            }
+        }
+    }
+
+    static int indice(long nanos) {
+        if (nanos < SUBDIVISIONES) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponente > EXPONENTE_MAXIMO) {
+            return CUBETAS - 1;
+        }
+        int subdivision = (int) (nanos >>> (exponente - BITS_SUBDIVISION)) - SUBDIVISIONES;
+        return (exponente - BITS_SUBDIVISION + 1) * SUBDIVISIONES + subdivision;
+    }
+
+    /**
+     * @return el menor valor, en nanosegundos, que cae en la cubeta
+     */
+    public static long limiteInferior(int indice) {
+        if (indice < SUBDIVISIONES) {
+            return indice;
+        }
+        int exponente = indice / SUBDIVISIONES + BITS_SUBDIVISION - 1;
+        return (long) (SUBDIVISIONES + indice % SUBDIVISIONES) << (exponente - BITS_SUBDIVISION);
+    }
+
+    /**
+     * @return el mayor valor, en nanosegundos, que cae en la cubeta
+     */
+    public static long limiteSuperior(int indice) {
+        return indice == CUBETAS - 1 ? Long.MAX_VALUE : limiteInferior(indice + 1) - 1;
+    }
+
+    /**
+     * Estima un percentil a partir de unos conteos, devolviendo el límite superior de la cubeta
+     * en la que cae.
+     *
+     * @param conteos los conteos por cubeta
+     * @param fraccion el percentil como fracción, entre 0 y 1
+     * @return la latencia en nanosegundos, o 0 si no hay muestras
+     */
+    public static long percentil(long[] conteos, double fraccion) {
+        long total = 0;
+        for (long conteo : conteos) {
+            total += conteo;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(fraccion * total));
+        long acumulado = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return limiteSuperior(i);
+            }
+        }
+        return limiteSuperior(conteos.length - 1);
+    }
+
+    private static int franja() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (FRANJAS - 1);
+    }
+}
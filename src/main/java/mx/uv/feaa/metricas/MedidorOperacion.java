@@ -0,0 +1,59 @@
+package mx.uv.feaa.metricas;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de una operación de un DAO: llamadas, errores, tiempo total, máximo e histograma.
+ * Todos admiten escrituras concurrentes sin bloqueos.
+ */
+public final class MedidorOperacion {
+    private final String dao;
+    private final String metodo;
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder nanosTotales = new LongAdder();
+    private final LongAccumulator maximoNanos = new LongAccumulator(Math::max, 0);
+    private final HistogramaLatencia histograma = new HistogramaLatencia();
+
+    MedidorOperacion(String dao, String metodo) {
+        this.dao = dao;
+        this.metodo = metodo;
+    }
+
+    /**
+     * Registra una llamada terminada.
+     *
+     * @param nanos la duración de la llamada
+     * @param error si la llamada terminó con error
+     */
+    public void registrar(long nanos, boolean error) {
+        llamadas.increment();
+        if (error) {
+            errores.increment();
+        }
+        nanosTotales.add(nanos);
+        maximoNanos.accumulate(nanos);
+        histograma.registrar(nanos);
+    }
+
+    public EstadisticaOperacion instantanea() {
+        return new EstadisticaOperacion(dao, metodo, llamadas.sum(), errores.sum(), nanosTotales.sum(),
+                maximoNanos.get(), histograma.conteos());
+    }
+
+    public String getDao() { return dao; }
+    public String getMetodo() { return metodo; }
+    public long getLlamadas() { return llamadas.sum(); }
+    public long getErrores() { return errores.sum(); }
+    public long getNanosTotales() { return nanosTotales.sum(); }
+
+    /**
+     * Copia los conteos del histograma en un arreglo reutilizable.
+     *
+     * @param destino arreglo de {@link HistogramaLatencia#CUBETAS} posiciones
+     */
+    public void conteos(long[] destino) {
+        histograma.conteos(destino);
+    }
+}
@@ -0,0 +1,87 @@
+package mx.uv.feaa.metricas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de métricas de acceso a datos, por DAO y por método.
+ * <p>
+ * Cada operación se identifica como {@code "CaballoDAO.getById"}; {@link mx.uv.feaa.util.ConexionBD}
+ * recibe ese nombre al prestar la conexión y registra la llamada cuando la conexión se devuelve,
+ * con su duración (incluida la espera por una conexión libre) y si alguna sentencia falló. El
+ * registro es global porque la fuente de conexiones también lo es.
+ * </p>
+ */
+public final class MetricasDAO {
+    private static final MetricasDAO INSTANCIA = new MetricasDAO();
+
+    private final ConcurrentHashMap<String, MedidorOperacion> medidores = new ConcurrentHashMap<>();
+
+    private MetricasDAO() {
+    }
+
+    public static MetricasDAO getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Devuelve el medidor de una operación, creándolo la primera vez.
+     *
+     * @param operacion el nombre de la operación, {@code "Dao.metodo"}
+     * @return el medidor de la operación
+     */
+    public MedidorOperacion medidor(String operacion) {
+        MedidorOperacion medidor = medidores.get(operacion);
+        if (medidor != null) {
+            return medidor;
+        }
+        return medidores.computeIfAbsent(operacion, nombre -> {
+            int punto = nombre.lastIndexOf('.');
+            return punto < 0
+                    ? new MedidorOperacion(nombre, "")
+                    : new MedidorOperacion(nombre.substring(0, punto), nombre.substring(punto + 1));
+        });
+    }
+
+    /**
+     * @return vista en vivo de los medidores registrados, sin orden definido
+     */
+    public Collection<MedidorOperacion> getMedidores() {
+        return Collections.unmodifiableCollection(medidores.values());
+    }
+
+    /**
+     * @return las estadísticas de cada operación registrada, ordenadas por DAO y método
+     */
+    public List<EstadisticaOperacion> instantanea() {
+        List<EstadisticaOperacion> estadisticas = new ArrayList<>(medidores.size());
+        for (MedidorOperacion medidor : medidores.values()) {
+            estadisticas.add(medidor.instantanea());
+        }
+        estadisticas.sort(Comparator.comparing(EstadisticaOperacion::getDao)
+                .thenComparing(EstadisticaOperacion::getMetodo));
+        return estadisticas;
+    }
+
+    /**
+     * @return las estadísticas sumadas de todos los métodos de cada DAO, con método {@code "*"}
+     */
+    public List<EstadisticaOperacion> instantaneaPorDao() {
+        Map<String, EstadisticaOperacion> porDao = new LinkedHashMap<>();
+        for (EstadisticaOperacion estadistica : instantanea()) {
+            porDao.compute(estadistica.getDao(),
+                    (dao, suma) -> (suma != null ? suma : vacia(dao)).combinar(estadistica, "*"));
+        }
+        return new ArrayList<>(porDao.values());
+    }
+
+    private static EstadisticaOperacion vacia(String dao) {
+        return new EstadisticaOperacion(dao, "*", 0, 0, 0, 0, new long[HistogramaLatencia.CUBETAS]);
+    }
+}
@@ -0,0 +1,84 @@
+package mx.uv.feaa.metricas;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Servidor HTTP mínimo que expone {@code GET /metrics} en el formato de texto de Prometheus.
+ * <p>
+ * Corre en su propio puerto, separado de la API, para que el raspado no compita con las peticiones
+ * de los usuarios. Incluye de entrada las métricas del pool de conexiones, de los DAOs y de la JVM;
+ * otros componentes agregan las suyas con {@link #registrar(FuentesMetricas.Fuente)}.
+ * </p>
+ * <p>
+ * Los raspados se atienden de a uno sobre el mismo {@link EscritorPrometheus}, cuyo búfer se
+ * reutiliza entre raspados.
+ * </p>
+ */
+public final class ServidorMetricas {
+    private static final Logger LOGGER = Logger.getLogger(ServidorMetricas.class.getName());
+    private static final String TIPO_CONTENIDO = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer servidor;
+    private final List<FuentesMetricas.Fuente> fuentes = new CopyOnWriteArrayList<>();
+    private final EscritorPrometheus escritor = new EscritorPrometheus();
+
+    /**
+     * @param puerto puerto TCP en el que escuchar
+     * @throws IOException si no puede abrirse el puerto
+     */
+    public ServidorMetricas(int puerto) throws IOException {
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 16);
+        this.servidor.createContext("/metrics", this::raspar);
+        registrar(FuentesMetricas.pool());
+        registrar(FuentesMetricas.dao());
+        registrar(FuentesMetricas.jvm());
+    }
+
+    /**
+     * Agrega una fuente; cada familia de métricas debe aparecer en una sola fuente.
+     */
+    public void registrar(FuentesMetricas.Fuente fuente) {
+        fuentes.add(fuente);
+    }
+
+    public void iniciar() {
+        servidor.start();
+        LOGGER.info("Métricas disponibles en http://localhost:" + getPuerto() + "/metrics");
+    }
+
+    public void detener() {
+        servidor.stop(0);
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void raspar(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            if (!"GET".equals(intercambio.getRequestMethod())) {
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            synchronized (escritor) {
+                escritor.reiniciar();
+                for (FuentesMetricas.Fuente fuente : fuentes) {
+                    fuente.escribir(escritor);
+                }
+                intercambio.getResponseHeaders().set("Content-Type", TIPO_CONTENIDO);
+                intercambio.sendResponseHeaders(200, escritor.getTamano());
+                try (OutputStream cuerpo = intercambio.getResponseBody()) {
+                    escritor.copiarA(cuerpo);
+                }
+            }
+        }
+    }
+}
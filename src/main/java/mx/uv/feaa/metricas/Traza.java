@@ -0,0 +1,138 @@
+package mx.uv.feaa.metricas;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traza de una acción de usuario: un identificador de correlación y el resumen de las sentencias
+ * SQL que la acción ejecutó, agrupadas por texto.
+ * <p>
+ * La traza se asocia al hilo que la inicia; las sentencias que ese hilo ejecuta mientras está
+ * activa se le atribuyen, y al cerrarla {@link TrazadorSQL} decide si registrarla (por lenta o
+ * porque repite muchas veces la misma sentencia, el patrón N+1). Una traza iniciada dentro de otra
+ * se suma a la exterior, que es la que se registra.
+ * </p>
+ * <p>
+ * Las acciones de consola esperan al usuario a media acción, así que se inician con
+ * {@link #iniciarInteractiva(String)}: su lentitud se juzga por el tiempo que pasaron en la base de
+ * datos y no por la duración total.
+ * </p>
+ * <pre>
+ * try (Traza traza = Traza.iniciar("GET /api/carreras")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class Traza implements AutoCloseable {
+    private static final ThreadLocal<Traza> ACTUAL = new ThreadLocal<>();
+    private static final int MAXIMO_SENTENCIAS_DISTINTAS = 200;
+    private static final long PREFIJO = ThreadLocalRandom.current().nextLong(1L << 20) << 36;
+    private static final AtomicLong SECUENCIA = new AtomicLong();
+
+    private final String id;
+    private final String accion;
+    private final long inicio = System.nanoTime();
+    private final Traza anterior;
+    private final Traza raiz;
+    private final boolean interactiva;
+
+    // Solo en la raíz: texto SQL -> {ejecuciones, nanos, filas}
+    private final Map<String, long[]> sentencias;
+    private long totalSentencias;
+    private long totalNanos;
+
+    private Traza(String accion, Traza anterior, boolean interactiva) {
+        this.accion = accion;
+        this.anterior = anterior;
+        this.interactiva = interactiva;
+        if (anterior == null) {
+            this.id = Long.toString(PREFIJO | SECUENCIA.incrementAndGet(), 36);
+            this.raiz = this;
+            this.sentencias = new LinkedHashMap<>();
+        } else {
+            this.id = anterior.id;
+            this.raiz = anterior.raiz;
+            this.sentencias = null;
+        }
+    }
+
+    /**
+     * Inicia una traza en el hilo actual.
+     *
+     * @param accion descripción breve de la acción, por ejemplo la ruta HTTP
+     * @return la traza, que debe cerrarse en el mismo hilo
+     */
+    public static Traza iniciar(String accion) {
+        return iniciar(accion, false);
+    }
+
+    /**
+     * Inicia una traza para una acción que espera entradas del usuario, como una opción de menú.
+     *
+     * @param accion descripción breve de la acción
+     * @return la traza, que debe cerrarse en el mismo hilo
+     */
+    public static Traza iniciarInteractiva(String accion) {
+        return iniciar(accion, true);
+    }
+
+    private static Traza iniciar(String accion, boolean interactiva) {
+        Traza traza = new Traza(accion, ACTUAL.get(), interactiva);
+        ACTUAL.set(traza);
+        return traza;
+    }
+
+    /**
+     * @return la traza activa en el hilo actual, o {@code null}
+     */
+    public static Traza actual() {
+        return ACTUAL.get();
+    }
+
+    void agregar(String sql, long nanos, long filas) {
+        Traza destino = raiz;
+        synchronized (destino) {
+            destino.totalSentencias++;
+            destino.totalNanos += nanos;
+            long[] grupo = destino.sentencias.get(sql);
+            if (grupo == null) {
+                if (destino.sentencias.size() >= MAXIMO_SENTENCIAS_DISTINTAS) {
+                    return;
+                }
+                grupo = new long[3];
+                destino.sentencias.put(sql, grupo);
+            }
+            grupo[0]++;
+            grupo[1] += nanos;
+            grupo[2] += Math.max(0, filas);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (anterior == null) {
+            ACTUAL.remove();
+            TrazadorSQL.finalizar(this, System.nanoTime() - inicio);
+        } else {
+            ACTUAL.set(anterior);
+        }
+    }
+
+    public String getId() { return id; }
+    public String getAccion() { return raiz.accion; }
+    boolean isInteractiva() { return raiz.interactiva; }
+
+    synchronized long getTotalSentencias() { return totalSentencias; }
+    synchronized long getTotalNanos() { return totalNanos; }
+
+    /**
+     * @return copia de los grupos por texto SQL: {ejecuciones, nanos, filas}
+     */
+    synchronized Map<String, long[]> getSentencias() {
+        Map<String, long[]> copia = new LinkedHashMap<>();
+        sentencias.forEach((sql, grupo) -> copia.put(sql, grupo.clone()));
+        return copia;
+    }
+}
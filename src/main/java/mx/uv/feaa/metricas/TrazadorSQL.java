@@ -0,0 +1,291 @@
+package mx.uv.feaa.metricas;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de sentencias SQL lentas y de trazas por acción de usuario.
+ * <p>
+ * {@link mx.uv.feaa.util.PoolConexiones} informa aquí cada sentencia ejecutada con su texto, sus
+ * parámetros, las filas devueltas o afectadas y su duración (para las consultas, hasta que se
+ * cierra el {@code ResultSet}). Las que superan el umbral se escriben en un registro aparte con
+ * rotación por tamaño; además se suman a la {@link Traza} activa del hilo, que al cerrarse se
+ * registra si la acción fue lenta o si repitió muchas veces la misma sentencia (N+1).
+ * </p>
+ * <p>
+ * Los parámetros cuyo nombre de columna contiene {@code password} se reemplazan por
+ * {@value #REDACTADO}. En un lote se informan los parámetros de cada fila. La configuración se lee
+ * de {@code database.properties}:
+ * </p>
+ * <ul>
+ *   <li>{@code jdbc.traza.activa}: {@code false} por defecto, porque guardar los parámetros de
+ *       cada sentencia cuesta; también puede activarse con {@code -Djdbc.traza.activa=true}</li>
+ *   <li>{@code jdbc.traza.umbralMs}: duración a partir de la cual una sentencia es lenta, 200</li>
+ *   <li>{@code jdbc.traza.umbralAccionMs}: ídem para una acción completa, 1000</li>
+ *   <li>{@code jdbc.traza.repeticiones}: ejecuciones de una misma sentencia en una acción que se
+ *       consideran N+1, 20</li>
+ *   <li>{@code jdbc.traza.archivo}: patrón de {@link FileHandler}, {@code logs/sql-lentas.%g.log}</li>
+ *   <li>{@code jdbc.traza.limiteBytes} y {@code jdbc.traza.archivos}: rotación, 10 MB × 5</li>
+ * </ul>
+ */
+public final class TrazadorSQL {
+    private static final Logger LOGGER = Logger.getLogger(TrazadorSQL.class.getName());
+    private static final Logger REGISTRO = Logger.getLogger("mx.uv.feaa.sql.lentas");
+    private static final String REDACTADO = "<redactado>";
+    private static final int MAXIMO_VALOR = 200;
+    private static final Pattern INSERT = Pattern.compile(
+            "(?is)^\\s*INSERT\\s+INTO\\s+\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(");
+    private static final Pattern COLUMNA_ASIGNADA = Pattern.compile("(?s)(\\w+)\\s*(?:=|<>|!=|<=|>=|<|>|LIKE)\\s*(?:\\w+\\s*\\()?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    private static volatile boolean activo;
+    private static volatile long umbralNanos = 200_000_000L;
+    private static volatile long umbralAccionNanos = 1_000_000_000L;
+    private static volatile int umbralRepeticiones = 20;
+
+    private static final LongAdder sentenciasLentas = new LongAdder();
+    private static final LongAdder trazasRegistradas = new LongAdder();
+    // Texto SQL -> posiciones (desde 1) de los parámetros que deben ocultarse
+    private static final Map<String, boolean[]> REDACCIONES = new ConcurrentHashMap<>();
+
+    private TrazadorSQL() {
+    }
+
+    /**
+     * Aplica la configuración y abre el registro de sentencias lentas. Si el archivo no puede
+     * abrirse, el registro se escribe en los manejadores de consola.
+     *
+     * @param propiedades las propiedades de {@code database.properties}
+     */
+    public static void configurar(Properties propiedades) {
+        activo = Boolean.parseBoolean(System.getProperty("jdbc.traza.activa",
+                propiedades.getProperty("jdbc.traza.activa", "false")));
+        umbralNanos = Long.parseLong(propiedades.getProperty("jdbc.traza.umbralMs", "200")) * 1_000_000L;
+        umbralAccionNanos = Long.parseLong(propiedades.getProperty("jdbc.traza.umbralAccionMs", "1000")) * 1_000_000L;
+        umbralRepeticiones = Integer.parseInt(propiedades.getProperty("jdbc.traza.repeticiones", "20"));
+        if (!activo) {
+            return;
+        }
+
+        String patron = propiedades.getProperty("jdbc.traza.archivo", "logs/sql-lentas.%g.log");
+        try {
+            Path carpeta = Path.of(patron).toAbsolutePath().getParent();
+            if (carpeta != null) {
+                Files.createDirectories(carpeta);
+            }
+            FileHandler archivo = new FileHandler(patron,
+                    Integer.parseInt(propiedades.getProperty("jdbc.traza.limiteBytes", "10485760")),
+                    Integer.parseInt(propiedades.getProperty("jdbc.traza.archivos", "5")), true);
+            archivo.setEncoding("UTF-8");
+            archivo.setFormatter(new FormatoLinea());
+            REGISTRO.addHandler(archivo);
+            REGISTRO.setUseParentHandlers(false);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "No se pudo abrir el registro de sentencias lentas " + patron, e);
+        }
+    }
+
+    public static boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * Informa una sentencia terminada.
+     *
+     * @param medidor la operación del DAO que la ejecutó
+     * @param sql el texto de la sentencia
+     * @param parametros los valores enlazados, indexados desde 1; puede ser {@code null}
+     * @param filas filas devueltas o afectadas, o -1 si no se conocen
+     * @param nanos duración de la ejecución
+     * @param error si la sentencia lanzó una excepción
+     */
+    public static void registrar(MedidorOperacion medidor, String sql, Object[] parametros,
+                                 long filas, long nanos, boolean error) {
+        registrarLote(medidor, sql, parametros != null ? Collections.singletonList(parametros) : null, filas, nanos, error);
+    }
+
+    /**
+     * Informa un lote terminado ({@code executeBatch}) o una sentencia simple.
+     *
+     * @param lote los valores enlazados de cada fila del lote, en orden; puede ser {@code null}
+     * @see #registrar(MedidorOperacion, String, Object[], long, long, boolean)
+     */
+    public static void registrarLote(MedidorOperacion medidor, String sql, List<Object[]> lote,
+                                     long filas, long nanos, boolean error) {
+        if (sql == null) {
+            return;
+        }
+        Traza traza = Traza.actual();
+        if (traza != null) {
+            traza.agregar(sql, nanos, filas);
+        }
+        if (nanos < umbralNanos) {
+            return;
+        }
+        sentenciasLentas.increment();
+        StringBuilder linea = new StringBuilder(160 + sql.length())
+                .append("LENTA traza=").append(traza != null ? traza.getId() : "-")
+                .append(" op=").append(medidor.getDao()).append('.').append(medidor.getMetodo())
+                .append(' ').append(milisegundos(nanos)).append(" ms filas=").append(filas);
+        if (error) {
+            linea.append(" ERROR");
+        }
+        linea.append(" | ").append(compactar(sql));
+        if (lote != null) {
+            boolean[] ocultos = REDACCIONES.computeIfAbsent(sql, TrazadorSQL::parametrosOcultos);
+            for (Object[] parametros : lote) {
+                agregarParametros(linea, ocultos, parametros);
+            }
+        }
+        REGISTRO.info(linea.toString());
+    }
+
+    /**
+     * Registra una traza al cerrarse si fue lenta o si alguna sentencia se repitió al menos
+     * {@code jdbc.traza.repeticiones} veces.
+     */
+    static void finalizar(Traza traza, long nanos) {
+        if (!activo) {
+            return;
+        }
+        Map<String, long[]> sentencias = traza.getSentencias();
+        long maximoRepeticiones = 0;
+        for (long[] grupo : sentencias.values()) {
+            maximoRepeticiones = Math.max(maximoRepeticiones, grupo[0]);
+        }
+        // En una acción interactiva la duración incluye lo que tardó el usuario en responder
+        boolean lenta = (traza.isInteractiva() ? traza.getTotalNanos() : nanos) >= umbralAccionNanos;
+        boolean repetitiva = maximoRepeticiones >= umbralRepeticiones;
+        if (!lenta && !repetitiva) {
+            return;
+        }
+        trazasRegistradas.increment();
+
+        List<Map.Entry<String, long[]>> grupos = new ArrayList<>(sentencias.entrySet());
+        grupos.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+        StringBuilder texto = new StringBuilder(256)
+                .append(repetitiva ? "N+1" : "ACCION LENTA").append(" traza=").append(traza.getId())
+                .append(" accion=").append(traza.getAccion())
+                .append(' ').append(milisegundos(nanos)).append(" ms, ")
+                .append(traza.getTotalSentencias()).append(" sentencias (")
+                .append(milisegundos(traza.getTotalNanos())).append(" ms en BD), ")
+                .append(grupos.size()).append(" distintas");
+        for (Map.Entry<String, long[]> grupo : grupos) {
+            long[] valores = grupo.getValue();
+            texto.append(System.lineSeparator())
+                    .append("    x").append(valores[0])
+                    .append(' ').append(milisegundos(valores[1])).append(" ms")
+                    .append(" filas=").append(valores[2])
+                    .append(" | ").append(compactar(grupo.getKey()));
+        }
+        REGISTRO.info(texto.toString());
+    }
+
+    // Sentencias que superaron el umbral desde el arranque
+    public static long getSentenciasLentas() { return sentenciasLentas.sum(); }
+
+    // Trazas registradas por lentas o por N+1 desde el arranque
+    public static long getTrazasRegistradas() { return trazasRegistradas.sum(); }
+
+    private static void agregarParametros(StringBuilder linea, boolean[] ocultos, Object[] parametros) {
+        if (parametros == null) {
+            return;
+        }
+        linea.append(" | [");
+        boolean primero = true;
+        for (int i = 1; i < parametros.length; i++) {
+            if (!primero) {
+                linea.append(", ");
+            }
+            primero = false;
+            linea.append(i).append('=');
+            Object valor = parametros[i];
+            if (i < ocultos.length && ocultos[i]) {
+                linea.append(REDACTADO);
+            } else if (valor == null) {
+                linea.append("NULL");
+            } else if (valor instanceof CharSequence || valor instanceof java.util.Date
+                    || valor instanceof java.time.temporal.Temporal) {
+                String cadena = valor.toString();
+                linea.append('\'').append(cadena.length() > MAXIMO_VALOR ? cadena.substring(0, MAXIMO_VALOR) + "…" : cadena)
+                        .append('\'');
+            } else if (valor instanceof Number || valor instanceof Boolean) {
+                linea.append(valor);
+            } else {
+                linea.append('<').append(valor.getClass().getSimpleName()).append('>');
+            }
+        }
+        linea.append(']');
+    }
+
+    /**
+     * Determina qué parámetros corresponden a una columna de contraseña: en un {@code INSERT} por
+     * la lista de columnas y en el resto por la columna que precede al marcador, como en
+     * {@code password = ?} o {@code password = SHA2(?, 256)}.
+     */
+    static boolean[] parametrosOcultos(String sql) {
+        List<Integer> marcadores = new ArrayList<>();
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                marcadores.add(i);
+            }
+        }
+        boolean[] ocultos = new boolean[marcadores.size() + 1];
+        Matcher insert = INSERT.matcher(sql);
+        int valores = insert.find() ? insert.end() : -1;
+        String[] columnas = valores >= 0 ? insert.group(1).split(",") : new String[0];
+
+        int anterior = 0;
+        int posicionEnValores = 0;
+        for (int n = 0; n < marcadores.size(); n++) {
+            int marcador = marcadores.get(n);
+            String columna = null;
+            if (valores >= 0 && marcador >= valores && posicionEnValores < columnas.length) {
+                columna = columnas[posicionEnValores++].trim();
+            } else {
+                Matcher asignada = COLUMNA_ASIGNADA.matcher(sql.substring(anterior, marcador));
+                if (asignada.find()) {
+                    columna = asignada.group(1);
+                }
+            }
+            ocultos[n + 1] = columna != null && columna.toLowerCase(Locale.ROOT).contains("password");
+            anterior = marcador + 1;
+        }
+        return ocultos;
+    }
+
+    private static String compactar(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    private static String milisegundos(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    /**
+     * Una línea por registro, precedida del instante en UTC.
+     */
+    private static final class FormatoLinea extends Formatter {
+        @Override
+        public String format(LogRecord registro) {
+            return Instant.ofEpochMilli(registro.getMillis()) + " " + registro.getMessage() + System.lineSeparator();
+        }
+    }
+}
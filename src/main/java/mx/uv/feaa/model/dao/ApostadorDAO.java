@@ -3,11 +3,13 @@ package mx.uv.feaa.model.dao;
 import mx.uv.feaa.model.entidades.Apostador;
 import mx.uv.feaa.model.entidades.Usuario;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementación concreta de {@link IGenericDAO} para la entidad {@link Apostador}.
@@ -36,6 +38,24 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
      */
     private static final String ID_COLUMN = "idUsuario";
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public ApostadorDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public ApostadorDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un apostador específico de la base de datos usando su ID.
      * Realiza un JOIN con la tabla Usuario para obtener todos los datos relacionados.
@@ -54,7 +74,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
                 "JOIN Usuario u ON a." + ID_COLUMN + " = u." + ID_COLUMN + " " +
                 "WHERE a." + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ApostadorDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -85,7 +105,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
         String sql = "SELECT u.*, a.* FROM " + TABLE_NAME + " a " +
                 "JOIN Usuario u ON a." + ID_COLUMN + " = u." + ID_COLUMN;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ApostadorDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -96,6 +116,80 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
         return apostadores;
     }
 
+    /**
+     * Recorre todos los apostadores sin cargarlos en memoria: con MySQL el resultado llega en
+     * streaming y cada apostador se entrega al consumidor en cuanto se lee.
+     *
+     * @param consumidor recibe cada {@link Apostador}
+     * @return el número de apostadores recorridos
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see Apostador
+     */
+    public long recorrerTodos(Consumer<Apostador> consumidor) throws SQLException {
+        long total = 0;
+        String sql = "SELECT u.*, a.* FROM " + TABLE_NAME + " a " +
+                "JOIN Usuario u ON a." + ID_COLUMN + " = u." + ID_COLUMN;
+
+        try (Connection conn = conexiones.getConnectionLectura("ApostadorDAO.recorrerTodos");
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    consumidor.accept(mapearApostador(rs));
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Guarda varios apostadores en una sola transacción, con un lote JDBC para la tabla Usuario
+     * y otro para la tabla Apostador.
+     *
+     * @param apostadores la {@link List} de {@link Apostador} a persistir
+     * @return true si se insertaron todos, false si alguno falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o violación de restricciones únicas;
+     *         en ese caso no se guarda ninguno
+     * @see Apostador
+     * @see UsuarioDAO
+     */
+    public boolean saveAll(List<Apostador> apostadores) throws SQLException {
+        if (apostadores.isEmpty()) {
+            return true;
+        }
+
+        String sql = "INSERT INTO " + TABLE_NAME + " (idUsuario, saldo, limiteApuesta, nombre, telefono) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        boolean[] insertados = {false};
+
+        conexiones.ejecutarTransaccion("ApostadorDAO.saveAll", conn -> {
+            if (!UsuarioDAO.insertarLote(conn, apostadores)) {
+                return;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Apostador apostador : apostadores) {
+                    stmt.setString(1, apostador.getIdUsuario());
+                    stmt.setDouble(2, apostador.getSaldo());
+                    stmt.setDouble(3, apostador.getLimiteApuesta());
+                    stmt.setString(4, apostador.getNombre());
+                    stmt.setString(5, apostador.getTelefono());
+                    stmt.addBatch();
+                }
+                insertados[0] = true;
+                for (int filas : stmt.executeBatch()) {
+                    if (filas == 0) {
+                        insertados[0] = false;
+                    }
+                }
+            }
+        });
+        return insertados[0];
+    }
+
     /**
      * Guarda un nuevo apostador en la base de datos.
      * <p>
@@ -115,7 +209,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
     @Override
     public boolean save(Apostador apostador) throws SQLException {
         // Primero guardamos el usuario base
-        UsuarioDAO usuarioDAO = new UsuarioDAO();
+        UsuarioDAO usuarioDAO = new UsuarioDAO(conexiones);
         if (!usuarioDAO.save(apostador)) {
             return false;
         }
@@ -124,7 +218,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
         String sql = "INSERT INTO " + TABLE_NAME + " (idUsuario, saldo, limiteApuesta, nombre, telefono) " +
                 "VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ApostadorDAO.save");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, apostador.getIdUsuario());
@@ -155,7 +249,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
     @Override
     public boolean update(Apostador apostador) throws SQLException {
         // Actualizamos primero el usuario base
-        UsuarioDAO usuarioDAO = new UsuarioDAO();
+        UsuarioDAO usuarioDAO = new UsuarioDAO(conexiones);
         if (!usuarioDAO.update(apostador)) {
             return false;
         }
@@ -164,7 +258,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
         String sql = "UPDATE " + TABLE_NAME + " SET saldo = ?, limiteApuesta = ?, nombre = ?, telefono = ? " +
                 "WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ApostadorDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDouble(1, apostador.getSaldo());
@@ -194,7 +288,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
     @Override
     public boolean delete(String id) throws SQLException {
         // Al tener DELETE CASCADE en la FK, solo necesitamos borrar el usuario
-        UsuarioDAO usuarioDAO = new UsuarioDAO();
+        UsuarioDAO usuarioDAO = new UsuarioDAO(conexiones);
         return usuarioDAO.delete(id);
     }
 
@@ -210,7 +304,7 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
     public boolean actualizarSaldo(String idUsuario, double nuevoSaldo) throws SQLException {
         String sql = "UPDATE " + TABLE_NAME + " SET saldo = ? WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ApostadorDAO.actualizarSaldo");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDouble(1, nuevoSaldo);
@@ -220,6 +314,35 @@ public class ApostadorDAO implements IGenericDAO<Apostador, String> {
         }
     }
 
+    /**
+     * Suma (o resta, si es negativo) un monto al saldo de un apostador de forma atómica.
+     * <p>
+     * A diferencia de {@link #actualizarSaldo(String, double)}, que escribe un saldo calculado en
+     * memoria, la operación se resuelve en una sola sentencia {@code saldo = saldo + ?}, por lo que
+     * peticiones concurrentes del mismo apostador no se pisan. Si el saldo resultante fuera negativo
+     * la fila no se modifica.
+     * </p>
+     *
+     * @param idUsuario el identificador único del apostador
+     * @param monto el monto a sumar; negativo para retiros y apuestas
+     * @return true si el saldo se ajustó, false si el apostador no existe o el saldo no alcanza
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     */
+    public boolean ajustarSaldo(String idUsuario, double monto) throws SQLException {
+        String sql = "UPDATE " + TABLE_NAME + " SET saldo = saldo + ? WHERE " + ID_COLUMN + " = ? AND saldo + ? >= 0";
+
+        try (Connection conn = conexiones.getConnection("ApostadorDAO.ajustarSaldo");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDouble(1, monto);
+            stmt.setString(2, idUsuario);
+            stmt.setDouble(3, monto);
+
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
     /**
      * Convierte un registro de la base de datos (ResultSet) en un objeto {@link Apostador}.
      * <p>
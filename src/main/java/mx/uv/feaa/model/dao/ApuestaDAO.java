@@ -1,14 +1,22 @@
 package mx.uv.feaa.model.dao;
 
+import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.excepciones.CarreraNoAbiertaException;
+import mx.uv.feaa.metricas.EventoApuesta;
 import mx.uv.feaa.model.entidades.Apuesta;
 import mx.uv.feaa.model.entidades.ApuestaGanador;
 import mx.uv.feaa.enumeracion.EstadoApuesta;
 import mx.uv.feaa.enumeracion.TipoApuesta;
 import mx.uv.feaa.model.entidades.ApuestaSeleccion;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.FormatoClave;
+import mx.uv.feaa.util.FragmentosConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -20,6 +28,33 @@ import java.util.Optional;
  * La clase maneja tanto los datos básicos de {@link Apuesta} como las relaciones
  * con {@link ApuestaSeleccion} cuando corresponda, asegurando la integridad transaccional.
  * </p>
+ * <p>
+ * Las apuestas pueden repartirse entre varias bases ({@link FragmentosConexiones}) por
+ * {@code carrera_id}: las apuestas nuevas van al fragmento dueño de la carrera y las consultas sin
+ * carrera se hacen en todos en paralelo y se combinan. Una apuesta no debe cambiar de carrera con
+ * {@link #update}: quedaría en el fragmento de la anterior.
+ * </p>
+ * <p>
+ * Los identificadores de la apuesta y de sus selecciones se escriben y se leen en el
+ * {@link FormatoClave} de los fragmentos, texto o {@code BINARY(16)}.
+ * </p>
+ * <p>
+ * Tras cambiar los fragmentos, las apuestas de una carrera pueden seguir en su dueño anterior
+ * hasta que {@code ReparticionApuestasService} las mueve. Por eso {@link #getByCarreraId} consulta
+ * primero los demás fragmentos y al final el dueño: el movimiento copia antes de borrar, así que
+ * una apuesta borrada del origen ya es visible en el dueño cuando se le consulta. Las escrituras
+ * sobre apuestas existentes ({@link #update}, {@link #updateWithSelections}, {@link #delete})
+ * toman un bloqueo compartido sobre la fila de la carrera, el mismo que excluye al movimiento, y
+ * buscan la apuesta en el dueño y después en los demás fragmentos; así no se modifica una copia
+ * que el movimiento está por borrar.
+ * </p>
+ * <p>
+ * {@link #saveWithSelections} no confía en el estado de la carrera que vio el llamador (por
+ * ejemplo, en {@code CatalogoCarreras}): dentro de la transacción lee la carrera con un bloqueo
+ * compartido y rechaza la apuesta con {@link CarreraNoAbiertaException} si no está en
+ * {@code APUESTAS_ABIERTAS}. El cierre de apuestas actualiza esa fila, así que espera a que
+ * terminen las apuestas en curso y ninguna se confirma después.
+ * </p>
  *
  * @version 1.0
  * @since 1.0
@@ -65,6 +100,50 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     private static final String DELETE = "DELETE FROM " + TABLE_NAME + " WHERE idApuesta = ?";
 
+    /**
+     * Estado de la carrera, con bloqueo compartido hasta el fin de la transacción.
+     */
+    private static final String ESTADO_CARRERA = "SELECT estado FROM Carrera WHERE idCarrera = ? FOR SHARE";
+
+    private final FragmentosConexiones fragmentos;
+    private final ProveedorConexiones carreras;
+    private final FormatoClave claves;
+
+    /**
+     * Crea el DAO sobre los fragmentos de apuestas de {@link ConexionBD}.
+     */
+    public ApuestaDAO() {
+        this(ConexionBD.fragmentosApuestas(), ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public ApuestaDAO(ProveedorConexiones conexiones) {
+        this(FragmentosConexiones.unico(conexiones), conexiones);
+    }
+
+    /**
+     * Crea el DAO sobre las apuestas repartidas entre varios fragmentos.
+     *
+     * @param fragmentos los fragmentos de apuestas, por {@code carrera_id}
+     */
+    public ApuestaDAO(FragmentosConexiones fragmentos) {
+        this(fragmentos, ConexionBD.proveedor());
+    }
+
+    /**
+     * @param fragmentos los fragmentos de apuestas, por {@code carrera_id}
+     * @param carreras la base con la tabla {@code Carrera}, donde se comprueba su estado
+     */
+    public ApuestaDAO(FragmentosConexiones fragmentos, ProveedorConexiones carreras) {
+        this.fragmentos = fragmentos;
+        this.carreras = carreras;
+        this.claves = fragmentos.getFormatoClaves();
+    }
+
     /**
      * Recupera una apuesta específica de la base de datos usando su ID.
      *
@@ -78,25 +157,8 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     @Override
     public Optional<Apuesta> getById(String id) throws SQLException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        Apuesta apuesta = null;
-
-        try {
-            conn = ConexionBD.getConnection();
-            stmt = conn.prepareStatement(SELECT_BY_ID);
-            stmt.setString(1, id);
-            rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                apuesta = mapearApuesta(rs);
-            }
-        } finally {
-            ConexionBD.cerrar(conn, stmt, rs);
-        }
-
-        return Optional.ofNullable(apuesta);
+        List<Apuesta> apuestas = reunir("ApuestaDAO.getById", SELECT_BY_ID, id, claves);
+        return apuestas.isEmpty() ? Optional.empty() : Optional.of(apuestas.get(0));
     }
 
     /**
@@ -111,24 +173,7 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     @Override
     public List<Apuesta> getAll() throws SQLException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        List<Apuesta> apuestas = new ArrayList<>();
-
-        try {
-            conn = ConexionBD.getConnection();
-            stmt = conn.prepareStatement(SELECT_ALL);
-            rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                apuestas.add(mapearApuesta(rs));
-            }
-        } finally {
-            ConexionBD.cerrar(conn, stmt, rs);
-        }
-
-        return apuestas;
+        return reunir("ApuestaDAO.getAll", SELECT_ALL, null, FormatoClave.TEXTO);
     }
 
     /**
@@ -143,15 +188,19 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     @Override
     public boolean save(Apuesta entity) throws SQLException {
-        Connection conn = null;
+        try (Connection conn = fragmentos.proveedorDe(entity.getIdCarrera()).getConnection("ApuestaDAO.save")) {
+            return insertar(conn, entity);
+        }
+    }
+
+    private boolean insertar(Connection conn, Apuesta entity) throws SQLException {
         PreparedStatement stmt = null;
         boolean saved = false;
 
         try {
-            conn = ConexionBD.getConnection();
             stmt = conn.prepareStatement(INSERT);
 
-            stmt.setString(1, entity.getId());
+            claves.asignar(stmt, 1, entity.getId());
             stmt.setString(2, entity.getIdUsuario());
             stmt.setString(3, entity.getIdCarrera());
             stmt.setString(4, entity.getTipoApuesta().name());
@@ -163,7 +212,7 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
 
             saved = stmt.executeUpdate() > 0;
         } finally {
-            ConexionBD.cerrar(conn, stmt);
+            ConexionBD.cerrar(stmt);
         }
 
         return saved;
@@ -180,12 +229,18 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     @Override
     public boolean update(Apuesta entity) throws SQLException {
-        Connection conn = null;
+        return escribirExistente("ApuestaDAO.update", entity.getIdCarrera(), fragmento -> {
+            try (Connection conn = fragmento.getConnection("ApuestaDAO.update")) {
+                return actualizar(conn, entity);
+            }
+        });
+    }
+
+    private boolean actualizar(Connection conn, Apuesta entity) throws SQLException {
         PreparedStatement stmt = null;
         boolean updated = false;
 
         try {
-            conn = ConexionBD.getConnection();
             stmt = conn.prepareStatement(UPDATE);
 
             stmt.setString(1, entity.getIdUsuario());
@@ -196,11 +251,11 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
             stmt.setString(6, entity.getEstado().name());
             stmt.setDouble(7, entity.getCuotaAplicada());
             stmt.setDouble(8, entity.getMontoGanado());
-            stmt.setString(9, entity.getId());
+            claves.asignar(stmt, 9, entity.getId());
 
             updated = stmt.executeUpdate() > 0;
         } finally {
-            ConexionBD.cerrar(conn, stmt);
+            ConexionBD.cerrar(stmt);
         }
 
         return updated;
@@ -216,14 +271,25 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     @Override
     public boolean delete(String id) throws SQLException {
+        if (fragmentos.size() == 1) {
+            return eliminar(fragmentos.getFragmentos().values().iterator().next(), id);
+        }
+        Optional<Apuesta> apuesta = getById(id);
+        if (apuesta.isEmpty()) {
+            return false;
+        }
+        return escribirExistente("ApuestaDAO.delete", apuesta.get().getIdCarrera(), fragmento -> eliminar(fragmento, id));
+    }
+
+    private boolean eliminar(ProveedorConexiones conexiones, String id) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         boolean deleted = false;
 
         try {
-            conn = ConexionBD.getConnection();
+            conn = conexiones.getConnection("ApuestaDAO.delete");
             stmt = conn.prepareStatement(DELETE);
-            stmt.setString(1, id);
+            claves.asignar(stmt, 1, id);
 
             deleted = stmt.executeUpdate() > 0;
         } finally {
@@ -248,7 +314,7 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      */
     private Apuesta mapearApuesta(ResultSet rs) throws SQLException {
         Apuesta apuesta = new ApuestaGanador(
-                rs.getString("idApuesta"),
+                claves.leer(rs, "idApuesta"),
                 rs.getString("apostador_id"),
                 rs.getString("carrera_id"),
                 TipoApuesta.valueOf(rs.getString("tipoApuesta")),
@@ -275,26 +341,8 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      * @see Apuesta
      */
     public List<Apuesta> getByApostadorId(String apostadorId) throws SQLException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        List<Apuesta> apuestas = new ArrayList<>();
-        String query = "SELECT * FROM " + TABLE_NAME + " WHERE apostador_id = ?";
-
-        try {
-            conn = ConexionBD.getConnection();
-            stmt = conn.prepareStatement(query);
-            stmt.setString(1, apostadorId);
-            rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                apuestas.add(mapearApuesta(rs));
-            }
-        } finally {
-            ConexionBD.cerrar(conn, stmt, rs);
-        }
-
-        return apuestas;
+        return reunir("ApuestaDAO.getByApostadorId", "SELECT * FROM " + TABLE_NAME + " WHERE apostador_id = ?",
+                apostadorId, FormatoClave.TEXTO);
     }
 
     /**
@@ -310,16 +358,123 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      * @see EstadoApuesta
      */
     public List<Apuesta> getByEstado(EstadoApuesta estado) throws SQLException {
+        return reunir("ApuestaDAO.getByEstado", "SELECT * FROM " + TABLE_NAME + " WHERE estado = ?", estado.name(),
+                FormatoClave.TEXTO);
+    }
+
+    /**
+     * Recupera todas las apuestas de una carrera. Con un solo fragmento es una consulta; con varios,
+     * se consultan los demás fragmentos y después el dueño, por si la carrera aún no se ha movido.
+     *
+     * @param carreraId el identificador único de la carrera
+     * @return una {@link List} de {@link Apuesta} de la carrera,
+     *         o una lista vacía si no hay registros
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     */
+    public List<Apuesta> getByCarreraId(String carreraId) throws SQLException {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE carrera_id = ?";
+        ProveedorConexiones duenio = fragmentos.proveedorDe(carreraId);
+        if (fragmentos.size() == 1) {
+            return consultar(duenio, "ApuestaDAO.getByCarreraId", sql, carreraId, FormatoClave.TEXTO);
+        }
+        // El dueño se consulta al final: lo que el movimiento borró del origen ya está copiado en él
+        Map<String, Apuesta> apuestas = new LinkedHashMap<>();
+        for (List<Apuesta> parcial : fragmentos.reunir(fragmento -> fragmento == duenio ? List.<Apuesta>of()
+                : consultar(fragmento, "ApuestaDAO.getByCarreraId", sql, carreraId, FormatoClave.TEXTO))) {
+            for (Apuesta apuesta : parcial) {
+                apuestas.put(apuesta.getId(), apuesta);
+            }
+        }
+        for (Apuesta apuesta : consultar(duenio, "ApuestaDAO.getByCarreraId", sql, carreraId, FormatoClave.TEXTO)) {
+            apuestas.put(apuesta.getId(), apuesta);
+        }
+        return new ArrayList<>(apuestas.values());
+    }
+
+    /**
+     * Escritura sobre una apuesta existente en un fragmento.
+     */
+    @FunctionalInterface
+    private interface EscrituraFragmento {
+        boolean ejecutar(ProveedorConexiones fragmento) throws SQLException;
+    }
+
+    /**
+     * Aplica una escritura sobre una apuesta que puede no estar aún en el dueño de su carrera.
+     * <p>
+     * Con varios fragmentos, mantiene un bloqueo compartido sobre la carrera mientras escribe, de
+     * modo que {@code ReparticionApuestasService} no la mueve a la vez, e intenta primero en el
+     * dueño y después en los demás fragmentos hasta que alguno modifica la apuesta.
+     * </p>
+     *
+     * @return true si algún fragmento modificó la apuesta
+     */
+    private boolean escribirExistente(String operacion, String idCarrera, EscrituraFragmento escritura)
+            throws SQLException {
+        ProveedorConexiones duenio = fragmentos.proveedorDe(idCarrera);
+        if (fragmentos.size() == 1) {
+            return escritura.ejecutar(duenio);
+        }
+        Connection bloqueo = carreras.getConnection(operacion);
+        try {
+            bloqueo.setAutoCommit(false);
+            bloquearCarrera(bloqueo, idCarrera);
+            if (escritura.ejecutar(duenio)) {
+                return true;
+            }
+            for (ProveedorConexiones fragmento : fragmentos.getFragmentos().values()) {
+                if (fragmento != duenio && escritura.ejecutar(fragmento)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            // Solo leyó: deshacer libera el bloqueo, ya con la escritura confirmada
+            try {
+                bloqueo.rollback();
+                bloqueo.setAutoCommit(true);
+            } finally {
+                bloqueo.close();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la consulta en todos los fragmentos y combina las filas. Una apuesta que aparece en
+     * dos fragmentos, mientras {@code ReparticionApuestasService} mueve su carrera, se devuelve una vez.
+     *
+     * @param formato cómo se guarda la columna del parámetro: {@link #claves} si es {@code idApuesta}
+     */
+    private List<Apuesta> reunir(String operacion, String sql, String parametro, FormatoClave formato)
+            throws SQLException {
+        List<List<Apuesta>> parciales = fragmentos.reunir(
+                fragmento -> consultar(fragmento, operacion, sql, parametro, formato));
+        if (parciales.size() == 1) {
+            return parciales.get(0);
+        }
+        Map<String, Apuesta> apuestas = new LinkedHashMap<>();
+        for (List<Apuesta> parcial : parciales) {
+            for (Apuesta apuesta : parcial) {
+                apuestas.putIfAbsent(apuesta.getId(), apuesta);
+            }
+        }
+        return new ArrayList<>(apuestas.values());
+    }
+
+    private List<Apuesta> consultar(ProveedorConexiones conexiones, String operacion, String sql,
+                                    String parametro, FormatoClave formato) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         List<Apuesta> apuestas = new ArrayList<>();
-        String query = "SELECT * FROM " + TABLE_NAME + " WHERE estado = ?";
 
         try {
-            conn = ConexionBD.getConnection();
-            stmt = conn.prepareStatement(query);
-            stmt.setString(1, estado.name());
+            conn = conexiones.getConnectionLectura(operacion);
+            stmt = conn.prepareStatement(sql);
+            if (parametro != null) {
+                formato.asignar(stmt, 1, parametro);
+            }
             rs = stmt.executeQuery();
 
             while (rs.next()) {
@@ -351,21 +506,53 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      * @see ApuestaSeleccionDAO
      */
     public boolean saveWithSelections(Apuesta apuesta, List<ApuestaSeleccion> selecciones) throws SQLException {
+        EventoApuesta evento = new EventoApuesta();
+        evento.begin();
+        boolean guardada = false;
+        try {
+            guardada = guardarConSelecciones(apuesta, selecciones);
+            return guardada;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.idCarrera = apuesta.getIdCarrera();
+                evento.tipo = apuesta.getTipoApuesta() != null ? apuesta.getTipoApuesta().name() : null;
+                evento.monto = apuesta.getMontoApostado();
+                evento.selecciones = selecciones.size();
+                evento.guardada = guardada;
+                evento.commit();
+            }
+        }
+    }
+
+    private boolean guardarConSelecciones(Apuesta apuesta, List<ApuestaSeleccion> selecciones) throws SQLException {
+        ProveedorConexiones fragmento = fragmentos.proveedorDe(apuesta.getIdCarrera());
         Connection conn = null;
+        Connection carrera = null;
         try {
-            conn = ConexionBD.getConnection();
+            // La apuesta y sus selecciones van en la misma conexión, la del fragmento de la carrera
+            conn = fragmento.getConnection("ApuestaDAO.saveWithSelections");
             conn.setAutoCommit(false);  // Iniciar transacción
 
+            // 0. Bloquear la carrera y comprobar que acepta apuestas; con las apuestas en otra base,
+            // el bloqueo se mantiene en su propia transacción hasta confirmar la apuesta
+            if (fragmento == carreras) {
+                carrera = conn;
+            } else {
+                carrera = carreras.getConnection("ApuestaDAO.saveWithSelections");
+                carrera.setAutoCommit(false);
+            }
+            verificarApuestasAbiertas(carrera, apuesta.getIdCarrera());
+
             // 1. Guardar la apuesta principal
-            if (!save(apuesta)) {
+            if (!insertar(conn, apuesta)) {
                 conn.rollback();
                 return false;
             }
 
             // 2. Guardar las selecciones
-            ApuestaSeleccionDAO seleccionDAO = new ApuestaSeleccionDAO();
             for (ApuestaSeleccion seleccion : selecciones) {
-                if (!seleccionDAO.save(seleccion)) {
+                if (!ApuestaSeleccionDAO.insertar(conn, seleccion, claves)) {
                     conn.rollback();
                     return false;
                 }
@@ -373,11 +560,53 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
 
             conn.commit();
             return true;
+        } catch (SQLException e) {
+            if (conn != null) {
+                conn.rollback();
+            }
+            throw e;
         } finally {
             if (conn != null) {
                 conn.setAutoCommit(true);  // Restaurar auto-commit
                 conn.close();
             }
+            if (carrera != null && carrera != conn) {
+                // Solo leyó: deshacer libera el bloqueo, ya con la apuesta confirmada
+                try {
+                    carrera.rollback();
+                    carrera.setAutoCommit(true);
+                } finally {
+                    carrera.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Lee el estado de la carrera con un bloqueo compartido, que dura hasta el fin de la
+     * transacción de {@code conn}.
+     *
+     * @throws CarreraNoAbiertaException si la carrera no existe o no está en {@code APUESTAS_ABIERTAS}
+     */
+    private static void verificarApuestasAbiertas(Connection conn, String idCarrera) throws SQLException {
+        String estado = bloquearCarrera(conn, idCarrera);
+        if (!EstadoCarrera.APUESTAS_ABIERTAS.name().equals(estado)) {
+            throw new CarreraNoAbiertaException(idCarrera, estado);
+        }
+    }
+
+    /**
+     * Toma un bloqueo compartido sobre la fila de la carrera hasta el fin de la transacción de
+     * {@code conn}.
+     *
+     * @return el estado de la carrera, o null si no existe
+     */
+    private static String bloquearCarrera(Connection conn, String idCarrera) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ESTADO_CARRERA)) {
+            stmt.setString(1, idCarrera);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("estado") : null;
+            }
         }
     }
 
@@ -401,27 +630,32 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
      * @see ApuestaSeleccionDAO
      */
     public boolean updateWithSelections(Apuesta apuesta, List<ApuestaSeleccion> selecciones) throws SQLException {
+        return escribirExistente("ApuestaDAO.updateWithSelections", apuesta.getIdCarrera(),
+                fragmento -> actualizarConSelecciones(fragmento, apuesta, selecciones));
+    }
+
+    private boolean actualizarConSelecciones(ProveedorConexiones fragmento, Apuesta apuesta,
+                                             List<ApuestaSeleccion> selecciones) throws SQLException {
         Connection conn = null;
         try {
-            conn = ConexionBD.getConnection();
+            conn = fragmento.getConnection("ApuestaDAO.updateWithSelections");
             conn.setAutoCommit(false);
 
             // 1. Actualizar apuesta principal
-            if (!update(apuesta)) {
+            if (!actualizar(conn, apuesta)) {
                 conn.rollback();
                 return false;
             }
 
             // 2. Eliminar selecciones antiguas
-            ApuestaSeleccionDAO seleccionDAO = new ApuestaSeleccionDAO();
-            if (!seleccionDAO.deleteByApuestaId(apuesta.getId())) {
+            if (!ApuestaSeleccionDAO.eliminarPorApuesta(conn, apuesta.getId(), claves)) {
                 conn.rollback();
                 return false;
             }
 
             // 3. Guardar nuevas selecciones
             for (ApuestaSeleccion seleccion : selecciones) {
-                if (!seleccionDAO.save(seleccion)) {
+                if (!ApuestaSeleccionDAO.insertar(conn, seleccion, claves)) {
                     conn.rollback();
                     return false;
                 }
@@ -429,6 +663,11 @@ public class ApuestaDAO implements IGenericDAO<Apuesta, String> {
 
             conn.commit();
             return true;
+        } catch (SQLException e) {
+            if (conn != null) {
+                conn.rollback();
+            }
+            throw e;
         } finally {
             if (conn != null) {
                 conn.setAutoCommit(true);
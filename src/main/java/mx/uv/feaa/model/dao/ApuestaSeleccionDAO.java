@@ -2,6 +2,9 @@ package mx.uv.feaa.model.dao;
 
 import mx.uv.feaa.model.entidades.ApuestaSeleccion;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.FormatoClave;
+import mx.uv.feaa.util.FragmentosConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -16,6 +19,11 @@ import java.util.Optional;
  * La clase maneja la relación entre apuestas y participantes, manteniendo
  * el orden de selección para cada apuesta.
  * </p>
+ * <p>
+ * Con las apuestas fragmentadas, cada selección vive en el fragmento de su apuesta: las
+ * escrituras buscan primero ese fragmento y las lecturas consultan todos a la vez. El camino
+ * habitual, {@link ApuestaDAO#saveWithSelections}, ya conoce el fragmento y no pasa por aquí.
+ * </p>
  *
  * @version 1.0
  * @since 1.0
@@ -28,6 +36,40 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     private static final String TABLE = "ApuestaSeleccion";
 
+    private static final String INSERT = "INSERT INTO " + TABLE +
+            " (idSeleccion, apuesta_id, participante_id, ordenSeleccion) VALUES (?, ?, ?, ?)";
+
+    private static final String DELETE_BY_APUESTA = "DELETE FROM " + TABLE + " WHERE apuesta_id = ?";
+
+    private final FragmentosConexiones fragmentos;
+    private final FormatoClave claves;
+
+    /**
+     * Crea el DAO sobre los fragmentos de apuestas de {@link ConexionBD}.
+     */
+    public ApuestaSeleccionDAO() {
+        this(ConexionBD.fragmentosApuestas());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public ApuestaSeleccionDAO(ProveedorConexiones conexiones) {
+        this(FragmentosConexiones.unico(conexiones));
+    }
+
+    /**
+     * Crea el DAO sobre las apuestas repartidas entre varios fragmentos.
+     *
+     * @param fragmentos los fragmentos de apuestas, por {@code carrera_id}
+     */
+    public ApuestaSeleccionDAO(FragmentosConexiones fragmentos) {
+        this.fragmentos = fragmentos;
+        this.claves = fragmentos.getFormatoClaves();
+    }
+
     /**
      * Recupera una selección específica de la base de datos usando su ID.
      *
@@ -41,12 +83,21 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     @Override
     public Optional<ApuestaSeleccion> getById(String id) throws SQLException {
+        for (Optional<ApuestaSeleccion> encontrada : fragmentos.reunir(fragmento -> buscarPorId(fragmento, id))) {
+            if (encontrada.isPresent()) {
+                return encontrada;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ApuestaSeleccion> buscarPorId(ProveedorConexiones conexiones, String id) throws SQLException {
         String sql = "SELECT * FROM " + TABLE + " WHERE idSeleccion = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ApuestaSeleccionDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, id);
+            claves.asignar(stmt, 1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     return Optional.of(mapearSeleccion(rs));
@@ -68,10 +119,16 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     @Override
     public List<ApuestaSeleccion> getAll() throws SQLException {
+        List<ApuestaSeleccion> selecciones = new ArrayList<>();
+        fragmentos.reunir(this::leerTodas).forEach(selecciones::addAll);
+        return selecciones;
+    }
+
+    private List<ApuestaSeleccion> leerTodas(ProveedorConexiones conexiones) throws SQLException {
         List<ApuestaSeleccion> selecciones = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ApuestaSeleccionDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -94,14 +151,18 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     @Override
     public boolean save(ApuestaSeleccion seleccion) throws SQLException {
-        String sql = "INSERT INTO " + TABLE + " (idSeleccion, apuesta_id, participante_id, ordenSeleccion) " +
-                "VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = ConexionBD.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = fragmentoDeApuesta(seleccion.getApuestaId()).getConnection("ApuestaSeleccionDAO.save")) {
+            return insertar(conn, seleccion, claves);
+        }
+    }
 
-            stmt.setString(1, seleccion.getIdSeleccion());
-            stmt.setString(2, seleccion.getApuestaId());
+    /**
+     * Inserta la selección con la conexión dada, dentro de la transacción de quien llama.
+     */
+    static boolean insertar(Connection conn, ApuestaSeleccion seleccion, FormatoClave claves) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+            claves.asignar(stmt, 1, seleccion.getIdSeleccion());
+            claves.asignar(stmt, 2, seleccion.getApuestaId());
             stmt.setString(3, seleccion.getParticipanteId());
             stmt.setInt(4, seleccion.getOrdenSeleccion());
 
@@ -123,13 +184,13 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
         String sql = "UPDATE " + TABLE + " SET apuesta_id = ?, participante_id = ?, ordenSeleccion = ? " +
                 "WHERE idSeleccion = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = fragmentoDeApuesta(seleccion.getApuestaId()).getConnection("ApuestaSeleccionDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, seleccion.getApuestaId());
+            claves.asignar(stmt, 1, seleccion.getApuestaId());
             stmt.setString(2, seleccion.getParticipanteId());
             stmt.setInt(3, seleccion.getOrdenSeleccion());
-            stmt.setString(4, seleccion.getIdSeleccion());
+            claves.asignar(stmt, 4, seleccion.getIdSeleccion());
 
             return stmt.executeUpdate() > 0;
         }
@@ -145,12 +206,16 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     @Override
     public boolean delete(String id) throws SQLException {
+        return fragmentos.reunir(fragmento -> eliminar(fragmento, id)).contains(true);
+    }
+
+    private boolean eliminar(ProveedorConexiones conexiones, String id) throws SQLException {
         String sql = "DELETE FROM " + TABLE + " WHERE idSeleccion = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ApuestaSeleccionDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, id);
+            claves.asignar(stmt, 1, id);
             return stmt.executeUpdate() > 0;
         }
     }
@@ -169,12 +234,20 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     public List<ApuestaSeleccion> getByApuestaId(String apuestaId) throws SQLException {
         List<ApuestaSeleccion> selecciones = new ArrayList<>();
+        // Solo el fragmento de la apuesta devuelve filas, ya ordenadas
+        fragmentos.reunir(fragmento -> buscarPorApuesta(fragmento, apuestaId)).forEach(selecciones::addAll);
+        return selecciones;
+    }
+
+    private List<ApuestaSeleccion> buscarPorApuesta(ProveedorConexiones conexiones, String apuestaId)
+            throws SQLException {
+        List<ApuestaSeleccion> selecciones = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE + " WHERE apuesta_id = ? ORDER BY ordenSeleccion";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ApuestaSeleccionDAO.getByApuestaId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, apuestaId);
+            claves.asignar(stmt, 1, apuestaId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     selecciones.add(mapearSeleccion(rs));
@@ -194,16 +267,50 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      *         incluyendo problemas de conexión o errores en la consulta SQL
      */
     public boolean deleteByApuestaId(String apuestaId) throws SQLException {
-        String sql = "DELETE FROM " + TABLE + " WHERE apuesta_id = ?";
-
-        try (Connection conn = ConexionBD.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return !fragmentos.reunir(fragmento -> {
+            try (Connection conn = fragmento.getConnection("ApuestaSeleccionDAO.deleteByApuestaId")) {
+                return eliminarPorApuesta(conn, apuestaId, claves);
+            }
+        }).contains(false);
+    }
 
-            stmt.setString(1, apuestaId);
+    /**
+     * Elimina las selecciones de la apuesta con la conexión dada, dentro de la transacción de quien llama.
+     */
+    static boolean eliminarPorApuesta(Connection conn, String apuestaId, FormatoClave claves) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_BY_APUESTA)) {
+            claves.asignar(stmt, 1, apuestaId);
             return stmt.executeUpdate() >= 0; // Devuelve true incluso si no se eliminaron registros
         }
     }
 
+    /**
+     * Busca el fragmento que guarda la apuesta; con uno solo no consulta nada.
+     *
+     * @throws SQLException si la apuesta no está en ningún fragmento
+     */
+    private ProveedorConexiones fragmentoDeApuesta(String apuestaId) throws SQLException {
+        if (fragmentos.size() == 1) {
+            return fragmentos.getFragmentos().values().iterator().next();
+        }
+        List<Boolean> contiene = fragmentos.reunir(fragmento -> {
+            try (Connection conn = fragmento.getConnection("ApuestaSeleccionDAO.fragmentoDeApuesta");
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM Apuesta WHERE idApuesta = ?")) {
+                claves.asignar(stmt, 1, apuestaId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+        int i = 0;
+        for (ProveedorConexiones fragmento : fragmentos.getFragmentos().values()) {
+            if (contiene.get(i++)) {
+                return fragmento;
+            }
+        }
+        throw new SQLException("La apuesta " + apuestaId + " no está en ningún fragmento");
+    }
+
     /**
      * Convierte un registro de la base de datos (ResultSet) en un objeto {@link ApuestaSeleccion}.
      *
@@ -215,8 +322,8 @@ public class ApuestaSeleccionDAO implements IGenericDAO<ApuestaSeleccion, String
      */
     private ApuestaSeleccion mapearSeleccion(ResultSet rs) throws SQLException {
         ApuestaSeleccion seleccion = new ApuestaSeleccion();
-        seleccion.setIdSeleccion(rs.getString("idSeleccion"));
-        seleccion.setApuestaId(rs.getString("apuesta_id"));
+        seleccion.setIdSeleccion(claves.leer(rs, "idSeleccion"));
+        seleccion.setApuestaId(claves.leer(rs, "apuesta_id"));
         seleccion.setParticipanteId(rs.getString("participante_id"));
         seleccion.setOrdenSeleccion(rs.getInt("ordenSeleccion"));
         return seleccion;
@@ -3,6 +3,7 @@ package mx.uv.feaa.model.dao;
 import mx.uv.feaa.model.entidades.Caballo;
 import mx.uv.feaa.enumeracion.SexoCaballo;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -31,6 +32,24 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
      */
     private static final String TABLE_NAME = "Caballo";
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public CaballoDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public CaballoDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un caballo específico de la base de datos usando su ID.
      *
@@ -46,7 +65,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
     public Optional<Caballo> getById(String id) throws SQLException {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE idCaballo = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CaballoDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -74,7 +93,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
         List<Caballo> caballos = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CaballoDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -101,7 +120,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
                 " (idCaballo, nombre, fechaNacimiento, sexo, peso, pedigri, ultimaCarrera, criador_id) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CaballoDAO.save");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, caballo.getIdCaballo());
@@ -127,7 +146,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
                 "pedigri = ?, ultimaCarrera = ?, criador_id = ? " +
                 "WHERE idCaballo = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CaballoDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             prepararStatementParaUpdate(stmt, caballo);
@@ -149,7 +168,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
     public boolean delete(String id) throws SQLException {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE idCaballo = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CaballoDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -172,7 +191,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
         List<Caballo> caballos = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE criador_id = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CaballoDAO.getByCriador");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, criadorId);
@@ -197,7 +216,7 @@ public class CaballoDAO implements IGenericDAO<Caballo, String> {
     public boolean actualizarUltimaCarrera(String idCaballo, LocalDate fecha) throws SQLException {
         String sql = "UPDATE " + TABLE_NAME + " SET ultimaCarrera = ? WHERE idCaballo = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CaballoDAO.actualizarUltimaCarrera");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDate(1, Date.valueOf(fecha));
@@ -3,11 +3,17 @@ package mx.uv.feaa.model.dao;
 import mx.uv.feaa.model.entidades.Carrera;
 import mx.uv.feaa.enumeracion.EstadoCarrera;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Implementación concreta de {@link IGenericDAO} para la entidad {@link Carrera}.
@@ -17,6 +23,13 @@ import java.util.Optional;
  * La clase maneja toda la información relacionada con las carreras, incluyendo
  * sus fechas, horarios, estados y requisitos de participación.
  * </p>
+ * <p>
+ * Cada escritura confirmada sobre una carrera, o sobre sus participantes desde
+ * {@link ParticipanteDAO}, se notifica a los {@link OyenteCambios} suscritos con
+ * {@link #agregarOyente}, sin importar qué instancia del DAO la hizo; así las cachés de carreras
+ * (por ejemplo, {@code CatalogoCarreras}) no quedan atrasadas. Solo se ven las escrituras de esta
+ * JVM.
+ * </p>
  *
  * @version 1.0
  * @since 1.0
@@ -25,6 +38,13 @@ import java.util.Optional;
  * @see EstadoCarrera
  */
 public class CarreraDAO implements IGenericDAO<Carrera, String> {
+    private static final Logger LOGGER = Logger.getLogger(CarreraDAO.class.getName());
+
+    /**
+     * Oyentes de las escrituras de todas las instancias.
+     */
+    private static final List<OyenteCambios> OYENTES = new CopyOnWriteArrayList<>();
+
     /**
      * Nombre de la tabla de Carrera en la base de datos.
      */
@@ -36,6 +56,24 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
     private static final String[] COLUMNS = {"idCarrera", "nombre", "fecha", "hora",
             "distancia", "estado", "minimoParticipantes", "maximoParticipantes"};
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public CarreraDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public CarreraDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera una carrera específica de la base de datos usando su ID.
      *
@@ -51,7 +89,7 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
     public Optional<Carrera> getById(String id) throws SQLException {
         final String SQL = "SELECT * FROM " + TABLE + " WHERE idCarrera = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CarreraDAO.getById");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, id);
@@ -79,7 +117,7 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
         List<Carrera> carreras = new ArrayList<>();
         final String SQL = "SELECT * FROM " + TABLE;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CarreraDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL)) {
 
@@ -105,7 +143,7 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
         final String SQL = "INSERT INTO " + TABLE + " (" +
                 String.join(", ", COLUMNS) + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CarreraDAO.save");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, carrera.getIdCarrera());
@@ -117,7 +155,11 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
             pstmt.setInt(7, carrera.getMinimoParticipantes());
             pstmt.setInt(8, carrera.getMaximoParticipantes());
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                notificarCambio(carrera.getIdCarrera(), carrera.getEstado());
+                return true;
+            }
+            return false;
         }
     }
 
@@ -137,7 +179,7 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
                 "estado = ?, minimoParticipantes = ?, maximoParticipantes = ? " +
                 "WHERE idCarrera = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CarreraDAO.update");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, carrera.getNombre());
@@ -149,7 +191,11 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
             pstmt.setInt(7, carrera.getMaximoParticipantes());
             pstmt.setString(8, carrera.getIdCarrera());
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                notificarCambio(carrera.getIdCarrera(), carrera.getEstado());
+                return true;
+            }
+            return false;
         }
     }
 
@@ -165,11 +211,15 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
     public boolean delete(String id) throws SQLException {
         final String SQL = "DELETE FROM " + TABLE + " WHERE idCarrera = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CarreraDAO.delete");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, id);
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                notificarCambio(id, null);
+                return true;
+            }
+            return false;
         }
     }
 
@@ -189,7 +239,7 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
         List<Carrera> carreras = new ArrayList<>();
         final String SQL = "SELECT * FROM " + TABLE + " WHERE estado = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CarreraDAO.getByEstado");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, estado.name());
@@ -202,6 +252,128 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
         return carreras;
     }
 
+    /**
+     * Recupera las carreras en alguno de los estados indicados cuya fecha no sea posterior a la dada.
+     * <p>
+     * Es la consulta con la que el planificador de carreras se resincroniza: las carreras atrasadas
+     * (por ejemplo, tras un reinicio) también se devuelven para que sus transiciones se disparen.
+     * </p>
+     *
+     * @param estados los {@link EstadoCarrera} a incluir
+     * @param hasta la última fecha a incluir
+     * @return una {@link List} de {@link Carrera} ordenada por fecha y hora,
+     *         o una lista vacía si no hay registros
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see EstadoCarrera
+     */
+    public List<Carrera> getByEstadosHasta(List<EstadoCarrera> estados, LocalDate hasta) throws SQLException {
+        List<Carrera> carreras = new ArrayList<>();
+        if (estados.isEmpty()) {
+            return carreras;
+        }
+        final String SQL = "SELECT * FROM " + TABLE + " WHERE estado IN (" +
+                String.join(", ", Collections.nCopies(estados.size(), "?")) +
+                ") AND fecha <= ? ORDER BY fecha, hora";
+
+        try (Connection conn = conexiones.getConnectionLectura("CarreraDAO.getByEstadosHasta");
+             PreparedStatement pstmt = conn.prepareStatement(SQL)) {
+
+            int indice = 1;
+            for (EstadoCarrera estado : estados) {
+                pstmt.setString(indice++, estado.name());
+            }
+            pstmt.setDate(indice, Date.valueOf(hasta));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    carreras.add(mapearCarrera(rs));
+                }
+            }
+        }
+        return carreras;
+    }
+
+    /**
+     * Cambia el estado de varias carreras en un solo lote, solo si siguen en el estado esperado.
+     * <p>
+     * Cada fila se actualiza con {@code WHERE idCarrera = ? AND estado = ?}, a modo de
+     * comparar-e-intercambiar: si otra parte del sistema ya cambió el estado de una carrera,
+     * esa fila no se modifica y su posición en el resultado queda en {@code false}.
+     * Todo el lote se ejecuta en una única transacción.
+     * </p>
+     *
+     * @param idsCarrera los identificadores de las carreras
+     * @param esperado el {@link EstadoCarrera} en que deben estar
+     * @param nuevo el {@link EstadoCarrera} al que pasan
+     * @return por cada carrera, en el mismo orden, si su estado se cambió
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     */
+    public boolean[] cambiarEstado(List<String> idsCarrera, EstadoCarrera esperado, EstadoCarrera nuevo)
+            throws SQLException {
+        boolean[] cambiadas = new boolean[idsCarrera.size()];
+        if (idsCarrera.isEmpty()) {
+            return cambiadas;
+        }
+        final String SQL = "UPDATE " + TABLE + " SET estado = ? WHERE idCarrera = ? AND estado = ?";
+
+        conexiones.ejecutarTransaccion("CarreraDAO.cambiarEstado", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL)) {
+                for (String idCarrera : idsCarrera) {
+                    pstmt.setString(1, nuevo.name());
+                    pstmt.setString(2, idCarrera);
+                    pstmt.setString(3, esperado.name());
+                    pstmt.addBatch();
+                }
+                int[] filas = pstmt.executeBatch();
+                for (int i = 0; i < filas.length; i++) {
+                    cambiadas[i] = filas[i] > 0 || filas[i] == Statement.SUCCESS_NO_INFO;
+                }
+            }
+        });
+        for (int i = 0; i < cambiadas.length; i++) {
+            if (cambiadas[i]) {
+                notificarCambio(idsCarrera.get(i), nuevo);
+            }
+        }
+        return cambiadas;
+    }
+
+    /**
+     * Suscribe un oyente a las escrituras confirmadas de carreras y de sus participantes, hechas
+     * por cualquier instancia de {@link CarreraDAO} o {@link ParticipanteDAO}.
+     *
+     * @param oyente el oyente, por ejemplo el catálogo de carreras abiertas
+     */
+    public static void agregarOyente(OyenteCambios oyente) {
+        OYENTES.add(oyente);
+    }
+
+    /**
+     * @param oyente el oyente suscrito con {@link #agregarOyente}
+     */
+    public static void quitarOyente(OyenteCambios oyente) {
+        OYENTES.remove(oyente);
+    }
+
+    /**
+     * Avisa a los oyentes de una escritura ya confirmada. El fallo de un oyente se registra y no
+     * afecta a la escritura ni a los demás oyentes.
+     *
+     * @param idCarrera la carrera modificada, o {@code null} si no se conoce
+     * @param estado su estado tras la escritura, o {@code null} si no cambió, no se conoce o la
+     *               carrera se eliminó
+     */
+    static void notificarCambio(String idCarrera, EstadoCarrera estado) {
+        for (OyenteCambios oyente : OYENTES) {
+            try {
+                oyente.alCambiar(idCarrera, estado);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error al notificar el cambio de la carrera " + idCarrera, e);
+            }
+        }
+    }
+
     /**
      * Convierte un registro de la base de datos (ResultSet) en un objeto {@link Carrera}.
      *
@@ -224,4 +396,17 @@ public class CarreraDAO implements IGenericDAO<Carrera, String> {
         carrera.setMaximoParticipantes(rs.getInt("maximoParticipantes"));
         return carrera;
     }
-}
\ No newline at end of file
+
+    /**
+     * Oyente de las escrituras de carreras; ver {@link #agregarOyente}.
+     */
+    @FunctionalInterface
+    public interface OyenteCambios {
+        /**
+         * @param idCarrera la carrera modificada, o {@code null} si no se conoce
+         * @param estado su estado tras la escritura, o {@code null} si no cambió, no se conoce o
+         *               la carrera se eliminó
+         */
+        void alCambiar(String idCarrera, EstadoCarrera estado);
+    }
+}
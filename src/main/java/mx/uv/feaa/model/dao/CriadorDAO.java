@@ -3,12 +3,14 @@ package mx.uv.feaa.model.dao;
 import mx.uv.feaa.model.entidades.Criador;
 import mx.uv.feaa.model.entidades.Usuario;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementación concreta de {@link IGenericDAO} para la entidad {@link Criador}.
@@ -37,6 +39,24 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
      */
     private static final String ID_COLUMN = "idUsuario";
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public CriadorDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public CriadorDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un criador específico de la base de datos usando su ID.
      * Realiza un JOIN con la tabla Usuario para obtener todos los datos relacionados.
@@ -55,7 +75,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
                 "JOIN Usuario u ON c." + ID_COLUMN + " = u." + ID_COLUMN + " " +
                 "WHERE c." + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CriadorDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -86,7 +106,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
         String sql = "SELECT u.*, c.* FROM " + TABLE_NAME + " c " +
                 "JOIN Usuario u ON c." + ID_COLUMN + " = u." + ID_COLUMN;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("CriadorDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -97,6 +117,82 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
         return criadores;
     }
 
+    /**
+     * Recorre todos los criadores sin cargarlos en memoria: con MySQL el resultado llega en
+     * streaming y cada criador se entrega al consumidor en cuanto se lee.
+     *
+     * @param consumidor recibe cada {@link Criador}
+     * @return el número de criadores recorridos
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see Criador
+     */
+    public long recorrerTodos(Consumer<Criador> consumidor) throws SQLException {
+        long total = 0;
+        String sql = "SELECT u.*, c.* FROM " + TABLE_NAME + " c " +
+                "JOIN Usuario u ON c." + ID_COLUMN + " = u." + ID_COLUMN;
+
+        try (Connection conn = conexiones.getConnectionLectura("CriadorDAO.recorrerTodos");
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    consumidor.accept(mapearCriador(rs));
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Guarda varios criadores en una sola transacción, con un lote JDBC para la tabla Usuario
+     * y otro para la tabla Criador.
+     *
+     * @param criadores la {@link List} de {@link Criador} a persistir
+     * @return true si se insertaron todos, false si alguno falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o violación de restricciones únicas;
+     *         en ese caso no se guarda ninguno
+     * @see Criador
+     * @see UsuarioDAO
+     */
+    public boolean saveAll(List<Criador> criadores) throws SQLException {
+        if (criadores.isEmpty()) {
+            return true;
+        }
+
+        String sql = "INSERT INTO " + TABLE_NAME + " (idUsuario, licenciaCriador, fechaVigenciaLicencia, " +
+                "direccion, telefono, nombreHaras) VALUES (?, ?, ?, ?, ?, ?)";
+        boolean[] insertados = {false};
+
+        conexiones.ejecutarTransaccion("CriadorDAO.saveAll", conn -> {
+            if (!UsuarioDAO.insertarLote(conn, criadores)) {
+                return;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Criador criador : criadores) {
+                    stmt.setString(1, criador.getIdUsuario());
+                    stmt.setString(2, criador.getLicenciaCriador());
+                    stmt.setDate(3, criador.getFechaVigenciaLicencia() != null
+                            ? Date.valueOf(criador.getFechaVigenciaLicencia()) : null);
+                    stmt.setString(4, criador.getDireccion());
+                    stmt.setString(5, criador.getTelefono());
+                    stmt.setString(6, criador.getNombreHaras());
+                    stmt.addBatch();
+                }
+                insertados[0] = true;
+                for (int filas : stmt.executeBatch()) {
+                    if (filas == 0) {
+                        insertados[0] = false;
+                    }
+                }
+            }
+        });
+        return insertados[0];
+    }
+
     /**
      * Guarda un nuevo criador en la base de datos.
      * <p>
@@ -116,7 +212,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
     @Override
     public boolean save(Criador criador) throws SQLException {
         // Primero guardamos el usuario base
-        UsuarioDAO usuarioDAO = new UsuarioDAO();
+        UsuarioDAO usuarioDAO = new UsuarioDAO(conexiones);
         if (!usuarioDAO.save(criador)) {
             return false;
         }
@@ -125,7 +221,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
         String sql = "INSERT INTO " + TABLE_NAME + " (idUsuario, licenciaCriador, fechaVigenciaLicencia, " +
                 "direccion, telefono, nombreHaras) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CriadorDAO.save");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, criador.getIdUsuario());
@@ -157,7 +253,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
     @Override
     public boolean update(Criador criador) throws SQLException {
         // Actualizamos primero el usuario base
-        UsuarioDAO usuarioDAO = new UsuarioDAO();
+        UsuarioDAO usuarioDAO = new UsuarioDAO(conexiones);
         if (!usuarioDAO.update(criador)) {
             return false;
         }
@@ -166,7 +262,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
         String sql = "UPDATE " + TABLE_NAME + " SET licenciaCriador = ?, fechaVigenciaLicencia = ?, " +
                 "direccion = ?, telefono = ?, nombreHaras = ? WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CriadorDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, criador.getLicenciaCriador());
@@ -197,7 +293,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
     @Override
     public boolean delete(String id) throws SQLException {
         // Al tener DELETE CASCADE en la FK, solo necesitamos borrar el usuario
-        UsuarioDAO usuarioDAO = new UsuarioDAO();
+        UsuarioDAO usuarioDAO = new UsuarioDAO(conexiones);
         return usuarioDAO.delete(id);
     }
 
@@ -213,7 +309,7 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
     public boolean renovarLicencia(String idCriador, LocalDate nuevaFechaVigencia) throws SQLException {
         String sql = "UPDATE " + TABLE_NAME + " SET fechaVigenciaLicencia = ? WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("CriadorDAO.renovarLicencia");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setDate(1, Date.valueOf(nuevaFechaVigencia));
@@ -270,7 +366,8 @@ public class CriadorDAO implements IGenericDAO<Criador, String> {
         criador.setUltimoAcceso(usuario.getUltimoAcceso());
 
         criador.setLicenciaCriador(rs.getString("licenciaCriador"));
-        criador.setFechaVigenciaLicencia(rs.getDate("fechaVigenciaLicencia").toLocalDate());
+        Date fechaVigencia = rs.getDate("fechaVigenciaLicencia");
+        criador.setFechaVigenciaLicencia(fechaVigencia != null ? fechaVigencia.toLocalDate() : null);
         criador.setDireccion(rs.getString("direccion"));
         criador.setTelefono(rs.getString("telefono"));
         criador.setNombreHaras(rs.getString("nombreHaras"));
@@ -2,8 +2,11 @@ package mx.uv.feaa.model.dao;
 
 import mx.uv.feaa.model.entidades.EstadisticasRendimiento;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.GeneradorIds;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -29,6 +32,47 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
      */
     private static final String TABLA = "EstadisticasRendimiento";
 
+    private static final String INSERT = "INSERT INTO " + TABLA + " (idEstadistica, caballo_id, jinete_id, " +
+            "totalCarreras, victorias, colocaciones, promedioTiempo, porcentajeVictorias, carrerasConTiempo, " +
+            "sumaTiempoMs) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Inserción o incremento de estadísticas en una sola sentencia, apoyada en las claves únicas
+     * sobre {@code caballo_id} y {@code jinete_id}. El promedio se recalcula con la suma exacta en
+     * milisegundos y solo entre las carreras con tiempo; el promedio y el porcentaje se asignan
+     * antes que los contadores y suman el incremento explícitamente, porque MySQL evalúa las
+     * asignaciones de {@code ON DUPLICATE KEY UPDATE} en orden y cada una ve las anteriores.
+     */
+    private static final String INSERT_INCREMENTAL = INSERT + " ON DUPLICATE KEY UPDATE " +
+            "promedioTiempo = CASE WHEN VALUES(carrerasConTiempo) = 0 THEN promedioTiempo ELSE " +
+            "SEC_TO_TIME((sumaTiempoMs + VALUES(sumaTiempoMs)) / 1000.0 / " +
+            "(carrerasConTiempo + VALUES(carrerasConTiempo))) END, " +
+            "porcentajeVictorias = (victorias + VALUES(victorias)) * 100.0 / " +
+            "(totalCarreras + VALUES(totalCarreras)), " +
+            "totalCarreras = totalCarreras + VALUES(totalCarreras), " +
+            "victorias = victorias + VALUES(victorias), " +
+            "colocaciones = colocaciones + VALUES(colocaciones), " +
+            "carrerasConTiempo = carrerasConTiempo + VALUES(carrerasConTiempo), " +
+            "sumaTiempoMs = sumaTiempoMs + VALUES(sumaTiempoMs)";
+
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public EstadisticasRendimientoDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public EstadisticasRendimientoDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera estadísticas de rendimiento específicas usando su ID.
      *
@@ -45,7 +89,7 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
         String sql = String.format("SELECT * FROM %s WHERE idEstadistica = ?", TABLA);
         EstadisticasRendimiento estadistica = null;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("EstadisticasRendimientoDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -74,7 +118,7 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
         String sql = String.format("SELECT * FROM %s", TABLA);
         List<EstadisticasRendimiento> estadisticas = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("EstadisticasRendimientoDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -98,11 +142,8 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
      */
     @Override
     public boolean save(EstadisticasRendimiento estadistica) throws SQLException {
-        String sql = String.format("INSERT INTO %s (idEstadistica, caballo_id, jinete_id, totalCarreras, victorias, " +
-                "colocaciones, promedioTiempo, porcentajeVictorias) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", TABLA);
-
-        try (Connection conn = ConexionBD.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = conexiones.getConnection("EstadisticasRendimientoDAO.save");
+             PreparedStatement stmt = conn.prepareStatement(INSERT)) {
 
             configurarStatement(stmt, estadistica);
             return stmt.executeUpdate() > 0;
@@ -121,13 +162,14 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
     @Override
     public boolean update(EstadisticasRendimiento estadistica) throws SQLException {
         String sql = String.format("UPDATE %s SET caballo_id = ?, jinete_id = ?, totalCarreras = ?, victorias = ?, " +
-                "colocaciones = ?, promedioTiempo = ?, porcentajeVictorias = ? WHERE idEstadistica = ?", TABLA);
+                "colocaciones = ?, promedioTiempo = ?, porcentajeVictorias = ?, carrerasConTiempo = ?, sumaTiempoMs = ? " +
+                "WHERE idEstadistica = ?", TABLA);
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("EstadisticasRendimientoDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             configurarStatement(stmt, estadistica);
-            stmt.setString(8, estadistica.getIdEstadistica());
+            stmt.setString(10, estadistica.getIdEstadistica());
             return stmt.executeUpdate() > 0;
         }
     }
@@ -144,7 +186,7 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
     public boolean delete(String id) throws SQLException {
         String sql = String.format("DELETE FROM %s WHERE idEstadistica = ?", TABLA);
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("EstadisticasRendimientoDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -167,7 +209,7 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
         String sql = String.format("SELECT * FROM %s WHERE caballo_id = ?", TABLA);
         EstadisticasRendimiento estadistica = null;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("EstadisticasRendimientoDAO.getByCaballoId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, caballoId);
@@ -196,7 +238,7 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
         String sql = String.format("SELECT * FROM %s WHERE jinete_id = ?", TABLA);
         EstadisticasRendimiento estadistica = null;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("EstadisticasRendimientoDAO.getByJineteId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, jineteId);
@@ -210,6 +252,110 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
         return Optional.ofNullable(estadistica);
     }
 
+    /**
+     * Aplica incrementos sobre las estadísticas acumuladas sin leerlas ni reescribirlas completas.
+     * <p>
+     * Cada incremento es un {@link EstadisticasRendimiento} con los valores de las carreras nuevas
+     * (por ejemplo, el creado con {@link EstadisticasRendimiento#deCarrera}). Todos se envían en un
+     * único lote de {@code INSERT ... ON DUPLICATE KEY UPDATE victorias = victorias + VALUES(victorias)}:
+     * la entidad que aún no tiene registro se inserta con los valores del incremento y la que ya lo
+     * tiene lo incrementa. Como la decisión la toma el servidor sobre la clave única, dos resultados
+     * concurrentes de una entidad nueva no pueden crear registros duplicados.
+     * </p>
+     *
+     * @param incrementos la {@link List} de incrementos por caballo o jinete
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see EstadisticasRendimiento#registrarCarrera
+     */
+    public void aplicarIncrementos(List<EstadisticasRendimiento> incrementos) throws SQLException {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        conexiones.ejecutarTransaccion("EstadisticasRendimientoDAO.aplicarIncrementos",
+                conn -> aplicarIncrementos(conn, incrementos));
+    }
+
+    /**
+     * Aplica incrementos como {@link #aplicarIncrementos(List)} sobre una conexión prestada, sin
+     * confirmarla ni cerrarla, para incluirlos en una transacción más amplia.
+     *
+     * @param conn la conexión de la transacción en curso
+     * @param incrementos la {@link List} de incrementos por caballo o jinete
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo errores en la consulta SQL
+     * @see ProveedorConexiones#ejecutarTransaccion
+     */
+    public void aplicarIncrementos(Connection conn, List<EstadisticasRendimiento> incrementos) throws SQLException {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_INCREMENTAL)) {
+            for (EstadisticasRendimiento incremento : incrementos) {
+                configurarStatement(stmt, incremento);
+                if (incremento.getIdEstadistica() == null) {
+                    // Solo se conserva si la entidad es nueva; si ya existe, se descarta
+                    stmt.setString(1, GeneradorIds.predeterminado().siguiente());
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Inserta o reemplaza estadísticas completas en lotes, usando {@code idEstadistica} como clave.
+     * <p>
+     * Pensado para la reconstrucción total desde el historial: los registros existentes conservan
+     * su identificador y se sobrescriben con {@code ON DUPLICATE KEY UPDATE}; los nuevos se insertan.
+     * Toda la escritura ocurre en una única transacción.
+     * </p>
+     *
+     * @param estadisticas las {@link EstadisticasRendimiento} a escribir, todas con identificador asignado
+     * @param tamanoLote número de filas por lote enviado al servidor
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     */
+    public void upsertAll(List<EstadisticasRendimiento> estadisticas, int tamanoLote) throws SQLException {
+        String sql = INSERT + " ON DUPLICATE KEY UPDATE caballo_id = VALUES(caballo_id), jinete_id = VALUES(jinete_id), " +
+                "totalCarreras = VALUES(totalCarreras), victorias = VALUES(victorias), " +
+                "colocaciones = VALUES(colocaciones), promedioTiempo = VALUES(promedioTiempo), " +
+                "porcentajeVictorias = VALUES(porcentajeVictorias), carrerasConTiempo = VALUES(carrerasConTiempo), " +
+                "sumaTiempoMs = VALUES(sumaTiempoMs)";
+
+        conexiones.ejecutarTransaccion("EstadisticasRendimientoDAO.upsertAll", conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int pendientes = 0;
+                for (EstadisticasRendimiento estadistica : estadisticas) {
+                    configurarStatement(stmt, estadistica);
+                    stmt.addBatch();
+                    if (++pendientes == tamanoLote) {
+                        stmt.executeBatch();
+                        pendientes = 0;
+                    }
+                }
+                if (pendientes > 0) {
+                    stmt.executeBatch();
+                }
+            }
+        });
+    }
+
+    /**
+     * Asigna el par {@code caballo_id}, {@code jinete_id} a partir de la posición indicada,
+     * dejando en nulo la columna que no corresponde al tipo de entidad.
+     */
+    private void configurarEntidad(PreparedStatement stmt, int posicion, EstadisticasRendimiento estadistica)
+            throws SQLException {
+        if (estadistica.getTipoEntidad().equals("CABALLO")) {
+            stmt.setString(posicion, estadistica.getIdEntidad());
+            stmt.setNull(posicion + 1, Types.VARCHAR);
+        } else {
+            stmt.setNull(posicion, Types.VARCHAR);
+            stmt.setString(posicion + 1, estadistica.getIdEntidad());
+        }
+    }
+
     /**
      * Convierte un registro de la base de datos (ResultSet) en un objeto {@link EstadisticasRendimiento}.
      * <p>
@@ -232,8 +378,11 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
         estadistica.setTotalCarreras(rs.getInt("totalCarreras"));
         estadistica.setVictorias(rs.getInt("victorias"));
         estadistica.setColocaciones(rs.getInt("colocaciones"));
-        estadistica.setPromedioTiempo(rs.getTime("promedioTiempo") != null ? rs.getTime("promedioTiempo").toLocalTime() : null);
+        // getObject conserva los milisegundos, que java.sql.Time descarta
+        estadistica.setPromedioTiempo(rs.getObject("promedioTiempo", LocalTime.class));
         estadistica.setPorcentajeVictorias(rs.getDouble("porcentajeVictorias"));
+        estadistica.setCarrerasConTiempo(rs.getInt("carrerasConTiempo"));
+        estadistica.setSumaTiempoMs(rs.getLong("sumaTiempoMs"));
 
         return estadistica;
     }
@@ -253,25 +402,20 @@ public class EstadisticasRendimientoDAO implements IGenericDAO<EstadisticasRendi
      */
     private void configurarStatement(PreparedStatement stmt, EstadisticasRendimiento estadistica) throws SQLException {
         stmt.setString(1, estadistica.getIdEstadistica());
-
-        if (estadistica.getTipoEntidad().equals("CABALLO")) {
-            stmt.setString(2, estadistica.getIdEntidad());
-            stmt.setNull(3, Types.VARCHAR);
-        } else {
-            stmt.setNull(2, Types.VARCHAR);
-            stmt.setString(3, estadistica.getIdEntidad());
-        }
+        configurarEntidad(stmt, 2, estadistica);
 
         stmt.setInt(4, estadistica.getTotalCarreras());
         stmt.setInt(5, estadistica.getVictorias());
         stmt.setInt(6, estadistica.getColocaciones());
 
         if (estadistica.getPromedioTiempo() != null) {
-            stmt.setTime(7, Time.valueOf(estadistica.getPromedioTiempo()));
+            stmt.setObject(7, estadistica.getPromedioTiempo());
         } else {
             stmt.setNull(7, Types.TIME);
         }
 
         stmt.setDouble(8, estadistica.getPorcentajeVictorias());
+        stmt.setInt(9, estadistica.getCarrerasConTiempo());
+        stmt.setLong(10, estadistica.getSumaTiempoMs());
     }
 }
\ No newline at end of file
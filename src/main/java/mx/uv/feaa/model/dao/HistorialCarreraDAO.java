@@ -2,10 +2,12 @@ package mx.uv.feaa.model.dao;
 
 import mx.uv.feaa.model.entidades.HistorialCarrera;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Implementación concreta de {@link IGenericDAO} para la entidad {@link HistorialCarrera}.
@@ -57,6 +59,24 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
      */
     private static final String DELETE = "DELETE FROM " + TABLE_NAME + " WHERE idHistorial = ?";
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public HistorialCarreraDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public HistorialCarreraDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un registro específico del historial de carreras usando su ID.
      *
@@ -70,7 +90,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
      */
     @Override
     public Optional<HistorialCarrera> getById(String id) throws SQLException {
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("HistorialCarreraDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
 
             stmt.setString(1, id);
@@ -97,7 +117,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
     public List<HistorialCarrera> getAll() throws SQLException {
         List<HistorialCarrera> historiales = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("HistorialCarreraDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SELECT_ALL)) {
 
@@ -108,6 +128,37 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
         return historiales;
     }
 
+    /**
+     * Recorre todos los registros del historial en una sola pasada sin materializar la lista completa.
+     * <p>
+     * La consulta se ejecuta en modo streaming (cursor de solo avance con {@code fetchSize}
+     * {@link Integer#MIN_VALUE}, que el conector de MySQL interpreta como lectura fila por fila),
+     * por lo que el consumo de memoria no depende del tamaño de la tabla.
+     * </p>
+     *
+     * @param consumidor el {@link Consumer} que recibe cada {@link HistorialCarrera} en orden de lectura
+     * @return el número de registros recorridos
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see HistorialCarrera
+     */
+    public long recorrerTodos(Consumer<HistorialCarrera> consumidor) throws SQLException {
+        long total = 0;
+
+        try (Connection conn = conexiones.getConnectionLectura("HistorialCarreraDAO.recorrerTodos");
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(SELECT_ALL)) {
+                while (rs.next()) {
+                    consumidor.accept(mapearHistorial(rs));
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
     /**
      * Guarda un nuevo registro en el historial de carreras.
      *
@@ -120,7 +171,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
      */
     @Override
     public boolean save(HistorialCarrera historial) throws SQLException {
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("HistorialCarreraDAO.save");
              PreparedStatement stmt = conn.prepareStatement(INSERT)) {
 
             prepararStatementParaInsertUpdate(stmt, historial);
@@ -130,6 +181,59 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
         }
     }
 
+    /**
+     * Guarda varios registros del historial de carreras en un solo lote.
+     *
+     * @param historiales la {@link List} de {@link HistorialCarrera} a persistir
+     * @return true si se insertaron todos los registros, false si alguno falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión, violación de restricciones únicas,
+     *         o errores en la consulta SQL
+     * @see HistorialCarrera
+     */
+    public boolean saveAll(List<HistorialCarrera> historiales) throws SQLException {
+        if (historiales.isEmpty()) {
+            return true;
+        }
+
+        try (Connection conn = conexiones.getConnection("HistorialCarreraDAO.saveAll")) {
+            return saveAll(conn, historiales);
+        }
+    }
+
+    /**
+     * Guarda varios registros del historial en un solo lote sobre una conexión prestada, sin
+     * confirmarla ni cerrarla, para incluirlos en una transacción más amplia.
+     *
+     * @param conn la conexión de la transacción en curso
+     * @param historiales la {@link List} de {@link HistorialCarrera} a persistir
+     * @return true si se insertaron todos los registros, false si alguno falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo violación de restricciones únicas o errores en la consulta SQL
+     * @see ProveedorConexiones#ejecutarTransaccion
+     */
+    public boolean saveAll(Connection conn, List<HistorialCarrera> historiales) throws SQLException {
+        if (historiales.isEmpty()) {
+            return true;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+
+            for (HistorialCarrera historial : historiales) {
+                prepararStatementParaInsertUpdate(stmt, historial);
+                stmt.setString(1, historial.getIdHistorial());
+                stmt.addBatch();
+            }
+
+            for (int filas : stmt.executeBatch()) {
+                if (filas == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Actualiza un registro existente en el historial de carreras.
      *
@@ -141,7 +245,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
      */
     @Override
     public boolean update(HistorialCarrera historial) throws SQLException {
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("HistorialCarreraDAO.update");
              PreparedStatement stmt = conn.prepareStatement(UPDATE)) {
 
             prepararStatementParaInsertUpdate(stmt, historial);
@@ -161,7 +265,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
      */
     @Override
     public boolean delete(String id) throws SQLException {
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("HistorialCarreraDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(DELETE)) {
 
             stmt.setString(1, id);
@@ -255,7 +359,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE caballo_id = ?";
         List<HistorialCarrera> historiales = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("HistorialCarreraDAO.getByCaballoId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idCaballo);
@@ -283,7 +387,7 @@ public class HistorialCarreraDAO implements IGenericDAO<HistorialCarrera, String
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE jinete_id = ?";
         List<HistorialCarrera> historiales = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("HistorialCarreraDAO.getByJineteId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idJinete);
@@ -2,6 +2,7 @@ package mx.uv.feaa.model.dao;
 
 import mx.uv.feaa.model.entidades.Jinete;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -38,6 +39,24 @@ public class JineteDAO implements IGenericDAO<Jinete, String> {
             "licencia", "fechaVigenciaLicencia"
     };
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public JineteDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public JineteDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un jinete específico de la base de datos usando su ID.
      *
@@ -53,7 +72,7 @@ public class JineteDAO implements IGenericDAO<Jinete, String> {
     public Optional<Jinete> getById(String id) throws SQLException {
         final String SQL = "SELECT * FROM " + TABLE + " WHERE idJinete = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("JineteDAO.getById");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, id);
@@ -81,7 +100,7 @@ public class JineteDAO implements IGenericDAO<Jinete, String> {
         List<Jinete> jinetes = new ArrayList<>();
         final String SQL = "SELECT * FROM " + TABLE;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("JineteDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL)) {
 
@@ -107,7 +126,7 @@ public class JineteDAO implements IGenericDAO<Jinete, String> {
         final String SQL = "INSERT INTO " + TABLE + " (" +
                 String.join(", ", COLUMNS) + ") VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("JineteDAO.save");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, jinete.getIdJinete());
@@ -137,7 +156,7 @@ public class JineteDAO implements IGenericDAO<Jinete, String> {
                 "licencia = ?, fechaVigenciaLicencia = ? " +
                 "WHERE idJinete = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("JineteDAO.update");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, jinete.getNombre());
@@ -163,7 +182,7 @@ public class JineteDAO implements IGenericDAO<Jinete, String> {
     public boolean delete(String id) throws SQLException {
         final String SQL = "DELETE FROM " + TABLE + " WHERE idJinete = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("JineteDAO.delete");
              PreparedStatement pstmt = conn.prepareStatement(SQL)) {
 
             pstmt.setString(1, id);
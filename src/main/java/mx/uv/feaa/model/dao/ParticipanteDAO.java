@@ -3,6 +3,7 @@ package mx.uv.feaa.model.dao;
 import mx.uv.feaa.model.entidades.*;
 import mx.uv.feaa.enumeracion.EstadoParticipante;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 import java.sql.*;
 import java.util.*;
 
@@ -28,14 +29,25 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
     private final CaballoDAO caballoDAO;
     private final JineteDAO jineteDAO;
     private final CarreraDAO carreraDAO;
+    private final ProveedorConexiones conexiones;
 
     /**
-     * Constructor que inicializa las dependencias DAO necesarias.
+     * Constructor que inicializa las dependencias DAO sobre la base de datos predeterminada.
      */
     public ParticipanteDAO() {
-        this.caballoDAO = new CaballoDAO();
-        this.jineteDAO = new JineteDAO();
-        this.carreraDAO = new CarreraDAO();
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Constructor que inicializa las dependencias DAO sobre el mismo origen de conexiones.
+     *
+     * @param conexiones el origen de las conexiones de este DAO y de sus dependencias
+     */
+    public ParticipanteDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+        this.caballoDAO = new CaballoDAO(conexiones);
+        this.jineteDAO = new JineteDAO(conexiones);
+        this.carreraDAO = new CarreraDAO(conexiones);
     }
 
     /**
@@ -54,7 +66,7 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
         String sql = "SELECT * FROM Participante WHERE idParticipante = ?";
         Participante participante = null;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ParticipanteDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -82,7 +94,7 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
         String sql = "SELECT * FROM Participante";
         List<Participante> participantes = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ParticipanteDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -108,7 +120,7 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
         String sql = "INSERT INTO Participante (idParticipante, carrera_id, numeroCompetidor, " +
                 "pesoAsignado, caballo_id, jinete_id, estado) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ParticipanteDAO.save");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, participante.getIdParticipante());
@@ -119,7 +131,11 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
             stmt.setString(6, participante.getJinete().getIdJinete());
             stmt.setString(7, participante.getEstado().name());
 
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                CarreraDAO.notificarCambio(participante.getCarrera().getIdCarrera(), null);
+                return true;
+            }
+            return false;
         }
     }
 
@@ -137,7 +153,7 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
         String sql = "UPDATE Participante SET carrera_id = ?, numeroCompetidor = ?, pesoAsignado = ?, " +
                 "caballo_id = ?, jinete_id = ?, estado = ? WHERE idParticipante = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ParticipanteDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, participante.getCarrera().getIdCarrera());
@@ -148,7 +164,11 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
             stmt.setString(6, participante.getEstado().name());
             stmt.setString(7, participante.getIdParticipante());
 
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                CarreraDAO.notificarCambio(participante.getCarrera().getIdCarrera(), null);
+                return true;
+            }
+            return false;
         }
     }
 
@@ -164,11 +184,15 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
     public boolean delete(String id) throws SQLException {
         String sql = "DELETE FROM Participante WHERE idParticipante = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ParticipanteDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                CarreraDAO.notificarCambio(null, null);
+                return true;
+            }
+            return false;
         }
     }
 
@@ -216,7 +240,7 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
         String sql = "SELECT * FROM Participante WHERE carrera_id = ? ORDER BY numeroCompetidor";
         List<Participante> participantes = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ParticipanteDAO.getByCarreraId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, carreraId);
@@ -242,13 +266,17 @@ public class ParticipanteDAO implements IGenericDAO<Participante, String> {
     public boolean updateEstado(String idParticipante, EstadoParticipante nuevoEstado) throws SQLException {
         String sql = "UPDATE Participante SET estado = ? WHERE idParticipante = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ParticipanteDAO.updateEstado");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, nuevoEstado.name());
             stmt.setString(2, idParticipante);
 
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                CarreraDAO.notificarCambio(null, null);
+                return true;
+            }
+            return false;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,276 @@
+package mx.uv.feaa.model.dao;
+
+import mx.uv.feaa.model.entidades.Rating;
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementación concreta de {@link IGenericDAO} para la entidad {@link Rating}.
+ * Esta clase proporciona operaciones CRUD (Crear, Leer, Actualizar, Eliminar)
+ * para gestionar los ratings de caballos y jinetes en el sistema.
+ * <p>
+ * Cada caballo y cada jinete tiene a lo sumo un rating, identificado por el ID de la entidad;
+ * el campo 'tipoEntidad' distingue entre ambos.
+ * </p>
+ *
+ * @version 1.0
+ * @since 1.0
+ * @see IGenericDAO
+ * @see Rating
+ */
+public class RatingDAO implements IGenericDAO<Rating, String> {
+
+    /**
+     * Nombre de la tabla de ratings en la base de datos.
+     */
+    private static final String TABLA = "Rating";
+
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public RatingDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public RatingDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
+    /**
+     * Recupera el rating de un caballo o jinete usando el ID de la entidad.
+     *
+     * @param idEntidad el identificador único del caballo o jinete
+     * @return un {@link Optional} que contiene el {@link Rating} si existe,
+     *         o vacío si la entidad aún no tiene rating
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see Optional
+     * @see Rating
+     */
+    @Override
+    public Optional<Rating> getById(String idEntidad) throws SQLException {
+        String sql = String.format("SELECT * FROM %s WHERE idEntidad = ?", TABLA);
+        Rating rating = null;
+
+        try (Connection conn = conexiones.getConnectionLectura("RatingDAO.getById");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, idEntidad);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    rating = mapearRating(rs);
+                }
+            }
+        }
+
+        return Optional.ofNullable(rating);
+    }
+
+    /**
+     * Recupera todos los ratings registrados en el sistema.
+     *
+     * @return una {@link List} de {@link Rating} con todos los ratings,
+     *         o una lista vacía si no hay registros
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see List
+     * @see Rating
+     */
+    @Override
+    public List<Rating> getAll() throws SQLException {
+        String sql = String.format("SELECT * FROM %s", TABLA);
+        List<Rating> ratings = new ArrayList<>();
+
+        try (Connection conn = conexiones.getConnectionLectura("RatingDAO.getAll");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                ratings.add(mapearRating(rs));
+            }
+        }
+
+        return ratings;
+    }
+
+    /**
+     * Guarda un nuevo rating en la base de datos.
+     *
+     * @param rating el objeto {@link Rating} a persistir
+     * @return true si la operación se completó con éxito, false si falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión, violación de restricciones únicas,
+     *         o errores en la consulta SQL
+     * @see Rating
+     */
+    @Override
+    public boolean save(Rating rating) throws SQLException {
+        String sql = String.format("INSERT INTO %s (idEntidad, tipoEntidad, valor, carreras, fechaActualizacion) " +
+                "VALUES (?, ?, ?, ?, ?)", TABLA);
+
+        try (Connection conn = conexiones.getConnection("RatingDAO.save");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            configurarStatement(stmt, rating);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Actualiza un rating existente.
+     *
+     * @param rating el objeto {@link Rating} con los datos actualizados
+     * @return true si la operación se completó con éxito, false si falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     * @see Rating
+     */
+    @Override
+    public boolean update(Rating rating) throws SQLException {
+        String sql = String.format("UPDATE %s SET tipoEntidad = ?, valor = ?, carreras = ?, fechaActualizacion = ? " +
+                "WHERE idEntidad = ?", TABLA);
+
+        try (Connection conn = conexiones.getConnection("RatingDAO.update");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, rating.getTipoEntidad());
+            stmt.setDouble(2, rating.getValor());
+            stmt.setInt(3, rating.getCarreras());
+            stmt.setDate(4, rating.getFechaActualizacion() != null ? Date.valueOf(rating.getFechaActualizacion()) : null);
+            stmt.setString(5, rating.getIdEntidad());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Elimina el rating de una entidad de la base de datos.
+     *
+     * @param idEntidad el identificador único del caballo o jinete
+     * @return true si la operación se completó con éxito, false si falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     */
+    @Override
+    public boolean delete(String idEntidad) throws SQLException {
+        String sql = String.format("DELETE FROM %s WHERE idEntidad = ?", TABLA);
+
+        try (Connection conn = conexiones.getConnection("RatingDAO.delete");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, idEntidad);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Inserta o reemplaza ratings en lotes, usando el ID de la entidad como clave.
+     * <p>
+     * Se usa tras cada resultado (pocas filas); para reproducir el historial completo véase
+     * {@link #reemplazarTodos(List, int)}. Toda la escritura ocurre en una única transacción.
+     * </p>
+     *
+     * @param ratings los {@link Rating} a escribir
+     * @param tamanoLote número de filas por lote enviado al servidor
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo problemas de conexión o errores en la consulta SQL
+     */
+    public void upsertAll(List<Rating> ratings, int tamanoLote) throws SQLException {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        String sql = String.format("INSERT INTO %s (idEntidad, tipoEntidad, valor, carreras, fechaActualizacion) " +
+                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE tipoEntidad = VALUES(tipoEntidad), " +
+                "valor = VALUES(valor), carreras = VALUES(carreras), " +
+                "fechaActualizacion = VALUES(fechaActualizacion)", TABLA);
+
+        conexiones.ejecutarTransaccion("RatingDAO.upsertAll", conn -> escribirLotes(conn, sql, ratings, tamanoLote));
+    }
+
+    /**
+     * Sustituye todos los ratings guardados por los indicados, en una única transacción: las
+     * entidades que no aparecen en la lista pierden su rating.
+     * <p>
+     * Se usa al reproducir el historial completo, donde un caballo o jinete que ya no tiene
+     * carreras (por ejemplo, porque se corrigió o eliminó su historial) no debe conservar el
+     * rating anterior.
+     * </p>
+     *
+     * @param ratings los {@link Rating} que quedarán en la tabla
+     * @param tamanoLote número de filas por lote enviado al servidor
+     * @throws SQLException si ocurre algún error al acceder a la base de datos; en ese caso
+     *         la tabla conserva los ratings anteriores
+     */
+    public void reemplazarTodos(List<Rating> ratings, int tamanoLote) throws SQLException {
+        String sql = String.format("INSERT INTO %s (idEntidad, tipoEntidad, valor, carreras, fechaActualizacion) " +
+                "VALUES (?, ?, ?, ?, ?)", TABLA);
+
+        conexiones.ejecutarTransaccion("RatingDAO.reemplazarTodos", conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(String.format("DELETE FROM %s", TABLA));
+            }
+            escribirLotes(conn, sql, ratings, tamanoLote);
+        });
+    }
+
+    private void escribirLotes(Connection conn, String sql, List<Rating> ratings, int tamanoLote) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pendientes = 0;
+            for (Rating rating : ratings) {
+                configurarStatement(stmt, rating);
+                stmt.addBatch();
+                if (++pendientes == tamanoLote) {
+                    stmt.executeBatch();
+                    pendientes = 0;
+                }
+            }
+            if (pendientes > 0) {
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Convierte un registro de la base de datos (ResultSet) en un objeto {@link Rating}.
+     *
+     * @param rs el {@link ResultSet} que contiene los datos del rating
+     * @return un objeto {@link Rating} con todos los datos mapeados
+     * @throws SQLException si ocurre algún error al acceder a los datos del ResultSet
+     */
+    private Rating mapearRating(ResultSet rs) throws SQLException {
+        Date fecha = rs.getDate("fechaActualizacion");
+        return new Rating(
+                rs.getString("idEntidad"),
+                rs.getString("tipoEntidad"),
+                rs.getDouble("valor"),
+                rs.getInt("carreras"),
+                fecha != null ? fecha.toLocalDate() : null
+        );
+    }
+
+    /**
+     * Configura un PreparedStatement de inserción con los datos del rating.
+     *
+     * @param stmt el {@link PreparedStatement} a configurar
+     * @param rating el objeto {@link Rating} con los datos
+     * @throws SQLException si ocurre algún error al configurar el statement
+     */
+    private void configurarStatement(PreparedStatement stmt, Rating rating) throws SQLException {
+        stmt.setString(1, rating.getIdEntidad());
+        stmt.setString(2, rating.getTipoEntidad());
+        stmt.setDouble(3, rating.getValor());
+        stmt.setInt(4, rating.getCarreras());
+        stmt.setDate(5, rating.getFechaActualizacion() != null ? Date.valueOf(rating.getFechaActualizacion()) : null);
+    }
+}
@@ -2,6 +2,8 @@ package mx.uv.feaa.model.dao;
 
 import mx.uv.feaa.model.entidades.Resultado;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.GeneradorIds;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
 import java.sql.Date;
@@ -25,6 +27,24 @@ import java.util.*;
  */
 public class ResultadoDAO implements IGenericDAO<Resultado, String> {
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public ResultadoDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public ResultadoDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un resultado específico de la base de datos usando su ID.
      * Incluye la carga de todos los detalles asociados al resultado.
@@ -42,7 +62,7 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
         String sql = "SELECT * FROM Resultado WHERE idResultado = ?";
         Resultado resultado = null;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ResultadoDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -73,7 +93,7 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
         String sql = "SELECT * FROM Resultado";
         List<Resultado> resultados = new ArrayList<>();
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ResultadoDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -100,10 +120,26 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
      */
     @Override
     public boolean save(Resultado resultado) throws SQLException {
+        try (Connection conn = conexiones.getConnection("ResultadoDAO.save")) {
+            return save(conn, resultado);
+        }
+    }
+
+    /**
+     * Guarda un nuevo resultado y sus detalles en una conexión prestada, sin confirmarla ni
+     * cerrarla, para incluirlo en una transacción más amplia.
+     *
+     * @param conn la conexión de la transacción en curso
+     * @param resultado el objeto {@link Resultado} a persistir
+     * @return true si la operación se completó con éxito, false si falló
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo violación de restricciones únicas o errores en las consultas SQL
+     * @see ProveedorConexiones#ejecutarTransaccion
+     */
+    public boolean save(Connection conn, Resultado resultado) throws SQLException {
         String sql = "INSERT INTO Resultado (idResultado, carrera_id, fechaRegistro) VALUES (?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, resultado.getIdResultado());
             stmt.setString(2, resultado.getIdCarrera());
@@ -134,7 +170,7 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
     public boolean update(Resultado resultado) throws SQLException {
         String sql = "UPDATE Resultado SET carrera_id = ?, fechaRegistro = ? WHERE idResultado = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ResultadoDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, resultado.getIdCarrera());
@@ -166,7 +202,7 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
         // Los detalles se eliminan en cascada por la FK
         String sql = "DELETE FROM Resultado WHERE idResultado = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("ResultadoDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -231,12 +267,16 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
                 "VALUES (?, ?, ?, ?, ?)";
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            for (Map.Entry<Integer, String> entry : resultado.getPosiciones().entrySet()) {
-                int posicion = entry.getKey();
-                String idParticipante = entry.getValue();
-                LocalTime tiempo = resultado.getTiempos().get(idParticipante);
+            List<String> ordenLlegada = resultado.getOrdenLlegada();
+            for (int i = 0; i < ordenLlegada.size(); i++) {
+                String idParticipante = ordenLlegada.get(i);
+                if (idParticipante == null) {
+                    continue;
+                }
+                int posicion = i + 1;
+                LocalTime tiempo = resultado.obtenerTiempo(idParticipante);
 
-                stmt.setString(1, UUID.randomUUID().toString());
+                stmt.setString(1, GeneradorIds.predeterminado().siguiente());
                 stmt.setString(2, resultado.getIdResultado());
                 stmt.setString(3, idParticipante);
                 stmt.setInt(4, posicion);
@@ -285,7 +325,7 @@ public class ResultadoDAO implements IGenericDAO<Resultado, String> {
         String sql = "SELECT * FROM Resultado WHERE carrera_id = ?";
         Resultado resultado = null;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("ResultadoDAO.getByCarreraId");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idCarrera);
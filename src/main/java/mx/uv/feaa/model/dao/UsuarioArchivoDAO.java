@@ -0,0 +1,282 @@
+package mx.uv.feaa.model.dao;
+
+import mx.uv.feaa.model.entidades.Apostador;
+import mx.uv.feaa.model.entidades.Criador;
+import mx.uv.feaa.model.entidades.Usuario;
+import mx.uv.feaa.util.AlmacenDiario;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementación de {@link IGenericDAO} para {@link Usuario} sobre archivos locales en lugar de
+ * MySQL, para instalaciones sin servidor de base de datos. Guarda apostadores, criadores y
+ * usuarios genéricos en un {@link AlmacenDiario}: cada alta, cambio o baja es un registro agregado
+ * al diario, y las lecturas salen de la instantánea mapeada o de lo escrito desde la última
+ * compactación.
+ * <p>
+ * Se guardan los datos propios de cada tipo, los mismos que {@code data/usuarios.json}; el
+ * historial de apuestas del apostador y los caballos del criador no, porque tienen sus propios DAOs.
+ * La contraseña se guarda tal como la trae la entidad.
+ * </p>
+ *
+ * @see AlmacenDiario
+ */
+public class UsuarioArchivoDAO implements IGenericDAO<Usuario, String>, AutoCloseable {
+    /**
+     * Directorio del almacén cuando no se indica otro.
+     */
+    public static final Path DIRECTORIO_PREDETERMINADO = Path.of("data", "diario", "usuarios");
+
+    private static final byte VERSION = 1;
+    private static final byte GENERICO = 'U';
+    private static final byte APOSTADOR = 'A';
+    private static final byte CRIADOR = 'C';
+
+    private final AlmacenDiario almacen;
+
+    /**
+     * @param almacen el almacén de los usuarios; el DAO lo cierra en {@link #close()}
+     */
+    public UsuarioArchivoDAO(AlmacenDiario almacen) {
+        this.almacen = almacen;
+    }
+
+    /**
+     * Abre el almacén en el directorio indicado, reproduciendo su diario si quedó algo pendiente.
+     *
+     * @throws SQLException si no se puede leer o crear el directorio
+     */
+    public static UsuarioArchivoDAO abrir(Path directorio) throws SQLException {
+        try {
+            return new UsuarioArchivoDAO(AlmacenDiario.abrir(directorio));
+        } catch (IOException e) {
+            throw new SQLException("No se pudo abrir el almacén de usuarios en " + directorio, e);
+        }
+    }
+
+    @Override
+    public Optional<Usuario> getById(String id) throws SQLException {
+        byte[] datos = almacen.leer(id);
+        return datos == null ? Optional.empty() : Optional.of(decodificar(datos));
+    }
+
+    @Override
+    public List<Usuario> getAll() throws SQLException {
+        List<byte[]> valores = almacen.valores();
+        List<Usuario> usuarios = new ArrayList<>(valores.size());
+        for (byte[] datos : valores) {
+            usuarios.add(decodificar(datos));
+        }
+        return usuarios;
+    }
+
+    /**
+     * @return {@code false} si ya existe un usuario con el mismo ID
+     */
+    @Override
+    public boolean save(Usuario usuario) throws SQLException {
+        try {
+            return almacen.insertar(usuario.getIdUsuario(), codificar(usuario));
+        } catch (IOException e) {
+            throw new SQLException("Error al guardar el usuario " + usuario.getIdUsuario(), e);
+        }
+    }
+
+    /**
+     * Guarda varios usuarios con una sola sincronización del diario.
+     *
+     * @return {@code false} si alguno ya existía; los demás se guardan igual
+     */
+    public boolean saveAll(List<? extends Usuario> usuarios) throws SQLException {
+        Map<String, byte[]> valores = new LinkedHashMap<>();
+        for (Usuario usuario : usuarios) {
+            valores.put(usuario.getIdUsuario(), codificar(usuario));
+        }
+        try {
+            return almacen.insertarTodos(valores) == usuarios.size();
+        } catch (IOException e) {
+            throw new SQLException("Error al guardar " + usuarios.size() + " usuarios", e);
+        }
+    }
+
+    /**
+     * @return {@code false} si no existe un usuario con ese ID
+     */
+    @Override
+    public boolean update(Usuario usuario) throws SQLException {
+        try {
+            return almacen.reemplazar(usuario.getIdUsuario(), codificar(usuario));
+        } catch (IOException e) {
+            throw new SQLException("Error al actualizar el usuario " + usuario.getIdUsuario(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String id) throws SQLException {
+        try {
+            return almacen.borrar(id);
+        } catch (IOException e) {
+            throw new SQLException("Error al eliminar el usuario " + id, e);
+        }
+    }
+
+    /**
+     * Recorre todos los usuarios; el almacén solo indexa por ID.
+     */
+    public Optional<Usuario> buscarPorNombreUsuario(String nombreUsuario) throws SQLException {
+        for (Usuario usuario : getAll()) {
+            if (nombreUsuario.equals(usuario.getNombreUsuario())) {
+                return Optional.of(usuario);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Escribe una instantánea nueva y vacía el diario, sin esperar al umbral.
+     */
+    public void compactar() throws SQLException {
+        try {
+            almacen.compactar();
+        } catch (IOException e) {
+            throw new SQLException("Error al compactar el almacén de usuarios", e);
+        }
+    }
+
+    public AlmacenDiario getAlmacen() {
+        return almacen;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            almacen.close();
+        } catch (IOException e) {
+            throw new SQLException("Error al cerrar el almacén de usuarios", e);
+        }
+    }
+
+    static byte[] codificar(Usuario usuario) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeByte(VERSION);
+            salida.writeByte(usuario instanceof Apostador ? APOSTADOR : usuario instanceof Criador ? CRIADOR : GENERICO);
+            escribirTexto(salida, usuario.getIdUsuario());
+            escribirTexto(salida, usuario.getNombreUsuario());
+            escribirTexto(salida, usuario.getEmail());
+            escribirTexto(salida, usuario.getPassword());
+            salida.writeBoolean(usuario.isActivo());
+            escribirTexto(salida, texto(usuario.getFechaRegistro()));
+            escribirTexto(salida, texto(usuario.getUltimoAcceso()));
+            escribirTexto(salida, usuario.getTipoUsuario());
+            if (usuario instanceof Apostador apostador) {
+                salida.writeDouble(apostador.getSaldo());
+                salida.writeDouble(apostador.getLimiteApuesta());
+                salida.writeDouble(apostador.getTotalApostado());
+                salida.writeDouble(apostador.getTotalGanado());
+                salida.writeInt(apostador.getApuestasRealizadas());
+                escribirTexto(salida, texto(apostador.getUltimaActividad()));
+                escribirTexto(salida, apostador.getNombre());
+                escribirTexto(salida, apostador.getTelefono());
+            } else if (usuario instanceof Criador criador) {
+                escribirTexto(salida, criador.getLicenciaCriador());
+                escribirTexto(salida, texto(criador.getFechaVigenciaLicencia()));
+                escribirTexto(salida, criador.getDireccion());
+                escribirTexto(salida, criador.getTelefono());
+                escribirTexto(salida, criador.getNombreHaras());
+                salida.writeInt(criador.getCaballosRegistrados());
+                salida.writeInt(criador.getCaballosActivos());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Usuario decodificar(byte[] datos) throws SQLException {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos))) {
+            byte version = entrada.readByte();
+            if (version != VERSION) {
+                throw new SQLException("Versión de registro de usuario no soportada: " + version);
+            }
+            byte tipo = entrada.readByte();
+            Usuario usuario = switch (tipo) {
+                case APOSTADOR -> new Apostador();
+                case CRIADOR -> new Criador();
+                default -> new Usuario() {
+                    @Override
+                    public String getTipoUsuarioEspecifico() {
+                        return "";
+                    }
+                };
+            };
+            usuario.setIdUsuario(leerTexto(entrada));
+            usuario.setNombreUsuario(leerTexto(entrada));
+            usuario.setEmail(leerTexto(entrada));
+            usuario.setPassword(leerTexto(entrada));
+            usuario.setActivo(entrada.readBoolean());
+            usuario.setFechaRegistro(fechaHora(leerTexto(entrada)));
+            usuario.setUltimoAcceso(fechaHora(leerTexto(entrada)));
+            usuario.setTipoUsuario(leerTexto(entrada));
+            if (usuario instanceof Apostador apostador) {
+                apostador.setSaldo(entrada.readDouble());
+                apostador.setLimiteApuesta(entrada.readDouble());
+                apostador.setTotalApostado(entrada.readDouble());
+                apostador.setTotalGanado(entrada.readDouble());
+                apostador.setApuestasRealizadas(entrada.readInt());
+                apostador.setUltimaActividad(fecha(leerTexto(entrada)));
+                apostador.setNombre(leerTexto(entrada));
+                apostador.setTelefono(leerTexto(entrada));
+                apostador.setHistorialApuestas(null);
+            } else if (usuario instanceof Criador criador) {
+                criador.setLicenciaCriador(leerTexto(entrada));
+                criador.setFechaVigenciaLicencia(fecha(leerTexto(entrada)));
+                criador.setDireccion(leerTexto(entrada));
+                criador.setTelefono(leerTexto(entrada));
+                criador.setNombreHaras(leerTexto(entrada));
+                criador.setCaballosRegistrados(entrada.readInt());
+                criador.setCaballosActivos(entrada.readInt());
+            }
+            return usuario;
+        } catch (IOException e) {
+            throw new SQLException("Registro de usuario dañado", e);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static String texto(Object fecha) {
+        return fecha == null ? null : fecha.toString();
+    }
+
+    private static LocalDateTime fechaHora(String texto) {
+        return texto == null ? null : LocalDateTime.parse(texto);
+    }
+
+    private static LocalDate fecha(String texto) {
+        return texto == null ? null : LocalDate.parse(texto);
+    }
+}
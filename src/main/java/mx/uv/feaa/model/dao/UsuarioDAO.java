@@ -1,9 +1,12 @@
 package mx.uv.feaa.model.dao;
 
+import mx.uv.feaa.metricas.EventoPassword;
 import mx.uv.feaa.model.entidades.Usuario;
 import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +37,24 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
      */
     private static final String ID_COLUMN = "idUsuario";
 
+    private final ProveedorConexiones conexiones;
+
+    /**
+     * Crea el DAO sobre la base de datos predeterminada de {@link ConexionBD}.
+     */
+    public UsuarioDAO() {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * Crea el DAO sobre el origen de conexiones indicado.
+     *
+     * @param conexiones el origen de las conexiones, por ejemplo un pool propio
+     */
+    public UsuarioDAO(ProveedorConexiones conexiones) {
+        this.conexiones = conexiones;
+    }
+
     /**
      * Recupera un usuario específico de la base de datos usando su ID.
      *
@@ -49,7 +70,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
     public Optional<Usuario> getById(String id) throws SQLException {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("UsuarioDAO.getById");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -78,7 +99,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         List<Usuario> usuarios = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME;
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("UsuarioDAO.getAll");
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -104,7 +125,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         String sql = "INSERT INTO " + TABLE_NAME + " (idUsuario, nombreUsuario, email, password, activo, tipoUsuario) " +
                 "VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("UsuarioDAO.save");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, usuario.getIdUsuario());
@@ -132,7 +153,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         String sql = "UPDATE " + TABLE_NAME + " SET nombreUsuario = ?, email = ?, password = ?, activo = ? " +
                 "WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("UsuarioDAO.update");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, usuario.getNombreUsuario());
@@ -157,7 +178,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
     public boolean delete(String id) throws SQLException {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("UsuarioDAO.delete");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, id);
@@ -165,6 +186,43 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         }
     }
 
+    /**
+     * Inserta los datos básicos de varios usuarios en un lote JDBC, en la conexión del llamador.
+     * A diferencia de {@link #save(Usuario)}, conserva la fecha de registro y el último acceso.
+     *
+     * @param conn la conexión, normalmente dentro de una transacción
+     * @param usuarios los usuarios a insertar
+     * @return true si se insertaron todos
+     * @throws SQLException si ocurre algún error al acceder a la base de datos,
+     *         incluyendo violaciones de la clave primaria o del nombre de usuario único
+     */
+    static boolean insertarLote(Connection conn, List<? extends Usuario> usuarios) throws SQLException {
+        String sql = "INSERT INTO " + TABLE_NAME + " (idUsuario, nombreUsuario, email, password, activo, tipoUsuario, " +
+                "fechaRegistro, ultimoAcceso) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Usuario usuario : usuarios) {
+                stmt.setString(1, usuario.getIdUsuario());
+                stmt.setString(2, usuario.getNombreUsuario());
+                stmt.setString(3, usuario.getEmail());
+                stmt.setString(4, usuario.getPassword());
+                stmt.setBoolean(5, usuario.isActivo());
+                stmt.setString(6, usuario.getTipoUsuario());
+                stmt.setTimestamp(7, Timestamp.valueOf(usuario.getFechaRegistro() != null
+                        ? usuario.getFechaRegistro() : LocalDateTime.now()));
+                stmt.setTimestamp(8, usuario.getUltimoAcceso() != null ? Timestamp.valueOf(usuario.getUltimoAcceso()) : null);
+                stmt.addBatch();
+            }
+
+            for (int filas : stmt.executeBatch()) {
+                if (filas == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Busca un usuario por su nombre de usuario.
      *
@@ -179,7 +237,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
     public Optional<Usuario> buscarPorNombreUsuario(String nombreUsuario) throws SQLException {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE nombreUsuario = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("UsuarioDAO.buscarPorNombreUsuario");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, nombreUsuario);
@@ -245,19 +303,28 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         String sql = "SELECT COUNT(*) FROM " + TABLE_NAME +
                 " WHERE nombreUsuario = ? AND password = SHA2(?, 256) AND activo = true";
 
-        try (Connection conn = ConexionBD.getConnection();
+        // El hash se calcula en la base; el evento mide la comprobación completa de cada inicio de sesión
+        EventoPassword evento = new EventoPassword();
+        evento.begin();
+        boolean valida = false;
+        try (Connection conn = conexiones.getConnectionLectura("UsuarioDAO.validarCredenciales");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, nombreUsuario.trim());
             stmt.setString(2, password);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
+                valida = rs.next() && rs.getInt(1) > 0;
+            }
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.operacion = "validar";
+                evento.valida = valida;
+                evento.commit();
             }
         }
-        return false;
+        return valida;
     }
 
     /**
@@ -276,7 +343,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         String sql = "UPDATE " + TABLE_NAME +
                 " SET ultimoAcceso = CURRENT_TIMESTAMP WHERE " + ID_COLUMN + " = ?";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnection("UsuarioDAO.actualizarUltimoAcceso");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idUsuario);
@@ -300,7 +367,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         String sql = "SELECT COUNT(*) FROM " + TABLE_NAME +
                 " WHERE nombreUsuario = ? AND activo = true";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("UsuarioDAO.existeUsuarioActivo");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, nombreUsuario.trim());
@@ -314,6 +381,28 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         return false;
     }
 
+    /**
+     * Verifica si la cuenta con el ID indicado existe y sigue activa.
+     * Consulta siempre el primario, para no depender del retraso de las réplicas.
+     *
+     * @param idUsuario el ID del usuario
+     * @return true si existe y está activa, false en caso contrario
+     * @throws SQLException si ocurre un error en la base de datos
+     */
+    public boolean estaActivo(String idUsuario) throws SQLException {
+        String sql = "SELECT activo FROM " + TABLE_NAME + " WHERE " + ID_COLUMN + " = ?";
+
+        try (Connection conn = conexiones.getConnection("UsuarioDAO.estaActivo");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, idUsuario);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean("activo");
+            }
+        }
+    }
+
     /**
      * Obtiene el tipo de usuario por nombre de usuario.
      *
@@ -330,7 +419,7 @@ public class UsuarioDAO implements IGenericDAO<Usuario, String> {
         String sql = "SELECT tipoUsuario FROM " + TABLE_NAME +
                 " WHERE nombreUsuario = ? AND activo = true";
 
-        try (Connection conn = ConexionBD.getConnection();
+        try (Connection conn = conexiones.getConnectionLectura("UsuarioDAO.obtenerTipoUsuario");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, nombreUsuario.trim());
@@ -78,7 +78,11 @@ public class Caballo {
     public void setCriadorId(String criadorId) { this.criadorId = criadorId; }
     public List<HistorialCarrera> getHistorialCarreras() { return new ArrayList<>(historialCarreras); }
     public void setHistorialCarreras(List<HistorialCarrera> historialCarreras) {
-        this.historialCarreras = new ArrayList<>(historialCarreras);
+        this.historialCarreras = historialCarreras != null ? new ArrayList<>(historialCarreras) : new ArrayList<>();
+        recalcularEstadisticas();
+    }
+    public void setEstadisticas(EstadisticasRendimiento estadisticas) {
+        this.estadisticas = estadisticas != null ? estadisticas : new EstadisticasRendimiento();
     }
 
     public EstadisticasRendimiento obtenerEstadisticasCaballo() {
@@ -88,6 +92,17 @@ public class Caballo {
         return estadisticas;
     }
 
+    // Reconstrucción completa desde el historial; solo para reparar estadísticas desfasadas
+    public EstadisticasRendimiento recalcularEstadisticas() {
+        EstadisticasRendimiento recalculadas = new EstadisticasRendimiento(
+                estadisticas != null ? estadisticas.getIdEstadistica() : null, idCaballo, "CABALLO");
+        for (HistorialCarrera historial : historialCarreras) {
+            recalculadas.registrarCarrera(historial.getPosicion(), historial.getTiempo());
+        }
+        this.estadisticas = recalculadas;
+        return this.estadisticas;
+    }
+
 
     // Método para establecer relación por ID
     public void setCriadorById(String criadorId) {
@@ -102,5 +117,16 @@ public class Caballo {
 
 
     public void agregarHistorial(HistorialCarrera historial) {
+        if (historial != null) {
+            this.historialCarreras.add(historial);
+            if (estadisticas == null) {
+                estadisticas = new EstadisticasRendimiento();
+            }
+            estadisticas.registrarCarrera(historial.getPosicion(), historial.getTiempo());
+            if (historial.getFecha() != null &&
+                    (ultimaCarrera == null || historial.getFecha().isAfter(ultimaCarrera))) {
+                ultimaCarrera = historial.getFecha();
+            }
+        }
     }
 }
\ No newline at end of file
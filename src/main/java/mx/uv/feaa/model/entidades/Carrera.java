@@ -1,14 +1,20 @@
 package mx.uv.feaa.model.entidades;
 
 import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.util.GeneradorIds;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToDoubleFunction;
 
 public class Carrera {
+    // Margen de la casa aplicado a las cuotas calculadas por rating
+    private static final double MARGEN_CASA = 0.15;
+    private static final double CUOTA_MINIMA = 1.01;
+
     private String idCarrera;
     private String nombre;
     private LocalDate fecha;
@@ -56,16 +62,18 @@ public class Carrera {
                 estado.estaActiva();
     }
 
-    public void registrarResultado(Resultado resultado) {
+    public List<HistorialCarrera> registrarResultado(Resultado resultado) {
+        List<HistorialCarrera> historiales = new ArrayList<>();
         if (estado == EstadoCarrera.EN_CURSO || estado == EstadoCarrera.APUESTAS_CERRADAS) {
             this.resultado = resultado;
             this.estado = EstadoCarrera.FINALIZADA;
 
             for (Participante participante : participantes) {
-                Integer posicion = resultado.obtenerPosicion(String.valueOf(participante));
-                LocalTime tiempo = resultado.obtenerTiempo(String.valueOf(participante));
+                Integer posicion = resultado.obtenerPosicion(participante.getIdParticipante());
+                LocalTime tiempo = resultado.obtenerTiempo(participante.getIdParticipante());
                 if (posicion != null && tiempo != null) {
                     HistorialCarrera historial = new HistorialCarrera();
+                    historial.setIdHistorial(GeneradorIds.predeterminado().siguiente());
                     historial.setCarreraById(this.idCarrera);
                     historial.setCaballoById(participante.getCaballo().getIdCaballo());
                     historial.setJineteById(participante.getJinete().getIdJinete());
@@ -74,11 +82,14 @@ public class Carrera {
                     historial.setFecha(this.fecha);
                     historial.setHipodromo("Hipódromo Principal"); // O usar this.hipodromo si existe
 
+                    // Las estadísticas de caballo y jinete se actualizan de forma incremental
                     participante.getCaballo().agregarHistorial(historial);
                     participante.getJinete().agregarHistorial(historial);
+                    historiales.add(historial);
                 }
             }
         }
+        return historiales;
     }
     public Map<String, Double> obtenerCuotasActuales() {
         Map<String, Double> cuotas = new HashMap<>();
@@ -89,6 +100,34 @@ public class Carrera {
         return cuotas;
     }
 
+    // Cuotas a partir de un rating por participante (por ejemplo, MotorRating::rating)
+    public Map<String, Double> obtenerCuotasActuales(ToDoubleFunction<Participante> rating) {
+        Map<String, Double> cuotas = new HashMap<>();
+        double[] valores = calcularCuotas(participantes, rating);
+        for (int i = 0; i < valores.length; i++) {
+            cuotas.put(participantes.get(i).getCaballo().getNombre(), valores[i]);
+        }
+        return cuotas;
+    }
+
+    // Cuotas en el orden de la lista: la probabilidad de victoria es la fuerza 10^(r/400) de cada
+    // participante sobre la suma de todas. Sirve también para listas que no pertenecen a la carrera
+    public static double[] calcularCuotas(List<Participante> participantes, ToDoubleFunction<Participante> rating) {
+        double[] fuerzas = new double[participantes.size()];
+        double total = 0;
+        for (int i = 0; i < fuerzas.length; i++) {
+            fuerzas[i] = Math.pow(10, rating.applyAsDouble(participantes.get(i)) / 400.0);
+            total += fuerzas[i];
+        }
+        double[] cuotas = new double[fuerzas.length];
+        for (int i = 0; i < fuerzas.length; i++) {
+            double probabilidad = fuerzas[i] / total;
+            double cuota = Math.max(CUOTA_MINIMA, (1 - MARGEN_CASA) / probabilidad);
+            cuotas[i] = Math.round(cuota * 100) / 100.0;
+        }
+        return cuotas;
+    }
+
     private double calcularCuotaBasica(EstadisticasRendimiento rendimiento) {
         if (rendimiento.getTotalCarreras() == 0) return 10.0;
         double porcentajeVictorias = rendimiento.getPorcentajeVictorias();
@@ -11,6 +11,9 @@ public class EstadisticasRendimiento {
     private int colocaciones;
     private LocalTime promedioTiempo;
     private double porcentajeVictorias;
+    // Carreras con tiempo registrado y su suma en milisegundos: base exacta del promedio
+    private int carrerasConTiempo;
+    private long sumaTiempoMs;
 
     public EstadisticasRendimiento() {}
 
@@ -28,6 +31,28 @@ public class EstadisticasRendimiento {
         this.tipoEntidad = tipoEntidad;
     }
 
+    // Estadísticas de una sola carrera, usadas como incremento sobre las acumuladas
+    public static EstadisticasRendimiento deCarrera(String idEntidad, String tipoEntidad,
+                                                    int posicion, LocalTime tiempo) {
+        EstadisticasRendimiento incremento = new EstadisticasRendimiento(null, idEntidad, tipoEntidad);
+        incremento.registrarCarrera(posicion, tiempo);
+        return incremento;
+    }
+
+    // Aplica en O(1) el resultado de una carrera sin recorrer el historial
+    public void registrarCarrera(int posicion, LocalTime tiempo) {
+        totalCarreras++;
+        if (posicion == 1) victorias++;
+        if (posicion >= 1 && posicion <= 3) colocaciones++;
+        if (tiempo != null) {
+            // El promedio solo cuenta las carreras con tiempo, no el total
+            carrerasConTiempo++;
+            sumaTiempoMs += tiempo.toNanoOfDay() / 1_000_000L;
+            promedioTiempo = LocalTime.ofNanoOfDay(sumaTiempoMs / carrerasConTiempo * 1_000_000L);
+        }
+        porcentajeVictorias = victorias * 100.0 / totalCarreras;
+    }
+
     // Getters and Setters
     public String getIdEstadistica() { return idEstadistica; }
     public void setIdEstadistica(String idEstadistica) { this.idEstadistica = idEstadistica; }
@@ -51,6 +76,10 @@ public class EstadisticasRendimiento {
     public void setPromedioTiempo(LocalTime promedioTiempo) { this.promedioTiempo = promedioTiempo; }
     public double getPorcentajeVictorias() { return porcentajeVictorias; }
     public void setPorcentajeVictorias(double porcentajeVictorias) { this.porcentajeVictorias = porcentajeVictorias; }
+    public int getCarrerasConTiempo() { return carrerasConTiempo; }
+    public void setCarrerasConTiempo(int carrerasConTiempo) { this.carrerasConTiempo = carrerasConTiempo; }
+    public long getSumaTiempoMs() { return sumaTiempoMs; }
+    public void setSumaTiempoMs(long sumaTiempoMs) { this.sumaTiempoMs = sumaTiempoMs; }
 
     @Override
     public String toString() {
@@ -63,21 +63,24 @@ public class Jinete {
     }
 
     public EstadisticasRendimiento obtenerEstadisticas() {
-        int totalCarreras = historialCarreras.size();
-        int victorias = (int) historialCarreras.stream()
-                .filter(HistorialCarrera::esVictoria)
-                .count();
-        int colocaciones = (int) historialCarreras.stream()
-                .filter(HistorialCarrera::esColocacion)
-                .count();
-        this.estadisticas = new EstadisticasRendimiento(totalCarreras, victorias, colocaciones);
+        return this.estadisticas;
+    }
+
+    // Reconstrucción completa desde el historial; solo para reparar estadísticas desfasadas
+    public EstadisticasRendimiento recalcularEstadisticas() {
+        EstadisticasRendimiento recalculadas = new EstadisticasRendimiento(
+                estadisticas.getIdEstadistica(), idJinete, "JINETE");
+        for (HistorialCarrera historial : historialCarreras) {
+            recalculadas.registrarCarrera(historial.getPosicion(), historial.getTiempo());
+        }
+        this.estadisticas = recalculadas;
         return this.estadisticas;
     }
 
     public void agregarHistorialCarrera(HistorialCarrera historial) {
         if (historial != null) {
             this.historialCarreras.add(historial);
-            obtenerEstadisticas();
+            this.estadisticas.registrarCarrera(historial.getPosicion(), historial.getTiempo());
         }
     }
 
@@ -107,9 +110,12 @@ public class Jinete {
     public List<HistorialCarrera> getHistorialCarreras() { return new ArrayList<>(historialCarreras); }
     public void setHistorialCarreras(List<HistorialCarrera> historialCarreras) {
         this.historialCarreras = historialCarreras != null ? new ArrayList<>(historialCarreras) : new ArrayList<>();
+        recalcularEstadisticas();
     }
     public EstadisticasRendimiento getEstadisticas() { return estadisticas; }
-    public void setEstadisticas(EstadisticasRendimiento estadisticas) { this.estadisticas = estadisticas; }
+    public void setEstadisticas(EstadisticasRendimiento estadisticas) {
+        this.estadisticas = estadisticas != null ? estadisticas : new EstadisticasRendimiento();
+    }
 
     @Override
     public String toString() {
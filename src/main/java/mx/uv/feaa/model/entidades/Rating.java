@@ -0,0 +1,60 @@
+package mx.uv.feaa.model.entidades;
+
+import java.time.LocalDate;
+
+public class Rating {
+    // Valor con el que empieza toda entidad sin carreras
+    public static final double VALOR_INICIAL = 1500.0;
+
+    private String idEntidad;
+    private String tipoEntidad;
+    private double valor;
+    private int carreras;
+    private LocalDate fechaActualizacion;
+
+    public Rating() {
+        this.valor = VALOR_INICIAL;
+    }
+
+    public Rating(String idEntidad, String tipoEntidad) {
+        this();
+        this.idEntidad = idEntidad;
+        this.tipoEntidad = tipoEntidad;
+    }
+
+    public Rating(String idEntidad, String tipoEntidad, double valor, int carreras, LocalDate fechaActualizacion) {
+        this.idEntidad = idEntidad;
+        this.tipoEntidad = tipoEntidad;
+        this.valor = valor;
+        this.carreras = carreras;
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    // Suma el ajuste de una carrera y cuenta la carrera
+    public void aplicarAjuste(double ajuste, LocalDate fecha) {
+        valor += ajuste;
+        carreras++;
+        if (fecha != null) fechaActualizacion = fecha;
+    }
+
+    public Rating copia() {
+        return new Rating(idEntidad, tipoEntidad, valor, carreras, fechaActualizacion);
+    }
+
+    // Getters and Setters
+    public String getIdEntidad() { return idEntidad; }
+    public void setIdEntidad(String idEntidad) { this.idEntidad = idEntidad; }
+    public String getTipoEntidad() { return tipoEntidad; }
+    public void setTipoEntidad(String tipoEntidad) { this.tipoEntidad = tipoEntidad; }
+    public double getValor() { return valor; }
+    public void setValor(double valor) { this.valor = valor; }
+    public int getCarreras() { return carreras; }
+    public void setCarreras(int carreras) { this.carreras = carreras; }
+    public LocalDate getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDate fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+
+    @Override
+    public String toString() {
+        return String.format("Rating %s %s: %.1f (%d carreras)", tipoEntidad, idEntidad, valor, carreras);
+    }
+}
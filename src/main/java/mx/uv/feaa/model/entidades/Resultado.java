@@ -2,53 +2,114 @@ package mx.uv.feaa.model.entidades;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
 
 public class Resultado {
+    // Marca de tiempo no registrado en tiemposMs
+    public static final int SIN_TIEMPO = -1;
+    private static final int CAPACIDAD_INICIAL = 20;
+
     private String idResultado;
     private String idCarrera;
-    private Map<Integer, String> posiciones; // <Posición, idParticipante>
-    private Map<String, LocalTime> tiempos;  // <idParticipante, Tiempo>
+    private String[] ordenLlegada;        // [posición - 1] -> idParticipante
+    private int[] tiemposMs;              // [posición - 1] -> tiempo en milisegundos
+    private Map<String, Integer> indice;  // idParticipante -> posición - 1
+    private int registrados;
     private LocalDate fechaRegistro;
 
     public Resultado(String idResultado, String idCarrera) {
         this.idResultado = idResultado;
         this.idCarrera = idCarrera;
-        this.posiciones = new HashMap<>();
-        this.tiempos = new HashMap<>();
+        this.ordenLlegada = new String[CAPACIDAD_INICIAL];
+        this.tiemposMs = new int[CAPACIDAD_INICIAL];
+        this.indice = new HashMap<>();
         this.fechaRegistro = LocalDate.now();
     }
 
     public void registrarPosicion(int posicion, String idParticipante, LocalTime tiempo) {
-        posiciones.put(posicion, idParticipante);
-        tiempos.put(idParticipante, tiempo);
+        if (posicion < 1 || idParticipante == null) return;
+
+        int slot = posicion - 1;
+        if (slot >= ordenLlegada.length) {
+            int capacidad = Math.max(slot + 1, ordenLlegada.length * 2);
+            ordenLlegada = Arrays.copyOf(ordenLlegada, capacidad);
+            tiemposMs = Arrays.copyOf(tiemposMs, capacidad);
+        }
+        // Un participante ocupa una sola posición y una posición tiene un solo participante
+        Integer anterior = indice.get(idParticipante);
+        if (anterior != null) liberar(anterior);
+        if (ordenLlegada[slot] != null) liberar(slot);
+
+        ordenLlegada[slot] = idParticipante;
+        tiemposMs[slot] = tiempo != null ? (int) (tiempo.toNanoOfDay() / 1_000_000) : SIN_TIEMPO;
+        indice.put(idParticipante, slot);
+        registrados++;
+    }
+
+    private void liberar(int slot) {
+        indice.remove(ordenLlegada[slot]);
+        ordenLlegada[slot] = null;
+        registrados--;
     }
 
     public String obtenerGanador() {
-        return posiciones.get(1);
+        return ordenLlegada[0];
     }
 
+    // O(1): búsqueda en el índice inverso
     public Integer obtenerPosicion(String idParticipante) {
-        for (Map.Entry<Integer, String> entry : posiciones.entrySet()) {
-            if (entry.getValue().equals(idParticipante)) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        Integer slot = indice.get(idParticipante);
+        return slot != null ? slot + 1 : null;
     }
 
     public String obtenerParticipantePorPosicion(int posicion) {
-        return posiciones.get(posicion);
+        return posicion >= 1 && posicion <= ordenLlegada.length ? ordenLlegada[posicion - 1] : null;
     }
 
     public LocalTime obtenerTiempo(String idParticipante) {
-        return tiempos.get(idParticipante);
+        Integer slot = indice.get(idParticipante);
+        return slot != null ? aLocalTime(tiemposMs[slot]) : null;
+    }
+
+    public int obtenerTiempoMs(String idParticipante) {
+        Integer slot = indice.get(idParticipante);
+        return slot != null ? tiemposMs[slot] : SIN_TIEMPO;
     }
 
     public boolean esCompleto(int totalParticipantes) {
-        return posiciones.size() == totalParticipantes &&
-                tiempos.size() == totalParticipantes;
+        return registrados == totalParticipantes;
+    }
+
+    // Orden de llegada como vista de solo lectura; el elemento i es la posición i + 1 (null si está vacía)
+    public List<String> getOrdenLlegada() {
+        int ultima = ultimaPosicion();
+        return new AbstractList<String>() {
+            @Override public String get(int i) {
+                if (i < 0 || i >= ultima) throw new IndexOutOfBoundsException(i);
+                return ordenLlegada[i];
+            }
+            @Override public int size() { return ultima; }
+        };
+    }
+
+    private int ultimaPosicion() {
+        int ultima = ordenLlegada.length;
+        while (ultima > 0 && ordenLlegada[ultima - 1] == null) ultima--;
+        return ultima;
+    }
+
+    private static LocalTime aLocalTime(int ms) {
+        return ms != SIN_TIEMPO ? LocalTime.ofNanoOfDay(ms * 1_000_000L) : null;
     }
 
     // Getters and Setters
@@ -56,17 +117,93 @@ public class Resultado {
     public void setIdResultado(String idResultado) { this.idResultado = idResultado; }
     public String getIdCarrera() { return idCarrera; }
     public void setIdCarrera(String idCarrera) { this.idCarrera = idCarrera; }
-    public Map<Integer, String> getPosiciones() { return new HashMap<>(posiciones); }
+
+    // Vista de solo lectura <Posición, idParticipante>; no copia los datos
+    public Map<Integer, String> getPosiciones() {
+        return new Vista<Integer, String>() {
+            @Override public String get(Object clave) {
+                return clave instanceof Integer ? obtenerParticipantePorPosicion((Integer) clave) : null;
+            }
+            @Override Entry<Integer, String> entrada(int slot) {
+                return new SimpleImmutableEntry<>(slot + 1, ordenLlegada[slot]);
+            }
+        };
+    }
     public void setPosiciones(Map<Integer, String> posiciones) {
-        this.posiciones = posiciones != null ? new HashMap<>(posiciones) : new HashMap<>();
+        Map<String, LocalTime> tiemposPrevios = new HashMap<>(getTiempos());
+        limpiar();
+        if (posiciones != null) {
+            posiciones.forEach((posicion, id) -> registrarPosicion(posicion, id, tiemposPrevios.get(id)));
+        }
+    }
+
+    // Vista de solo lectura <idParticipante, Tiempo>; no copia los datos
+    public Map<String, LocalTime> getTiempos() {
+        return new Vista<String, LocalTime>() {
+            @Override public LocalTime get(Object clave) {
+                return clave instanceof String ? obtenerTiempo((String) clave) : null;
+            }
+            @Override Entry<String, LocalTime> entrada(int slot) {
+                return new SimpleImmutableEntry<>(ordenLlegada[slot], aLocalTime(tiemposMs[slot]));
+            }
+        };
     }
-    public Map<String, LocalTime> getTiempos() { return new HashMap<>(tiempos); }
     public void setTiempos(Map<String, LocalTime> tiempos) {
-        this.tiempos = tiempos != null ? new HashMap<>(tiempos) : new HashMap<>();
+        for (int slot = 0; slot < ordenLlegada.length; slot++) {
+            if (ordenLlegada[slot] != null) {
+                LocalTime tiempo = tiempos != null ? tiempos.get(ordenLlegada[slot]) : null;
+                tiemposMs[slot] = tiempo != null ? (int) (tiempo.toNanoOfDay() / 1_000_000) : SIN_TIEMPO;
+            }
+        }
     }
     public LocalDate getFechaRegistro() { return fechaRegistro; }
     public void setFechaRegistro(LocalDate fechaRegistro) { this.fechaRegistro = fechaRegistro; }
 
+    private void limpiar() {
+        Arrays.fill(ordenLlegada, null);
+        Arrays.fill(tiemposMs, SIN_TIEMPO);
+        indice.clear();
+        registrados = 0;
+    }
+
+    // Mapa de solo lectura sobre las posiciones ocupadas, recorridas en orden de llegada
+    private abstract class Vista<K, V> extends AbstractMap<K, V> {
+        abstract Entry<K, V> entrada(int slot);
+
+        @Override public int size() { return registrados; }
+        @Override public boolean containsKey(Object clave) { return get(clave) != null; }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override public int size() { return registrados; }
+                @Override public Iterator<Entry<K, V>> iterator() { return new Recorrido<>(Vista.this::entrada); }
+            };
+        }
+    }
+
+    private class Recorrido<E> implements Iterator<E> {
+        private final IntFunction<E> entrada;
+        private int slot = siguiente(0);
+
+        Recorrido(IntFunction<E> entrada) { this.entrada = entrada; }
+
+        private int siguiente(int desde) {
+            while (desde < ordenLlegada.length && ordenLlegada[desde] == null) desde++;
+            return desde;
+        }
+
+        @Override public boolean hasNext() { return slot < ordenLlegada.length; }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            E actual = entrada.apply(slot);
+            slot = siguiente(slot + 1);
+            return actual;
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -75,14 +212,13 @@ public class Resultado {
         sb.append("Fecha: ").append(fechaRegistro).append("\n");
         sb.append("Posiciones:\n");
 
-        for (int i = 1; i <= posiciones.size(); i++) {
-            String idParticipante = posiciones.get(i);
-            if (idParticipante != null) {
-                LocalTime tiempo = tiempos.get(idParticipante);
-                sb.append(String.format("%d. Participante ID: %s - Tiempo: %s\n", i, idParticipante, tiempo));
+        for (int slot = 0; slot < ordenLlegada.length; slot++) {
+            if (ordenLlegada[slot] != null) {
+                sb.append(String.format("%d. Participante ID: %s - Tiempo: %s\n",
+                        slot + 1, ordenLlegada[slot], aLocalTime(tiemposMs[slot])));
             }
         }
 
         return sb.toString();
     }
-}
\ No newline at end of file
+}
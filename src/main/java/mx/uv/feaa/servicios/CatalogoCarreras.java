@@ -0,0 +1,210 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.metricas.EventoFalloCache;
+import mx.uv.feaa.model.dao.CarreraDAO;
+import mx.uv.feaa.model.dao.ParticipanteDAO;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.Participante;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Catálogo compartido de las carreras con apuestas abiertas y sus participantes.
+ * <p>
+ * En lugar de que cada usuario consulte {@link CarreraDAO#getByEstado} y los participantes de cada
+ * carrera al entrar a apostar, el catálogo mantiene una {@link Instantanea} inmutable que se
+ * reemplaza completa en cada refresco; los menús la leen sin tocar la base de datos ni bloquearse.
+ * </p>
+ * <p>
+ * La instantánea se recarga periódicamente y con cada escritura de carreras o participantes que
+ * notifica {@link CarreraDAO}, venga del planificador, de la consola o de la API: si la carrera
+ * dejó de aceptar apuestas se retira de inmediato de la instantánea actual (sin consultar la base
+ * de datos) y además se programa una recarga completa, que es la que incorpora las carreras recién
+ * abiertas con sus participantes.
+ * </p>
+ * <p>
+ * La instantánea solo sirve para listar: los cambios hechos fuera de esta JVM tardan hasta un
+ * intervalo de refresco en verse. Al apostar, quien decide es
+ * {@link mx.uv.feaa.model.dao.ApuestaDAO#saveWithSelections}, que vuelve a leer el estado de la
+ * carrera en la misma transacción.
+ * </p>
+ */
+public class CatalogoCarreras {
+    private static final Logger LOGGER = Logger.getLogger(CatalogoCarreras.class.getName());
+    private static final Duration INTERVALO_REFRESCO = Duration.ofSeconds(30);
+    private static CatalogoCarreras instancia;
+
+    private final CarreraDAO carreraDAO;
+    private final ParticipanteDAO participanteDAO;
+    private final ScheduledExecutorService refresco;
+    private final AtomicBoolean refrescoPendiente = new AtomicBoolean();
+    private volatile Instantanea instantanea;
+
+    // Consultas servidas desde la instantánea, consultas que tuvieron que cargarla y recargas en segundo plano
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder recargas = new LongAdder();
+
+    private CatalogoCarreras() {
+        this.carreraDAO = new CarreraDAO();
+        this.participanteDAO = new ParticipanteDAO();
+        this.refresco = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "catalogo-carreras");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.refresco.scheduleWithFixedDelay(this::refrescar, INTERVALO_REFRESCO.toMillis(),
+                INTERVALO_REFRESCO.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return el catálogo compartido por todas las vistas
+     */
+    public static synchronized CatalogoCarreras getInstancia() {
+        if (instancia == null) {
+            instancia = new CatalogoCarreras();
+            CarreraDAO.agregarOyente(instancia::alCambiar);
+        }
+        return instancia;
+    }
+
+    /**
+     * Devuelve la instantánea vigente. Solo la primera llamada, antes de cualquier carga, consulta
+     * la base de datos.
+     *
+     * @return la instantánea de carreras abiertas
+     * @throws SQLException si la carga inicial falla
+     */
+    public Instantanea getInstantanea() throws SQLException {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            synchronized (this) {
+                if (instantanea == null) {
+                    fallos.increment();
+                    EventoFalloCache evento = new EventoFalloCache();
+                    evento.begin();
+                    try {
+                        instantanea = cargar();
+                    } finally {
+                        evento.end();
+                        if (evento.shouldCommit()) {
+                            evento.cache = "catalogo_carreras";
+                            evento.commit();
+                        }
+                    }
+                }
+                actual = instantanea;
+            }
+        } else {
+            aciertos.increment();
+        }
+        return actual;
+    }
+
+    /**
+     * Notifica un cambio de estado de una carrera. Las escrituras de {@link CarreraDAO} lo llaman
+     * solas, incluidas las transiciones del {@link PlanificadorCarreras}.
+     *
+     * @param idCarrera la carrera que cambió
+     * @param nuevo su nuevo estado
+     */
+    public void alCambiarEstado(String idCarrera, EstadoCarrera nuevo) {
+        Instantanea actual = instantanea;
+        if (actual != null && !nuevo.permiteApuestas() && actual.getParticipantes(idCarrera) != null) {
+            instantanea = actual.sin(idCarrera);
+        }
+        invalidar();
+    }
+
+    // Oyente de CarreraDAO: sin estado nuevo (participantes, carrera eliminada) solo se recarga
+    private void alCambiar(String idCarrera, EstadoCarrera estado) {
+        if (idCarrera != null && estado != null) {
+            alCambiarEstado(idCarrera, estado);
+        } else {
+            invalidar();
+        }
+    }
+
+    /**
+     * Programa una recarga completa lo antes posible; varias invalidaciones seguidas se agrupan en una.
+     */
+    public void invalidar() {
+        if (refrescoPendiente.compareAndSet(false, true)) {
+            refresco.execute(this::refrescar);
+        }
+    }
+
+    private void refrescar() {
+        refrescoPendiente.set(false);
+        try {
+            instantanea = cargar();
+            recargas.increment();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error al refrescar el catálogo de carreras", e);
+        }
+    }
+
+    public long getAciertos() { return aciertos.sum(); }
+
+    public long getFallos() { return fallos.sum(); }
+
+    public long getRecargas() { return recargas.sum(); }
+
+    private Instantanea cargar() throws SQLException {
+        List<Carrera> carreras = carreraDAO.getByEstado(EstadoCarrera.APUESTAS_ABIERTAS);
+        Map<String, List<Participante>> participantes = new HashMap<>();
+        for (Carrera carrera : carreras) {
+            participantes.put(carrera.getIdCarrera(),
+                    Collections.unmodifiableList(participanteDAO.getByCarreraId(carrera.getIdCarrera())));
+        }
+        return new Instantanea(carreras, participantes, Instant.now());
+    }
+
+    /**
+     * Vista inmutable de las carreras abiertas en un momento dado. Las listas no pueden
+     * modificarse y las entidades que contienen deben tratarse como de solo lectura.
+     */
+    public static final class Instantanea {
+        private final List<Carrera> carreras;
+        private final Map<String, List<Participante>> participantes;
+        private final Instant generada;
+
+        private Instantanea(List<Carrera> carreras, Map<String, List<Participante>> participantes, Instant generada) {
+            this.carreras = Collections.unmodifiableList(new ArrayList<>(carreras));
+            this.participantes = Collections.unmodifiableMap(participantes);
+            this.generada = generada;
+        }
+
+        private Instantanea sin(String idCarrera) {
+            List<Carrera> restantes = new ArrayList<>(carreras);
+            restantes.removeIf(carrera -> carrera.getIdCarrera().equals(idCarrera));
+            Map<String, List<Participante>> participantesRestantes = new HashMap<>(participantes);
+            participantesRestantes.remove(idCarrera);
+            return new Instantanea(restantes, participantesRestantes, generada);
+        }
+
+        public List<Carrera> getCarreras() { return carreras; }
+
+        /**
+         * @return los participantes de la carrera, o {@code null} si no está en el catálogo
+         */
+        public List<Participante> getParticipantes(String idCarrera) { return participantes.get(idCarrera); }
+
+        public Instant getGenerada() { return generada; }
+    }
+}
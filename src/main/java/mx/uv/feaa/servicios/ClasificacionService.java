@@ -0,0 +1,50 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.analitica.EntradaClasificacion;
+import mx.uv.feaa.analitica.HistorialColumnar;
+import mx.uv.feaa.analitica.IndiceClasificaciones;
+import mx.uv.feaa.model.dao.HistorialCarreraDAO;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Servicio de clasificaciones ("más victorias", "mejor porcentaje") de caballos y jinetes.
+ * <p>
+ * Al iniciar carga un {@link IndiceClasificaciones} desde el historial completo y se suscribe
+ * al {@link ResultadoService}, de modo que cada resultado nuevo actualiza las tablas en línea.
+ * </p>
+ */
+public class ClasificacionService {
+    /** Carreras mínimas para figurar en la clasificación por porcentaje de victorias. */
+    public static final int MINIMO_CARRERAS = 5;
+
+    private final IndiceClasificaciones indice;
+
+    /**
+     * @param resultadoService servicio cuyos resultados mantendrán actualizadas las clasificaciones
+     * @throws SQLException si ocurre algún error al cargar el historial
+     */
+    public ClasificacionService(ResultadoService resultadoService) throws SQLException {
+        this.indice = IndiceClasificaciones.desde(HistorialColumnar.cargar(new HistorialCarreraDAO()), MINIMO_CARRERAS);
+        resultadoService.agregarOyente(indice::registrarTodos);
+    }
+
+    public List<EntradaClasificacion> caballosConMasVictorias(Integer temporada, String idHipodromo, int k) {
+        return indice.masVictorias(HistorialColumnar.Dimension.CABALLO, temporada, idHipodromo, k);
+    }
+
+    public List<EntradaClasificacion> caballosConMejorPorcentaje(Integer temporada, String idHipodromo, int k) {
+        return indice.mejorPorcentaje(HistorialColumnar.Dimension.CABALLO, temporada, idHipodromo, k);
+    }
+
+    public List<EntradaClasificacion> jinetesConMasVictorias(Integer temporada, String idHipodromo, int k) {
+        return indice.masVictorias(HistorialColumnar.Dimension.JINETE, temporada, idHipodromo, k);
+    }
+
+    public List<EntradaClasificacion> jinetesConMejorPorcentaje(Integer temporada, String idHipodromo, int k) {
+        return indice.mejorPorcentaje(HistorialColumnar.Dimension.JINETE, temporada, idHipodromo, k);
+    }
+
+    public IndiceClasificaciones getIndice() { return indice; }
+}
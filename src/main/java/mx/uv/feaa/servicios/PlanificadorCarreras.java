@@ -0,0 +1,339 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.model.dao.CarreraDAO;
+import mx.uv.feaa.model.entidades.Carrera;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Planificador que dispara a su hora las transiciones de {@link EstadoCarrera} de las carreras.
+ * <p>
+ * Las carreras próximas se cargan desde la base de datos por fecha y hora de salida, y para cada una
+ * se programa su siguiente transición en una {@link DelayQueue}:
+ * </p>
+ * <ul>
+ *   <li>{@code INSCRIPCIONES_ABIERTAS → APUESTAS_ABIERTAS} al abrir la ventana de apuestas.</li>
+ *   <li>{@code APUESTAS_ABIERTAS → APUESTAS_CERRADAS} al cierre, un poco antes de la salida.</li>
+ *   <li>{@code APUESTAS_CERRADAS → EN_CURSO} a la hora de salida.</li>
+ * </ul>
+ * <p>
+ * Un solo hilo espera la primera transición vencida y toma todas las demás que vencieron a la vez;
+ * las agrupa por tipo y las aplica con {@link CarreraDAO#cambiarEstado}, un lote por tipo, de modo
+ * que miles de carreras en varios hipódromos no necesitan más hilos. Como la actualización solo
+ * ocurre si la carrera sigue en el estado esperado, un cambio manual (cancelación, suspensión)
+ * nunca se sobrescribe. Periódicamente, y siempre al arrancar, el planificador se resincroniza con
+ * la base de datos; las transiciones atrasadas tras un reinicio se disparan de inmediato.
+ * </p>
+ * <p>
+ * Un error de la base de datos, de un oyente o de los datos de una carrera se registra y no
+ * detiene el hilo: el fallo de un oyente no afecta a los demás, una carrera sin fecha u hora se
+ * omite y cualquier otro error programa una resincronización tras una breve espera.
+ * </p>
+ */
+public class PlanificadorCarreras {
+    private static final Logger LOGGER = Logger.getLogger(PlanificadorCarreras.class.getName());
+
+    private static final List<EstadoCarrera> ESTADOS_PLANIFICABLES = List.of(
+            EstadoCarrera.INSCRIPCIONES_ABIERTAS, EstadoCarrera.APUESTAS_ABIERTAS, EstadoCarrera.APUESTAS_CERRADAS);
+    private static final Duration ESPERA_REINTENTO = Duration.ofSeconds(5);
+
+    private final CarreraDAO carreraDAO;
+    private final Clock reloj;
+    private final Duration aperturaApuestas;
+    private final Duration cierreApuestas;
+    private final Duration intervaloResincronizacion;
+
+    private final DelayQueue<Transicion> cola = new DelayQueue<>();
+    private final Map<String, Transicion> programadas = new ConcurrentHashMap<>();
+    private final List<Consumer<Transicion>> oyentes = new CopyOnWriteArrayList<>();
+    private volatile Thread hilo;
+    private volatile boolean activo;
+
+    /**
+     * Crea un planificador con los tiempos por defecto: apuestas abiertas dos horas antes de la
+     * salida, cerradas dos minutos antes y resincronización cada cinco minutos.
+     */
+    public PlanificadorCarreras() {
+        this(new CarreraDAO(), Clock.systemDefaultZone(), Duration.ofHours(2), Duration.ofMinutes(2),
+                Duration.ofMinutes(5));
+    }
+
+    /**
+     * @param carreraDAO DAO con el que se leen y actualizan las carreras
+     * @param reloj reloj con el que se calculan los vencimientos
+     * @param aperturaApuestas anticipación respecto a la salida con que se abren las apuestas
+     * @param cierreApuestas anticipación respecto a la salida con que se cierran las apuestas
+     * @param intervaloResincronizacion cada cuánto se recargan las carreras desde la base de datos
+     */
+    public PlanificadorCarreras(CarreraDAO carreraDAO, Clock reloj, Duration aperturaApuestas,
+                                Duration cierreApuestas, Duration intervaloResincronizacion) {
+        this.carreraDAO = carreraDAO;
+        this.reloj = reloj;
+        this.aperturaApuestas = aperturaApuestas;
+        this.cierreApuestas = cierreApuestas;
+        this.intervaloResincronizacion = intervaloResincronizacion;
+    }
+
+    /**
+     * Inicia el hilo del planificador. La primera acción del hilo es resincronizarse.
+     */
+    public synchronized void iniciar() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        hilo = new Thread(this::ejecutar, "planificador-carreras");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Detiene el planificador; las transiciones pendientes se recuperarán al volver a iniciarlo.
+     */
+    public synchronized void detener() {
+        activo = false;
+        if (hilo != null) {
+            hilo.interrupt();
+            hilo = null;
+        }
+    }
+
+    /**
+     * Suscribe un oyente que se invoca con cada transición aplicada en la base de datos.
+     *
+     * @param oyente el oyente, invocado desde el hilo del planificador
+     */
+    public void agregarOyente(Consumer<Transicion> oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Programa, o reprograma, la carrera según su estado actual. Se usa al crear una carrera o
+     * cambiar su hora para no esperar a la siguiente resincronización.
+     *
+     * @param carrera la carrera con su estado, fecha y hora actuales
+     */
+    public void programar(Carrera carrera) {
+        Transicion siguiente = siguienteTransicion(carrera.getIdCarrera(), carrera.getEstado(),
+                salidaDe(carrera.getFecha(), carrera.getHora()));
+        if (siguiente == null) {
+            programadas.remove(carrera.getIdCarrera());
+            return;
+        }
+        Transicion actual = programadas.get(carrera.getIdCarrera());
+        if (!siguiente.equivaleA(actual)) {
+            encolar(siguiente);
+        }
+    }
+
+    /**
+     * @return el número de carreras con una transición pendiente
+     */
+    public int getPendientes() {
+        return programadas.size();
+    }
+
+    private void ejecutar() {
+        long proximaResincronizacion = 0;
+        while (activo) {
+            try {
+                long ahora = reloj.millis();
+                if (ahora >= proximaResincronizacion) {
+                    resincronizar();
+                    proximaResincronizacion = ahora + intervaloResincronizacion.toMillis();
+                }
+
+                Transicion primera = cola.poll(Math.max(1, proximaResincronizacion - reloj.millis()),
+                        TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                List<Transicion> vencidas = new ArrayList<>();
+                vencidas.add(primera);
+                cola.drainTo(vencidas);
+                aplicar(vencidas);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error de base de datos en el planificador de carreras", e);
+                proximaResincronizacion = reloj.millis() + ESPERA_REINTENTO.toMillis();
+            } catch (RuntimeException e) {
+                // El único hilo del planificador no puede morir: se resincroniza desde la base de datos
+                LOGGER.log(Level.SEVERE, "Error inesperado en el planificador de carreras", e);
+                proximaResincronizacion = reloj.millis() + ESPERA_REINTENTO.toMillis();
+            }
+        }
+    }
+
+    /**
+     * Recarga las carreras planificables y ajusta las transiciones programadas a su estado actual.
+     */
+    private void resincronizar() throws SQLException {
+        LocalDate hasta = LocalDate.now(reloj).plusDays(1);
+        List<Carrera> carreras = carreraDAO.getByEstadosHasta(ESTADOS_PLANIFICABLES, hasta);
+
+        Set<String> vigentes = new HashSet<>();
+        for (Carrera carrera : carreras) {
+            vigentes.add(carrera.getIdCarrera());
+            try {
+                programar(carrera);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "No se pudo programar la carrera " + carrera.getIdCarrera(), e);
+            }
+        }
+        // Canceladas, suspendidas o cambiadas fuera del planificador: sus entradas en la cola se descartan al vencer
+        programadas.keySet().retainAll(vigentes);
+    }
+
+    /**
+     * Aplica un conjunto de transiciones vencidas, un lote por tipo de transición.
+     */
+    private void aplicar(List<Transicion> vencidas) throws SQLException {
+        Map<String, List<Transicion>> porTipo = new LinkedHashMap<>();
+        for (Transicion transicion : vencidas) {
+            // Solo la última transición programada de cada carrera es válida
+            if (programadas.get(transicion.idCarrera) == transicion) {
+                porTipo.computeIfAbsent(transicion.desde + ">" + transicion.hacia, t -> new ArrayList<>())
+                        .add(transicion);
+            }
+        }
+
+        for (List<Transicion> lote : porTipo.values()) {
+            List<String> ids = new ArrayList<>(lote.size());
+            for (Transicion transicion : lote) {
+                ids.add(transicion.idCarrera);
+            }
+            boolean[] cambiadas;
+            try {
+                cambiadas = carreraDAO.cambiarEstado(ids, lote.get(0).desde, lote.get(0).hacia);
+            } catch (SQLException e) {
+                // Se reintentan en la siguiente resincronización, que las encuentra atrasadas
+                for (Transicion transicion : lote) {
+                    programadas.remove(transicion.idCarrera, transicion);
+                }
+                throw e;
+            }
+
+            for (int i = 0; i < lote.size(); i++) {
+                Transicion transicion = lote.get(i);
+                if (!cambiadas[i]) {
+                    programadas.remove(transicion.idCarrera, transicion);
+                    continue;
+                }
+                Transicion siguiente = siguienteTransicion(transicion.idCarrera, transicion.hacia, transicion.salida);
+                if (siguiente != null) {
+                    encolar(siguiente);
+                } else {
+                    programadas.remove(transicion.idCarrera, transicion);
+                }
+                notificar(transicion);
+            }
+        }
+    }
+
+    private void notificar(Transicion transicion) {
+        for (Consumer<Transicion> oyente : oyentes) {
+            try {
+                oyente.accept(transicion);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error en un oyente del planificador con la carrera "
+                        + transicion.idCarrera, e);
+            }
+        }
+    }
+
+    private void encolar(Transicion transicion) {
+        programadas.put(transicion.idCarrera, transicion);
+        cola.offer(transicion);
+    }
+
+    private Transicion siguienteTransicion(String idCarrera, EstadoCarrera estado, Instant salida) {
+        if (estado == null || salida == null) {
+            return null;
+        }
+        switch (estado) {
+            case INSCRIPCIONES_ABIERTAS:
+                return new Transicion(idCarrera, estado, EstadoCarrera.APUESTAS_ABIERTAS,
+                        salida.minus(aperturaApuestas), salida);
+            case APUESTAS_ABIERTAS:
+                return new Transicion(idCarrera, estado, EstadoCarrera.APUESTAS_CERRADAS,
+                        salida.minus(cierreApuestas), salida);
+            case APUESTAS_CERRADAS:
+                return new Transicion(idCarrera, estado, EstadoCarrera.EN_CURSO, salida, salida);
+            default:
+                return null;
+        }
+    }
+
+    private Instant salidaDe(LocalDate fecha, LocalTime hora) {
+        if (fecha == null || hora == null) {
+            return null;
+        }
+        return LocalDateTime.of(fecha, hora).atZone(reloj.getZone()).toInstant();
+    }
+
+    /**
+     * Transición de estado programada para una carrera.
+     */
+    public final class Transicion implements Delayed {
+        private final String idCarrera;
+        private final EstadoCarrera desde;
+        private final EstadoCarrera hacia;
+        private final Instant instante;
+        private final Instant salida;
+
+        private Transicion(String idCarrera, EstadoCarrera desde, EstadoCarrera hacia, Instant instante, Instant salida) {
+            this.idCarrera = idCarrera;
+            this.desde = desde;
+            this.hacia = hacia;
+            this.instante = instante;
+            this.salida = salida;
+        }
+
+        private boolean equivaleA(Transicion otra) {
+            return otra != null && desde == otra.desde && hacia == otra.hacia && instante.equals(otra.instante);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unidad) {
+            return unidad.convert(instante.toEpochMilli() - reloj.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otra) {
+            return instante.compareTo(((Transicion) otra).instante);
+        }
+
+        public String getIdCarrera() { return idCarrera; }
+        public EstadoCarrera getDesde() { return desde; }
+        public EstadoCarrera getHacia() { return hacia; }
+        public Instant getInstante() { return instante; }
+
+        @Override
+        public String toString() {
+            return String.format("Carrera %s: %s -> %s a las %s", idCarrera, desde, hacia, instante);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.analitica.HistorialColumnar;
+import mx.uv.feaa.analitica.MotorRating;
+import mx.uv.feaa.model.dao.HistorialCarreraDAO;
+import mx.uv.feaa.model.dao.RatingDAO;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Rating;
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que mantiene y persiste los {@link Rating} de caballos y jinetes.
+ * <p>
+ * Carga los ratings guardados en un {@link MotorRating}, los actualiza con cada resultado
+ * registrado (ver {@link ResultadoService}) y permite reproducir el historial completo para
+ * recalcularlos desde cero. Las cuotas de una carrera pueden obtenerse a partir de los ratings
+ * en lugar de la escala de porcentajes de victoria.
+ * </p>
+ * <p>
+ * El motor publicado no se modifica nunca: cada actualización trabaja sobre una copia que
+ * reemplaza al motor solo después de persistirse, así que un fallo al guardar no deja en memoria
+ * ratings que la base no tiene. Las actualizaciones se serializan para que ninguna publique una
+ * copia que no incluya a la anterior.
+ * </p>
+ */
+public class RatingService {
+    private static final int TAMANO_LOTE = 1000;
+
+    private final ProveedorConexiones conexiones;
+    private final RatingDAO ratingDAO;
+    private volatile MotorRating motor;
+
+    /**
+     * @throws SQLException si ocurre algún error al cargar los ratings guardados
+     */
+    public RatingService() throws SQLException {
+        this(ConexionBD.proveedor());
+    }
+
+    /**
+     * @param conexiones el origen de las conexiones de los ratings y del historial
+     * @throws SQLException si ocurre algún error al cargar los ratings guardados
+     */
+    public RatingService(ProveedorConexiones conexiones) throws SQLException {
+        this.conexiones = conexiones;
+        this.ratingDAO = new RatingDAO(conexiones);
+        this.motor = new MotorRating(ratingDAO.getAll());
+    }
+
+    /**
+     * Actualiza y persiste los ratings de los caballos y jinetes de una carrera finalizada.
+     *
+     * @param historiales los registros de historial generados por el resultado
+     * @throws SQLException si ocurre algún error al guardar los ratings
+     */
+    public synchronized void registrar(List<HistorialCarrera> historiales) throws SQLException {
+        MotorRating actualizado = motor.copia();
+        ratingDAO.upsertAll(actualizado.registrar(historiales), TAMANO_LOTE);
+        motor = actualizado;
+    }
+
+    /**
+     * Recalcula todos los ratings reproduciendo el historial completo y reemplaza los guardados;
+     * los caballos y jinetes que ya no figuran en el historial se quedan sin rating.
+     *
+     * @return el número de ratings escritos
+     * @throws SQLException si ocurre algún error al leer el historial o escribir los ratings
+     */
+    public synchronized int reproducirHistorial() throws SQLException {
+        MotorRating reproducido = MotorRating.reproducir(HistorialColumnar.cargar(new HistorialCarreraDAO(conexiones)));
+        List<Rating> ratings = reproducido.todos();
+        ratingDAO.reemplazarTodos(ratings, TAMANO_LOTE);
+        motor = reproducido;
+        return ratings.size();
+    }
+
+    /**
+     * Calcula las cuotas de una carrera a partir de los ratings de sus participantes.
+     *
+     * @param carrera la carrera con sus participantes cargados
+     * @return las cuotas por nombre de caballo
+     */
+    public Map<String, Double> obtenerCuotas(Carrera carrera) {
+        MotorRating actual = motor;
+        return carrera.obtenerCuotasActuales(actual::rating);
+    }
+
+    public MotorRating getMotor() { return motor; }
+}
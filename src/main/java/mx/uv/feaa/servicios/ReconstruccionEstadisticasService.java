@@ -0,0 +1,99 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.analitica.DiccionarioIds;
+import mx.uv.feaa.analitica.HistorialColumnar;
+import mx.uv.feaa.model.dao.EstadisticasRendimientoDAO;
+import mx.uv.feaa.model.dao.HistorialCarreraDAO;
+import mx.uv.feaa.model.entidades.EstadisticasRendimiento;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.util.GeneradorIds;
+
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconstruye todas las {@link EstadisticasRendimiento} a partir de {@link HistorialCarrera}.
+ * <p>
+ * Es el mecanismo de reparación cuando las estadísticas incrementales se desfasan del historial:
+ * </p>
+ * <ol>
+ *   <li>Recorre el historial una sola vez en modo streaming y lo carga en un
+ *       {@link HistorialColumnar}, con identificadores codificados y columnas primitivas.</li>
+ *   <li>Agrega por caballo y por jinete en paralelo; cada partición de filas usa acumuladores
+ *       primitivos propios que al final se combinan, sin sincronización durante el recorrido.</li>
+ *   <li>Escribe todas las estadísticas de vuelta mediante upserts en lote.</li>
+ * </ol>
+ * Las entidades que tienen estadísticas guardadas pero ninguna fila de historial quedan en cero.
+ */
+public class ReconstruccionEstadisticasService {
+    private static final int TAMANO_LOTE = 1000;
+
+    private final HistorialCarreraDAO historialDAO;
+    private final EstadisticasRendimientoDAO estadisticasDAO;
+
+    public ReconstruccionEstadisticasService() {
+        this.historialDAO = new HistorialCarreraDAO();
+        this.estadisticasDAO = new EstadisticasRendimientoDAO();
+    }
+
+    /**
+     * Ejecuta la reconstrucción completa.
+     *
+     * @return el número de registros de estadísticas escritos
+     * @throws SQLException si ocurre algún error al leer el historial o escribir las estadísticas
+     */
+    public int reconstruir() throws SQLException {
+        HistorialColumnar historial = HistorialColumnar.cargar(historialDAO);
+
+        HistorialColumnar.Agregado caballos = historial.agregar(HistorialColumnar.Dimension.CABALLO, null, null, null);
+        HistorialColumnar.Agregado jinetes = historial.agregar(HistorialColumnar.Dimension.JINETE, null, null, null);
+
+        List<EstadisticasRendimiento> estadisticas = new ArrayList<>(caballos.entidades() + jinetes.entidades());
+        Map<String, String> existentes = cargarIdentificadoresExistentes();
+        convertir(historial.getCaballos(), caballos, "CABALLO", existentes, estadisticas);
+        convertir(historial.getJinetes(), jinetes, "JINETE", existentes, estadisticas);
+
+        // Lo que sigue en el mapa tiene estadísticas guardadas pero ningún registro de historial
+        for (Map.Entry<String, String> restante : existentes.entrySet()) {
+            String[] clave = restante.getKey().split(":", 2);
+            estadisticas.add(new EstadisticasRendimiento(restante.getValue(), clave[1], clave[0]));
+        }
+
+        estadisticasDAO.upsertAll(estadisticas, TAMANO_LOTE);
+        return estadisticas.size();
+    }
+
+    private Map<String, String> cargarIdentificadoresExistentes() throws SQLException {
+        Map<String, String> existentes = new HashMap<>();
+        for (EstadisticasRendimiento estadistica : estadisticasDAO.getAll()) {
+            existentes.put(estadistica.getTipoEntidad() + ":" + estadistica.getIdEntidad(),
+                    estadistica.getIdEstadistica());
+        }
+        return existentes;
+    }
+
+    private void convertir(DiccionarioIds diccionario, HistorialColumnar.Agregado totales, String tipoEntidad,
+                           Map<String, String> existentes, List<EstadisticasRendimiento> destino) {
+        for (int i = 0; i < diccionario.tamano(); i++) {
+            String idEntidad = diccionario.valor(i);
+            String idEstadistica = existentes.remove(tipoEntidad + ":" + idEntidad);
+
+            EstadisticasRendimiento estadistica = new EstadisticasRendimiento(
+                    totales.carreras(i), totales.victorias(i), totales.colocaciones(i));
+            estadistica.setIdEstadistica(idEstadistica != null ? idEstadistica : GeneradorIds.predeterminado().siguiente());
+            estadistica.setIdEntidad(idEntidad);
+            estadistica.setTipoEntidad(tipoEntidad);
+            estadistica.setCarrerasConTiempo(totales.conTiempo(i));
+            estadistica.setSumaTiempoMs(totales.sumaTiempoMs(i));
+            int promedioMs = totales.promedioTiempoMs(i);
+            if (promedioMs != HistorialColumnar.SIN_TIEMPO) {
+                estadistica.setPromedioTiempo(LocalTime.ofNanoOfDay(promedioMs * 1_000_000L));
+            }
+            destino.add(estadistica);
+        }
+    }
+}
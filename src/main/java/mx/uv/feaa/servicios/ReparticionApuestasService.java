@@ -0,0 +1,231 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.carga.TablaCarga;
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.FragmentosConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Mueve las apuestas de cada carrera al fragmento que le corresponde según el anillo actual de
+ * {@link FragmentosConexiones}, tras agregar, quitar o renombrar fragmentos en la configuración.
+ * <p>
+ * Cada carrera se mueve por separado: primero se copian al destino sus apuestas y selecciones,
+ * en una transacción, y después se borran del origen, en otra. Las apuestas que el destino ya
+ * tiene (las nuevas, que el anillo ya enruta allí, o las de un movimiento interrumpido) no se
+ * copian otra vez, así que la repartición puede repetirse hasta que no quede nada fuera de lugar.
+ * </p>
+ * <p>
+ * Durante la copia y el borrado se mantiene un bloqueo exclusivo sobre la fila de la carrera en la
+ * base principal. {@code ApuestaDAO} toma ese mismo bloqueo, compartido, para guardar apuestas y
+ * para modificar o borrar las existentes, así que esas escrituras esperan a que termine el
+ * movimiento de su carrera y ninguna se aplica a una copia que está por borrarse. Las lecturas no
+ * esperan: consultan el origen antes que el dueño y descartan los duplicados.
+ * </p>
+ */
+public class ReparticionApuestasService {
+    private static final Logger LOGGER = Logger.getLogger(ReparticionApuestasService.class.getName());
+    private static final int TAMANO_LOTE = 1000;
+
+    private static final String CARRERAS = "SELECT carrera_id, COUNT(*) FROM Apuesta GROUP BY carrera_id";
+    private static final String APUESTAS = "SELECT " + TablaCarga.APUESTA.listaColumnas()
+            + " FROM Apuesta WHERE carrera_id = ?";
+    private static final String SELECCIONES = "SELECT " + columnas(TablaCarga.APUESTA_SELECCION, "s")
+            + " FROM ApuestaSeleccion s JOIN Apuesta a ON a.idApuesta = s.apuesta_id WHERE a.carrera_id = ?";
+    private static final String EXISTENTES = "SELECT idApuesta FROM Apuesta WHERE carrera_id = ?";
+    private static final String BORRAR_SELECCIONES = "DELETE FROM ApuestaSeleccion WHERE apuesta_id IN "
+            + "(SELECT idApuesta FROM Apuesta WHERE carrera_id = ?)";
+    private static final String BORRAR_APUESTAS = "DELETE FROM Apuesta WHERE carrera_id = ?";
+    private static final String BLOQUEAR_CARRERA = "SELECT idCarrera FROM Carrera WHERE idCarrera = ? FOR UPDATE";
+
+    /**
+     * Carrera cuyas apuestas están (o estaban) en un fragmento que no es el suyo.
+     *
+     * @param apuestas las apuestas en el origen al planificar, o las copiadas al mover
+     */
+    public record Movimiento(String carreraId, String origen, String destino, int apuestas) {
+    }
+
+    private final FragmentosConexiones fragmentos;
+    private final ProveedorConexiones carreras;
+
+    public ReparticionApuestasService() {
+        this(ConexionBD.fragmentosApuestas(), ConexionBD.proveedor());
+    }
+
+    public ReparticionApuestasService(FragmentosConexiones fragmentos) {
+        this(fragmentos, ConexionBD.proveedor());
+    }
+
+    /**
+     * @param fragmentos los fragmentos de apuestas, por {@code carrera_id}
+     * @param carreras la base con la tabla {@code Carrera}, donde se bloquea cada carrera al moverla
+     */
+    public ReparticionApuestasService(FragmentosConexiones fragmentos, ProveedorConexiones carreras) {
+        this.fragmentos = fragmentos;
+        this.carreras = carreras;
+    }
+
+    /**
+     * @return las carreras fuera de lugar, sin mover nada
+     * @throws SQLException si falla la consulta en algún fragmento
+     */
+    public List<Movimiento> planificar() throws SQLException {
+        List<Movimiento> plan = new ArrayList<>();
+        for (Map.Entry<String, ProveedorConexiones> fragmento : fragmentos.getFragmentos().entrySet()) {
+            try (Connection conn = fragmento.getValue().getConnection("ReparticionApuestas.planificar");
+                 PreparedStatement stmt = conn.prepareStatement(CARRERAS);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String carrera = rs.getString(1);
+                    String destino = fragmentos.fragmentoDe(carrera);
+                    if (!destino.equals(fragmento.getKey())) {
+                        plan.add(new Movimiento(carrera, fragmento.getKey(), destino, rs.getInt(2)));
+                    }
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Mueve todas las carreras fuera de lugar.
+     *
+     * @return lo que se movió, con las apuestas copiadas en cada caso
+     * @throws SQLException si falla algún movimiento; los anteriores quedan hechos
+     */
+    public List<Movimiento> reparticionar() throws SQLException {
+        List<Movimiento> hechos = new ArrayList<>();
+        for (Movimiento pendiente : planificar()) {
+            Movimiento hecho = mover(pendiente.carreraId(), pendiente.origen(), pendiente.destino());
+            LOGGER.info("Carrera " + hecho.carreraId() + ": " + hecho.apuestas() + " apuestas de "
+                    + hecho.origen() + " a " + hecho.destino());
+            hechos.add(hecho);
+        }
+        return hechos;
+    }
+
+    /**
+     * Copia las apuestas de la carrera del fragmento {@code origen} al {@code destino} y las borra
+     * del origen, con la carrera bloqueada para escritura mientras tanto.
+     */
+    public Movimiento mover(String carreraId, String origen, String destino) throws SQLException {
+        ProveedorConexiones desde = fragmento(origen);
+        ProveedorConexiones hacia = fragmento(destino);
+        int[] copiadas = new int[1];
+        carreras.ejecutarTransaccion("ReparticionApuestas.mover", bloqueo -> {
+            try (PreparedStatement stmt = bloqueo.prepareStatement(BLOQUEAR_CARRERA)) {
+                stmt.setString(1, carreraId);
+                stmt.executeQuery().close();
+            }
+            copiadas[0] = copiarYBorrar(carreraId, desde, hacia);
+        });
+        return new Movimiento(carreraId, origen, destino, copiadas[0]);
+    }
+
+    private static int copiarYBorrar(String carreraId, ProveedorConexiones desde, ProveedorConexiones hacia)
+            throws SQLException {
+        List<Object[]> apuestas = leer(desde, APUESTAS, carreraId, TablaCarga.APUESTA);
+        List<Object[]> selecciones = leer(desde, SELECCIONES, carreraId, TablaCarga.APUESTA_SELECCION);
+        int[] copiadas = new int[1];
+        hacia.ejecutarTransaccion("ReparticionApuestas.copiar", conn -> {
+            Set<String> existentes = new HashSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement(EXISTENTES)) {
+                stmt.setString(1, carreraId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        existentes.add(clave(rs.getObject(1)));
+                    }
+                }
+            }
+            // Columna 0 de Apuesta: idApuesta; columna 1 de ApuestaSeleccion: apuesta_id
+            copiadas[0] = insertar(conn, TablaCarga.APUESTA, apuestas, 0, existentes);
+            insertar(conn, TablaCarga.APUESTA_SELECCION, selecciones, 1, existentes);
+        });
+        desde.ejecutarTransaccion("ReparticionApuestas.borrar", conn -> {
+            for (String sql : new String[]{BORRAR_SELECCIONES, BORRAR_APUESTAS}) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, carreraId);
+                    stmt.executeUpdate();
+                }
+            }
+        });
+        return copiadas[0];
+    }
+
+    private ProveedorConexiones fragmento(String nombre) {
+        ProveedorConexiones fragmento = fragmentos.getFragmentos().get(nombre);
+        if (fragmento == null) {
+            throw new IllegalArgumentException("No existe el fragmento " + nombre);
+        }
+        return fragmento;
+    }
+
+    private static List<Object[]> leer(ProveedorConexiones fragmento, String sql, String carreraId,
+                                       TablaCarga tabla) throws SQLException {
+        List<Object[]> filas = new ArrayList<>();
+        try (Connection conn = fragmento.getConnection("ReparticionApuestas.leer");
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, carreraId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Object[] fila = new Object[tabla.getNumeroColumnas()];
+                    for (int i = 0; i < fila.length; i++) {
+                        fila[i] = rs.getObject(i + 1);
+                    }
+                    filas.add(fila);
+                }
+            }
+        }
+        return filas;
+    }
+
+    private static int insertar(Connection conn, TablaCarga tabla, List<Object[]> filas, int columnaApuesta,
+                                Set<String> omitidas) throws SQLException {
+        int insertadas = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(tabla.insert())) {
+            int pendientes = 0;
+            for (Object[] fila : filas) {
+                if (omitidas.contains(clave(fila[columnaApuesta]))) {
+                    continue;
+                }
+                for (int i = 0; i < fila.length; i++) {
+                    stmt.setObject(i + 1, fila[i]);
+                }
+                stmt.addBatch();
+                insertadas++;
+                if (++pendientes == TAMANO_LOTE) {
+                    stmt.executeBatch();
+                    pendientes = 0;
+                }
+            }
+            if (pendientes > 0) {
+                stmt.executeBatch();
+            }
+        }
+        return insertadas;
+    }
+
+    /**
+     * Identificador de apuesta comparable entre filas: con claves {@code BINARY(16)} el driver
+     * devuelve un {@code byte[]}, que no se compara por contenido.
+     */
+    private static String clave(Object valor) {
+        return valor instanceof byte[] bytes ? HexFormat.of().formatHex(bytes) : (String) valor;
+    }
+
+    private static String columnas(TablaCarga tabla, String alias) {
+        return alias + "." + String.join(", " + alias + ".", tabla.getColumnas());
+    }
+}
@@ -0,0 +1,142 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.metricas.EventoRegistroResultado;
+import mx.uv.feaa.model.dao.EstadisticasRendimientoDAO;
+import mx.uv.feaa.model.dao.HistorialCarreraDAO;
+import mx.uv.feaa.model.dao.ResultadoDAO;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.EstadisticasRendimiento;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Resultado;
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.ProveedorConexiones;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Servicio que registra el resultado oficial de una carrera y propaga sus efectos:
+ * persiste el {@link Resultado}, agrega el {@link HistorialCarrera} de cada participante
+ * y actualiza las {@link EstadisticasRendimiento} de caballos y jinetes de forma incremental,
+ * así como sus ratings cuando se construye con un {@link RatingService}.
+ * <p>
+ * Las estadísticas nunca se recalculan desde el historial completo en este camino; cada
+ * participante aporta un incremento O(1) que se aplica en memoria (en {@link Carrera#registrarResultado})
+ * y en la base de datos mediante un único lote de actualizaciones.
+ * </p>
+ *
+ * <p>
+ * El resultado, el historial y las estadísticas se escriben en una sola transacción: si alguna
+ * escritura falla no queda un resultado sin historial ni estadísticas a medio sumar. Los ratings
+ * se actualizan después de confirmarla; se derivan del historial y pueden reproducirse con
+ * {@link RatingService#reproducirHistorial()}.
+ * </p>
+ *
+ * <p>
+ * Los componentes que mantienen vistas derivadas en memoria (por ejemplo, las clasificaciones)
+ * se suscriben con {@link #agregarOyente(Consumer)} y reciben los registros de historial
+ * una vez que quedaron persistidos.
+ * </p>
+ *
+ * @see EstadisticasRendimientoDAO#aplicarIncrementos(List)
+ */
+public class ResultadoService {
+    private final ProveedorConexiones conexiones;
+    private final ResultadoDAO resultadoDAO;
+    private final HistorialCarreraDAO historialDAO;
+    private final EstadisticasRendimientoDAO estadisticasDAO;
+    private final RatingService ratingService;
+    private final List<Consumer<List<HistorialCarrera>>> oyentes = new CopyOnWriteArrayList<>();
+
+    public ResultadoService() {
+        this(null);
+    }
+
+    /**
+     * @param ratingService servicio de ratings que se actualiza con cada resultado registrado,
+     *                      o {@code null} para no mantener ratings
+     */
+    public ResultadoService(RatingService ratingService) {
+        this(ConexionBD.proveedor(), ratingService);
+    }
+
+    /**
+     * @param conexiones el origen de las conexiones de los DAOs y de la transacción del resultado
+     * @param ratingService servicio de ratings que se actualiza con cada resultado registrado,
+     *                      o {@code null} para no mantener ratings
+     */
+    public ResultadoService(ProveedorConexiones conexiones, RatingService ratingService) {
+        this.conexiones = conexiones;
+        this.resultadoDAO = new ResultadoDAO(conexiones);
+        this.historialDAO = new HistorialCarreraDAO(conexiones);
+        this.estadisticasDAO = new EstadisticasRendimientoDAO(conexiones);
+        this.ratingService = ratingService;
+    }
+
+    /**
+     * Registra el resultado de una carrera en curso o con apuestas cerradas.
+     *
+     * @param carrera la {@link Carrera} con sus participantes cargados
+     * @param resultado el {@link Resultado} oficial
+     * @return los registros de {@link HistorialCarrera} generados, o una lista vacía si la
+     *         carrera no estaba en un estado que permita registrar resultados
+     * @throws SQLException si ocurre algún error al persistir el resultado o las estadísticas
+     */
+    public List<HistorialCarrera> registrarResultado(Carrera carrera, Resultado resultado) throws SQLException {
+        List<HistorialCarrera> historiales = carrera.registrarResultado(resultado);
+        if (historiales.isEmpty()) {
+            return historiales;
+        }
+
+        EventoRegistroResultado evento = new EventoRegistroResultado();
+        evento.begin();
+        List<EstadisticasRendimiento> incrementos = crearIncrementos(historiales);
+        conexiones.ejecutarTransaccion("ResultadoService.registrarResultado", conn -> {
+            resultadoDAO.save(conn, resultado);
+            historialDAO.saveAll(conn, historiales);
+            estadisticasDAO.aplicarIncrementos(conn, incrementos);
+        });
+        if (ratingService != null) {
+            ratingService.registrar(historiales);
+        }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.idCarrera = carrera.getIdCarrera();
+            evento.participantes = historiales.size();
+            evento.commit();
+        }
+        for (Consumer<List<HistorialCarrera>> oyente : oyentes) {
+            oyente.accept(historiales);
+        }
+        return historiales;
+    }
+
+    /**
+     * Suscribe un oyente que se invoca con los registros de historial de cada resultado registrado.
+     *
+     * @param oyente el oyente, por ejemplo {@code indiceClasificaciones::registrarTodos}
+     */
+    public void agregarOyente(Consumer<List<HistorialCarrera>> oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Convierte cada registro de historial en un incremento para el caballo y otro para el jinete.
+     *
+     * @param historiales los registros de la carrera recién finalizada
+     * @return la lista de incrementos a aplicar
+     */
+    private List<EstadisticasRendimiento> crearIncrementos(List<HistorialCarrera> historiales) {
+        List<EstadisticasRendimiento> incrementos = new ArrayList<>(historiales.size() * 2);
+        for (HistorialCarrera historial : historiales) {
+            incrementos.add(EstadisticasRendimiento.deCarrera(historial.getIdCaballo(), "CABALLO",
+                    historial.getPosicion(), historial.getTiempo()));
+            incrementos.add(EstadisticasRendimiento.deCarrera(historial.getIdJinete(), "JINETE",
+                    historial.getPosicion(), historial.getTiempo()));
+        }
+        return incrementos;
+    }
+}
@@ -0,0 +1,831 @@
+package mx.uv.feaa.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Almacén de pares clave → bytes en un directorio, sin base de datos: un diario al que solo se
+ * agregan registros y una instantánea compactada que se lee mapeada en memoria.
+ * <p>
+ * Cada escritura es un registro al final de {@code diario.log}, con su longitud y su CRC-32C, y no
+ * regresa hasta que el diario está en disco. Los {@code force} se agrupan: mientras un hilo espera
+ * el suyo, los demás siguen agregando registros y el siguiente {@code force} cubre a todos, así que
+ * con muchos escritores hay muchas menos sincronizaciones que escrituras.
+ * </p>
+ * <p>
+ * Cuando el diario pasa del umbral, el estado completo se escribe en
+ * {@code instantanea-<generación>.dat} (archivo temporal, {@code force} y renombrado atómico), se
+ * vacía el diario y la nueva instantánea se mapea con {@link FileChannel#map}; las lecturas copian
+ * el valor directamente del mapeo. Al abrir se toma la instantánea válida más reciente y se
+ * reproduce el diario encima; un registro incompleto o con CRC incorrecto al final (una escritura
+ * interrumpida) se descarta junto con lo que le sigue. Reproducir el diario sobre una instantánea
+ * que ya lo incluye no cambia nada, por lo que una caída entre el renombrado y el vaciado es inocua.
+ * </p>
+ * <p>
+ * Las claves viven en memoria; los valores de la instantánea se quedan en el mapeo y solo los
+ * escritos desde la última compactación ocupan el heap. La instantánea no puede pasar de 2 GB.
+ * </p>
+ * <p>
+ * Como la instantánea no cambia después de escrita y el diario solo crece hasta la compactación,
+ * {@link #capturar()} fija un estado consistente sin copiar nada ni detener a los escritores.
+ * </p>
+ * <p>
+ * Un solo proceso puede tener el almacén abierto para escritura: {@link #abrir} toma un bloqueo
+ * exclusivo sobre el archivo {@value #BLOQUEO} del directorio y falla de inmediato si otro proceso
+ * lo tiene, en lugar de truncar como dañado el final del diario que ese otro proceso está
+ * escribiendo. {@link #abrirSoloLectura} toma el mismo bloqueo en modo compartido: varios lectores
+ * pueden convivir entre sí, pero no con un escritor. Un almacén de solo lectura no compacta, no
+ * trunca el diario ni borra instantáneas viejas, y rechaza las escrituras.
+ * </p>
+ */
+public final class AlmacenDiario implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AlmacenDiario.class.getName());
+
+    public static final long UMBRAL_COMPACTACION_DEFECTO = 8L << 20;
+
+    private static final String DIARIO = "diario.log";
+    static final String BLOQUEO = "bloqueo";
+    private static final String PREFIJO_INSTANTANEA = "instantanea-";
+    private static final String EXTENSION_INSTANTANEA = ".dat";
+    private static final int MAGIA = 0x48495053; // "HIPS"
+    private static final int VERSION = 1;
+    private static final byte PONER = 1;
+    private static final byte BORRAR = 2;
+    // Encabezado de registro del diario: longitud del cuerpo y CRC
+    private static final int ENCABEZADO_REGISTRO = 8;
+    private static final int REGISTRO_MAXIMO = 64 << 20;
+
+    private final Path directorio;
+    private final FileChannel diario;
+    // Mantiene el bloqueo entre procesos hasta close()
+    private final FileChannel bloqueo;
+    private final boolean soloLectura;
+    private final long umbralCompactacion;
+
+    // Serializa escrituras y compactaciones; candado protege el índice y la instantánea frente a lecturas
+    private final ReentrantLock escritor = new ReentrantLock();
+    private final Condition sinCapturas = escritor.newCondition();
+    // Capturas abiertas; mientras haya alguna no se compacta (protegido por escritor)
+    private int capturas;
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    // Clave → Integer (posición del valor en la instantánea) o byte[] (escrito desde la compactación)
+    private Map<String, Object> indice = new HashMap<>();
+    private MappedByteBuffer instantanea;
+    private long generacion;
+    private long bytesDiario;
+
+    // Sincronización en grupo: bytes agregados desde la apertura y bytes ya en disco
+    private final ReentrantLock grupo = new ReentrantLock();
+    private final Condition sincronizado = grupo.newCondition();
+    private volatile long escritos;
+    private long enDisco;
+    private boolean sincronizando;
+
+    private final LongAdder escrituras = new LongAdder();
+    private final LongAdder sincronizaciones = new LongAdder();
+    private final LongAdder compactaciones = new LongAdder();
+
+    private AlmacenDiario(Path directorio, FileChannel diario, FileChannel bloqueo, boolean soloLectura,
+                          long umbralCompactacion) {
+        this.directorio = directorio;
+        this.diario = diario;
+        this.bloqueo = bloqueo;
+        this.soloLectura = soloLectura;
+        this.umbralCompactacion = umbralCompactacion;
+    }
+
+    public static AlmacenDiario abrir(Path directorio) throws IOException {
+        return abrir(directorio, UMBRAL_COMPACTACION_DEFECTO);
+    }
+
+    /**
+     * Abre (o crea) el almacén: carga la última instantánea válida y reproduce el diario.
+     *
+     * @param umbralCompactacion bytes de diario a partir de los que una escritura compacta
+     * @throws IOException si otro proceso tiene abierto el almacén, o si falla la lectura
+     */
+    public static AlmacenDiario abrir(Path directorio, long umbralCompactacion) throws IOException {
+        Files.createDirectories(directorio);
+        return abrir(directorio, umbralCompactacion, false);
+    }
+
+    /**
+     * Abre un almacén existente solo para leerlo o capturarlo, por ejemplo para un respaldo. Un
+     * registro incompleto al final del diario se ignora sin truncarlo, y {@link #close()} no compacta.
+     *
+     * @throws IOException si otro proceso lo tiene abierto para escritura, o si el directorio no existe
+     */
+    public static AlmacenDiario abrirSoloLectura(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            throw new NoSuchFileException(directorio.toString());
+        }
+        return abrir(directorio, Long.MAX_VALUE, true);
+    }
+
+    private static AlmacenDiario abrir(Path directorio, long umbralCompactacion, boolean soloLectura)
+            throws IOException {
+        FileChannel bloqueo = bloquear(directorio, soloLectura);
+        FileChannel diario = null;
+        try {
+            diario = soloLectura
+                    ? FileChannel.open(directorio.resolve(DIARIO), StandardOpenOption.READ)
+                    : FileChannel.open(directorio.resolve(DIARIO),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            AlmacenDiario almacen = new AlmacenDiario(directorio, diario, bloqueo, soloLectura, umbralCompactacion);
+            almacen.cargarInstantanea();
+            almacen.reproducirDiario();
+            return almacen;
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (diario != null) {
+                    diario.close();
+                }
+            } finally {
+                bloqueo.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Toma el bloqueo entre procesos del directorio, exclusivo o compartido. Cerrar el canal lo
+     * suelta. Dentro de un mismo proceso el almacén solo debe abrirse una vez.
+     *
+     * @throws IOException si el bloqueo lo tiene otro proceso, o este mismo con otra apertura
+     */
+    static FileChannel bloquear(Path directorio, boolean compartido) throws IOException {
+        FileChannel canal = FileChannel.open(directorio.resolve(BLOQUEO),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock cerrojo;
+        try {
+            cerrojo = canal.tryLock(0, Long.MAX_VALUE, compartido);
+        } catch (OverlappingFileLockException e) {
+            canal.close();
+            throw new IOException("El almacén " + directorio + " ya está abierto en este proceso", e);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        if (cerrojo == null) {
+            canal.close();
+            throw new IOException("El almacén " + directorio + " está abierto "
+                    + (compartido ? "para escritura " : "") + "en otro proceso");
+        }
+        return canal;
+    }
+
+    /**
+     * @return una copia del valor, o {@code null} si la clave no existe
+     */
+    public byte[] leer(String clave) {
+        candado.readLock().lock();
+        try {
+            return valor(indice.get(clave));
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public boolean contiene(String clave) {
+        candado.readLock().lock();
+        try {
+            return indice.containsKey(clave);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return copias de todos los valores, sin orden definido
+     */
+    public List<byte[]> valores() {
+        candado.readLock().lock();
+        try {
+            List<byte[]> valores = new ArrayList<>(indice.size());
+            for (Object ubicacion : indice.values()) {
+                valores.add(valor(ubicacion));
+            }
+            return valores;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        candado.readLock().lock();
+        try {
+            return indice.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe el valor, exista o no la clave.
+     */
+    public void poner(String clave, byte[] valor) throws IOException {
+        escribir(PONER, clave, valor, null);
+    }
+
+    /**
+     * @return {@code false}, sin escribir, si la clave ya existe
+     */
+    public boolean insertar(String clave, byte[] valor) throws IOException {
+        return escribir(PONER, clave, valor, false);
+    }
+
+    /**
+     * @return {@code false}, sin escribir, si la clave no existe
+     */
+    public boolean reemplazar(String clave, byte[] valor) throws IOException {
+        return escribir(PONER, clave, valor, true);
+    }
+
+    /**
+     * @return {@code false} si la clave no existía
+     */
+    public boolean borrar(String clave) throws IOException {
+        return escribir(BORRAR, clave, new byte[0], true);
+    }
+
+    /**
+     * @param debeExistir condición sobre la clave para escribir; {@code null}, sin condición
+     */
+    private boolean escribir(byte operacion, String clave, byte[] valor, Boolean debeExistir) throws IOException {
+        verificarEscritura();
+        ByteBuffer registro = registro(operacion, clave, valor);
+        long hasta;
+        boolean compactar;
+        escritor.lock();
+        try {
+            if (debeExistir != null && indice.containsKey(clave) != debeExistir) {
+                return false;
+            }
+            int longitud = registro.remaining();
+            agregar(List.of(registro));
+            candado.writeLock().lock();
+            try {
+                if (operacion == PONER) {
+                    indice.put(clave, valor.clone());
+                } else {
+                    indice.remove(clave);
+                }
+            } finally {
+                candado.writeLock().unlock();
+            }
+            escritos += longitud;
+            hasta = escritos;
+            compactar = bytesDiario > umbralCompactacion;
+        } finally {
+            escritor.unlock();
+        }
+        escrituras.increment();
+        // Si el force falla, el valor ya es visible en memoria pero puede no sobrevivir a una caída
+        sincronizar(hasta);
+        if (compactar) {
+            compactar(true);
+        }
+        return true;
+    }
+
+    /**
+     * Inserta varios valores con un solo {@code force}: los registros se agregan al diario uno tras
+     * otro y se sincronizan juntos, en vez de uno por escritura. Las claves que ya existen se saltan.
+     * Si la escritura falla no se inserta ninguno.
+     *
+     * @return el número de valores insertados
+     */
+    public int insertarTodos(Map<String, byte[]> valores) throws IOException {
+        verificarEscritura();
+        List<String> claves = new ArrayList<>(valores.size());
+        List<ByteBuffer> registros = new ArrayList<>(valores.size());
+        long hasta;
+        boolean compactar;
+        escritor.lock();
+        try {
+            long longitud = 0;
+            for (Map.Entry<String, byte[]> valor : valores.entrySet()) {
+                if (!indice.containsKey(valor.getKey())) {
+                    ByteBuffer registro = registro(PONER, valor.getKey(), valor.getValue());
+                    longitud += registro.remaining();
+                    claves.add(valor.getKey());
+                    registros.add(registro);
+                }
+            }
+            if (registros.isEmpty()) {
+                return 0;
+            }
+            agregar(registros);
+            candado.writeLock().lock();
+            try {
+                for (String clave : claves) {
+                    indice.put(clave, valores.get(clave).clone());
+                }
+            } finally {
+                candado.writeLock().unlock();
+            }
+            escritos += longitud;
+            hasta = escritos;
+            compactar = bytesDiario > umbralCompactacion;
+        } finally {
+            escritor.unlock();
+        }
+        escrituras.add(claves.size());
+        sincronizar(hasta);
+        if (compactar) {
+            compactar(true);
+        }
+        return claves.size();
+    }
+
+    /**
+     * Agrega los registros al final del diario, sin sincronizar. Se llama con {@code escritor}.
+     */
+    private void agregar(List<ByteBuffer> registros) throws IOException {
+        long inicio = bytesDiario;
+        try {
+            for (ByteBuffer registro : registros) {
+                while (registro.hasRemaining()) {
+                    bytesDiario += diario.write(registro, bytesDiario);
+                }
+            }
+        } catch (IOException e) {
+            // Un registro a medias cortaría la reproducción en ese punto y ocultaría los siguientes
+            bytesDiario = inicio;
+            try {
+                diario.truncate(inicio);
+            } catch (IOException t) {
+                e.addSuppressed(t);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Espera a que el diario esté en disco hasta {@code hasta}. Si nadie está sincronizando, este
+     * hilo hace el {@code force} por todos los registros agregados hasta ese momento; si no, espera
+     * al que está en curso y, si no lo cubrió, al siguiente.
+     */
+    private void sincronizar(long hasta) throws IOException {
+        grupo.lock();
+        try {
+            while (enDisco < hasta) {
+                if (sincronizando) {
+                    sincronizado.awaitUninterruptibly();
+                    continue;
+                }
+                sincronizando = true;
+                long objetivo = escritos;
+                boolean forzado = false;
+                grupo.unlock();
+                try {
+                    diario.force(false);
+                    forzado = true;
+                } finally {
+                    grupo.lock();
+                    sincronizando = false;
+                    if (forzado) {
+                        enDisco = Math.max(enDisco, objetivo);
+                        sincronizaciones.increment();
+                    }
+                    sincronizado.signalAll();
+                }
+            }
+        } finally {
+            grupo.unlock();
+        }
+    }
+
+    /**
+     * Escribe una instantánea con el estado actual y vacía el diario. Las escrituras esperan a que
+     * termine; las lecturas solo mientras se cambia de instantánea.
+     */
+    public void compactar() throws IOException {
+        verificarEscritura();
+        compactar(false);
+    }
+
+    private void verificarEscritura() {
+        if (soloLectura) {
+            throw new IllegalStateException("El almacén " + directorio + " se abrió solo para lectura");
+        }
+    }
+
+    private void compactar(boolean soloSiExcede) throws IOException {
+        escritor.lock();
+        try {
+            if (soloSiExcede && capturas > 0) {
+                // La compactación borraría lo que se está leyendo; se reintenta en la siguiente escritura
+                return;
+            }
+            while (capturas > 0) {
+                sinCapturas.awaitUninterruptibly();
+            }
+            // Otro escritor pudo compactar mientras este esperaba
+            if (soloSiExcede ? bytesDiario <= umbralCompactacion : bytesDiario == 0 && instantanea != null) {
+                return;
+            }
+            long nueva = generacion + 1;
+            Path destino = directorio.resolve(nombreInstantanea(nueva));
+            Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+            Map<String, Object> nuevoIndice;
+            candado.readLock().lock();
+            try {
+                nuevoIndice = escribirInstantanea(temporal);
+            } finally {
+                candado.readLock().unlock();
+            }
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+            forzarDirectorio();
+
+            diario.truncate(0);
+            diario.force(true);
+            bytesDiario = 0;
+
+            Path anterior = directorio.resolve(nombreInstantanea(generacion));
+            MappedByteBuffer mapeo = mapear(destino);
+            candado.writeLock().lock();
+            try {
+                instantanea = mapeo;
+                indice = nuevoIndice;
+                generacion = nueva;
+            } finally {
+                candado.writeLock().unlock();
+            }
+            borrarSiExiste(anterior);
+            compactaciones.increment();
+        } finally {
+            escritor.unlock();
+        }
+        // Todo lo escrito hasta aquí está en la instantánea, ya en disco
+        grupo.lock();
+        try {
+            enDisco = Math.max(enDisco, escritos);
+            sincronizado.signalAll();
+        } finally {
+            grupo.unlock();
+        }
+    }
+
+    /**
+     * Fija el estado actual para leerlo desde otro hilo, por ejemplo para un respaldo: la
+     * instantánea vigente y el tamaño que tiene ahora el diario. Hasta cerrar la captura no se
+     * compacta, así que esos archivos no se borran ni se truncan; las escrituras siguen agregando
+     * registros después de ese tamaño. Copiar la instantánea y ese prefijo del diario en un
+     * directorio vacío reproduce el almacén en el momento de la captura.
+     */
+    public Captura capturar() {
+        escritor.lock();
+        try {
+            capturas++;
+            return new Captura(instantanea == null ? null : directorio.resolve(nombreInstantanea(generacion)),
+                    directorio.resolve(DIARIO), bytesDiario);
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Estado fijado por {@link #capturar()}; puede cerrarse desde cualquier hilo.
+     */
+    public final class Captura implements AutoCloseable {
+        private final Path instantanea;
+        private final Path diario;
+        private final long longitudDiario;
+        private boolean cerrada;
+
+        private Captura(Path instantanea, Path diario, long longitudDiario) {
+            this.instantanea = instantanea;
+            this.diario = diario;
+            this.longitudDiario = longitudDiario;
+        }
+
+        // null si el almacén todavía no se ha compactado nunca
+        public Path getInstantanea() { return instantanea; }
+
+        public Path getDiario() { return diario; }
+
+        // Solo los primeros bytes del diario pertenecen a la captura
+        public long getLongitudDiario() { return longitudDiario; }
+
+        @Override
+        public void close() {
+            escritor.lock();
+            try {
+                if (!cerrada) {
+                    cerrada = true;
+                    capturas--;
+                    sinCapturas.signalAll();
+                }
+            } finally {
+                escritor.unlock();
+            }
+        }
+    }
+
+    /**
+     * Formato: magia, versión y número de entradas; por entrada, longitud y bytes de la clave y
+     * longitud y bytes del valor; al final el CRC-32C de todo lo anterior y la magia otra vez. Las
+     * entradas van ordenadas por clave, así que dos instantáneas seguidas solo difieren donde hubo
+     * cambios y los respaldos por contenido ({@link RepositorioRespaldos}) reutilizan el resto.
+     *
+     * @return el índice de posiciones en la instantánea escrita
+     */
+    private Map<String, Object> escribirInstantanea(Path archivo) throws IOException {
+        Map<String, Object> nuevoIndice = new HashMap<>(indice.size() * 4 / 3 + 1);
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long posicion = 0;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(MAGIA).putInt(VERSION).putInt(indice.size());
+            posicion += 12;
+            for (Map.Entry<String, Object> entrada : new TreeMap<>(indice).entrySet()) {
+                byte[] clave = entrada.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] valor = valor(entrada.getValue());
+                if (posicion + 8L + clave.length + valor.length + 8 > Integer.MAX_VALUE) {
+                    throw new IOException("La instantánea de " + directorio + " pasaría de 2 GB");
+                }
+                posicion += 4 + clave.length;
+                nuevoIndice.put(entrada.getKey(), (int) posicion);
+                posicion += 4 + valor.length;
+                poner(canal, buffer, crc, ByteBuffer.allocate(4).putInt(clave.length).array());
+                poner(canal, buffer, crc, clave);
+                poner(canal, buffer, crc, ByteBuffer.allocate(4).putInt(valor.length).array());
+                poner(canal, buffer, crc, valor);
+            }
+            vaciar(canal, buffer, crc);
+            buffer.putInt((int) crc.getValue()).putInt(MAGIA).flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        return nuevoIndice;
+    }
+
+    private static void poner(FileChannel canal, ByteBuffer buffer, CRC32C crc, byte[] bytes) throws IOException {
+        int desde = 0;
+        while (desde < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                vaciar(canal, buffer, crc);
+            }
+            int n = Math.min(buffer.remaining(), bytes.length - desde);
+            buffer.put(bytes, desde, n);
+            desde += n;
+        }
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void cargarInstantanea() throws IOException {
+        TreeMap<Long, Path> instantaneas = new TreeMap<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(".tmp")) {
+                    // Compactación interrumpida antes del renombrado
+                    if (!soloLectura) {
+                        borrarSiExiste(archivo);
+                    }
+                } else if (nombre.startsWith(PREFIJO_INSTANTANEA) && nombre.endsWith(EXTENSION_INSTANTANEA)) {
+                    try {
+                        instantaneas.put(Long.parseLong(nombre.substring(PREFIJO_INSTANTANEA.length(),
+                                nombre.length() - EXTENSION_INSTANTANEA.length())), archivo);
+                    } catch (NumberFormatException e) {
+                        LOGGER.warning("Archivo ignorado en " + directorio + ": " + nombre);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<Long, Path> candidata : instantaneas.descendingMap().entrySet()) {
+            MappedByteBuffer mapeo = mapear(candidata.getValue());
+            Map<String, Object> cargado = indizar(mapeo);
+            if (cargado == null) {
+                LOGGER.warning("Instantánea dañada, se prueba la anterior: " + candidata.getValue());
+                continue;
+            }
+            instantanea = mapeo;
+            indice = cargado;
+            generacion = candidata.getKey();
+            if (!soloLectura) {
+                for (Path vieja : instantaneas.headMap(generacion).values()) {
+                    borrarSiExiste(vieja);
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * @return el índice de la instantánea, o {@code null} si está incompleta o no coincide el CRC
+     */
+    private static Map<String, Object> indizar(MappedByteBuffer mapeo) {
+        int limite = mapeo.capacity();
+        if (limite < 20 || mapeo.getInt(0) != MAGIA || mapeo.getInt(4) != VERSION
+                || mapeo.getInt(limite - 4) != MAGIA) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(mapeo.slice(0, limite - 8));
+        if ((int) crc.getValue() != mapeo.getInt(limite - 8)) {
+            return null;
+        }
+        int entradas = mapeo.getInt(8);
+        Map<String, Object> indice = new HashMap<>(entradas * 4 / 3 + 1);
+        int posicion = 12;
+        for (int i = 0; i < entradas; i++) {
+            byte[] clave = new byte[mapeo.getInt(posicion)];
+            mapeo.get(posicion + 4, clave);
+            posicion += 4 + clave.length;
+            indice.put(new String(clave, StandardCharsets.UTF_8), posicion);
+            posicion += 4 + mapeo.getInt(posicion);
+        }
+        return indice;
+    }
+
+    private void reproducirDiario() throws IOException {
+        long valido = 0;
+        int aplicados = 0;
+        try (InputStream entrada = Files.newInputStream(directorio.resolve(DIARIO));
+             DataInputStream datos = new DataInputStream(new BufferedInputStream(entrada, 1 << 16))) {
+            CRC32C crc = new CRC32C();
+            while (true) {
+                int longitud;
+                try {
+                    longitud = datos.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    if (longitud < 5 || longitud > REGISTRO_MAXIMO) {
+                        break;
+                    }
+                    int esperado = datos.readInt();
+                    byte[] cuerpo = new byte[longitud];
+                    datos.readFully(cuerpo);
+                    crc.reset();
+                    crc.update(cuerpo);
+                    if ((int) crc.getValue() != esperado) {
+                        break;
+                    }
+                    aplicar(ByteBuffer.wrap(cuerpo));
+                } catch (EOFException e) {
+                    break;
+                }
+                valido += ENCABEZADO_REGISTRO + longitud;
+                aplicados++;
+            }
+        }
+        long tamano = diario.size();
+        if (valido < tamano) {
+            LOGGER.warning("Diario de " + directorio + " cortado en el byte " + valido + " de " + tamano
+                    + ": se descarta el registro incompleto o dañado del final");
+            if (!soloLectura) {
+                diario.truncate(valido);
+                diario.force(true);
+            }
+        }
+        bytesDiario = valido;
+        if (aplicados > 0) {
+            LOGGER.info(aplicados + " registros del diario reproducidos en " + directorio);
+        }
+    }
+
+    private void aplicar(ByteBuffer cuerpo) {
+        byte operacion = cuerpo.get();
+        byte[] clave = new byte[cuerpo.getInt()];
+        cuerpo.get(clave);
+        String texto = new String(clave, StandardCharsets.UTF_8);
+        if (operacion == PONER) {
+            byte[] valor = new byte[cuerpo.remaining()];
+            cuerpo.get(valor);
+            indice.put(texto, valor);
+        } else {
+            indice.remove(texto);
+        }
+    }
+
+    /**
+     * Registro del diario: longitud del cuerpo, CRC-32C del cuerpo y el cuerpo (operación, longitud
+     * y bytes de la clave, bytes del valor).
+     */
+    private static ByteBuffer registro(byte operacion, String clave, byte[] valor) {
+        byte[] bytesClave = clave.getBytes(StandardCharsets.UTF_8);
+        int longitud = 1 + 4 + bytesClave.length + valor.length;
+        if (longitud > REGISTRO_MAXIMO) {
+            throw new IllegalArgumentException("Registro de " + longitud + " bytes para la clave " + clave);
+        }
+        ByteBuffer registro = ByteBuffer.allocate(ENCABEZADO_REGISTRO + longitud);
+        registro.putInt(longitud).putInt(0).put(operacion).putInt(bytesClave.length).put(bytesClave).put(valor);
+        CRC32C crc = new CRC32C();
+        crc.update(registro.array(), ENCABEZADO_REGISTRO, longitud);
+        return registro.putInt(4, (int) crc.getValue()).flip();
+    }
+
+    private byte[] valor(Object ubicacion) {
+        if (ubicacion == null) {
+            return null;
+        }
+        if (ubicacion instanceof byte[] bytes) {
+            return bytes.clone();
+        }
+        int posicion = (Integer) ubicacion;
+        byte[] valor = new byte[instantanea.getInt(posicion)];
+        instantanea.get(posicion + 4, valor);
+        return valor;
+    }
+
+    private static MappedByteBuffer mapear(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Instantánea de más de 2 GB: " + archivo);
+            }
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+    }
+
+    private void forzarDirectorio() {
+        // Hace durable el renombrado; no todos los sistemas permiten abrir un directorio
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "No se pudo sincronizar el directorio " + directorio, e);
+        }
+    }
+
+    private static void borrarSiExiste(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            // En Windows un archivo mapeado no se puede borrar; se reintenta en la siguiente apertura
+            LOGGER.log(Level.FINE, "No se pudo borrar " + archivo, e);
+        }
+    }
+
+    private static String nombreInstantanea(long generacion) {
+        return String.format("%s%06d%s", PREFIJO_INSTANTANEA, generacion, EXTENSION_INSTANTANEA);
+    }
+
+    /**
+     * Compacta si quedó algo en el diario y lo cierra.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!soloLectura && bytesDiario > 0) {
+                compactar();
+            }
+        } finally {
+            try {
+                diario.close();
+            } finally {
+                bloqueo.close();
+            }
+        }
+    }
+
+    public Path getDirectorio() { return directorio; }
+
+    // Escrituras completadas (poner, insertar, reemplazar o borrar que sí escribieron)
+    public long getEscrituras() { return escrituras.sum(); }
+
+    // force() del diario; con escritores concurrentes es menor que getEscrituras()
+    public long getSincronizaciones() { return sincronizaciones.sum(); }
+
+    public long getCompactaciones() { return compactaciones.sum(); }
+}
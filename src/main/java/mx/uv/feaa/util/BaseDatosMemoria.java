@@ -0,0 +1,167 @@
+package mx.uv.feaa.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base de datos H2 en memoria que sustituye al servidor MySQL en pruebas de DAOs y benchmarks.
+ * <p>
+ * Cada instancia es una base nueva, con nombre propio y el esquema de {@value #ESQUEMA} recién
+ * creado, así que varias pruebas pueden correr en paralelo sin verse entre sí. Uso típico:
+ * </p>
+ * <pre>{@code
+ * try (BaseDatosMemoria base = BaseDatosMemoria.crear()) {
+ *     PoolConexiones pool = new PoolConexiones(base, 4, 1000);
+ *     new UsuarioDAO(pool).save(usuario);
+ *     ...
+ * }
+ * }</pre>
+ * <p>
+ * H2 corre en modo MySQL. Lo que ese modo no cubre se resuelve aquí: {@code SHA2},
+ * {@code SEC_TO_TIME} y {@code TIME_TO_SEC} se registran como funciones Java en el esquema, y el
+ * operador {@code <=>} se traduce a {@code IS NOT DISTINCT FROM} y {@code FOR SHARE}, que H2 no
+ * tiene, a {@code FOR UPDATE}, tanto al preparar una sentencia como en el texto que se pasa a
+ * {@code Statement.execute*} o {@code addBatch}. El
+ * {@code setFetchSize(Integer.MIN_VALUE)} con el que se pide streaming a MySQL se ignora.
+ * Requiere {@code com.h2database:h2} en el classpath (perfil {@code memoria} de Maven).
+ * </p>
+ */
+public final class BaseDatosMemoria implements FabricaConexiones, AutoCloseable {
+    public static final String ESQUEMA = "esquema/hipica-h2.sql";
+    private static final AtomicLong SECUENCIA = new AtomicLong();
+
+    private final String url;
+
+    private BaseDatosMemoria(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Crea una base vacía con el esquema completo.
+     *
+     * @throws SQLException si H2 no está disponible o el esquema falla
+     */
+    public static BaseDatosMemoria crear() throws SQLException {
+        return crear(ESQUEMA);
+    }
+
+    /**
+     * Crea una base vacía con otro esquema del classpath, por ejemplo el de un fragmento de apuestas.
+     *
+     * @throws SQLException si H2 no está disponible o el esquema falla
+     */
+    public static BaseDatosMemoria crear(String esquema) throws SQLException {
+        String nombre = "hipica" + SECUENCIA.incrementAndGet();
+        BaseDatosMemoria base = new BaseDatosMemoria("jdbc:h2:mem:" + nombre
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection conexion = DriverManager.getConnection(base.url, "sa", "");
+             Statement stmt = conexion.createStatement()) {
+            stmt.execute("RUNSCRIPT FROM 'classpath:/" + esquema + "' CHARSET 'UTF-8'");
+        }
+        return base;
+    }
+
+    @Override
+    public Connection abrir() throws SQLException {
+        Connection conexion = DriverManager.getConnection(url, "sa", "");
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    String nombre = metodo.getName();
+                    if ((nombre.equals("prepareStatement") || nombre.equals("prepareCall") || nombre.equals("nativeSQL"))
+                            && argumentos[0] instanceof String sql) {
+                        argumentos[0] = traducir(sql);
+                    }
+                    Object resultado = invocar(metodo, conexion, argumentos);
+                    if (resultado instanceof Statement sentencia) {
+                        Class<?> tipo = metodo.getReturnType();
+                        return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                                (proxySentencia, metodoSentencia, argumentosSentencia) -> {
+                                    String nombreSentencia = metodoSentencia.getName();
+                                    // Integer.MIN_VALUE pide a MySQL leer por streaming; H2 ya lee por partes
+                                    if (nombreSentencia.equals("setFetchSize")
+                                            && (Integer) argumentosSentencia[0] < 0) {
+                                        return null;
+                                    }
+                                    // Statement.execute*(sql) y addBatch(sql) reciben el texto al ejecutar
+                                    if ((nombreSentencia.startsWith("execute") || nombreSentencia.equals("addBatch"))
+                                            && argumentosSentencia != null && argumentosSentencia.length > 0
+                                            && argumentosSentencia[0] instanceof String sql) {
+                                        argumentosSentencia[0] = traducir(sql);
+                                    }
+                                    return invocar(metodoSentencia, sentencia, argumentosSentencia);
+                                });
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Object invocar(Method metodo, Object destino, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(destino, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Elimina la base y cierra todas sus conexiones, incluidas las que aún tenga el pool.
+     */
+    @Override
+    public void close() throws SQLException {
+        try (Connection conexion = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = conexion.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+    }
+
+    static String traducir(String sql) {
+        if (sql.contains("<=>")) {
+            sql = sql.replace("<=>", "IS NOT DISTINCT FROM");
+        }
+        // H2 solo tiene bloqueo exclusivo: las lecturas con bloqueo compartido se serializan
+        return sql.endsWith(" FOR SHARE") ? sql.substring(0, sql.length() - 10) + " FOR UPDATE" : sql;
+    }
+
+    // ------------------------------------------------------------------ Funciones de MySQL
+
+    /**
+     * {@code SHA2(texto, bits)}: resumen en hexadecimal en minúsculas, como lo devuelve MySQL.
+     */
+    public static String sha2(String texto, int bits) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-" + (bits == 0 ? 256 : bits));
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@code SEC_TO_TIME(segundos)}, con milisegundos.
+     */
+    public static LocalTime secToTime(double segundos) {
+        return LocalTime.ofNanoOfDay(Math.round(segundos * 1000) * 1_000_000L);
+    }
+
+    /**
+     * {@code TIME_TO_SEC(tiempo)}: segundos enteros, sin la fracción, como en MySQL.
+     */
+    public static long timeToSec(LocalTime tiempo) {
+        return tiempo.toSecondOfDay();
+    }
+}
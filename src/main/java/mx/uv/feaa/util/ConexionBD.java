@@ -1,13 +1,49 @@
 package mx.uv.feaa.util;
 
+import mx.uv.feaa.metricas.MetricasDAO;
+import mx.uv.feaa.metricas.TrazadorSQL;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Base de datos predeterminada de la aplicación, la de {@code database.properties}.
+ * <p>
+ * Los DAOs reciben un {@link ProveedorConexiones} en su constructor; el constructor sin
+ * argumentos usa {@link #proveedor()}, que reparte las conexiones de esta clase. La configuración
+ * se lee y el pool se crea en la primera conexión que se pide, no al cargar la clase, así que
+ * los comandos que no usan la base (o que usan su propio pool) no necesitan el archivo.
+ * </p>
+ * <p>
+ * Con {@code jdbc.replicas} mayor que cero, las lecturas de solo consulta se reparten entre las
+ * réplicas {@code jdbc.replica.N.url} ({@code N} desde 1; usuario y contraseña, si se omiten, los
+ * del primario) mediante un {@link EnrutadorConexiones}, con la ventana de lectura de las propias
+ * escrituras de {@code jdbc.replicas.ventanaMs}. En el perfil en memoria las réplicas son pools
+ * aparte sobre la misma base.
+ * </p>
+ * <p>
+ * Con {@code jdbc.apuestas.fragmentos} mayor que cero, las tablas {@code Apuesta} y
+ * {@code ApuestaSeleccion} se reparten por carrera entre las bases
+ * {@code jdbc.apuestas.fragmento.N.url} ({@link #fragmentosApuestas()}); cada una tiene solo esas
+ * dos tablas, con el esquema de {@value #ESQUEMA_APUESTAS}. En el perfil en memoria cada
+ * fragmento es una {@link BaseDatosMemoria} propia.
+ * </p>
+ * <p>
+ * Con {@code jdbc.apuestas.idsBinarios=true}, las claves de las apuestas y sus selecciones se
+ * guardan como {@code BINARY(16)} ({@link FormatoClave#BINARIO}), en la base principal o en los
+ * fragmentos; las tablas deben tener ya ese tipo ({@code esquema/mysql/003-apuestas-ids-binarios.sql}
+ * en MySQL, {@value #ESQUEMA_APUESTAS_BINARIO} para los fragmentos en memoria).
+ * </p>
+ */
 public final class ConexionBD {
     private static final Logger LOGGER = Logger.getLogger(ConexionBD.class.getName());
 
@@ -15,31 +51,112 @@ public final class ConexionBD {
     private static final String PROP_URL = "jdbc.url";
     private static final String PROP_USER = "jdbc.user";
     private static final String PROP_PASSWORD = "jdbc.password";
-    private static final String CONFIG_FILE = "database.properties";
+    private static final String PROP_POOL_MAXIMO = "jdbc.pool.maximo";
+    private static final String PROP_POOL_ESPERA = "jdbc.pool.esperaMs";
+    private static final String PROP_MEMORIA = "jdbc.memoria";
+    private static final String PROP_REPLICAS = "jdbc.replicas";
+    private static final String PROP_REPLICA = "jdbc.replica.";
+    private static final String PROP_VENTANA = "jdbc.replicas.ventanaMs";
+    private static final String PROP_FRAGMENTOS = "jdbc.apuestas.fragmentos";
+    private static final String PROP_FRAGMENTO = "jdbc.apuestas.fragmento.";
+    private static final String PROP_IDS_BINARIOS = "jdbc.apuestas.idsBinarios";
+    public static final String ESQUEMA_APUESTAS = "esquema/apuestas-h2.sql";
+    public static final String ESQUEMA_APUESTAS_BINARIO = "esquema/apuestas-binario-h2.sql";
+    // -Dhipica.bd.perfil=memoria carga database-memoria.properties en lugar de database.properties
+    private static final String PROP_PERFIL = "hipica.bd.perfil";
+    private static final String CONFIG_FILE = System.getProperty(PROP_PERFIL) == null
+            ? "database.properties" : "database-" + System.getProperty(PROP_PERFIL) + ".properties";
 
-    // Variables de conexión (final ya que no deberían cambiar después de la inicialización)
-    private static final String URL;
-    private static final String USER;
-    private static final String PASSWORD;
+    // Pool compartido (o enrutador), creado en el primer uso: cada getConnection() presta una conexión distinta y close() la devuelve
+    private static volatile ProveedorConexiones predeterminado;
+    // Resuelve el proveedor en cada llamada, para que los DAOs ya creados sigan a usar()
+    private static final ProveedorConexiones PROVEEDOR = new ProveedorConexiones() {
+        @Override
+        public Connection getConnection(String operacion) throws SQLException {
+            return predeterminado().getConnection(operacion);
+        }
 
-    // Connection es volatile para acceso seguro entre hilos
-    private static volatile Connection connection;
+        @Override
+        public Connection getConnectionLectura(String operacion) throws SQLException {
+            return predeterminado().getConnectionLectura(operacion);
+        }
+    };
+    // Sin fragmentos configurados, un único fragmento sobre el proveedor predeterminado
+    private static volatile FragmentosConexiones fragmentosApuestas;
+    private static final StackWalker PILA = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
 
-    // Bloque estático para inicialización
-    static {
-        Properties props = cargarConfiguracion();
-        URL = props.getProperty(PROP_URL);
-        USER = props.getProperty(PROP_USER);
-        PASSWORD = props.getProperty(PROP_PASSWORD);
+    private ConexionBD() {
+        // Constructor privado para evitar instanciación
+    }
 
-        // Validación básica de configuración
-        if (URL == null || USER == null || PASSWORD == null) {
-            throw new RuntimeException("Configuración de BD incompleta en " + CONFIG_FILE);
+    private static ProveedorConexiones predeterminado() {
+        ProveedorConexiones actual = predeterminado;
+        if (actual == null) {
+            synchronized (ConexionBD.class) {
+                actual = predeterminado;
+                if (actual == null) {
+                    Properties props = cargarConfiguracion();
+                    TrazadorSQL.configurar(props);
+                    actual = crearProveedor(props);
+                    predeterminado = actual;
+                }
+            }
         }
+        return actual;
     }
 
-    private ConexionBD() {
-        // Constructor privado para evitar instanciación
+    /**
+     * @return los fragmentos de {@code jdbc.apuestas.fragmentos}, creados en el primer uso, o uno
+     *         solo sobre {@link #proveedor()} si no hay
+     */
+    public static FragmentosConexiones fragmentosApuestas() {
+        FragmentosConexiones actuales = fragmentosApuestas;
+        if (actuales == null) {
+            synchronized (ConexionBD.class) {
+                actuales = fragmentosApuestas;
+                if (actuales == null) {
+                    actuales = crearFragmentosApuestas(cargarConfiguracion());
+                    fragmentosApuestas = actuales;
+                }
+            }
+        }
+        return actuales;
+    }
+
+    /**
+     * Crea los fragmentos de apuestas de {@code jdbc.apuestas.fragmento.N.*}; el nombre de cada uno
+     * en el anillo es {@code fragmentoN}, así que renumerarlos mueve las carreras.
+     */
+    public static FragmentosConexiones crearFragmentosApuestas(Properties props) {
+        int numero = Integer.parseInt(props.getProperty(PROP_FRAGMENTOS, "0"));
+        FormatoClave formato = Boolean.parseBoolean(props.getProperty(PROP_IDS_BINARIOS))
+                ? FormatoClave.BINARIO : FormatoClave.TEXTO;
+        if (numero <= 0) {
+            return FragmentosConexiones.unico(PROVEEDOR, formato);
+        }
+        boolean memoria = Boolean.parseBoolean(props.getProperty(PROP_MEMORIA));
+        Map<String, ProveedorConexiones> fragmentos = new LinkedHashMap<>();
+        for (int i = 1; i <= numero; i++) {
+            FabricaConexiones fabrica;
+            if (memoria) {
+                try {
+                    fabrica = BaseDatosMemoria.crear(formato == FormatoClave.BINARIO
+                            ? ESQUEMA_APUESTAS_BINARIO : ESQUEMA_APUESTAS);
+                } catch (SQLException e) {
+                    throw new RuntimeException("No se pudo crear el fragmento de apuestas en memoria", e);
+                }
+            } else {
+                String prefijo = PROP_FRAGMENTO + i + ".";
+                String url = props.getProperty(prefijo + "url");
+                if (url == null) {
+                    throw new RuntimeException("Falta " + prefijo + "url en " + CONFIG_FILE);
+                }
+                fabrica = FabricaConexiones.jdbc(url, props.getProperty(prefijo + "user", props.getProperty(PROP_USER)),
+                        props.getProperty(prefijo + "password", props.getProperty(PROP_PASSWORD)));
+            }
+            fragmentos.put("fragmento" + i, crearPool(props, fabrica));
+        }
+        return new FragmentosConexiones(fragmentos, formato);
     }
 
     private static Properties cargarConfiguracion() {
@@ -57,25 +174,137 @@ public final class ConexionBD {
         return properties;
     }
 
-    public static Connection getConnection() throws SQLException {
-        // Doble verificación para singleton thread-safe
-        Connection conn = connection;
-        if (conn == null || conn.isClosed()) {
-            synchronized (ConexionBD.class) {
-                conn = connection;
-                if (conn == null || conn.isClosed()) {
-                    connection = DriverManager.getConnection(URL, USER, PASSWORD);
-                    conn = connection;
-                }
+    /**
+     * Crea un pool con las mismas propiedades que {@code database.properties} ({@code jdbc.url},
+     * {@code jdbc.user}, {@code jdbc.password}, {@code jdbc.pool.*} o {@code jdbc.memoria}), para
+     * conectarse a otra base sin pasar por la predeterminada.
+     */
+    public static PoolConexiones crearPool(Properties props) {
+        return crearPool(props, crearFabrica(props));
+    }
+
+    /**
+     * Como {@link #crearPool(Properties)}, pero con las réplicas de {@code jdbc.replicas}, si las hay,
+     * detrás de un {@link EnrutadorConexiones}.
+     */
+    public static ProveedorConexiones crearProveedor(Properties props) {
+        int numeroReplicas = Integer.parseInt(props.getProperty(PROP_REPLICAS, "0"));
+        FabricaConexiones fabrica = crearFabrica(props);
+        PoolConexiones primario = crearPool(props, fabrica);
+        if (numeroReplicas <= 0) {
+            return primario;
+        }
+
+        boolean memoria = Boolean.parseBoolean(props.getProperty(PROP_MEMORIA));
+        List<PoolConexiones> replicas = new ArrayList<>(numeroReplicas);
+        for (int i = 1; i <= numeroReplicas; i++) {
+            if (memoria) {
+                replicas.add(crearPool(props, fabrica));
+                continue;
+            }
+            String prefijo = PROP_REPLICA + i + ".";
+            String url = props.getProperty(prefijo + "url");
+            if (url == null) {
+                throw new RuntimeException("Falta " + prefijo + "url en " + CONFIG_FILE);
             }
+            replicas.add(crearPool(props, FabricaConexiones.jdbc(url,
+                    props.getProperty(prefijo + "user", props.getProperty(PROP_USER)),
+                    props.getProperty(prefijo + "password", props.getProperty(PROP_PASSWORD)))));
         }
-        return conn;
+        long ventanaMs = Long.parseLong(props.getProperty(PROP_VENTANA, "2000"));
+        return new EnrutadorConexiones(primario, replicas, ventanaMs);
+    }
+
+    private static PoolConexiones crearPool(Properties props, FabricaConexiones fabrica) {
+        int tamano = Integer.parseInt(props.getProperty(PROP_POOL_MAXIMO, "10"));
+        long esperaMs = Long.parseLong(props.getProperty(PROP_POOL_ESPERA, "5000"));
+        return new PoolConexiones(fabrica, tamano, esperaMs);
+    }
+
+    private static FabricaConexiones crearFabrica(Properties props) {
+        if (Boolean.parseBoolean(props.getProperty(PROP_MEMORIA))) {
+            try {
+                return BaseDatosMemoria.crear();
+            } catch (SQLException e) {
+                throw new RuntimeException("No se pudo crear la base de datos en memoria", e);
+            }
+        }
+        String url = props.getProperty(PROP_URL);
+        String user = props.getProperty(PROP_USER);
+        String password = props.getProperty(PROP_PASSWORD);
+
+        // Validación básica de configuración
+        if (url == null || user == null || password == null) {
+            throw new RuntimeException("Configuración de BD incompleta en " + CONFIG_FILE);
+        }
+        return FabricaConexiones.jdbc(url, user, password);
+    }
+
+    /**
+     * Reemplaza el pool (o enrutador) predeterminado, por ejemplo por uno sobre una
+     * {@link BaseDatosMemoria} nueva en cada prueba. Las conexiones ya prestadas siguen siendo
+     * válidas hasta que se devuelven; las libres del anterior se cierran.
+     */
+    public static synchronized void usar(ProveedorConexiones nuevo) {
+        ProveedorConexiones anterior = predeterminado;
+        predeterminado = Objects.requireNonNull(nuevo, "nuevo");
+        if (anterior != null) {
+            anterior.cerrar();
+        }
+    }
+
+    /**
+     * @return el proveedor que usan los DAOs creados sin argumentos; siempre presta del pool
+     *         o enrutador predeterminado vigente
+     */
+    public static ProveedorConexiones proveedor() {
+        return PROVEEDOR;
+    }
+
+    /**
+     * Presta una conexión atribuida a la clase que la pide; preferir {@link #getConnection(String)}
+     * para que las métricas distingan el método.
+     */
+    public static Connection getConnection() throws SQLException {
+        return getConnection(PILA.getCallerClass().getSimpleName() + ".(sin nombre)");
+    }
+
+    /**
+     * Presta una conexión del pool. La llamada se registra en {@link MetricasDAO} bajo el nombre
+     * indicado al cerrar la conexión.
+     *
+     * @param operacion el nombre de la operación, {@code "Dao.metodo"}
+     */
+    public static Connection getConnection(String operacion) throws SQLException {
+        return predeterminado().getConnection(operacion);
+    }
+
+    /**
+     * @return el pool o enrutador predeterminado vigente, creándolo si aún no existe
+     */
+    public static ProveedorConexiones getPredeterminado() {
+        return predeterminado();
+    }
+
+    /**
+     * @return el pool predeterminado o, con réplicas, el del primario
+     * @throws IllegalStateException si {@link #usar(ProveedorConexiones)} instaló otro tipo de proveedor
+     */
+    public static PoolConexiones getPool() {
+        ProveedorConexiones actual = predeterminado();
+        if (actual instanceof EnrutadorConexiones enrutador) {
+            return enrutador.getPrimario();
+        }
+        if (actual instanceof PoolConexiones pool) {
+            return pool;
+        }
+        throw new IllegalStateException("El proveedor predeterminado no es un pool: " + actual.getClass().getName());
     }
 
     public static void closeConnection() {
-        synchronized (ConexionBD.class) {
-            cerrar(connection);
-            connection = null;
+        ProveedorConexiones actual = predeterminado;
+        if (actual != null) {
+            actual.cerrar();
         }
     }
 
@@ -92,7 +321,7 @@ public final class ConexionBD {
     }
 
     public static boolean verificarConexion() {
-        try (Connection conn = getConnection();
+        try (Connection conn = getConnection("ConexionBD.verificarConexion");
              Statement stmt = conn.createStatement()) {
 
             // Consulta simple para verificar que la conexión funciona
@@ -106,30 +335,13 @@ public final class ConexionBD {
     }
 
     // Método para ejecutar transacciones
-    public static void ejecutarTransaccion(Transaccion transaccion) throws SQLException {
-        Connection conn = null;
-        try {
-            conn = getConnection();
-            conn.setAutoCommit(false);
-
-            transaccion.ejecutar(conn);
-            conn.commit();
-
-        } catch (SQLException e) {
-            if (conn != null) {
-                conn.rollback();
-            }
-            throw e;
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-                cerrar(conn);
-            }
-        }
+    public static void ejecutarTransaccion(ProveedorConexiones.Transaccion transaccion) throws SQLException {
+        ejecutarTransaccion(PILA.getCallerClass().getSimpleName() + ".(sin nombre)", transaccion);
     }
 
-    @FunctionalInterface
-    public interface Transaccion {
-        void ejecutar(Connection conn) throws SQLException;
+    // Transacción registrada en las métricas bajo el nombre de la operación ("Dao.metodo")
+    public static void ejecutarTransaccion(String operacion, ProveedorConexiones.Transaccion transaccion)
+            throws SQLException {
+        PROVEEDOR.ejecutarTransaccion(operacion, transaccion);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,230 @@
+package mx.uv.feaa.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Separa lecturas y escrituras: las consultas de solo lectura de los DAOs
+ * ({@link #getConnectionLectura(String)}) van a las réplicas, por turnos, y todo lo demás,
+ * incluidas las transacciones, al primario.
+ * <p>
+ * Las réplicas van por detrás del primario. Para que una sesión vea lo que acaba de escribir,
+ * mientras tiene una conexión del primario y hasta que pasa la ventana configurada desde que la
+ * confirma o la cierra, sus lecturas siguen yendo al primario; la ventana solo tiene que cubrir el
+ * retraso de replicación, sin importar cuánto dure la escritura. La sesión es la que marca {@link #sesion(String)} en el hilo actual (el token de la
+ * API, el apostador simulado); sin sesión, cada hilo cuenta como una.
+ * </p>
+ * <p>
+ * Si ninguna réplica puede prestar una conexión, la lectura va al primario.
+ * </p>
+ */
+public final class EnrutadorConexiones implements ProveedorConexiones {
+    private static final Logger LOGGER = Logger.getLogger(EnrutadorConexiones.class.getName());
+    private static final ThreadLocal<String> SESION = new ThreadLocal<>();
+    // Con más sesiones recordadas que esto, cada escritura purga las que ya salieron de su ventana
+    private static final int LIMITE_SESIONES = 10_000;
+
+    private final PoolConexiones primario;
+    private final List<PoolConexiones> replicas;
+    private final long ventanaNanos;
+    private final AtomicInteger turno = new AtomicInteger();
+    // Última escritura de cada sesión, según System.nanoTime()
+    private final Map<String, Long> escrituras = new ConcurrentHashMap<>();
+
+    private final LongAdder lecturasReplica = new LongAdder();
+    private final LongAdder lecturasPegajosas = new LongAdder();
+    private final LongAdder fallosReplica = new LongAdder();
+
+    /**
+     * @param primario recibe las escrituras, las transacciones y las lecturas pegajosas
+     * @param replicas reciben las demás lecturas; vacía, todo va al primario
+     * @param ventanaMs tiempo tras una escritura durante el que las lecturas de la misma sesión
+     *                  siguen en el primario
+     */
+    public EnrutadorConexiones(PoolConexiones primario, List<PoolConexiones> replicas, long ventanaMs) {
+        this.primario = primario;
+        this.replicas = List.copyOf(replicas);
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+    }
+
+    /**
+     * Atribuye a la sesión indicada las conexiones que pida el hilo actual hasta cerrar el ámbito.
+     * <pre>{@code
+     * try (EnrutadorConexiones.Ambito ambito = EnrutadorConexiones.sesion(token)) {
+     *     ...
+     * }
+     * }</pre>
+     */
+    public static Ambito sesion(String clave) {
+        String anterior = SESION.get();
+        SESION.set(clave);
+        return new Ambito(anterior);
+    }
+
+    @Override
+    public Connection getConnection(String operacion) throws SQLException {
+        Connection conexion = primario.getConnection(operacion);
+        if (replicas.isEmpty()) {
+            return conexion;
+        }
+        // Se marca al prestarla para las lecturas de la sesión durante la escritura y otra vez al
+        // confirmar y al cerrar, cuando los cambios ya son visibles en el primario
+        String sesion = sesionActual();
+        marcarEscritura(sesion);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Escritura(sesion, conexion));
+    }
+
+    @Override
+    public Connection getConnectionLectura(String operacion) throws SQLException {
+        if (replicas.isEmpty()) {
+            return primario.getConnection(operacion);
+        }
+        if (dentroDeVentana(sesionActual())) {
+            lecturasPegajosas.increment();
+            return primario.getConnection(operacion);
+        }
+
+        int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                Connection conexion = replicas.get((inicio + i) % replicas.size()).getConnection(operacion);
+                lecturasReplica.increment();
+                return conexion;
+            } catch (SQLException e) {
+                fallosReplica.increment();
+                LOGGER.log(Level.FINE, "Réplica sin conexión para " + operacion, e);
+            }
+        }
+        LOGGER.warning("Ninguna réplica disponible para " + operacion + "; se lee del primario");
+        return primario.getConnection(operacion);
+    }
+
+    private boolean dentroDeVentana(String sesion) {
+        Long ultima = escrituras.get(sesion);
+        if (ultima == null) {
+            return false;
+        }
+        if (System.nanoTime() - ultima < ventanaNanos) {
+            return true;
+        }
+        escrituras.remove(sesion, ultima);
+        return false;
+    }
+
+    private void marcarEscritura(String sesion) {
+        if (escrituras.size() > LIMITE_SESIONES) {
+            purgar();
+        }
+        escrituras.put(sesion, System.nanoTime());
+    }
+
+    private void purgar() {
+        long ahora = System.nanoTime();
+        escrituras.values().removeIf(ultima -> ahora - ultima >= ventanaNanos);
+    }
+
+    private static String sesionActual() {
+        String sesion = SESION.get();
+        return sesion != null ? sesion : "hilo-" + Thread.currentThread().threadId();
+    }
+
+    /**
+     * Cierra las conexiones libres del primario y de las réplicas.
+     */
+    @Override
+    public void cerrar() {
+        primario.cerrar();
+        replicas.forEach(PoolConexiones::cerrar);
+    }
+
+    public PoolConexiones getPrimario() { return primario; }
+
+    public List<PoolConexiones> getReplicas() { return replicas; }
+
+    // Lecturas servidas por una réplica
+    public long getLecturasReplica() { return lecturasReplica.sum(); }
+
+    // Lecturas enviadas al primario por caer dentro de la ventana de una escritura de su sesión
+    public long getLecturasPegajosas() { return lecturasPegajosas.sum(); }
+
+    // Préstamos fallidos en una réplica, tras los que se probó la siguiente o el primario
+    public long getFallosReplica() { return fallosReplica.sum(); }
+
+    /**
+     * Conexión del primario prestada a una sesión: {@code commit()} y el primer {@code close()}
+     * vuelven a marcar la escritura de la sesión que la pidió, aunque se cierre desde otro hilo.
+     */
+    private final class Escritura implements InvocationHandler {
+        private final String sesion;
+        private final Connection conexion;
+        private boolean cerrada;
+
+        private Escritura(String sesion, Connection conexion) {
+            this.sesion = sesion;
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] argumentos) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    conexion.close();
+                    synchronized (this) {
+                        if (!cerrada) {
+                            cerrada = true;
+                            marcarEscritura(sesion);
+                        }
+                    }
+                    return null;
+                case "equals":
+                    return proxy == argumentos[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    Object resultado;
+                    try {
+                        resultado = metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (metodo.getName().equals("commit")) {
+                        marcarEscritura(sesion);
+                    }
+                    return resultado;
+            }
+        }
+    }
+
+    /**
+     * Ámbito abierto por {@link #sesion(String)}; al cerrarse restaura la sesión anterior del hilo.
+     */
+    public static final class Ambito implements AutoCloseable {
+        private final String anterior;
+
+        private Ambito(String anterior) {
+            this.anterior = anterior;
+        }
+
+        @Override
+        public void close() {
+            if (anterior == null) {
+                SESION.remove();
+            } else {
+                SESION.set(anterior);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package mx.uv.feaa.util;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Origen de las conexiones físicas que reparte {@link PoolConexiones}.
+ * <p>
+ * Por defecto es el servidor MySQL de {@code database.properties}; las pruebas y los benchmarks
+ * pueden usar {@link BaseDatosMemoria} con un {@link PoolConexiones} propio.
+ * </p>
+ */
+@FunctionalInterface
+public interface FabricaConexiones {
+
+    /**
+     * Abre una conexión nueva. El pool la cierra cuando la descarta.
+     */
+    Connection abrir() throws SQLException;
+
+    /**
+     * @return una fábrica que abre conexiones con {@link DriverManager}
+     */
+    static FabricaConexiones jdbc(String url, String usuario, String password) {
+        return () -> DriverManager.getConnection(url, usuario, password);
+    }
+}
@@ -0,0 +1,62 @@
+package mx.uv.feaa.util;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Cómo se guarda en su columna una clave generada con {@link GeneradorIds}.
+ * <p>
+ * {@link #TEXTO} es el {@code VARCHAR} de siempre. {@link #BINARIO} guarda el UUID en una columna
+ * {@code BINARY(16)}: 16 bytes en lugar de 36 caracteres, que se repiten en cada índice secundario
+ * porque InnoDB los agrega a sus entradas. En el código la clave sigue siendo texto; al leerla se
+ * escribe en la forma de {@code -Dhipica.ids} ({@link UuidOrdenado#texto(java.util.UUID)}).
+ * </p>
+ */
+public enum FormatoClave {
+    TEXTO {
+        @Override
+        public void asignar(PreparedStatement stmt, int indice, String clave) throws SQLException {
+            stmt.setString(indice, clave);
+        }
+
+        @Override
+        public String leer(ResultSet rs, String columna) throws SQLException {
+            return rs.getString(columna);
+        }
+    },
+    BINARIO {
+        @Override
+        public void asignar(PreparedStatement stmt, int indice, String clave) throws SQLException {
+            if (clave == null) {
+                stmt.setNull(indice, Types.BINARY);
+                return;
+            }
+            try {
+                stmt.setBytes(indice, UuidOrdenado.aBinario(UuidOrdenado.analizar(clave)));
+            } catch (IllegalArgumentException e) {
+                throw new SQLException("La clave " + clave + " no es un UUID y la columna es BINARY(16)", e);
+            }
+        }
+
+        @Override
+        public String leer(ResultSet rs, String columna) throws SQLException {
+            byte[] bytes = rs.getBytes(columna);
+            return bytes == null ? null : UuidOrdenado.texto(UuidOrdenado.deBinario(bytes));
+        }
+    };
+
+    /**
+     * Asigna la clave al parámetro {@code indice} de la sentencia.
+     *
+     * @throws SQLException si la clave no cabe en la columna, por ejemplo un texto que no es UUID
+     *                      en {@link #BINARIO}
+     */
+    public abstract void asignar(PreparedStatement stmt, int indice, String clave) throws SQLException;
+
+    /**
+     * @return la clave de la columna como texto, o null si es NULL
+     */
+    public abstract String leer(ResultSet rs, String columna) throws SQLException;
+}
@@ -0,0 +1,177 @@
+package mx.uv.feaa.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bases de datos entre las que se reparte una tabla, elegidas por hashing consistente de una
+ * clave (para las apuestas, el {@code carrera_id}).
+ * <p>
+ * Cada fragmento ocupa {@value #NODOS_VIRTUALES} puntos de un anillo de 64 bits, calculados a
+ * partir de su nombre; una clave pertenece al primer punto a partir de su propio hash. Agregar o
+ * quitar un fragmento solo cambia de dueño a la parte de las claves que le corresponde, que
+ * {@code ReparticionApuestasService} mueve después.
+ * </p>
+ * <p>
+ * Las consultas que no llevan la clave se hacen en todos los fragmentos a la vez con
+ * {@link #reunir(ConsultaFragmento)}.
+ * </p>
+ * <p>
+ * Todos los fragmentos guardan las claves de sus filas en el mismo {@link FormatoClave}, que los
+ * DAOs toman de {@link #getFormatoClaves()}.
+ * </p>
+ */
+public final class FragmentosConexiones {
+    static final int NODOS_VIRTUALES = 160;
+
+    /**
+     * Consulta ejecutada en un fragmento.
+     */
+    @FunctionalInterface
+    public interface ConsultaFragmento<T> {
+        T ejecutar(ProveedorConexiones fragmento) throws SQLException;
+    }
+
+    private final Map<String, ProveedorConexiones> fragmentos;
+    private final TreeMap<Long, String> anillo = new TreeMap<>();
+    private final FormatoClave formatoClaves;
+
+    /**
+     * @param fragmentos las bases por nombre; el nombre fija su posición en el anillo, así que debe
+     *                   conservarse entre arranques
+     */
+    public FragmentosConexiones(Map<String, ProveedorConexiones> fragmentos) {
+        this(fragmentos, FormatoClave.TEXTO);
+    }
+
+    /**
+     * @param fragmentos    las bases por nombre; el nombre fija su posición en el anillo, así que
+     *                      debe conservarse entre arranques
+     * @param formatoClaves cómo guardan los fragmentos las claves de sus filas
+     */
+    public FragmentosConexiones(Map<String, ProveedorConexiones> fragmentos, FormatoClave formatoClaves) {
+        if (fragmentos.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un fragmento");
+        }
+        this.fragmentos = Collections.unmodifiableMap(new LinkedHashMap<>(fragmentos));
+        this.formatoClaves = formatoClaves;
+        for (String nombre : fragmentos.keySet()) {
+            for (int i = 0; i < NODOS_VIRTUALES; i++) {
+                anillo.put(hash(nombre + "#" + i), nombre);
+            }
+        }
+    }
+
+    /**
+     * Un solo fragmento: todo va al mismo proveedor, sin hilos adicionales.
+     */
+    public static FragmentosConexiones unico(ProveedorConexiones proveedor) {
+        return unico(proveedor, FormatoClave.TEXTO);
+    }
+
+    /**
+     * Un solo fragmento que guarda las claves en el formato indicado.
+     */
+    public static FragmentosConexiones unico(ProveedorConexiones proveedor, FormatoClave formatoClaves) {
+        return new FragmentosConexiones(Map.of("unico", proveedor), formatoClaves);
+    }
+
+    /**
+     * @return el nombre del fragmento dueño de la clave
+     */
+    public String fragmentoDe(String clave) {
+        if (fragmentos.size() == 1) {
+            return fragmentos.keySet().iterator().next();
+        }
+        Map.Entry<Long, String> punto = anillo.ceilingEntry(hash(clave));
+        return (punto != null ? punto : anillo.firstEntry()).getValue();
+    }
+
+    /**
+     * @return el proveedor del fragmento dueño de la clave
+     */
+    public ProveedorConexiones proveedorDe(String clave) {
+        return fragmentos.get(fragmentoDe(clave));
+    }
+
+    public Map<String, ProveedorConexiones> getFragmentos() {
+        return fragmentos;
+    }
+
+    public FormatoClave getFormatoClaves() {
+        return formatoClaves;
+    }
+
+    public int size() {
+        return fragmentos.size();
+    }
+
+    /**
+     * Ejecuta la consulta en todos los fragmentos en paralelo, un hilo virtual por fragmento.
+     *
+     * @return los resultados en el orden de los fragmentos
+     * @throws SQLException la primera falla; las de los demás fragmentos quedan como suprimidas
+     */
+    public <T> List<T> reunir(ConsultaFragmento<T> consulta) throws SQLException {
+        if (fragmentos.size() == 1) {
+            return List.of(consulta.ejecutar(fragmentos.values().iterator().next()));
+        }
+        List<Future<T>> pendientes = new ArrayList<>(fragmentos.size());
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ProveedorConexiones fragmento : fragmentos.values()) {
+                pendientes.add(ejecutor.submit(() -> consulta.ejecutar(fragmento)));
+            }
+        }
+
+        List<T> resultados = new ArrayList<>(pendientes.size());
+        SQLException falla = null;
+        for (Future<T> pendiente : pendientes) {
+            try {
+                resultados.add(pendiente.get());
+            } catch (ExecutionException e) {
+                SQLException causa = e.getCause() instanceof SQLException sql ? sql
+                        : new SQLException("Error en un fragmento", e.getCause());
+                if (falla == null) {
+                    falla = causa;
+                } else {
+                    falla.addSuppressed(causa);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido esperando a los fragmentos", e);
+            }
+        }
+        if (falla != null) {
+            throw falla;
+        }
+        return resultados;
+    }
+
+    /**
+     * FNV-1a de 64 bits con la mezcla final de MurmurHash3, para que claves casi iguales
+     * ({@code CAR-1}, {@code CAR-2}) queden repartidas por todo el anillo.
+     */
+    static long hash(String clave) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : clave.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53a51ceL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
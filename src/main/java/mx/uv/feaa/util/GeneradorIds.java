@@ -0,0 +1,42 @@
+package mx.uv.feaa.util;
+
+import java.util.UUID;
+
+/**
+ * Genera las claves primarias de las filas nuevas.
+ * <p>
+ * El modo predeterminado se elige con {@code -Dhipica.ids=ordenado|compacto|aleatorio} y por
+ * omisión es {@code ordenado}: un UUIDv7 en su forma de 36 caracteres, creciente en el tiempo,
+ * de modo que las inserciones caen al final del índice de la clave primaria en lugar de repartirse
+ * por todo el árbol. {@code compacto} es el mismo valor en 26 caracteres que también se ordenan
+ * ({@link UuidOrdenado#compacto(UUID)}); {@code aleatorio} es el {@code UUID.randomUUID()} de antes.
+ * </p>
+ * <p>
+ * Los identificadores que deben ser impredecibles, como los tokens de sesión, no deben salir de
+ * aquí: un UUIDv7 revela cuándo se creó y sus vecinos son fáciles de adivinar.
+ * </p>
+ */
+@FunctionalInterface
+public interface GeneradorIds {
+
+    String siguiente();
+
+    /**
+     * @return el generador de {@code -Dhipica.ids}
+     */
+    static GeneradorIds predeterminado() {
+        return UuidOrdenado.PREDETERMINADO;
+    }
+
+    /**
+     * @param modo {@code ordenado}, {@code compacto} o {@code aleatorio}
+     */
+    static GeneradorIds de(String modo) {
+        return switch (modo) {
+            case "ordenado" -> () -> UuidOrdenado.siguiente().toString();
+            case "compacto" -> () -> UuidOrdenado.compacto(UuidOrdenado.siguiente());
+            case "aleatorio" -> () -> UUID.randomUUID().toString();
+            default -> throw new IllegalArgumentException("Modo de identificadores desconocido: " + modo);
+        };
+    }
+}
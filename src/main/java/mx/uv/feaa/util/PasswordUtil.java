@@ -1,5 +1,7 @@
 package mx.uv.feaa.util;
 
+import mx.uv.feaa.metricas.EventoPassword;
+
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -10,6 +12,8 @@ public class PasswordUtil {
     private static final String HASH_ALGORITHM = "SHA-256";
 
     public static String hashPassword(String password) {
+        EventoPassword evento = new EventoPassword();
+        evento.begin();
         try {
             // Generar salt aleatorio
             SecureRandom random = new SecureRandom();
@@ -29,10 +33,20 @@ public class PasswordUtil {
             return Base64.getEncoder().encodeToString(combined);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Error al hashear contraseña", e);
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.operacion = "hash";
+                evento.valida = true;
+                evento.commit();
+            }
         }
     }
 
     public static boolean verificarPassword(String inputPassword, String storedHash) {
+        EventoPassword evento = new EventoPassword();
+        evento.begin();
+        boolean valida = false;
         try {
             // Decodificar el hash almacenado
             byte[] combined = Base64.getDecoder().decode(storedHash);
@@ -49,9 +63,17 @@ public class PasswordUtil {
             byte[] inputHash = digest.digest(inputPassword.getBytes());
 
             // Comparar hashes
-            return MessageDigest.isEqual(originalHash, inputHash);
+            valida = MessageDigest.isEqual(originalHash, inputHash);
+            return valida;
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("Error al verificar contraseña", e);
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.operacion = "verificar";
+                evento.valida = valida;
+                evento.commit();
+            }
         }
     }
 }
\ No newline at end of file
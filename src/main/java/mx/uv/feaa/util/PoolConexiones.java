@@ -0,0 +1,301 @@
+package mx.uv.feaa.util;
+
+import mx.uv.feaa.metricas.EventoOperacionDAO;
+import mx.uv.feaa.metricas.HistogramaLatencia;
+import mx.uv.feaa.metricas.MedidorOperacion;
+import mx.uv.feaa.metricas.MetricasDAO;
+import mx.uv.feaa.metricas.TrazadorSQL;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * <p>
+ * Los DAOs cierran la conexión al terminar cada operación (try-with-resources); aquí ese
+ * {@code close()} devuelve la conexión física al pool en lugar de cerrarla. Cada préstamo recibe
+ * su propio envoltorio, de modo que cerrarlo dos veces, o que un DAO anidado cierre la suya,
+ * no afecta a las conexiones que usan otros hilos u otras llamadas.
+ * </p>
+ * <p>
+ * Cada préstamo registra en su {@link MedidorOperacion} el tiempo desde que se pidió la conexión
+ * hasta que se devolvió, y si alguna de las sentencias creadas con ella lanzó una excepción.
+ * Con {@link TrazadorSQL} activo, las sentencias se envuelven en {@link SentenciaTrazada} para
+ * informar cada ejecución. Cada préstamo es además un {@link EventoOperacionDAO} de JFR.
+ * </p>
+ */
+public final class PoolConexiones implements ProveedorConexiones {
+    private static final Logger LOGGER = Logger.getLogger(PoolConexiones.class.getName());
+    private static final long INACTIVIDAD_VALIDACION_MS = 30_000;
+    private static final int TIMEOUT_VALIDACION_S = 2;
+
+    private final FabricaConexiones fabrica;
+    private final long esperaMaximaMs;
+    private final int tamanoMaximo;
+    private final Semaphore disponibles;
+    private final LongAdder creadas = new LongAdder();
+    private final LongAdder esperasAgotadas = new LongAdder();
+    private final HistogramaLatencia esperas = new HistogramaLatencia();
+    private final ConcurrentLinkedDeque<Fisica> libres = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param fabrica abre cada conexión física nueva
+     * @param tamanoMaximo conexiones prestadas a la vez como máximo
+     * @param esperaMaximaMs espera por una conexión libre antes de fallar con {@link SQLException}
+     */
+    public PoolConexiones(FabricaConexiones fabrica, int tamanoMaximo, long esperaMaximaMs) {
+        this.fabrica = fabrica;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.tamanoMaximo = tamanoMaximo;
+        this.disponibles = new Semaphore(tamanoMaximo, true);
+    }
+
+    /**
+     * Presta una conexión atribuida a la operación en {@link MetricasDAO}.
+     */
+    @Override
+    public Connection getConnection(String operacion) throws SQLException {
+        long inicio = System.nanoTime();
+        return obtener(MetricasDAO.getInstancia().medidor(operacion), inicio);
+    }
+
+    /**
+     * Presta una conexión, esperando a lo sumo el tiempo configurado si todas están en uso.
+     *
+     * @param medidor la operación a la que se atribuye el préstamo
+     * @param inicio el instante, según {@link System#nanoTime()}, en que se pidió la conexión
+     */
+    Connection obtener(MedidorOperacion medidor, long inicio) throws SQLException {
+        try {
+            return prestar(medidor, inicio);
+        } catch (SQLException | RuntimeException e) {
+            medidor.registrar(System.nanoTime() - inicio, true);
+            throw e;
+        }
+    }
+
+    private Connection prestar(MedidorOperacion medidor, long inicio) throws SQLException {
+        try {
+            boolean adquirida = disponibles.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+            esperas.registrar(System.nanoTime() - inicio);
+            if (!adquirida) {
+                esperasAgotadas.increment();
+                throw new SQLException("No hay conexiones disponibles en el pool tras " + esperaMaximaMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando una conexión", e);
+        }
+
+        try {
+            Fisica fisica;
+            while ((fisica = libres.pollFirst()) != null) {
+                if (fisica.esUtilizable()) {
+                    return fisica.prestar(medidor, inicio);
+                }
+                ConexionBD.cerrar(fisica.conexion);
+            }
+            Fisica nueva = new Fisica(fabrica.abrir());
+            creadas.increment();
+            return nueva.prestar(medidor, inicio);
+        } catch (SQLException | RuntimeException e) {
+            disponibles.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra las conexiones libres; las prestadas se cierran al devolverse.
+     */
+    @Override
+    public void cerrar() {
+        Fisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            ConexionBD.cerrar(fisica.conexion);
+        }
+    }
+
+    public int getTamanoMaximo() { return tamanoMaximo; }
+
+    public int getEnUso() { return tamanoMaximo - disponibles.availablePermits(); }
+
+    public int getLibres() { return libres.size(); }
+
+    public int getEnEspera() { return disponibles.getQueueLength(); }
+
+    // Conexiones físicas abiertas desde el arranque, incluidas las que reemplazan a otras descartadas
+    public long getCreadas() { return creadas.sum(); }
+
+    // Préstamos que fallaron por agotarse la espera sin que se liberara ninguna conexión
+    public long getEsperasAgotadas() { return esperasAgotadas.sum(); }
+
+    // Tiempo que cada préstamo esperó a que hubiera una conexión libre, incluidos los agotados
+    public HistogramaLatencia getEsperas() { return esperas; }
+
+    private void devolver(Fisica fisica) {
+        try {
+            if (!fisica.conexion.getAutoCommit()) {
+                fisica.conexion.rollback();
+                fisica.conexion.setAutoCommit(true);
+            }
+            fisica.ultimoUso = System.currentTimeMillis();
+            libres.offerFirst(fisica);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Se descarta una conexión que no pudo restablecerse", e);
+            ConexionBD.cerrar(fisica.conexion);
+        } finally {
+            disponibles.release();
+        }
+    }
+
+    /**
+     * Conexión física y su estado dentro del pool.
+     */
+    private final class Fisica {
+        private final Connection conexion;
+        private long ultimoUso = System.currentTimeMillis();
+
+        private Fisica(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        private boolean esUtilizable() throws SQLException {
+            if (conexion.isClosed()) {
+                return false;
+            }
+            return System.currentTimeMillis() - ultimoUso < INACTIVIDAD_VALIDACION_MS
+                    || conexion.isValid(TIMEOUT_VALIDACION_S);
+        }
+
+        private Connection prestar(MedidorOperacion medidor, long inicio) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Prestamo(this, medidor, inicio));
+        }
+    }
+
+    /**
+     * Envoltorio de un préstamo: {@code close()} devuelve la conexión al pool una sola vez y
+     * cualquier uso posterior falla como si la conexión estuviera cerrada.
+     */
+    private final class Prestamo implements InvocationHandler {
+        private Fisica fisica;
+        private final MedidorOperacion medidor;
+        private final long inicio;
+        private volatile boolean error;
+        private List<SentenciaTrazada> trazadas;
+        private int sentencias;
+        private final EventoOperacionDAO evento = new EventoOperacionDAO();
+
+        private Prestamo(Fisica fisica, MedidorOperacion medidor, long inicio) {
+            this.fisica = fisica;
+            this.medidor = medidor;
+            this.inicio = inicio;
+            evento.begin();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] argumentos) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (fisica != null) {
+                            Fisica devuelta = fisica;
+                            fisica = null;
+                            long filas = terminarTrazadas();
+                            devolver(devuelta);
+                            medidor.registrar(System.nanoTime() - inicio, error);
+                            emitirEvento(filas);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return fisica == null || fisica.conexion.isClosed();
+                case "equals":
+                    return proxy == argumentos[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Conexión del pool " + (fisica != null ? fisica.conexion : "(devuelta)");
+                default:
+                    Fisica actual = fisica;
+                    if (actual == null) {
+                        throw new SQLException("La conexión ya fue devuelta al pool");
+                    }
+                    Object resultado = invocar(metodo, actual.conexion, argumentos);
+                    if (resultado instanceof Statement) {
+                        // createStatement, prepareStatement y prepareCall: se vigilan sus errores
+                        Class<?> tipo = metodo.getReturnType();
+                        sentencias++;
+                        if (TrazadorSQL.isActivo()) {
+                            return trazar(tipo, resultado, argumentos);
+                        }
+                        return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                                (sentencia, metodoSentencia, argumentosSentencia) ->
+                                        invocar(metodoSentencia, resultado, argumentosSentencia));
+                    }
+                    return resultado;
+            }
+        }
+
+        private Object trazar(Class<?> tipo, Object sentencia, Object[] argumentos) {
+            String sql = argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String s ? s : null;
+            SentenciaTrazada trazada = new SentenciaTrazada(sentencia, sql, medidor, this::invocar);
+            synchronized (this) {
+                if (trazadas == null) {
+                    trazadas = new ArrayList<>(4);
+                }
+                trazadas.add(trazada);
+            }
+            return Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, trazada);
+        }
+
+        // Informa las consultas cuyo ResultSet seguía abierto al devolver la conexión y suma sus filas
+        private long terminarTrazadas() {
+            long filas = 0;
+            if (trazadas != null) {
+                for (SentenciaTrazada trazada : trazadas) {
+                    trazada.terminarConsulta();
+                    filas += trazada.getFilas();
+                }
+                trazadas = null;
+            }
+            return filas;
+        }
+
+        private void emitirEvento(long filas) {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.dao = medidor.getDao();
+                evento.metodo = medidor.getMetodo();
+                evento.sentencias = sentencias;
+                evento.filas = filas;
+                evento.error = error;
+                evento.commit();
+            }
+        }
+
+        private Object invocar(Method metodo, Object destino, Object[] argumentos) throws Throwable {
+            try {
+                return metodo.invoke(destino, argumentos);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    error = true;
+                }
+                throw e.getCause();
+            }
+        }
+    }
+}
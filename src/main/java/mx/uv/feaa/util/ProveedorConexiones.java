@@ -0,0 +1,81 @@
+package mx.uv.feaa.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Origen de las conexiones que usan los DAOs, recibido en su constructor.
+ * <p>
+ * {@link PoolConexiones} es la implementación habitual; {@link ConexionBD#proveedor()} es la
+ * predeterminada, que reparte las conexiones de la base de {@code database.properties}. Una prueba
+ * puede pasar su propio pool sobre una {@link BaseDatosMemoria} sin tocar el estado global.
+ * </p>
+ */
+@FunctionalInterface
+public interface ProveedorConexiones {
+
+    /**
+     * Presta una conexión; cerrarla la devuelve.
+     *
+     * @param operacion el nombre de la operación, {@code "Dao.metodo"}, para las métricas
+     */
+    Connection getConnection(String operacion) throws SQLException;
+
+    /**
+     * Presta una conexión para una consulta de solo lectura que tolera el retraso de una réplica.
+     * Sin réplicas es la misma que {@link #getConnection(String)}; ver {@link EnrutadorConexiones}.
+     *
+     * @param operacion el nombre de la operación, {@code "Dao.metodo"}, para las métricas
+     */
+    default Connection getConnectionLectura(String operacion) throws SQLException {
+        return getConnection(operacion);
+    }
+
+    /**
+     * Ejecuta la transacción en una sola conexión: confirma si termina bien y deshace si lanza
+     * cualquier excepción, comprobada o no. La conexión vuelve a autocommit solo después de
+     * confirmar o deshacer: restaurarlo con la transacción abierta confirmaría el trabajo a medias.
+     *
+     * @param operacion el nombre de la operación, {@code "Dao.metodo"}, para las métricas
+     */
+    default void ejecutarTransaccion(String operacion, Transaccion transaccion) throws SQLException {
+        Connection conn = getConnection(operacion);
+        boolean terminada = false;
+        try {
+            conn.setAutoCommit(false);
+
+            transaccion.ejecutar(conn);
+            conn.commit();
+            terminada = true;
+
+        } catch (SQLException | RuntimeException | Error e) {
+            try {
+                conn.rollback();
+                terminada = true;
+            } catch (SQLException rollback) {
+                e.addSuppressed(rollback);
+            }
+            throw e;
+        } finally {
+            try {
+                if (terminada) {
+                    conn.setAutoCommit(true);
+                }
+            } finally {
+                // Si no se pudo deshacer, vuelve sin autocommit: el pool lo reintenta o la descarta
+                ConexionBD.cerrar(conn);
+            }
+        }
+    }
+
+    /**
+     * Cierra las conexiones que el proveedor tenga abiertas sin prestar.
+     */
+    default void cerrar() {
+    }
+
+    @FunctionalInterface
+    interface Transaccion {
+        void ejecutar(Connection conn) throws SQLException;
+    }
+}
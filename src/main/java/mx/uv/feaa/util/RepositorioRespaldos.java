@@ -0,0 +1,580 @@
+package mx.uv.feaa.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Respaldos incrementales en un directorio: los archivos se cortan en fragmentos según su
+ * contenido, cada fragmento se guarda una sola vez comprimido con Deflate y con su SHA-256 como
+ * nombre, y cada respaldo es un manifiesto de texto con la lista de fragmentos de cada archivo.
+ * <p>
+ * Los cortes dependen de los bytes (hash «gear» rodante, fragmentos de 2 a 64 KB, unos 8 KB en
+ * promedio), no de posiciones fijas, así que un cambio en medio de un archivo solo produce
+ * fragmentos nuevos alrededor del cambio. Un archivo con el mismo tamaño y la misma fecha de
+ * modificación que en el respaldo anterior ni siquiera se lee: se copian sus fragmentos del
+ * manifiesto anterior. Con eso el tiempo y el espacio de un respaldo dependen de lo que cambió.
+ * </p>
+ * <p>
+ * Los {@link AlmacenDiario} se respaldan desde una {@link AlmacenDiario#capturar() captura}: la
+ * instantánea, que no cambia una vez escrita, y el prefijo del diario que existía al capturar. Los
+ * escritores no esperan al respaldo; solo la compactación automática se pospone hasta que termina.
+ * </p>
+ * <p>
+ * Estructura: {@code fragmentos/<2 hex>/<sha-256>} y {@code manifiestos/respaldo-<instante>.txt}.
+ * El manifiesto se escribe al final, después de que todos sus fragmentos están en disco; un
+ * respaldo interrumpido solo deja fragmentos sin referencia, que {@link #podar(int)} elimina.
+ * </p>
+ * <p>
+ * Respaldar, restaurar y podar toman un bloqueo exclusivo sobre el archivo {@code bloqueo} del
+ * repositorio, y dentro del proceso un cerrojo de la instancia, así que se ejecutan de a uno aunque
+ * vengan de procesos distintos. Sin eso, {@link #podar(int)} borraría los fragmentos que un
+ * respaldo en curso ya escribió o dio por existentes, antes de que su manifiesto los referencie.
+ * Debe haber una sola instancia por directorio en cada proceso.
+ * </p>
+ */
+public final class RepositorioRespaldos implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(RepositorioRespaldos.class.getName());
+
+    private static final int FRAGMENTO_MINIMO = 2 << 10;
+    private static final int FRAGMENTO_MAXIMO = 64 << 10;
+    // 13 bits en cero: un corte cada 8 KB en promedio, además del mínimo
+    private static final long MASCARA_CORTE = (1L << 13) - 1 << 51;
+    private static final long[] GEAR = new long[256];
+
+    private static final String PREFIJO_MANIFIESTO = "respaldo-";
+    private static final String EXTENSION_MANIFIESTO = ".txt";
+    private static final DateTimeFormatter FORMATO_INSTANTE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final HexFormat HEX = HexFormat.of();
+    // Copias completas de la capa JSON anterior: usuarios_backup_2025-06-09T22-50-17.495963968.json
+    private static final Pattern COPIA_ANTIGUA = Pattern.compile("(.+)_backup_(.+)\\.json");
+    private static final DateTimeFormatter FORMATO_COPIA_ANTIGUA =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss[.SSSSSSSSS]");
+
+    static {
+        // Semilla fija: los cortes deben ser los mismos en todas las ejecuciones para deduplicar
+        SplittableRandom aleatorio = new SplittableRandom(0x6869706963614cL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = aleatorio.nextLong();
+        }
+    }
+
+    /**
+     * Archivo dentro de un respaldo.
+     *
+     * @param ruta       ruta relativa con {@code /}, la misma al restaurar
+     * @param tamano     bytes del archivo
+     * @param modificado milisegundos de la fecha de modificación al respaldar
+     * @param fragmentos SHA-256 de los fragmentos, en orden
+     */
+    public record Entrada(String ruta, long tamano, long modificado, List<String> fragmentos) {
+    }
+
+    /**
+     * @param almacenes directorios de {@link AlmacenDiario} entre las entradas; al restaurar se
+     *                  vacían antes, para que no quede una instantánea más nueva que la respaldada
+     */
+    public record Manifiesto(Instant momento, List<Entrada> entradas, List<String> almacenes) {
+
+        public long getTamano() {
+            return entradas.stream().mapToLong(Entrada::tamano).sum();
+        }
+    }
+
+    /**
+     * @param leidos    bytes leídos de los archivos; los que no cambiaron no se leen
+     * @param nuevos    fragmentos que no estaban en el repositorio
+     * @param escritos  bytes comprimidos de los fragmentos nuevos
+     */
+    public record Resultado(Manifiesto manifiesto, long leidos, int nuevos, long escritos) {
+    }
+
+    private final Path fragmentos;
+    private final Path manifiestos;
+    private final Path bloqueo;
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final ExecutorService segundoPlano = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "respaldos");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public RepositorioRespaldos(Path directorio) throws IOException {
+        this.fragmentos = directorio.resolve("fragmentos");
+        this.manifiestos = directorio.resolve("manifiestos");
+        this.bloqueo = directorio.resolve("bloqueo");
+        Files.createDirectories(fragmentos);
+        Files.createDirectories(manifiestos);
+    }
+
+    /**
+     * Respalda en el hilo de respaldos, uno a la vez, sin bloquear a quien lo pide.
+     */
+    public CompletableFuture<Resultado> respaldarEnSegundoPlano(Map<String, Path> archivos,
+                                                                Map<String, AlmacenDiario> almacenes) {
+        // La captura se toma aquí, para que el respaldo refleje el momento de la petición
+        Map<String, AlmacenDiario.Captura> capturas = capturar(almacenes);
+        Instant momento = Instant.now();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return respaldar(archivos, capturas, momento);
+                } catch (IOException e) {
+                    throw new DataAccessException("Error al respaldar", e);
+                } finally {
+                    capturas.values().forEach(AlmacenDiario.Captura::close);
+                }
+            }, segundoPlano);
+        } catch (RejectedExecutionException e) {
+            capturas.values().forEach(AlmacenDiario.Captura::close);
+            throw e;
+        }
+    }
+
+    /**
+     * @param archivos  archivos sueltos por su ruta dentro del respaldo; los que no existen se omiten
+     * @param almacenes almacenes por el directorio que ocupan dentro del respaldo
+     */
+    public Resultado respaldar(Map<String, Path> archivos, Map<String, AlmacenDiario> almacenes) throws IOException {
+        Map<String, AlmacenDiario.Captura> capturas = capturar(almacenes);
+        try {
+            return respaldar(archivos, capturas, Instant.now());
+        } finally {
+            capturas.values().forEach(AlmacenDiario.Captura::close);
+        }
+    }
+
+    private static Map<String, AlmacenDiario.Captura> capturar(Map<String, AlmacenDiario> almacenes) {
+        Map<String, AlmacenDiario.Captura> capturas = new LinkedHashMap<>();
+        almacenes.forEach((ruta, almacen) -> capturas.put(ruta, almacen.capturar()));
+        return capturas;
+    }
+
+    private Resultado respaldar(Map<String, Path> archivos, Map<String, AlmacenDiario.Captura> capturas,
+                                Instant momento) throws IOException {
+        return conBloqueo(() -> respaldarBloqueado(archivos, capturas, momento));
+    }
+
+    private Resultado respaldarBloqueado(Map<String, Path> archivos, Map<String, AlmacenDiario.Captura> capturas,
+                                         Instant momento) throws IOException {
+        Map<String, Entrada> anteriores = new HashMap<>();
+        ultimo().ifPresent(m -> m.entradas().forEach(e -> anteriores.put(e.ruta(), e)));
+        Contador contador = new Contador();
+        List<Entrada> entradas = new ArrayList<>();
+
+        for (Map.Entry<String, Path> archivo : archivos.entrySet()) {
+            if (Files.isRegularFile(archivo.getValue())) {
+                entradas.add(respaldarArchivo(archivo.getKey(), archivo.getValue(), Long.MAX_VALUE,
+                        anteriores.get(archivo.getKey()), contador));
+            }
+        }
+        for (Map.Entry<String, AlmacenDiario.Captura> almacen : capturas.entrySet()) {
+            AlmacenDiario.Captura captura = almacen.getValue();
+            if (captura.getInstantanea() != null) {
+                String ruta = almacen.getKey() + "/" + captura.getInstantanea().getFileName();
+                entradas.add(respaldarArchivo(ruta, captura.getInstantanea(), Long.MAX_VALUE,
+                        anteriores.get(ruta), contador));
+            }
+            String ruta = almacen.getKey() + "/" + captura.getDiario().getFileName();
+            entradas.add(respaldarArchivo(ruta, captura.getDiario(), captura.getLongitudDiario(),
+                    anteriores.get(ruta), contador));
+        }
+
+        Manifiesto manifiesto = new Manifiesto(momento, entradas, List.copyOf(capturas.keySet()));
+        escribirManifiesto(manifiesto);
+        LOGGER.info(String.format("Respaldo %s: %d archivos, %d bytes; %d leídos, %d fragmentos nuevos (%d bytes)",
+                FORMATO_INSTANTE.format(momento), entradas.size(), manifiesto.getTamano(), contador.leidos,
+                contador.nuevos, contador.escritos));
+        return new Resultado(manifiesto, contador.leidos, contador.nuevos, contador.escritos);
+    }
+
+    private static final class Contador {
+        long leidos;
+        int nuevos;
+        long escritos;
+    }
+
+    /**
+     * @param limite bytes a respaldar desde el inicio; para el diario, su tamaño al capturar
+     */
+    private Entrada respaldarArchivo(String ruta, Path archivo, long limite, Entrada anterior,
+                                     Contador contador) throws IOException {
+        long tamano = Math.min(Files.size(archivo), limite);
+        long modificado = Files.getLastModifiedTime(archivo).toMillis();
+        if (anterior != null && anterior.tamano() == tamano && anterior.modificado() == modificado) {
+            return new Entrada(ruta, tamano, modificado, anterior.fragmentos());
+        }
+
+        List<String> lista = new ArrayList<>();
+        byte[] fragmento = new byte[FRAGMENTO_MAXIMO];
+        byte[] buffer = new byte[64 << 10];
+        int llenos = 0;
+        long hash = 0;
+        long restantes = tamano;
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            while (restantes > 0) {
+                int leidos = entrada.read(buffer, 0, (int) Math.min(buffer.length, restantes));
+                if (leidos < 0) {
+                    break;
+                }
+                restantes -= leidos;
+                for (int i = 0; i < leidos; i++) {
+                    byte b = buffer[i];
+                    fragmento[llenos++] = b;
+                    hash = (hash << 1) + GEAR[b & 0xFF];
+                    if (llenos >= FRAGMENTO_MINIMO && (hash & MASCARA_CORTE) == 0 || llenos == FRAGMENTO_MAXIMO) {
+                        lista.add(guardarFragmento(fragmento, llenos, contador));
+                        llenos = 0;
+                        hash = 0;
+                    }
+                }
+            }
+        }
+        if (llenos > 0) {
+            lista.add(guardarFragmento(fragmento, llenos, contador));
+        }
+        contador.leidos += tamano - restantes;
+        return new Entrada(ruta, tamano - restantes, modificado, lista);
+    }
+
+    private String guardarFragmento(byte[] datos, int longitud, Contador contador) throws IOException {
+        MessageDigest sha = sha256();
+        sha.update(datos, 0, longitud);
+        String nombre = HEX.formatHex(sha.digest());
+        Path destino = rutaFragmento(nombre);
+        if (Files.exists(destino)) {
+            return nombre;
+        }
+        Files.createDirectories(destino.getParent());
+        Path temporal = Files.createTempFile(destino.getParent(), nombre, ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                DeflaterOutputStream salida = new DeflaterOutputStream(Channels.newOutputStream(canal),
+                        new Deflater(Deflater.DEFAULT_COMPRESSION));
+                salida.write(datos, 0, longitud);
+                salida.finish();
+                canal.force(true);
+                contador.escritos += canal.size();
+            }
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        contador.nuevos++;
+        return nombre;
+    }
+
+    private Path rutaFragmento(String nombre) {
+        return fragmentos.resolve(nombre.substring(0, 2)).resolve(nombre);
+    }
+
+    /**
+     * Formato: una línea {@code respaldo <instante>}, una {@code almacen <ruta>} por almacén y una
+     * {@code archivo <ruta> <tamaño> <modificado> <fragmentos separados por comas>} por archivo,
+     * con tabuladores entre campos.
+     */
+    private void escribirManifiesto(Manifiesto manifiesto) throws IOException {
+        Path destino = manifiestos.resolve(PREFIJO_MANIFIESTO + FORMATO_INSTANTE.format(manifiesto.momento())
+                + EXTENSION_MANIFIESTO);
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BufferedWriter escritor = new BufferedWriter(Channels.newWriter(canal, StandardCharsets.UTF_8));
+            escritor.write("respaldo\t" + manifiesto.momento() + "\n");
+            for (String almacen : manifiesto.almacenes()) {
+                escritor.write("almacen\t" + almacen + "\n");
+            }
+            for (Entrada entrada : manifiesto.entradas()) {
+                escritor.write("archivo\t" + entrada.ruta() + "\t" + entrada.tamano() + "\t" + entrada.modificado()
+                        + "\t" + String.join(",", entrada.fragmentos()) + "\n");
+            }
+            escritor.flush();
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Manifiesto leerManifiesto(Path archivo) throws IOException {
+        Instant momento = null;
+        List<Entrada> entradas = new ArrayList<>();
+        List<String> almacenes = new ArrayList<>();
+        for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+            String[] campos = linea.split("\t", -1);
+            switch (campos[0]) {
+                case "respaldo" -> momento = Instant.parse(campos[1]);
+                case "almacen" -> almacenes.add(campos[1]);
+                case "archivo" -> entradas.add(new Entrada(campos[1], Long.parseLong(campos[2]),
+                        Long.parseLong(campos[3]), campos[4].isEmpty() ? List.of() : List.of(campos[4].split(","))));
+                default -> throw new IOException("Línea desconocida en " + archivo + ": " + linea);
+            }
+        }
+        if (momento == null) {
+            throw new IOException("Manifiesto sin instante: " + archivo);
+        }
+        return new Manifiesto(momento, entradas, almacenes);
+    }
+
+    /**
+     * @return los respaldos, del más antiguo al más reciente
+     */
+    public List<Manifiesto> listar() throws IOException {
+        List<Manifiesto> lista = new ArrayList<>();
+        for (Path archivo : archivosManifiesto().values()) {
+            lista.add(leerManifiesto(archivo));
+        }
+        return lista;
+    }
+
+    public Optional<Manifiesto> ultimo() throws IOException {
+        TreeMap<String, Path> archivos = archivosManifiesto();
+        return archivos.isEmpty() ? Optional.empty() : Optional.of(leerManifiesto(archivos.lastEntry().getValue()));
+    }
+
+    /**
+     * @return el último respaldo hecho en {@code momento} o antes
+     */
+    public Optional<Manifiesto> vigenteEn(Instant momento) throws IOException {
+        Manifiesto vigente = null;
+        for (Manifiesto manifiesto : listar()) {
+            if (!manifiesto.momento().isAfter(momento)) {
+                vigente = manifiesto;
+            }
+        }
+        return Optional.ofNullable(vigente);
+    }
+
+    // Por nombre, que ordena igual que el instante
+    private TreeMap<String, Path> archivosManifiesto() throws IOException {
+        TreeMap<String, Path> archivos = new TreeMap<>();
+        try (DirectoryStream<Path> lista = Files.newDirectoryStream(manifiestos,
+                PREFIJO_MANIFIESTO + "*" + EXTENSION_MANIFIESTO)) {
+            for (Path archivo : lista) {
+                archivos.put(archivo.getFileName().toString(), archivo);
+            }
+        }
+        return archivos;
+    }
+
+    /**
+     * Restaura en {@code destino} el último respaldo hecho en {@code momento} o antes. Cada archivo
+     * se escribe en un temporal, se comprueba el SHA-256 de cada fragmento y se reemplaza el
+     * original; los directorios de almacenes se vacían primero. El almacén o la aplicación que use
+     * esos archivos debe estar detenido.
+     *
+     * @return el respaldo restaurado
+     * @throws IOException si no hay respaldo hasta ese momento, falta un fragmento o está dañado
+     */
+    public Manifiesto restaurar(Instant momento, Path destino) throws IOException {
+        return conBloqueo(() -> restaurarBloqueado(momento, destino));
+    }
+
+    private Manifiesto restaurarBloqueado(Instant momento, Path destino) throws IOException {
+        Manifiesto manifiesto = vigenteEn(momento)
+                .orElseThrow(() -> new NoSuchFileException("No hay respaldos hasta " + momento));
+        List<FileChannel> bloqueos = new ArrayList<>();
+        try {
+            for (String almacen : manifiesto.almacenes()) {
+                Path directorio = destino.resolve(almacen);
+                if (Files.isDirectory(directorio)) {
+                    // Falla si algún proceso tiene abierto el almacén que se va a reemplazar
+                    bloqueos.add(AlmacenDiario.bloquear(directorio, false));
+                    try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+                        for (Path archivo : archivos) {
+                            if (Files.isRegularFile(archivo)
+                                    && !archivo.getFileName().toString().equals(AlmacenDiario.BLOQUEO)) {
+                                Files.delete(archivo);
+                            }
+                        }
+                    }
+                }
+            }
+            for (Entrada entrada : manifiesto.entradas()) {
+                restaurarArchivo(entrada, destino.resolve(entrada.ruta()));
+            }
+        } finally {
+            for (FileChannel bloqueo : bloqueos) {
+                bloqueo.close();
+            }
+        }
+        LOGGER.info("Restaurado el respaldo " + manifiesto.momento() + " en " + destino);
+        return manifiesto;
+    }
+
+    private void restaurarArchivo(Entrada entrada, Path archivo) throws IOException {
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".restaurando");
+        long escritos = 0;
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream salida = Channels.newOutputStream(canal);
+            for (String nombre : entrada.fragmentos()) {
+                byte[] datos;
+                try (InputStream comprimido = new InflaterInputStream(Files.newInputStream(rutaFragmento(nombre)))) {
+                    datos = comprimido.readAllBytes();
+                }
+                if (!HEX.formatHex(sha256().digest(datos)).equals(nombre)) {
+                    throw new IOException("Fragmento dañado: " + nombre);
+                }
+                salida.write(datos);
+                escritos += datos.length;
+            }
+            if (escritos != entrada.tamano()) {
+                throw new IOException("Se restauraron " + escritos + " bytes de " + entrada.ruta()
+                        + " y el respaldo indica " + entrada.tamano());
+            }
+            canal.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Borra los respaldos más antiguos, dejando los {@code conservar} más recientes, y los
+     * fragmentos que ya no usa ninguno.
+     *
+     * @return fragmentos borrados
+     */
+    public int podar(int conservar) throws IOException {
+        return conBloqueo(() -> podarBloqueado(conservar));
+    }
+
+    private int podarBloqueado(int conservar) throws IOException {
+        List<Path> archivos = new ArrayList<>(archivosManifiesto().values());
+        for (Path archivo : archivos.subList(0, Math.max(0, archivos.size() - conservar))) {
+            Files.delete(archivo);
+        }
+        Set<String> usados = new HashSet<>();
+        for (Manifiesto manifiesto : listar()) {
+            manifiesto.entradas().forEach(e -> usados.addAll(e.fragmentos()));
+        }
+        int borrados = 0;
+        try (DirectoryStream<Path> grupos = Files.newDirectoryStream(fragmentos)) {
+            for (Path grupo : grupos) {
+                try (DirectoryStream<Path> lista = Files.newDirectoryStream(grupo)) {
+                    for (Path fragmento : lista) {
+                        if (!usados.contains(fragmento.getFileName().toString())) {
+                            Files.delete(fragmento);
+                            borrados++;
+                        }
+                    }
+                }
+            }
+        }
+        return borrados;
+    }
+
+    /**
+     * Convierte las copias completas que dejaba la capa JSON anterior
+     * ({@code usuarios_backup_<fecha>.json}) en respaldos de este repositorio, uno por fecha, con
+     * las rutas {@code usuarios.json}, {@code apostadores.json}, etc. Las copias no se borran.
+     *
+     * @return los respaldos creados
+     */
+    public List<Resultado> importarCopiasAntiguas(Path directorio) throws IOException {
+        TreeMap<Instant, Map<String, Path>> porFecha = new TreeMap<>();
+        try (DirectoryStream<Path> copias = Files.newDirectoryStream(directorio, "*_backup_*.json")) {
+            for (Path copia : copias) {
+                Matcher partes = COPIA_ANTIGUA.matcher(copia.getFileName().toString());
+                if (!partes.matches()) {
+                    continue;
+                }
+                try {
+                    Instant momento = LocalDateTime.parse(partes.group(2), FORMATO_COPIA_ANTIGUA)
+                            .atZone(ZoneId.systemDefault()).toInstant();
+                    porFecha.computeIfAbsent(momento, m -> new LinkedHashMap<>())
+                            .put(partes.group(1) + ".json", copia);
+                } catch (DateTimeParseException e) {
+                    LOGGER.log(Level.WARNING, "Copia con fecha ilegible: " + copia, e);
+                }
+            }
+        }
+        List<Resultado> resultados = new ArrayList<>();
+        for (Map.Entry<Instant, Map<String, Path>> copia : porFecha.entrySet()) {
+            resultados.add(respaldar(copia.getValue(), Map.of(), copia.getKey()));
+        }
+        return resultados;
+    }
+
+    /**
+     * Operación sobre el repositorio que se ejecuta con el bloqueo tomado.
+     */
+    @FunctionalInterface
+    private interface Operacion<T> {
+        T ejecutar() throws IOException;
+    }
+
+    /**
+     * Ejecuta la operación con el cerrojo de la instancia y el bloqueo exclusivo del archivo
+     * {@code bloqueo}; si otro proceso lo tiene, espera a que lo suelte.
+     */
+    private <T> T conBloqueo(Operacion<T> operacion) throws IOException {
+        cerrojo.lock();
+        try (FileChannel canal = FileChannel.open(bloqueo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Cerrar el canal libera el bloqueo
+            canal.lock();
+            return operacion.ejecutar();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Espera a que termine el respaldo en curso, si lo hay.
+     */
+    @Override
+    public void close() {
+        segundoPlano.close();
+    }
+}
@@ -0,0 +1,237 @@
+package mx.uv.feaa.util;
+
+import mx.uv.feaa.metricas.MedidorOperacion;
+import mx.uv.feaa.metricas.TrazadorSQL;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Envoltorio de una sentencia prestada con una conexión del pool que informa cada ejecución a
+ * {@link TrazadorSQL}.
+ * <p>
+ * Guarda los valores enlazados con {@code setXxx}, los de cada fila agregada con {@code addBatch},
+ * y mide cada {@code execute*}. Las consultas se
+ * informan al cerrarse su {@code ResultSet} (o la sentencia, o al volver a ejecutarla), con las
+ * filas recorridas, porque la mayor parte del costo de una consulta suele estar en leerla.
+ * </p>
+ * <p>
+ * Como cualquier {@code Statement}, debe usarse desde un solo hilo a la vez.
+ * </p>
+ */
+final class SentenciaTrazada implements InvocationHandler {
+    private static final Object[] SIN_PARAMETROS = new Object[1];
+
+    /**
+     * Invoca el método real; el préstamo lo usa para marcarse como fallido ante una excepción SQL.
+     */
+    @FunctionalInterface
+    interface Invocador {
+        Object invocar(Method metodo, Object destino, Object[] argumentos) throws Throwable;
+    }
+
+    private final Object sentencia;
+    private final MedidorOperacion medidor;
+    private final Invocador invocador;
+    private final String sql;
+    private Object[] parametros = SIN_PARAMETROS;
+    // Filas del lote pendiente: los parámetros de cada addBatch() o el texto de cada addBatch(sql)
+    private List<Object> lote;
+
+    // Consulta cuyo ResultSet sigue abierto
+    private boolean consultaAbierta;
+    private String sqlConsulta;
+    private Object[] parametrosConsulta;
+    private long inicioConsulta;
+    private long filasConsulta;
+    private long filasTotales;
+
+    SentenciaTrazada(Object sentencia, String sql, MedidorOperacion medidor, Invocador invocador) {
+        this.sentencia = sentencia;
+        this.sql = sql;
+        this.medidor = medidor;
+        this.invocador = invocador;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method metodo, Object[] argumentos) throws Throwable {
+        String nombre = metodo.getName();
+        if (nombre.startsWith("execute")) {
+            return ejecutar(metodo, argumentos);
+        }
+        if (nombre.startsWith("set") && argumentos != null && argumentos.length >= 2
+                && argumentos[0] instanceof Integer indice) {
+            guardarParametro(indice, nombre.equals("setNull") ? null : argumentos[1]);
+        } else if (nombre.equals("clearParameters")) {
+            parametros = SIN_PARAMETROS;
+        } else if (nombre.equals("addBatch")) {
+            if (lote == null) {
+                lote = new ArrayList<>();
+            }
+            if (argumentos != null && argumentos.length > 0) {
+                lote.add(argumentos[0]);
+            } else {
+                lote.add(parametros == SIN_PARAMETROS ? null : parametros.clone());
+            }
+        } else if (nombre.equals("clearBatch")) {
+            lote = null;
+        } else if (nombre.equals("close")) {
+            terminarConsulta();
+        }
+        return invocador.invocar(metodo, sentencia, argumentos);
+    }
+
+    private Object ejecutar(Method metodo, Object[] argumentos) throws Throwable {
+        terminarConsulta();
+        if (metodo.getName().equals("executeBatch") || metodo.getName().equals("executeLargeBatch")) {
+            return ejecutarLote(metodo, argumentos);
+        }
+        String texto = argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String s ? s : sql;
+        Object[] enlazados = parametros == SIN_PARAMETROS ? null : parametros;
+        long inicio = System.nanoTime();
+        Object resultado;
+        try {
+            resultado = invocador.invocar(metodo, sentencia, argumentos);
+        } catch (Throwable e) {
+            informar(texto, enlazados, -1, System.nanoTime() - inicio, true);
+            throw e;
+        }
+
+        if (resultado instanceof ResultSet resultSet) {
+            consultaAbierta = true;
+            sqlConsulta = texto;
+            parametrosConsulta = enlazados != null ? enlazados.clone() : null;
+            inicioConsulta = inicio;
+            filasConsulta = 0;
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (rs, metodoRs, argumentosRs) -> recorrer(resultSet, metodoRs, argumentosRs));
+        }
+        informar(texto, enlazados, filas(resultado), System.nanoTime() - inicio, false);
+        return resultado;
+    }
+
+    private Object ejecutarLote(Method metodo, Object[] argumentos) throws Throwable {
+        List<Object> filasLote = lote != null ? lote : List.of();
+        lote = null;
+        // Un Statement acumula sentencias distintas; un PreparedStatement, parámetros para la misma
+        String texto = sql;
+        List<Object[]> enlazados = new ArrayList<>(filasLote.size());
+        StringBuilder sentencias = null;
+        for (Object fila : filasLote) {
+            if (fila instanceof String sentenciaLote) {
+                sentencias = sentencias == null ? new StringBuilder(sentenciaLote) : sentencias.append("; ").append(sentenciaLote);
+            } else {
+                enlazados.add((Object[]) fila);
+            }
+        }
+        if (sentencias != null) {
+            texto = texto == null ? sentencias.toString() : texto + "; " + sentencias;
+        }
+        long inicio = System.nanoTime();
+        Object resultado;
+        try {
+            resultado = invocador.invocar(metodo, sentencia, argumentos);
+        } catch (Throwable e) {
+            informarLote(texto, enlazados, -1, System.nanoTime() - inicio, true);
+            throw e;
+        }
+        informarLote(texto, enlazados, filas(resultado), System.nanoTime() - inicio, false);
+        return resultado;
+    }
+
+    private Object recorrer(ResultSet resultSet, Method metodo, Object[] argumentos) throws Throwable {
+        Object resultado;
+        try {
+            resultado = metodo.invoke(resultSet, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        switch (metodo.getName()) {
+            case "next":
+                if (Boolean.TRUE.equals(resultado)) {
+                    filasConsulta++;
+                }
+                break;
+            case "close":
+                terminarConsulta();
+                break;
+            default:
+                break;
+        }
+        return resultado;
+    }
+
+    /**
+     * Informa la consulta pendiente, si la hay. También la llama el préstamo al devolver la
+     * conexión, por si el DAO no cerró la sentencia.
+     */
+    void terminarConsulta() {
+        if (consultaAbierta) {
+            consultaAbierta = false;
+            informar(sqlConsulta, parametrosConsulta, filasConsulta, System.nanoTime() - inicioConsulta, false);
+            parametrosConsulta = null;
+        }
+    }
+
+    /**
+     * @return filas devueltas o afectadas por las ejecuciones ya informadas
+     */
+    long getFilas() {
+        return filasTotales;
+    }
+
+    private void informar(String texto, Object[] enlazados, long filas, long nanos, boolean error) {
+        if (filas > 0) {
+            filasTotales += filas;
+        }
+        TrazadorSQL.registrar(medidor, texto, enlazados, filas, nanos, error);
+    }
+
+    private void informarLote(String texto, List<Object[]> enlazados, long filas, long nanos, boolean error) {
+        if (filas > 0) {
+            filasTotales += filas;
+        }
+        TrazadorSQL.registrarLote(medidor, texto, enlazados.isEmpty() ? null : enlazados, filas, nanos, error);
+    }
+
+    private void guardarParametro(int indice, Object valor) {
+        if (indice < 1 || indice > 4096) {
+            return;
+        }
+        if (parametros == SIN_PARAMETROS || indice >= parametros.length) {
+            parametros = Arrays.copyOf(parametros, indice + 1);
+        }
+        parametros[indice] = valor instanceof InputStream || valor instanceof Reader ? "<flujo>" : valor;
+    }
+
+    private static long filas(Object resultado) {
+        if (resultado instanceof Integer n) {
+            return n;
+        }
+        if (resultado instanceof Long n) {
+            return n;
+        }
+        long total = 0;
+        if (resultado instanceof int[] conteos) {
+            for (int conteo : conteos) {
+                total += Math.max(0, conteo);
+            }
+            return total;
+        }
+        if (resultado instanceof long[] conteos) {
+            for (long conteo : conteos) {
+                total += Math.max(0, conteo);
+            }
+            return total;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,157 @@
+package mx.uv.feaa.util;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UUID versión 7 (RFC 9562): 48 bits con los milisegundos desde la época, 12 bits de contador y
+ * 62 bits aleatorios. Los valores crecen con el tiempo, así que las claves nuevas se insertan al
+ * final del índice y no en páginas al azar, que luego se dividen y salen del buffer pool.
+ * <p>
+ * Cada hilo guarda su último milisegundo y su contador, sin bloqueos ni estado compartido, por lo
+ * que los identificadores de un mismo hilo son estrictamente crecientes. Entre hilos el orden es
+ * el del reloj y la unicidad la dan los 62 bits aleatorios de {@link ThreadLocalRandom}; no se
+ * usa {@code SecureRandom}, a diferencia de {@link UUID#randomUUID()}.
+ * </p>
+ * <p>
+ * Formas de guardarlo: el texto canónico de 36 caracteres, que ordena igual que el valor; el
+ * {@linkplain #compacto(UUID) compacto} de 26 caracteres en base 32 de Crockford, que también
+ * ordena; o {@code BINARY(16)} con {@link #aBinario(UUID)} y {@link #deBinario(byte[])}.
+ * </p>
+ */
+public final class UuidOrdenado {
+    private static final String MODO = System.getProperty("hipica.ids", "ordenado");
+    static final GeneradorIds PREDETERMINADO = GeneradorIds.de(MODO);
+
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALORES = new byte[128];
+    private static final int LONGITUD_COMPACTO = 26;
+    private static final ThreadLocal<Estado> ESTADO = ThreadLocal.withInitial(Estado::new);
+
+    static {
+        Arrays.fill(VALORES, (byte) -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            VALORES[BASE32[i]] = (byte) i;
+            VALORES[Character.toLowerCase(BASE32[i])] = (byte) i;
+        }
+    }
+
+    private static final class Estado {
+        long milisegundos = -1;
+        int contador;
+    }
+
+    private UuidOrdenado() {
+    }
+
+    /**
+     * @return un UUIDv7 mayor que cualquiera generado antes por este hilo
+     */
+    public static UUID siguiente() {
+        Estado estado = ESTADO.get();
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long ahora = System.currentTimeMillis();
+        if (ahora > estado.milisegundos) {
+            estado.milisegundos = ahora;
+            // Empieza en la mitad baja para dejar margen a los siguientes del mismo milisegundo
+            estado.contador = aleatorio.nextInt(1 << 11);
+        } else if (++estado.contador > 0xFFF) {
+            // Contador agotado en este milisegundo, o el reloj retrocedió: se adelanta uno
+            estado.milisegundos++;
+            estado.contador = aleatorio.nextInt(1 << 11);
+        }
+        long alto = (estado.milisegundos << 16) | 0x7000L | estado.contador;
+        long bajo = (aleatorio.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(alto, bajo);
+    }
+
+    /**
+     * @return el instante codificado en un UUIDv7
+     */
+    public static Instant instante(UUID uuid) {
+        return Instant.ofEpochMilli(uuid.getMostSignificantBits() >>> 16);
+    }
+
+    /**
+     * @return los 128 bits en 26 caracteres de base 32 de Crockford, el primero entre 0 y 7; el
+     *         orden alfabético de los textos es el de los valores
+     */
+    public static String compacto(UUID uuid) {
+        long alto = uuid.getMostSignificantBits();
+        long bajo = uuid.getLeastSignificantBits();
+        char[] texto = new char[LONGITUD_COMPACTO];
+        for (int i = LONGITUD_COMPACTO - 1; i >= 0; i--) {
+            texto[i] = BASE32[(int) (bajo & 31)];
+            bajo = (bajo >>> 5) | (alto << 59);
+            alto >>>= 5;
+        }
+        return new String(texto);
+    }
+
+    /**
+     * Inverso de {@link #compacto(UUID)}; acepta minúsculas.
+     *
+     * @throws IllegalArgumentException si el texto no es un identificador compacto
+     */
+    public static UUID deCompacto(String texto) {
+        if (texto.length() != LONGITUD_COMPACTO || texto.charAt(0) > '7') {
+            throw new IllegalArgumentException("Identificador compacto inválido: " + texto);
+        }
+        long alto = 0;
+        long bajo = 0;
+        for (int i = 0; i < LONGITUD_COMPACTO; i++) {
+            char c = texto.charAt(i);
+            int valor = c < VALORES.length ? VALORES[c] : -1;
+            if (valor < 0) {
+                throw new IllegalArgumentException("Identificador compacto inválido: " + texto);
+            }
+            alto = (alto << 5) | (bajo >>> 59);
+            bajo = (bajo << 5) | valor;
+        }
+        return new UUID(alto, bajo);
+    }
+
+    /**
+     * Lee un identificador en forma canónica de 36 caracteres o compacta de 26.
+     *
+     * @throws IllegalArgumentException si no es ninguna de las dos
+     */
+    public static UUID analizar(String id) {
+        return id.length() == LONGITUD_COMPACTO ? deCompacto(id) : UUID.fromString(id);
+    }
+
+    /**
+     * @return el UUID en la forma de texto de {@code -Dhipica.ids}: compacto en modo
+     *         {@code compacto} y canónico en los demás
+     */
+    public static String texto(UUID uuid) {
+        return MODO.equals("compacto") ? compacto(uuid) : uuid.toString();
+    }
+
+    /**
+     * @return los 16 bytes de una columna {@code BINARY(16)}, en orden big-endian para que el
+     *         índice ordene igual que el valor
+     */
+    public static byte[] aBinario(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Inverso de {@link #aBinario(UUID)}.
+     *
+     * @throws IllegalArgumentException si no son 16 bytes
+     */
+    public static UUID deBinario(byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Se esperaban 16 bytes y hay " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
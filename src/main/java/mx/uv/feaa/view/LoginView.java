@@ -1,5 +1,6 @@
 package mx.uv.feaa.view;
 
+import mx.uv.feaa.metricas.Traza;
 import mx.uv.feaa.model.dao.UsuarioDAO;
 import mx.uv.feaa.model.dao.CriadorDAO;
 import mx.uv.feaa.model.dao.ApostadorDAO;
@@ -45,6 +46,9 @@ public class LoginView {
                 continue;
             }
 
+            // El inicio de sesión es una acción propia; el menú al que lleva abre las suyas
+            Usuario autenticado = null;
+            Traza traza = Traza.iniciar("Consola: inicio de sesión");
             try {
                 // Validar credenciales usando el DAO
                 if (usuarioDAO.validarCredenciales(nombreUsuario, password)) {
@@ -60,12 +64,7 @@ public class LoginView {
 
                         // Actualizar último acceso
                         usuarioDAO.actualizarUltimoAcceso(usuario.getIdUsuario());
-
-                        System.out.println("\n¡Bienvenido, " + usuario.getNombreUsuario() + "!");
-
-                        // Redireccionar según el tipo de usuario
-                        redirigirSegunTipoUsuario(usuario);
-                        return;
+                        autenticado = usuario;
                     }
                 } else {
                     System.out.println("\nError: Credenciales incorrectas.");
@@ -73,6 +72,16 @@ public class LoginView {
             } catch (SQLException e) {
                 System.err.println("Error al acceder a la base de datos: " + e.getMessage());
                 return;
+            } finally {
+                traza.close();
+            }
+
+            if (autenticado != null) {
+                System.out.println("\n¡Bienvenido, " + autenticado.getNombreUsuario() + "!");
+
+                // Redireccionar según el tipo de usuario
+                redirigirSegunTipoUsuario(autenticado);
+                return;
             }
 
             System.out.println("\n¿Desea intentar nuevamente? (s/n)");
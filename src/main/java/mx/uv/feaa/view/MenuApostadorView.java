@@ -1,19 +1,18 @@
 package mx.uv.feaa.view;
 
-import mx.uv.feaa.enumeracion.EstadoCarrera;
 import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.metricas.Traza;
 import mx.uv.feaa.model.dao.ApuestaDAO;
 import mx.uv.feaa.model.dao.ApostadorDAO;
-import mx.uv.feaa.model.dao.CarreraDAO;
-import mx.uv.feaa.model.dao.ParticipanteDAO;
 import mx.uv.feaa.model.entidades.*;
+import mx.uv.feaa.servicios.CatalogoCarreras;
+import mx.uv.feaa.util.GeneradorIds;
 import mx.uv.feaa.enumeracion.EstadoApuesta;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
-import java.util.UUID;
 
 public class MenuApostadorView {
     private final Scanner scanner;
@@ -37,28 +36,34 @@ public class MenuApostadorView {
             mostrarMenuPrincipal();
             String opcion = scanner.nextLine().trim();
 
-            switch (opcion) {
-                case "1":
-                    consultarSaldo();
-                    break;
-                case "2":
-                    consultarApuestas();
-                    break;
-                case "3":
-                    realizarDeposito();
-                    break;
-                case "4":
-                    realizarRetiro();
-                    break;
-                case "5":
-                    realizarApuesta();
-                    break;
-                case "0":
-                    System.out.println("Cerrando sesión...");
-                    return;
-                default:
-                    System.out.println("Opción no válida. Intente nuevamente.");
-                    break;
+            // Cada opción es una acción: sus sentencias SQL se agrupan en una traza
+            Traza traza = Traza.iniciarInteractiva("Menú apostador: opción " + opcion);
+            try {
+                switch (opcion) {
+                    case "1":
+                        consultarSaldo();
+                        break;
+                    case "2":
+                        consultarApuestas();
+                        break;
+                    case "3":
+                        realizarDeposito();
+                        break;
+                    case "4":
+                        realizarRetiro();
+                        break;
+                    case "5":
+                        realizarApuesta();
+                        break;
+                    case "0":
+                        System.out.println("Cerrando sesión...");
+                        return;
+                    default:
+                        System.out.println("Opción no válida. Intente nuevamente.");
+                        break;
+                }
+            } finally {
+                traza.close();
             }
 
             System.out.println("\nPresione Enter para continuar...");
@@ -84,8 +89,9 @@ public class MenuApostadorView {
         System.out.println("\n=== REALIZAR APUESTA ===");
 
         try {
-            CarreraDAO carreraDAO = new CarreraDAO();
-            List<Carrera> carreras = carreraDAO.getByEstado(EstadoCarrera.APUESTAS_ABIERTAS);
+            // Las carreras abiertas y sus participantes salen del catálogo compartido, sin consultar la BD
+            CatalogoCarreras.Instantanea catalogo = CatalogoCarreras.getInstancia().getInstantanea();
+            List<Carrera> carreras = catalogo.getCarreras();
 
             if (carreras.isEmpty()) {
                 System.out.println("No hay carreras disponibles para apostar");
@@ -106,8 +112,11 @@ public class MenuApostadorView {
             Carrera carrera = carreras.get(opcionCarrera);
 
             // Mostrar participantes
-            ParticipanteDAO participanteDAO = new ParticipanteDAO();
-            List<Participante> participantes = participanteDAO.getByCarreraId(carrera.getIdCarrera());
+            List<Participante> participantes = catalogo.getParticipantes(carrera.getIdCarrera());
+            if (participantes == null) {
+                System.out.println("La carrera ya no acepta apuestas");
+                return;
+            }
 
             System.out.println("\nPARTICIPANTES:");
             for (Participante p : participantes) {
@@ -126,7 +135,7 @@ public class MenuApostadorView {
 
             // Crear apuesta
             Apuesta apuesta = new ApuestaGanador(
-                    UUID.randomUUID().toString(),
+                    GeneradorIds.predeterminado().siguiente(),
                     apostador.getIdUsuario(),
                     carrera.getIdCarrera(),
                     (tipoApuesta == 1) ? TipoApuesta.GANADOR : TipoApuesta.COLOCADO,
@@ -150,7 +159,7 @@ public class MenuApostadorView {
             }
 
             selecciones.add(new ApuestaSeleccion(
-                    UUID.randomUUID().toString(),
+                    GeneradorIds.predeterminado().siguiente(),
                     apuesta.getId(),
                     participanteSeleccionado.getIdParticipante(),
                     1
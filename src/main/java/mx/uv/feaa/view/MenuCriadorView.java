@@ -1,5 +1,6 @@
 package mx.uv.feaa.view;
 
+import mx.uv.feaa.metricas.Traza;
 import mx.uv.feaa.model.dao.CaballoDAO;
 import mx.uv.feaa.model.dao.EstadisticasRendimientoDAO;
 import mx.uv.feaa.model.dao.HistorialCarreraDAO;
@@ -7,6 +8,7 @@ import mx.uv.feaa.model.entidades.Caballo;
 import mx.uv.feaa.model.entidades.Criador;
 import mx.uv.feaa.model.entidades.EstadisticasRendimiento;
 import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.util.GeneradorIds;
 import mx.uv.feaa.enumeracion.SexoCaballo;
 
 import java.sql.SQLException;
@@ -16,7 +18,6 @@ import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
-import java.util.UUID;
 
 public class MenuCriadorView {
     private final Scanner scanner;
@@ -50,34 +51,40 @@ public class MenuCriadorView {
             mostrarMenuPrincipal();
             String opcion = scanner.nextLine().trim();
 
-            switch (opcion) {
-                case "1":
-                    listarCaballos();
-                    break;
-                case "2":
-                    registrarCaballo();
-                    break;
-                case "3":
-                    editarCaballo();
-                    break;
-                case "4":
-                    eliminarCaballo();
-                    break;
-                case "5":
-                    verEstadisticasCaballo();
-                    break;
-                case "6":
-                    verHistorialCaballo();
-                    break;
-                case "7":
-                    verResumenGeneral();
-                    break;
-                case "0":
-                    System.out.println("Cerrando sesión...");
-                    return;
-                default:
-                    System.out.println("Opción no válida. Intente nuevamente.");
-                    break;
+            // Cada opción es una acción: sus sentencias SQL se agrupan en una traza
+            Traza traza = Traza.iniciarInteractiva("Menú criador: opción " + opcion);
+            try {
+                switch (opcion) {
+                    case "1":
+                        listarCaballos();
+                        break;
+                    case "2":
+                        registrarCaballo();
+                        break;
+                    case "3":
+                        editarCaballo();
+                        break;
+                    case "4":
+                        eliminarCaballo();
+                        break;
+                    case "5":
+                        verEstadisticasCaballo();
+                        break;
+                    case "6":
+                        verHistorialCaballo();
+                        break;
+                    case "7":
+                        verResumenGeneral();
+                        break;
+                    case "0":
+                        System.out.println("Cerrando sesión...");
+                        return;
+                    default:
+                        System.out.println("Opción no válida. Intente nuevamente.");
+                        break;
+                }
+            } finally {
+                traza.close();
             }
 
             System.out.println("\nPresione Enter para continuar...");
@@ -204,7 +211,7 @@ public class MenuCriadorView {
 
             // Crear el caballo
             Caballo nuevoCaballo = new Caballo();
-            nuevoCaballo.setIdCaballo(UUID.randomUUID().toString());
+            nuevoCaballo.setIdCaballo(GeneradorIds.predeterminado().siguiente());
             nuevoCaballo.setNombre(nombre);
             nuevoCaballo.setFechaNacimiento(fechaNacimiento);
             nuevoCaballo.setSexo(sexo);
@@ -0,0 +1,26 @@
+-- Esquema de un fragmento de apuestas con jdbc.apuestas.idsBinarios=true: el de apuestas-h2.sql con
+-- las claves de las apuestas y sus selecciones en BINARY(16) (FormatoClave.BINARIO).
+
+CREATE TABLE IF NOT EXISTS Apuesta (
+    idApuesta BINARY(16) PRIMARY KEY,
+    apostador_id VARCHAR(50) NOT NULL,
+    carrera_id VARCHAR(50) NOT NULL,
+    tipoApuesta VARCHAR(20) NOT NULL,
+    montoApostado DECIMAL(12, 2) NOT NULL,
+    fechaApuesta TIMESTAMP NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    cuotaAplicada DOUBLE,
+    montoGanado DECIMAL(12, 2) DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS idx_apuesta_apostador ON Apuesta (apostador_id);
+CREATE INDEX IF NOT EXISTS idx_apuesta_carrera ON Apuesta (carrera_id);
+CREATE INDEX IF NOT EXISTS idx_apuesta_estado ON Apuesta (estado);
+
+CREATE TABLE IF NOT EXISTS ApuestaSeleccion (
+    idSeleccion BINARY(16) PRIMARY KEY,
+    apuesta_id BINARY(16) NOT NULL,
+    participante_id VARCHAR(50) NOT NULL,
+    ordenSeleccion INT NOT NULL,
+    FOREIGN KEY (apuesta_id) REFERENCES Apuesta (idApuesta) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_seleccion_apuesta ON ApuestaSeleccion (apuesta_id);
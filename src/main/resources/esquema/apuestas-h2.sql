@@ -0,0 +1,27 @@
+-- Esquema de un fragmento de apuestas (jdbc.apuestas.fragmentos): solo Apuesta y ApuestaSeleccion.
+-- Apostadores, carreras y participantes siguen en la base principal, así que aquí no hay claves
+-- foráneas hacia ellos; el mismo esquema sirve para crear los fragmentos en MySQL.
+
+CREATE TABLE IF NOT EXISTS Apuesta (
+    idApuesta VARCHAR(50) PRIMARY KEY,
+    apostador_id VARCHAR(50) NOT NULL,
+    carrera_id VARCHAR(50) NOT NULL,
+    tipoApuesta VARCHAR(20) NOT NULL,
+    montoApostado DECIMAL(12, 2) NOT NULL,
+    fechaApuesta TIMESTAMP NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    cuotaAplicada DOUBLE,
+    montoGanado DECIMAL(12, 2) DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS idx_apuesta_apostador ON Apuesta (apostador_id);
+CREATE INDEX IF NOT EXISTS idx_apuesta_carrera ON Apuesta (carrera_id);
+CREATE INDEX IF NOT EXISTS idx_apuesta_estado ON Apuesta (estado);
+
+CREATE TABLE IF NOT EXISTS ApuestaSeleccion (
+    idSeleccion VARCHAR(50) PRIMARY KEY,
+    apuesta_id VARCHAR(50) NOT NULL,
+    participante_id VARCHAR(50) NOT NULL,
+    ordenSeleccion INT NOT NULL,
+    FOREIGN KEY (apuesta_id) REFERENCES Apuesta (idApuesta) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_seleccion_apuesta ON ApuestaSeleccion (apuesta_id);
@@ -0,0 +1,169 @@
+-- Esquema de sistema_hipica para la base de datos en memoria (H2 en modo MySQL).
+-- Refleja las columnas que leen y escriben los DAOs; lo usa BaseDatosMemoria para crear una base
+-- nueva por prueba o benchmark. Es idempotente, de modo que puede ejecutarse más de una vez.
+
+-- Funciones de MySQL que los DAOs usan y H2 no tiene
+CREATE ALIAS IF NOT EXISTS SHA2 DETERMINISTIC FOR 'mx.uv.feaa.util.BaseDatosMemoria.sha2';
+CREATE ALIAS IF NOT EXISTS SEC_TO_TIME DETERMINISTIC FOR 'mx.uv.feaa.util.BaseDatosMemoria.secToTime';
+CREATE ALIAS IF NOT EXISTS TIME_TO_SEC DETERMINISTIC FOR 'mx.uv.feaa.util.BaseDatosMemoria.timeToSec';
+
+CREATE TABLE IF NOT EXISTS Usuario (
+    idUsuario VARCHAR(50) PRIMARY KEY,
+    nombreUsuario VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    tipoUsuario VARCHAR(20) NOT NULL,
+    fechaRegistro TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ultimoAcceso TIMESTAMP NULL
+);
+
+CREATE TABLE IF NOT EXISTS Criador (
+    idUsuario VARCHAR(50) PRIMARY KEY,
+    licenciaCriador VARCHAR(50) NOT NULL,
+    fechaVigenciaLicencia DATE,
+    direccion VARCHAR(200),
+    telefono VARCHAR(20),
+    nombreHaras VARCHAR(100),
+    FOREIGN KEY (idUsuario) REFERENCES Usuario (idUsuario) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS Apostador (
+    idUsuario VARCHAR(50) PRIMARY KEY,
+    saldo DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    limiteApuesta DECIMAL(12, 2) NOT NULL DEFAULT 1000,
+    nombre VARCHAR(100),
+    telefono VARCHAR(20),
+    FOREIGN KEY (idUsuario) REFERENCES Usuario (idUsuario) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS Caballo (
+    idCaballo VARCHAR(50) PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    fechaNacimiento DATE,
+    sexo VARCHAR(10),
+    peso DOUBLE,
+    pedigri VARCHAR(255),
+    ultimaCarrera DATE,
+    criador_id VARCHAR(50),
+    FOREIGN KEY (criador_id) REFERENCES Criador (idUsuario)
+);
+CREATE INDEX IF NOT EXISTS idx_caballo_criador ON Caballo (criador_id);
+
+CREATE TABLE IF NOT EXISTS Jinete (
+    idJinete VARCHAR(50) PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    fechaNacimiento DATE,
+    peso DOUBLE,
+    licencia VARCHAR(50),
+    fechaVigenciaLicencia DATE
+);
+
+CREATE TABLE IF NOT EXISTS Carrera (
+    idCarrera VARCHAR(50) PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    fecha DATE NOT NULL,
+    hora TIME,
+    distancia VARCHAR(20),
+    estado VARCHAR(30) NOT NULL,
+    minimoParticipantes INT,
+    maximoParticipantes INT
+);
+CREATE INDEX IF NOT EXISTS idx_carrera_estado_fecha ON Carrera (estado, fecha);
+
+CREATE TABLE IF NOT EXISTS Participante (
+    idParticipante VARCHAR(50) PRIMARY KEY,
+    carrera_id VARCHAR(50) NOT NULL,
+    numeroCompetidor INT NOT NULL,
+    pesoAsignado DOUBLE,
+    caballo_id VARCHAR(50),
+    jinete_id VARCHAR(50),
+    estado VARCHAR(30),
+    FOREIGN KEY (carrera_id) REFERENCES Carrera (idCarrera),
+    FOREIGN KEY (caballo_id) REFERENCES Caballo (idCaballo),
+    FOREIGN KEY (jinete_id) REFERENCES Jinete (idJinete)
+);
+CREATE INDEX IF NOT EXISTS idx_participante_carrera ON Participante (carrera_id);
+
+CREATE TABLE IF NOT EXISTS Resultado (
+    idResultado VARCHAR(50) PRIMARY KEY,
+    carrera_id VARCHAR(50) NOT NULL UNIQUE,
+    fechaRegistro DATE,
+    FOREIGN KEY (carrera_id) REFERENCES Carrera (idCarrera)
+);
+
+CREATE TABLE IF NOT EXISTS ResultadoDetalle (
+    idDetalle VARCHAR(50) PRIMARY KEY,
+    resultado_id VARCHAR(50) NOT NULL,
+    participante_id VARCHAR(50) NOT NULL,
+    posicion INT NOT NULL,
+    tiempoOficial TIME(3),
+    FOREIGN KEY (resultado_id) REFERENCES Resultado (idResultado) ON DELETE CASCADE,
+    FOREIGN KEY (participante_id) REFERENCES Participante (idParticipante)
+);
+CREATE INDEX IF NOT EXISTS idx_detalle_resultado ON ResultadoDetalle (resultado_id);
+
+CREATE TABLE IF NOT EXISTS HistorialCarrera (
+    idHistorial VARCHAR(50) PRIMARY KEY,
+    carrera_id VARCHAR(50),
+    caballo_id VARCHAR(50),
+    jinete_id VARCHAR(50),
+    posicion INT,
+    tiempo TIME(3),
+    fecha DATE,
+    hipodromo VARCHAR(100)
+);
+CREATE INDEX IF NOT EXISTS idx_historial_caballo ON HistorialCarrera (caballo_id);
+CREATE INDEX IF NOT EXISTS idx_historial_jinete ON HistorialCarrera (jinete_id);
+
+CREATE TABLE IF NOT EXISTS Apuesta (
+    idApuesta VARCHAR(50) PRIMARY KEY,
+    apostador_id VARCHAR(50) NOT NULL,
+    carrera_id VARCHAR(50) NOT NULL,
+    tipoApuesta VARCHAR(20) NOT NULL,
+    montoApostado DECIMAL(12, 2) NOT NULL,
+    fechaApuesta TIMESTAMP NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    cuotaAplicada DOUBLE,
+    montoGanado DECIMAL(12, 2) DEFAULT 0,
+    FOREIGN KEY (apostador_id) REFERENCES Apostador (idUsuario),
+    FOREIGN KEY (carrera_id) REFERENCES Carrera (idCarrera)
+);
+CREATE INDEX IF NOT EXISTS idx_apuesta_apostador ON Apuesta (apostador_id);
+CREATE INDEX IF NOT EXISTS idx_apuesta_carrera ON Apuesta (carrera_id);
+CREATE INDEX IF NOT EXISTS idx_apuesta_estado ON Apuesta (estado);
+
+CREATE TABLE IF NOT EXISTS ApuestaSeleccion (
+    idSeleccion VARCHAR(50) PRIMARY KEY,
+    apuesta_id VARCHAR(50) NOT NULL,
+    participante_id VARCHAR(50) NOT NULL,
+    ordenSeleccion INT NOT NULL,
+    FOREIGN KEY (apuesta_id) REFERENCES Apuesta (idApuesta) ON DELETE CASCADE,
+    FOREIGN KEY (participante_id) REFERENCES Participante (idParticipante)
+);
+CREATE INDEX IF NOT EXISTS idx_seleccion_apuesta ON ApuestaSeleccion (apuesta_id);
+
+CREATE TABLE IF NOT EXISTS EstadisticasRendimiento (
+    idEstadistica VARCHAR(50) PRIMARY KEY,
+    caballo_id VARCHAR(50),
+    jinete_id VARCHAR(50),
+    totalCarreras INT NOT NULL DEFAULT 0,
+    victorias INT NOT NULL DEFAULT 0,
+    colocaciones INT NOT NULL DEFAULT 0,
+    promedioTiempo TIME(3),
+    porcentajeVictorias DOUBLE NOT NULL DEFAULT 0,
+    carrerasConTiempo INT NOT NULL DEFAULT 0,
+    sumaTiempoMs BIGINT NOT NULL DEFAULT 0
+);
+-- Un registro por entidad: la columna de la otra entidad queda en NULL, que no choca en un índice
+-- único, así que cada columna lleva el suyo en lugar de uno compuesto
+CREATE UNIQUE INDEX IF NOT EXISTS uk_estadisticas_caballo ON EstadisticasRendimiento (caballo_id);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_estadisticas_jinete ON EstadisticasRendimiento (jinete_id);
+
+CREATE TABLE IF NOT EXISTS Rating (
+    idEntidad VARCHAR(50) PRIMARY KEY,
+    tipoEntidad VARCHAR(20) NOT NULL,
+    valor DOUBLE NOT NULL,
+    carreras INT NOT NULL DEFAULT 0,
+    fechaActualizacion DATE
+);
@@ -0,0 +1,51 @@
+-- Migración de sistema_hipica en MySQL para las estadísticas incrementales.
+-- EstadisticasRendimientoDAO.aplicarIncrementos suma cada resultado con
+-- INSERT ... ON DUPLICATE KEY UPDATE: necesita la suma exacta de tiempos y una clave única por
+-- entidad. Se ejecuta una sola vez, con la aplicación detenida, sobre una base anterior a estas columnas.
+
+ALTER TABLE EstadisticasRendimiento
+    MODIFY promedioTiempo TIME(3) NULL,
+    ADD COLUMN carrerasConTiempo INT NOT NULL DEFAULT 0,
+    ADD COLUMN sumaTiempoMs BIGINT NOT NULL DEFAULT 0;
+
+-- Las estadísticas anteriores solo guardaban el promedio; se toma como si todas sus carreras
+-- tuvieran tiempo, que es lo que suponía el cálculo anterior
+UPDATE EstadisticasRendimiento
+SET carrerasConTiempo = totalCarreras,
+    sumaTiempoMs = (TIME_TO_SEC(promedioTiempo) * 1000 + MICROSECOND(promedioTiempo) DIV 1000) * totalCarreras
+WHERE promedioTiempo IS NOT NULL;
+
+-- Los resultados concurrentes de una entidad nueva podían crear registros duplicados: se suman
+-- en el de menor identificador y se eliminan los demás antes de crear las claves únicas
+CREATE TEMPORARY TABLE EstadisticasDuplicadas AS
+SELECT caballo_id, jinete_id, MIN(idEstadistica) AS conservar,
+       SUM(totalCarreras) AS totalCarreras, SUM(victorias) AS victorias,
+       SUM(colocaciones) AS colocaciones, SUM(carrerasConTiempo) AS carrerasConTiempo,
+       SUM(sumaTiempoMs) AS sumaTiempoMs
+FROM EstadisticasRendimiento
+GROUP BY caballo_id, jinete_id
+HAVING COUNT(*) > 1;
+
+UPDATE EstadisticasRendimiento e
+JOIN EstadisticasDuplicadas d ON e.idEstadistica = d.conservar
+SET e.totalCarreras = d.totalCarreras,
+    e.victorias = d.victorias,
+    e.colocaciones = d.colocaciones,
+    e.carrerasConTiempo = d.carrerasConTiempo,
+    e.sumaTiempoMs = d.sumaTiempoMs,
+    e.promedioTiempo = CASE WHEN d.carrerasConTiempo = 0 THEN NULL
+                       ELSE SEC_TO_TIME(d.sumaTiempoMs / 1000.0 / d.carrerasConTiempo) END,
+    e.porcentajeVictorias = CASE WHEN d.totalCarreras = 0 THEN 0
+                            ELSE d.victorias * 100.0 / d.totalCarreras END;
+
+DELETE e FROM EstadisticasRendimiento e
+JOIN EstadisticasDuplicadas d
+  ON e.caballo_id <=> d.caballo_id AND e.jinete_id <=> d.jinete_id AND e.idEstadistica <> d.conservar;
+
+DROP TEMPORARY TABLE EstadisticasDuplicadas;
+
+-- Un registro por entidad. La columna de la otra entidad queda en NULL, que no choca en un índice
+-- único, así que cada columna lleva su propia clave en lugar de una compuesta
+ALTER TABLE EstadisticasRendimiento
+    ADD UNIQUE KEY uk_estadisticas_caballo (caballo_id),
+    ADD UNIQUE KEY uk_estadisticas_jinete (jinete_id);
@@ -0,0 +1,11 @@
+-- Tabla de ratings de sistema_hipica en MySQL, usada por RatingDAO.
+-- Un registro por caballo o jinete; RatingService la llena al registrar resultados y la reemplaza
+-- completa al reproducir el historial. Puede ejecutarse más de una vez.
+
+CREATE TABLE IF NOT EXISTS Rating (
+    idEntidad VARCHAR(50) NOT NULL PRIMARY KEY,
+    tipoEntidad VARCHAR(20) NOT NULL,
+    valor DOUBLE NOT NULL,
+    carreras INT NOT NULL DEFAULT 0,
+    fechaActualizacion DATE NULL
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,32 @@
+-- Migración opcional de Apuesta y ApuestaSeleccion a claves BINARY(16), para
+-- jdbc.apuestas.idsBinarios=true (FormatoClave.BINARIO): 16 bytes por clave en lugar de hasta 50
+-- caracteres, también en cada índice secundario, que repite la clave primaria.
+-- Se ejecuta con la aplicación detenida, en la base principal o en cada fragmento de apuestas.
+-- Todas las claves deben ser UUID de 36 caracteres (-Dhipica.ids=ordenado o aleatorio); cualquier
+-- otra, como las APU-n de GeneradorDatos, hace fallar la conversión y deja la tabla sin cambiar.
+
+-- Los tipos de una clave foránea no pueden cambiar mientras exista; su nombre lo eligió MySQL
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+           WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'ApuestaSeleccion'
+             AND COLUMN_NAME = 'apuesta_id' AND REFERENCED_TABLE_NAME = 'Apuesta');
+SET @sql = CONCAT('ALTER TABLE ApuestaSeleccion DROP FOREIGN KEY ', @fk);
+PREPARE soltar FROM @sql;
+EXECUTE soltar;
+DEALLOCATE PREPARE soltar;
+
+-- Primero como bytes del texto, que se pueden reescribir en su lugar con los 16 del UUID
+ALTER TABLE Apuesta MODIFY idApuesta VARBINARY(50) NOT NULL;
+ALTER TABLE ApuestaSeleccion
+    MODIFY idSeleccion VARBINARY(50) NOT NULL,
+    MODIFY apuesta_id VARBINARY(50) NOT NULL;
+
+UPDATE Apuesta SET idApuesta = UNHEX(REPLACE(idApuesta, '-', ''));
+UPDATE ApuestaSeleccion
+SET idSeleccion = UNHEX(REPLACE(idSeleccion, '-', '')),
+    apuesta_id = UNHEX(REPLACE(apuesta_id, '-', ''));
+
+ALTER TABLE Apuesta MODIFY idApuesta BINARY(16) NOT NULL;
+ALTER TABLE ApuestaSeleccion
+    MODIFY idSeleccion BINARY(16) NOT NULL,
+    MODIFY apuesta_id BINARY(16) NOT NULL,
+    ADD CONSTRAINT fk_seleccion_apuesta FOREIGN KEY (apuesta_id) REFERENCES Apuesta (idApuesta) ON DELETE CASCADE;
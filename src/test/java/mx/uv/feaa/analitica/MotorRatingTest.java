@@ -0,0 +1,90 @@
+package mx.uv.feaa.analitica;
+
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba los ajustes de {@link MotorRating} al registrar carreras.
+ */
+class MotorRatingTest {
+    private static final LocalDate FECHA = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void dueloEntreIgualesMueveLaMitadDeK() {
+        MotorRating motor = new MotorRating();
+        List<Rating> modificados = motor.registrar(List.of(
+                llegada("CAR-1", "CAB-A", "JIN-A", 1),
+                llegada("CAR-1", "CAB-B", "JIN-B", 2)));
+
+        // Esperado 0.5 para cada uno; con K provisional de 40 el ganador suma 20 y el otro los pierde
+        assertEquals(1520.0, motor.ratingCaballo("CAB-A"), 1e-9);
+        assertEquals(1520.0, motor.ratingJinete("JIN-A"), 1e-9);
+        assertEquals(1480.0, motor.ratingCaballo("CAB-B"), 1e-9);
+        assertEquals(1480.0, motor.ratingJinete("JIN-B"), 1e-9);
+        assertEquals(4, modificados.size());
+        assertTrue(modificados.stream().allMatch(r -> r.getCarreras() == 1 && FECHA.equals(r.getFechaActualizacion())));
+    }
+
+    @Test
+    void losAjustesDeUnaCarreraSumanCero() {
+        double[] ratings = {1650, 1500, 1420, 1580, 1500};
+        int[] posiciones = {3, 1, 5, 2, 0};
+        double suma = 0;
+        for (double puntuacion : MotorRating.puntuaciones(ratings, posiciones)) {
+            suma += puntuacion;
+        }
+        assertEquals(0.0, suma, 1e-12);
+    }
+
+    @Test
+    void ganarSiendoInferiorSumaMasQueSiendoFavorito() {
+        double sorpresa = MotorRating.puntuaciones(new double[]{1400, 1600}, new int[]{1, 2})[0];
+        double previsto = MotorRating.puntuaciones(new double[]{1600, 1400}, new int[]{1, 2})[0];
+        assertTrue(sorpresa > previsto);
+        assertEquals(1.0, MotorRating.esperado(1600, 1400) + MotorRating.esperado(1400, 1600), 1e-12);
+    }
+
+    @Test
+    void kBajaTrasLasCarrerasProvisionales() {
+        MotorRating motor = new MotorRating();
+        List<HistorialCarrera> historial = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Alternan para que los dos sigan cerca de 1500
+            historial.add(llegada("CAR-" + i, "CAB-A", "JIN-A", i % 2 == 0 ? 1 : 2));
+            historial.add(llegada("CAR-" + i, "CAB-B", "JIN-B", i % 2 == 0 ? 2 : 1));
+        }
+        motor.registrar(historial);
+        // Caballo y jinete reciben siempre el mismo ajuste, así que el rating del equipo es el del caballo
+        double a = motor.ratingCaballo("CAB-A");
+        double b = motor.ratingCaballo("CAB-B");
+
+        motor.registrar(List.of(llegada("CAR-10", "CAB-A", "JIN-A", 1), llegada("CAR-10", "CAB-B", "JIN-B", 2)));
+
+        // Con 10 carreras el factor ya es el estable, 20
+        assertEquals(a + 20.0 * (1 - MotorRating.esperado(a, b)), motor.ratingCaballo("CAB-A"), 1e-9);
+        assertEquals(b - 20.0 * (1 - MotorRating.esperado(a, b)), motor.ratingCaballo("CAB-B"), 1e-9);
+    }
+
+    @Test
+    void laCopiaNoComparteRatings() {
+        MotorRating motor = new MotorRating(List.of(new Rating("CAB-A", MotorRating.CABALLO, 1600, 12, FECHA)));
+        MotorRating copia = motor.copia();
+        copia.registrar(List.of(llegada("CAR-1", "CAB-A", "JIN-A", 2), llegada("CAR-1", "CAB-B", "JIN-B", 1)));
+
+        assertEquals(1600.0, motor.ratingCaballo("CAB-A"), 1e-9);
+        assertTrue(copia.ratingCaballo("CAB-A") < 1600.0);
+        assertEquals(Rating.VALOR_INICIAL, motor.ratingCaballo("CAB-B"), 1e-9);
+    }
+
+    private static HistorialCarrera llegada(String carrera, String caballo, String jinete, int posicion) {
+        return new HistorialCarrera(carrera, caballo, jinete, posicion, null, FECHA, "HIP-1");
+    }
+}
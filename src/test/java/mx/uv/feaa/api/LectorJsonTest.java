@@ -0,0 +1,92 @@
+package mx.uv.feaa.api;
+
+import mx.uv.feaa.api.LectorJson.Evento;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba los eventos de {@link LectorJson}, su lectura por bloques y el rechazo de JSON mal formado.
+ */
+class LectorJsonTest {
+
+    @Test
+    void recorreUnDocumentoAnidado() throws IOException {
+        LectorJson json = lector("{\"id\": 7, \"datos\": [true, null, \"x\", {}], \"monto\": -2.5e1}", 8192);
+        List<String> eventos = new ArrayList<>();
+        Evento evento;
+        while ((evento = json.siguiente()) != Evento.FIN) {
+            eventos.add(evento == Evento.NOMBRE || evento == Evento.TEXTO || evento == Evento.NUMERO
+                    ? evento + ":" + json.getTexto() : evento.name());
+        }
+        assertEquals(List.of("INICIO_OBJETO", "NOMBRE:id", "NUMERO:7", "NOMBRE:datos", "INICIO_ARREGLO",
+                "BOOLEANO", "NULO", "TEXTO:x", "INICIO_OBJETO", "FIN_OBJETO", "FIN_ARREGLO",
+                "NOMBRE:monto", "NUMERO:-2.5e1", "FIN_OBJETO"), eventos);
+    }
+
+    @Test
+    void leeValoresTipados() throws IOException {
+        LectorJson json = lector("[42, 1.5, false]", 8192);
+        json.siguiente();
+        json.siguiente();
+        assertEquals(42, json.getEntero());
+        json.siguiente();
+        assertEquals(1.5, json.getNumero());
+        assertThrows(IOException.class, json::getEntero);
+        json.siguiente();
+        assertFalse(json.getBooleano());
+    }
+
+    @Test
+    void decodificaEscapesYUtf8EntreBloques() throws IOException {
+        // Un búfer de 3 bytes parte los caracteres de varios bytes y los escapes
+        LectorJson json = lector("[\"ñandú \\\"\\u00e9\\\" \\ud83d\\ude00 🐎\\n\"]", 3);
+        json.siguiente();
+        assertEquals(Evento.TEXTO, json.siguiente());
+        assertEquals("ñandú \"é\" 😀 🐎\n", json.getTexto());
+        assertEquals(Evento.FIN_ARREGLO, json.siguiente());
+        assertEquals(Evento.FIN, json.siguiente());
+    }
+
+    @Test
+    void saltaValoresCompuestos() throws IOException {
+        LectorJson json = lector("{\"ignorar\": {\"a\": [1, [2, {\"b\": 3}]]}, \"saldo\": 10}", 8192);
+        json.siguiente();
+        assertEquals(Evento.NOMBRE, json.siguiente());
+        json.saltarValor();
+        assertEquals(Evento.NOMBRE, json.siguiente());
+        assertEquals("saldo", json.getTexto());
+        json.siguiente();
+        assertEquals(10, json.getEntero());
+        assertEquals(Evento.FIN_OBJETO, json.siguiente());
+    }
+
+    @Test
+    void rechazaJsonMalFormado() {
+        for (String invalido : new String[]{"{\"a\": 1,}", "[1,]", "[1 2]", "{\"a\" 1}", "[1] x", "]",
+                "{\"a\": tru}", "[\"sin cerrar", "{\"a\": [1}", "-"}) {
+            IOException error = assertThrows(IOException.class, () -> recorrer(invalido), invalido);
+            assertTrue(error.getMessage().startsWith("JSON inválido en el byte "), error.getMessage());
+        }
+    }
+
+    private static void recorrer(String texto) throws IOException {
+        LectorJson json = lector(texto, 8192);
+        while (json.siguiente() != Evento.FIN) {
+            // Solo se comprueba la sintaxis
+        }
+    }
+
+    private static LectorJson lector(String texto, int tamanoBufer) {
+        return new LectorJson(new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)), tamanoBufer);
+    }
+}
@@ -0,0 +1,36 @@
+package mx.uv.feaa.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Comprueba qué parámetros oculta {@link TrazadorSQL} al registrar una sentencia lenta. El arreglo
+ * se indexa desde 1, como los parámetros JDBC.
+ */
+class TrazadorSQLTest {
+
+    @Test
+    void ocultaLaContrasenaPorLaListaDeColumnasDelInsert() {
+        assertArrayEquals(new boolean[]{false, false, false, false, true, false, false},
+                TrazadorSQL.parametrosOcultos("INSERT INTO Usuario (idUsuario, nombreUsuario, email, password, activo, "
+                        + "tipoUsuario) VALUES (?, ?, ?, SHA2(?, 256), ?, ?)"));
+    }
+
+    @Test
+    void ocultaLaContrasenaAsignadaOComparada() {
+        assertArrayEquals(new boolean[]{false, false, false, true, false, false},
+                TrazadorSQL.parametrosOcultos("UPDATE Usuario SET nombreUsuario = ?, email = ?, password = ?, "
+                        + "activo = ? WHERE idUsuario = ?"));
+        assertArrayEquals(new boolean[]{false, false, true},
+                TrazadorSQL.parametrosOcultos("SELECT * FROM Usuario WHERE nombreUsuario = ? "
+                        + "AND password = SHA2(?, 256) AND activo = true"));
+    }
+
+    @Test
+    void noOcultaNadaSinColumnaDeContrasena() {
+        assertArrayEquals(new boolean[]{false, false, false},
+                TrazadorSQL.parametrosOcultos("SELECT * FROM Apuesta WHERE apostador_id = ? AND estado = ?"));
+        assertArrayEquals(new boolean[]{false}, TrazadorSQL.parametrosOcultos("SELECT COUNT(*) FROM Carrera"));
+    }
+}
@@ -0,0 +1,124 @@
+package mx.uv.feaa.model.dao;
+
+import mx.uv.feaa.carga.DestinoJdbc;
+import mx.uv.feaa.carga.GeneradorDatos;
+import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.model.entidades.Apuesta;
+import mx.uv.feaa.model.entidades.ApuestaGanador;
+import mx.uv.feaa.model.entidades.ApuestaSeleccion;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.ConexionBD;
+import mx.uv.feaa.util.FormatoClave;
+import mx.uv.feaa.util.FragmentosConexiones;
+import mx.uv.feaa.util.PoolConexiones;
+import mx.uv.feaa.util.UuidOrdenado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba los DAOs de apuestas sobre un fragmento con las claves en {@code BINARY(16)}
+ * ({@link FormatoClave#BINARIO}), con las carreras en su propia base.
+ */
+class ApuestaClavesBinariasTest {
+    private BaseDatosMemoria principal;
+    private BaseDatosMemoria binaria;
+    private PoolConexiones carreras;
+    private PoolConexiones apuestas;
+    private ApuestaDAO apuestaDAO;
+    private ApuestaSeleccionDAO seleccionDAO;
+    private String carrera;
+    private String participante;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        principal = BaseDatosMemoria.crear();
+        carreras = new PoolConexiones(principal, 4, 5000);
+        GeneradorDatos generador = new GeneradorDatos(7L, 0.002, 4, LocalDate.of(2026, 1, 1));
+        try (DestinoJdbc destino = new DestinoJdbc(carreras)) {
+            generador.generar(destino);
+        }
+        carrera = "CAR-" + (generador.getTotalCarreras() - 1);
+        participante = "PAR-" + (generador.getTotalCarreras() - 1) + "-0";
+
+        binaria = BaseDatosMemoria.crear(ConexionBD.ESQUEMA_APUESTAS_BINARIO);
+        apuestas = new PoolConexiones(binaria, 4, 5000);
+        FragmentosConexiones fragmentos = FragmentosConexiones.unico(apuestas, FormatoClave.BINARIO);
+        apuestaDAO = new ApuestaDAO(fragmentos, carreras);
+        seleccionDAO = new ApuestaSeleccionDAO(fragmentos);
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        apuestas.cerrar();
+        binaria.close();
+        carreras.cerrar();
+        principal.close();
+    }
+
+    @Test
+    void guardaYLeeLasClavesComoUuid() throws SQLException {
+        UUID idApuesta = UuidOrdenado.siguiente();
+        String idSeleccion = UuidOrdenado.siguiente().toString();
+        Apuesta apuesta = new ApuestaGanador(idApuesta.toString(), "USR-A0", carrera, TipoApuesta.GANADOR, 10);
+        assertTrue(apuestaDAO.saveWithSelections(apuesta,
+                List.of(new ApuestaSeleccion(idSeleccion, idApuesta.toString(), participante, 1))));
+
+        assertEquals(idApuesta.toString(), apuestaDAO.getById(idApuesta.toString()).orElseThrow().getId());
+        assertTrue(apuestaDAO.getByCarreraId(carrera).stream().anyMatch(a -> a.getId().equals(idApuesta.toString())));
+        ApuestaSeleccion seleccion = seleccionDAO.getByApuestaId(idApuesta.toString()).get(0);
+        assertEquals(idSeleccion, seleccion.getIdSeleccion());
+        assertEquals(idApuesta.toString(), seleccion.getApuestaId());
+
+        // En la columna están los 16 bytes del UUID, no su texto
+        try (Connection conn = apuestas.getConnection("prueba");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT idApuesta FROM Apuesta")) {
+            assertTrue(rs.next());
+            assertArrayEquals(UuidOrdenado.aBinario(idApuesta), rs.getBytes(1));
+        }
+
+        assertTrue(apuestaDAO.delete(idApuesta.toString()));
+        assertTrue(apuestaDAO.getById(idApuesta.toString()).isEmpty());
+        assertTrue(seleccionDAO.getByApuestaId(idApuesta.toString()).isEmpty());
+    }
+
+    @Test
+    void aceptaLaFormaCompacta() throws SQLException {
+        UUID idApuesta = UuidOrdenado.siguiente();
+        Apuesta apuesta = new ApuestaGanador(UuidOrdenado.compacto(idApuesta), "USR-A0", carrera, TipoApuesta.GANADOR, 10);
+        assertTrue(apuestaDAO.save(apuesta));
+
+        // Se lee en la forma de -Dhipica.ids, canónica por omisión
+        assertEquals(idApuesta.toString(), apuestaDAO.getById(idApuesta.toString()).orElseThrow().getId());
+    }
+
+    @Test
+    void rechazaClavesQueNoSonUuid() {
+        Apuesta apuesta = new ApuestaGanador("APU-PRUEBA", "USR-A0", carrera, TipoApuesta.GANADOR, 10);
+        assertThrows(SQLException.class, () -> apuestaDAO.save(apuesta));
+    }
+
+    @Test
+    void elBinarioConservaElValorYElOrden() {
+        UUID anterior = UuidOrdenado.siguiente();
+        UUID siguiente = UuidOrdenado.siguiente();
+        assertEquals(anterior, UuidOrdenado.deBinario(UuidOrdenado.aBinario(anterior)));
+        assertTrue(Arrays.compareUnsigned(UuidOrdenado.aBinario(anterior), UuidOrdenado.aBinario(siguiente)) < 0);
+        assertThrows(IllegalArgumentException.class, () -> UuidOrdenado.deBinario(new byte[15]));
+    }
+}
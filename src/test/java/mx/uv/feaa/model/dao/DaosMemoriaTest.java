@@ -0,0 +1,167 @@
+package mx.uv.feaa.model.dao;
+
+import mx.uv.feaa.carga.DestinoJdbc;
+import mx.uv.feaa.carga.GeneradorDatos;
+import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.enumeracion.SexoCaballo;
+import mx.uv.feaa.enumeracion.TipoApuesta;
+import mx.uv.feaa.model.entidades.Apuesta;
+import mx.uv.feaa.model.entidades.ApuestaGanador;
+import mx.uv.feaa.model.entidades.ApuestaSeleccion;
+import mx.uv.feaa.model.entidades.Caballo;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.EstadisticasRendimiento;
+import mx.uv.feaa.model.entidades.Rating;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.PoolConexiones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de humo de los DAOs contra una {@link BaseDatosMemoria} llenada con {@link GeneradorDatos}:
+ * cada DAO se construye con su propio pool y recorre el SQL que enviaría a MySQL. Cada prueba tiene
+ * su propia base, así que no depende de lo que escribieron las demás ni del orden en que corren.
+ */
+class DaosMemoriaTest {
+    private BaseDatosMemoria base;
+    private PoolConexiones pool;
+    private GeneradorDatos generador;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        base = BaseDatosMemoria.crear();
+        pool = new PoolConexiones(base, 4, 5000);
+        generador = new GeneradorDatos(7L, 0.002, 4, LocalDate.of(2026, 1, 1));
+        try (DestinoJdbc destino = new DestinoJdbc(pool)) {
+            generador.generar(destino);
+        }
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        pool.cerrar();
+        base.close();
+    }
+
+    @Test
+    void usuarioValidaCredenciales() throws SQLException {
+        UsuarioDAO dao = new UsuarioDAO(pool);
+        assertTrue(dao.validarCredenciales("carga1", GeneradorDatos.PASSWORD_CARGA));
+        assertFalse(dao.validarCredenciales("carga1", "incorrecta"));
+        assertFalse(dao.validarCredenciales("no-existe", GeneradorDatos.PASSWORD_CARGA));
+        assertTrue(dao.buscarPorNombreUsuario("carga1").isPresent());
+    }
+
+    @Test
+    void caballoGuardaActualizaYElimina() throws SQLException {
+        CaballoDAO dao = new CaballoDAO(pool);
+        Caballo caballo = new Caballo();
+        caballo.setIdCaballo("CAB-PRUEBA");
+        caballo.setNombre("Relámpago");
+        caballo.setFechaNacimiento(LocalDate.of(2020, 3, 1));
+        caballo.setSexo(SexoCaballo.MACHO);
+        caballo.setPeso(480);
+        caballo.setCriadorId("USR-C0");
+        assertTrue(dao.save(caballo));
+
+        caballo.setNombre("Relámpago II");
+        assertTrue(dao.update(caballo));
+        Optional<Caballo> leido = dao.getById("CAB-PRUEBA");
+        assertTrue(leido.isPresent());
+        assertEquals("Relámpago II", leido.get().getNombre());
+        assertTrue(dao.getByCriador("USR-C0").stream().anyMatch(c -> c.getIdCaballo().equals("CAB-PRUEBA")));
+
+        assertTrue(dao.delete("CAB-PRUEBA"));
+        assertTrue(dao.getById("CAB-PRUEBA").isEmpty());
+    }
+
+    @Test
+    void apuestaSeGuardaEnCarreraAbierta() throws SQLException {
+        ApuestaDAO dao = new ApuestaDAO(pool);
+        // Las carreras con apuestas abiertas son las de los últimos días generados
+        String carrera = "CAR-" + (generador.getTotalCarreras() - 1);
+        Apuesta apuesta = new ApuestaGanador("APU-PRUEBA", "USR-A0", carrera, TipoApuesta.GANADOR, 10);
+        assertTrue(dao.saveWithSelections(apuesta,
+                List.of(new ApuestaSeleccion("SEL-PRUEBA", "APU-PRUEBA", "PAR-" + (generador.getTotalCarreras() - 1) + "-0", 1))));
+        assertTrue(dao.getByCarreraId(carrera).stream().anyMatch(a -> a.getId().equals("APU-PRUEBA")));
+        assertTrue(dao.getByApostadorId("USR-A0").stream().anyMatch(a -> a.getId().equals("APU-PRUEBA")));
+    }
+
+    @Test
+    void carreraNotificaSusEscriturasConfirmadas() throws SQLException {
+        CarreraDAO dao = new CarreraDAO(pool);
+        String id = "CAR-PRUEBA";
+        Carrera carrera = new Carrera(id, "Clásico de prueba", LocalDate.of(2026, 1, 2), LocalTime.of(15, 0), "1200m");
+        carrera.setEstado(EstadoCarrera.APUESTAS_ABIERTAS);
+        List<String> avisos = new ArrayList<>();
+        CarreraDAO.OyenteCambios oyente = (idCarrera, estado) -> avisos.add(idCarrera + ":" + estado.name());
+        CarreraDAO.agregarOyente(oyente);
+        try {
+            assertTrue(dao.save(carrera));
+            dao.cambiarEstado(List.of(id), EstadoCarrera.APUESTAS_ABIERTAS, EstadoCarrera.APUESTAS_CERRADAS);
+            // La carrera ya no está en el estado esperado: no cambia y no se avisa
+            dao.cambiarEstado(List.of(id), EstadoCarrera.APUESTAS_ABIERTAS, EstadoCarrera.APUESTAS_CERRADAS);
+            carrera.setEstado(EstadoCarrera.CANCELADA);
+            dao.update(carrera);
+        } finally {
+            CarreraDAO.quitarOyente(oyente);
+        }
+        assertEquals(List.of(id + ":APUESTAS_ABIERTAS", id + ":APUESTAS_CERRADAS", id + ":CANCELADA"), avisos);
+    }
+
+    @Test
+    void estadisticasAplicanIncrementos() throws SQLException {
+        EstadisticasRendimientoDAO dao = new EstadisticasRendimientoDAO(pool);
+        dao.aplicarIncrementos(List.of(
+                EstadisticasRendimiento.deCarrera("JIN-PRUEBA", "JINETE", 1, LocalTime.of(0, 1, 30, 500_000_000))));
+        dao.aplicarIncrementos(List.of(
+                EstadisticasRendimiento.deCarrera("JIN-PRUEBA", "JINETE", 4, null),
+                EstadisticasRendimiento.deCarrera("JIN-PRUEBA", "JINETE", 2, LocalTime.of(0, 1, 31, 500_000_000))));
+
+        EstadisticasRendimiento estadisticas = dao.getByJineteId("JIN-PRUEBA").orElseThrow();
+        assertEquals(3, estadisticas.getTotalCarreras());
+        assertEquals(1, estadisticas.getVictorias());
+        assertEquals(2, estadisticas.getColocaciones());
+        // El promedio solo cuenta las dos carreras con tiempo
+        assertEquals(LocalTime.of(0, 1, 31), estadisticas.getPromedioTiempo());
+    }
+
+    @Test
+    void estadisticasDeEntidadNuevaNoSeDuplican() throws SQLException {
+        EstadisticasRendimientoDAO dao = new EstadisticasRendimientoDAO(pool);
+        // Dos incrementos de una entidad sin registro en el mismo lote, como dos resultados simultáneos
+        dao.aplicarIncrementos(List.of(
+                EstadisticasRendimiento.deCarrera("CAB-NUEVO", "CABALLO", 1, LocalTime.of(0, 1, 30)),
+                EstadisticasRendimiento.deCarrera("CAB-NUEVO", "CABALLO", 5, LocalTime.of(0, 1, 40))));
+
+        assertEquals(1, dao.getAll().stream().filter(e -> e.getIdEntidad().equals("CAB-NUEVO")).count());
+        EstadisticasRendimiento estadisticas = dao.getByCaballoId("CAB-NUEVO").orElseThrow();
+        assertEquals(2, estadisticas.getTotalCarreras());
+        assertEquals(1, estadisticas.getVictorias());
+        assertEquals(50.0, estadisticas.getPorcentajeVictorias());
+        assertEquals(LocalTime.of(0, 1, 35), estadisticas.getPromedioTiempo());
+    }
+
+    @Test
+    void ratingsSeReemplazanCompletos() throws SQLException {
+        RatingDAO dao = new RatingDAO(pool);
+        dao.upsertAll(List.of(new Rating("CAB-VIEJO", "CABALLO", 1600, 3, LocalDate.of(2026, 1, 1))), 10);
+        dao.reemplazarTodos(List.of(new Rating("CAB-NUEVO", "CABALLO", 1550, 1, LocalDate.of(2026, 1, 2))), 10);
+
+        assertTrue(dao.getById("CAB-VIEJO").isEmpty());
+        assertEquals(1550, dao.getById("CAB-NUEVO").orElseThrow().getValor());
+        assertEquals(1, dao.getAll().size());
+    }
+}
@@ -0,0 +1,104 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.analitica.MotorRating;
+import mx.uv.feaa.model.dao.RatingDAO;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Rating;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.PoolConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que {@link RatingService#registrar} publica el motor actualizado solo si los ratings
+ * llegaron a la base.
+ */
+class RatingServiceTest {
+    private BaseDatosMemoria base;
+    private PoolConexiones pool;
+
+    @BeforeEach
+    void crear() throws SQLException {
+        base = BaseDatosMemoria.crear();
+        pool = new PoolConexiones(base, 2, 5000);
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        pool.cerrar();
+        base.close();
+    }
+
+    @Test
+    void publicaElMotorAlPersistir() throws SQLException {
+        RatingService servicio = new RatingService(pool);
+        MotorRating anterior = servicio.getMotor();
+        servicio.registrar(carrera());
+
+        assertTrue(servicio.getMotor() != anterior);
+        assertEquals(Rating.VALOR_INICIAL, anterior.ratingCaballo("CAB-1"));
+        assertTrue(servicio.getMotor().ratingCaballo("CAB-1") > Rating.VALOR_INICIAL);
+        assertEquals(servicio.getMotor().ratingCaballo("CAB-1"),
+                new RatingDAO(pool).getById("CAB-1").orElseThrow().getValor());
+    }
+
+    @Test
+    void conservaElMotorSiFallaLaEscritura() throws SQLException {
+        ProveedorConexiones sinEscrituras = operacion -> sinInsert(pool.getConnection(operacion));
+        RatingService servicio = new RatingService(sinEscrituras);
+        MotorRating anterior = servicio.getMotor();
+
+        assertThrows(SQLException.class, () -> servicio.registrar(carrera()));
+
+        assertTrue(servicio.getMotor() == anterior);
+        assertEquals(Rating.VALOR_INICIAL, servicio.getMotor().ratingCaballo("CAB-1"));
+        assertTrue(servicio.getMotor().todos().isEmpty());
+        assertTrue(new RatingDAO(pool).getAll().isEmpty());
+    }
+
+    private static List<HistorialCarrera> carrera() {
+        return List.of(historial("HIS-1", "CAB-1", "JIN-1", 1), historial("HIS-2", "CAB-2", "JIN-2", 2));
+    }
+
+    private static HistorialCarrera historial(String id, String caballo, String jinete, int posicion) {
+        HistorialCarrera historial = new HistorialCarrera();
+        historial.setIdHistorial(id);
+        historial.setCarreraById("CAR-1");
+        historial.setCaballoById(caballo);
+        historial.setJineteById(jinete);
+        historial.setPosicion(posicion);
+        historial.setFecha(LocalDate.of(2026, 1, 1));
+        return historial;
+    }
+
+    /**
+     * Conexión que falla al preparar cualquier {@code INSERT}.
+     */
+    private static Connection sinInsert(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("prepareStatement")
+                            && ((String) argumentos[0]).startsWith("INSERT")) {
+                        throw new SQLException("Falla simulada al escribir los ratings");
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,116 @@
+package mx.uv.feaa.servicios;
+
+import mx.uv.feaa.carga.DestinoJdbc;
+import mx.uv.feaa.carga.GeneradorDatos;
+import mx.uv.feaa.enumeracion.EstadoCarrera;
+import mx.uv.feaa.model.dao.CarreraDAO;
+import mx.uv.feaa.model.dao.EstadisticasRendimientoDAO;
+import mx.uv.feaa.model.dao.HistorialCarreraDAO;
+import mx.uv.feaa.model.dao.ParticipanteDAO;
+import mx.uv.feaa.model.dao.ResultadoDAO;
+import mx.uv.feaa.model.entidades.Carrera;
+import mx.uv.feaa.model.entidades.HistorialCarrera;
+import mx.uv.feaa.model.entidades.Participante;
+import mx.uv.feaa.model.entidades.Resultado;
+import mx.uv.feaa.util.BaseDatosMemoria;
+import mx.uv.feaa.util.PoolConexiones;
+import mx.uv.feaa.util.ProveedorConexiones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que {@link ResultadoService#registrarResultado} escribe el resultado, el historial y
+ * las estadísticas juntos o no escribe ninguno.
+ */
+class ResultadoServiceTest {
+    private BaseDatosMemoria base;
+    private PoolConexiones pool;
+    private Carrera carrera;
+    private Resultado resultado;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        base = BaseDatosMemoria.crear();
+        pool = new PoolConexiones(base, 4, 5000);
+        GeneradorDatos generador = new GeneradorDatos(7L, 0.002, 4, LocalDate.of(2026, 1, 1));
+        try (DestinoJdbc destino = new DestinoJdbc(pool)) {
+            generador.generar(destino);
+        }
+
+        // La última carrera generada aún no tiene resultado; se da por corrida
+        String idCarrera = "CAR-" + (generador.getTotalCarreras() - 1);
+        carrera = new CarreraDAO(pool).getById(idCarrera).orElseThrow();
+        carrera.setParticipantes(new ParticipanteDAO(pool).getByCarreraId(idCarrera));
+        carrera.setEstado(EstadoCarrera.EN_CURSO);
+
+        resultado = new Resultado("RES-PRUEBA", idCarrera);
+        List<Participante> participantes = carrera.getParticipantes();
+        for (int i = 0; i < participantes.size(); i++) {
+            resultado.registrarPosicion(i + 1, participantes.get(i).getIdParticipante(), LocalTime.of(0, 1, 30 + i));
+        }
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        pool.cerrar();
+        base.close();
+    }
+
+    @Test
+    void escribeResultadoHistorialYEstadisticas() throws SQLException {
+        List<HistorialCarrera> historiales = new ResultadoService(pool, null).registrarResultado(carrera, resultado);
+
+        assertEquals(carrera.getParticipantes().size(), historiales.size());
+        assertTrue(new ResultadoDAO(pool).getByCarreraId(carrera.getIdCarrera()).isPresent());
+        String ganador = historiales.get(0).getIdCaballo();
+        assertTrue(new HistorialCarreraDAO(pool).getByCaballoId(ganador).stream()
+                .anyMatch(h -> h.getIdCarrera().equals(carrera.getIdCarrera())));
+        assertEquals(1, new EstadisticasRendimientoDAO(pool).getByCaballoId(ganador).orElseThrow().getVictorias());
+    }
+
+    @Test
+    void noEscribeNadaSiFallanLasEstadisticas() throws SQLException {
+        ProveedorConexiones fallaEnEstadisticas = operacion -> sinEstadisticas(pool.getConnection(operacion));
+        ResultadoService servicio = new ResultadoService(fallaEnEstadisticas, null);
+
+        assertThrows(SQLException.class, () -> servicio.registrarResultado(carrera, resultado));
+
+        assertTrue(new ResultadoDAO(pool).getByCarreraId(carrera.getIdCarrera()).isEmpty());
+        String caballo = carrera.getParticipantes().get(0).getCaballo().getIdCaballo();
+        assertTrue(new HistorialCarreraDAO(pool).getByCaballoId(caballo).stream()
+                .noneMatch(h -> h.getIdCarrera().equals(carrera.getIdCarrera())));
+        assertTrue(new EstadisticasRendimientoDAO(pool).getByCaballoId(caballo).isEmpty());
+    }
+
+    /**
+     * Conexión que falla al preparar cualquier sentencia sobre las estadísticas, la última de las
+     * tres escrituras del resultado.
+     */
+    private static Connection sinEstadisticas(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("prepareStatement")
+                            && ((String) argumentos[0]).contains("EstadisticasRendimiento")) {
+                        throw new SQLException("Falla simulada al escribir las estadísticas");
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
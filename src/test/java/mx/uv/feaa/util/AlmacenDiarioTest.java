@@ -0,0 +1,123 @@
+package mx.uv.feaa.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que {@link AlmacenDiario} recupera su contenido al reabrirse, descarta un final de
+ * diario dañado y compacta al pasar del umbral.
+ */
+class AlmacenDiarioTest {
+    private Path directorio;
+
+    @BeforeEach
+    void crear() throws IOException {
+        directorio = Files.createTempDirectory("almacen-diario");
+    }
+
+    @AfterEach
+    void borrar() throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    @Test
+    void reabreConLasEscriturasConfirmadas() throws IOException {
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(directorio)) {
+            assertTrue(almacen.insertar("a", bytes("uno")));
+            assertFalse(almacen.insertar("a", bytes("otro")));
+            almacen.poner("b", bytes("dos"));
+            assertTrue(almacen.reemplazar("b", bytes("dos bis")));
+            assertFalse(almacen.reemplazar("c", bytes("tres")));
+            almacen.poner("d", bytes("cuatro"));
+            assertTrue(almacen.borrar("d"));
+        }
+
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(directorio)) {
+            assertEquals(2, almacen.size());
+            assertArrayEquals(bytes("uno"), almacen.leer("a"));
+            assertArrayEquals(bytes("dos bis"), almacen.leer("b"));
+            assertNull(almacen.leer("d"));
+        }
+    }
+
+    @Test
+    void descartaUnRegistroIncompletoAlFinal() throws IOException {
+        // Copia del directorio con el almacén abierto: el estado que deja una caída sin close()
+        Path caida = Files.createTempDirectory(directorio, "caida");
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(directorio.resolve("origen"))) {
+            almacen.poner("a", bytes("uno"));
+            almacen.poner("b", bytes("dos"));
+            try (Stream<Path> archivos = Files.list(almacen.getDirectorio())) {
+                for (Path archivo : archivos.toList()) {
+                    Files.copy(archivo, caida.resolve(archivo.getFileName()));
+                }
+            }
+        }
+        try (FileChannel diario = FileChannel.open(caida.resolve("diario.log"), StandardOpenOption.APPEND)) {
+            // Un encabezado que anuncia 50 bytes y solo trae 3
+            diario.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 50, 1, 2, 3}));
+        }
+
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(caida)) {
+            assertEquals(2, almacen.size());
+            assertArrayEquals(bytes("dos"), almacen.leer("b"));
+            // El final dañado se truncó: lo que se escribe después sobrevive a otra reapertura
+            almacen.poner("c", bytes("tres"));
+        }
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(caida)) {
+            assertEquals(3, almacen.size());
+            assertArrayEquals(bytes("tres"), almacen.leer("c"));
+        }
+    }
+
+    @Test
+    void compactaAlPasarDelUmbral() throws IOException {
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(directorio, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                almacen.poner("clave-" + i, bytes("valor " + i + " ".repeat(40)));
+            }
+            for (int i = 0; i < 100; i += 2) {
+                almacen.borrar("clave-" + i);
+            }
+            assertTrue(almacen.getCompactaciones() > 0);
+            assertEquals(50, almacen.size());
+            // Lo que quedó en la instantánea se lee del mapeo
+            assertArrayEquals(bytes("valor 1" + " ".repeat(40)), almacen.leer("clave-1"));
+        }
+
+        try (AlmacenDiario almacen = AlmacenDiario.abrir(directorio, 1024)) {
+            assertEquals(50, almacen.size());
+            assertNull(almacen.leer("clave-0"));
+            assertArrayEquals(bytes("valor 99" + " ".repeat(40)), almacen.leer("clave-99"));
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            // Las instantáneas viejas se borran al compactar
+            assertEquals(1, archivos.filter(a -> a.getFileName().toString().startsWith("instantanea-")).count());
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
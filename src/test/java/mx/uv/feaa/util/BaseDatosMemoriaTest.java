@@ -0,0 +1,74 @@
+package mx.uv.feaa.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que {@link BaseDatosMemoria} se comporta como MySQL en lo que usan los DAOs.
+ */
+class BaseDatosMemoriaTest {
+    private BaseDatosMemoria base;
+    private Connection conexion;
+
+    @BeforeEach
+    void crear() throws SQLException {
+        base = BaseDatosMemoria.crear();
+        conexion = base.abrir();
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        conexion.close();
+        base.close();
+    }
+
+    @Test
+    void timeToSecDevuelveSegundosEnteros() throws SQLException {
+        try (Statement stmt = conexion.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT TIME_TO_SEC(TIME '00:01:30.875')")) {
+            assertTrue(rs.next());
+            assertEquals(90, rs.getLong(1));
+            assertEquals(90.0, rs.getDouble(1));
+        }
+    }
+
+    @Test
+    void igualdadSeguraConNulosEnStatement() throws SQLException {
+        try (Statement stmt = conexion.createStatement()) {
+            assertTrue(stmt.execute("SELECT 1 WHERE NULL <=> NULL"));
+            try (ResultSet rs = stmt.getResultSet()) {
+                assertTrue(rs.next());
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 WHERE 1 <=> NULL")) {
+                assertFalse(rs.next());
+            }
+            assertEquals(0, stmt.executeUpdate("DELETE FROM Rating WHERE idEntidad <=> NULL"));
+        }
+    }
+
+    @Test
+    void forShareEnStatementYEnLote() throws SQLException {
+        try (Statement stmt = conexion.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT idCarrera FROM Carrera FOR SHARE")) {
+                assertFalse(rs.next());
+            }
+            stmt.addBatch("INSERT INTO Rating (idEntidad, tipoEntidad, valor, carreras) VALUES ('CAB-1', 'CABALLO', 1500, 0)");
+            stmt.addBatch("UPDATE Rating SET carreras = 1 WHERE tipoEntidad <=> 'CABALLO'");
+            assertEquals(2, stmt.executeBatch().length);
+            try (ResultSet rs = stmt.executeQuery("SELECT carreras FROM Rating WHERE idEntidad <=> 'CAB-1'")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package mx.uv.feaa.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que la ventana de lectura de las propias escrituras de {@link EnrutadorConexiones}
+ * empieza al confirmar o cerrar la conexión de escritura, no al pedirla.
+ */
+class EnrutadorConexionesTest {
+    private static final long VENTANA_MS = 200;
+
+    private BaseDatosMemoria base;
+    private EnrutadorConexiones enrutador;
+
+    @BeforeEach
+    void crear() throws SQLException {
+        base = BaseDatosMemoria.crear();
+        enrutador = new EnrutadorConexiones(new PoolConexiones(base, 2, 5000),
+                List.of(new PoolConexiones(base, 2, 5000)), VENTANA_MS);
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        enrutador.cerrar();
+        base.close();
+    }
+
+    @Test
+    void escrituraLargaSigueEnElPrimarioAlCerrar() throws Exception {
+        try (EnrutadorConexiones.Ambito ambito = EnrutadorConexiones.sesion("USR-1");
+             Connection escritura = enrutador.getConnection("prueba")) {
+            // La escritura dura más que la ventana
+            Thread.sleep(VENTANA_MS + 100);
+        }
+        leer("USR-1");
+        assertEquals(1, enrutador.getLecturasPegajosas());
+        assertEquals(0, enrutador.getLecturasReplica());
+    }
+
+    @Test
+    void commitMarcaLaEscritura() throws Exception {
+        try (EnrutadorConexiones.Ambito ambito = EnrutadorConexiones.sesion("USR-1");
+             Connection escritura = enrutador.getConnection("prueba")) {
+            escritura.setAutoCommit(false);
+            Thread.sleep(VENTANA_MS + 100);
+            escritura.commit();
+            leer("USR-1");
+            escritura.setAutoCommit(true);
+        }
+        assertEquals(1, enrutador.getLecturasPegajosas());
+    }
+
+    @Test
+    void otraSesionYVentanaVencidaLeenDeLaReplica() throws Exception {
+        try (EnrutadorConexiones.Ambito ambito = EnrutadorConexiones.sesion("USR-1");
+             Connection escritura = enrutador.getConnection("prueba")) {
+            escritura.isValid(1);
+        }
+        leer("USR-2");
+        Thread.sleep(VENTANA_MS + 100);
+        leer("USR-1");
+        assertEquals(0, enrutador.getLecturasPegajosas());
+        assertEquals(2, enrutador.getLecturasReplica());
+    }
+
+    private void leer(String sesion) throws SQLException {
+        try (EnrutadorConexiones.Ambito ambito = EnrutadorConexiones.sesion(sesion);
+             Connection lectura = enrutador.getConnectionLectura("prueba")) {
+            lectura.isValid(1);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package mx.uv.feaa.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba el anillo de {@link FragmentosConexiones}: reparto estable y equilibrado, y que agregar
+ * un fragmento solo le mueve a él una parte de las claves.
+ */
+class FragmentosConexionesTest {
+    private static final int CLAVES = 20_000;
+
+    @Test
+    void elDuenioNoDependeDeLaInstancia() {
+        FragmentosConexiones unos = fragmentos(3);
+        FragmentosConexiones otros = fragmentos(3);
+        for (int i = 0; i < CLAVES; i++) {
+            assertEquals(unos.fragmentoDe("CAR-" + i), otros.fragmentoDe("CAR-" + i));
+        }
+    }
+
+    @Test
+    void unSoloFragmentoRecibeTodo() {
+        FragmentosConexiones unico = FragmentosConexiones.unico(operacion -> null);
+        assertEquals("unico", unico.fragmentoDe("CAR-1"));
+        assertEquals("unico", unico.fragmentoDe(""));
+        assertEquals(FormatoClave.TEXTO, unico.getFormatoClaves());
+    }
+
+    @Test
+    void repartoEquilibrado() {
+        FragmentosConexiones fragmentos = fragmentos(4);
+        Map<String, Integer> cuenta = new LinkedHashMap<>();
+        for (int i = 0; i < CLAVES; i++) {
+            cuenta.merge(fragmentos.fragmentoDe("CAR-" + i), 1, Integer::sum);
+        }
+        assertEquals(4, cuenta.size());
+        // Con 160 nodos virtuales cada uno queda cerca de la cuarta parte
+        for (int claves : cuenta.values()) {
+            assertTrue(claves > CLAVES * 0.18 && claves < CLAVES * 0.32, "reparto " + cuenta);
+        }
+    }
+
+    @Test
+    void agregarUnFragmentoSoloLeMueveClavesAEl() {
+        FragmentosConexiones antes = fragmentos(3);
+        FragmentosConexiones despues = fragmentos(4);
+        int movidas = 0;
+        for (int i = 0; i < CLAVES; i++) {
+            String clave = "CAR-" + i;
+            String nuevo = despues.fragmentoDe(clave);
+            if (!nuevo.equals(antes.fragmentoDe(clave))) {
+                assertEquals("fragmento4", nuevo);
+                movidas++;
+            }
+        }
+        // Se espera la cuarta parte; sin hashing consistente se movería la mayoría
+        assertTrue(movidas > CLAVES * 0.18 && movidas < CLAVES * 0.32, "movidas " + movidas);
+    }
+
+    @Test
+    void reunirConservaElOrdenYSuprimeLasDemasFallas() throws SQLException {
+        FragmentosConexiones fragmentos = fragmentos(3);
+        List<ProveedorConexiones> orden = List.copyOf(fragmentos.getFragmentos().values());
+        assertEquals(List.of(0, 1, 2), fragmentos.reunir(orden::indexOf));
+
+        SQLException falla = assertThrows(SQLException.class, () -> fragmentos.reunir(fragmento -> {
+            if (fragmento != orden.get(1)) {
+                throw new SQLException("falla " + orden.indexOf(fragmento));
+            }
+            return 1;
+        }));
+        assertEquals("falla 0", falla.getMessage());
+        assertEquals(1, falla.getSuppressed().length);
+    }
+
+    private static FragmentosConexiones fragmentos(int numero) {
+        Map<String, ProveedorConexiones> proveedores = new LinkedHashMap<>();
+        for (int i = 1; i <= numero; i++) {
+            // Una lambda que captura su nombre, para que cada fragmento sea un objeto distinto
+            String nombre = "fragmento" + i;
+            proveedores.put(nombre, operacion -> {
+                throw new SQLException("Sin conexiones en " + nombre);
+            });
+        }
+        return new FragmentosConexiones(proveedores);
+    }
+}
@@ -0,0 +1,101 @@
+package mx.uv.feaa.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que {@link ProveedorConexiones#ejecutarTransaccion} deshace el trabajo a medias sin
+ * importar el tipo de excepción.
+ */
+class ProveedorConexionesTest {
+    private BaseDatosMemoria base;
+    private PoolConexiones pool;
+
+    @BeforeEach
+    void crear() throws SQLException {
+        base = BaseDatosMemoria.crear();
+        pool = new PoolConexiones(base, 1, 5000);
+        try (Connection conn = pool.getConnection("prueba");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Rating (idEntidad, tipoEntidad, valor, carreras) VALUES ('CAB-1', 'CABALLO', 1500, 0)");
+        }
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        pool.cerrar();
+        base.close();
+    }
+
+    @Test
+    void confirmaAlTerminarBien() throws SQLException {
+        pool.ejecutarTransaccion("prueba", conn -> insertar(conn, "CAB-2"));
+        assertEquals(2, contar());
+    }
+
+    @Test
+    void deshaceAnteSQLException() throws SQLException {
+        assertThrows(SQLException.class, () -> pool.ejecutarTransaccion("prueba", conn -> {
+            borrarTodos(conn);
+            throw new SQLException("falla a medias");
+        }));
+        assertEquals(1, contar());
+    }
+
+    @Test
+    void deshaceAnteRuntimeException() throws SQLException {
+        IllegalStateException lanzada = assertThrows(IllegalStateException.class,
+                () -> pool.ejecutarTransaccion("prueba", conn -> {
+                    borrarTodos(conn);
+                    insertar(conn, "CAB-2");
+                    insertar(conn, "CAB-3");
+                    throw new IllegalStateException("falla a medias");
+                }));
+        assertEquals("falla a medias", lanzada.getMessage());
+        assertEquals(1, contar());
+        try (Connection conn = pool.getConnection("prueba")) {
+            // La única conexión del pool vuelve en autocommit
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void deshaceAnteError() throws SQLException {
+        assertThrows(AssertionError.class, () -> pool.ejecutarTransaccion("prueba", conn -> {
+            borrarTodos(conn);
+            throw new AssertionError("falla a medias");
+        }));
+        assertEquals(1, contar());
+    }
+
+    private static void insertar(Connection conn, String id) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO Rating (idEntidad, tipoEntidad, valor, carreras) VALUES ('" + id + "', 'CABALLO', 1500, 0)");
+        }
+    }
+
+    private static void borrarTodos(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM Rating");
+        }
+    }
+
+    private int contar() throws SQLException {
+        try (Connection conn = pool.getConnection("prueba");
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Rating")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}